@@ -70,11 +70,20 @@ JNIEXPORT jint JNICALL Java_io_questdb_std_Files_copy
         return -1;
     }
 
-    // On linux sendfile can accept file as well as sockets
+    // On linux sendfile can accept file as well as sockets.
+    // Single sendfile() call transfers at most 0x7ffff000 bytes,
+    // larger files have to be copied in a loop
     off_t offset = 0;
     struct stat fileStat = {0};
     fstat(input, &fileStat);
-    int result = sendfile(output, input, &offset, fileStat.st_size);
+    int result = 0;
+    while (offset < fileStat.st_size) {
+        ssize_t sent = sendfile(output, input, &offset, fileStat.st_size - offset);
+        if (sent <= 0) {
+            result = -1;
+            break;
+        }
+    }
 
     close(input);
     close(output);
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+#include <jni.h>
+#include <linux/io_uring.h>
+#include <sys/syscall.h>
+#include <sys/mman.h>
+#include <unistd.h>
+#include <stdlib.h>
+#include <string.h>
+#include <stdint.h>
+
+// raw system calls, so that build does not depend on liburing
+
+static int qdb_io_uring_setup(unsigned entries, struct io_uring_params *p) {
+    return (int) syscall(__NR_io_uring_setup, entries, p);
+}
+
+static int qdb_io_uring_enter(int fd, unsigned to_submit, unsigned min_complete, unsigned flags) {
+    return (int) syscall(__NR_io_uring_enter, fd, to_submit, min_complete, flags, NULL, 0);
+}
+
+typedef struct {
+    int fd;
+    unsigned *sq_head;
+    unsigned *sq_tail;
+    unsigned *sq_mask;
+    unsigned *sq_entries;
+    unsigned *sq_array;
+    unsigned *cq_head;
+    unsigned *cq_tail;
+    unsigned *cq_mask;
+    struct io_uring_sqe *sqes;
+    struct io_uring_cqe *cqes;
+    void *sq_ptr;
+    size_t sq_len;
+    void *cq_ptr;
+    size_t cq_len;
+    size_t sqes_len;
+    unsigned to_submit;
+} qdb_ring;
+
+// layout of completion entries copied to Java, see IOURingAccessor
+typedef struct {
+    uint64_t user_data;
+    int64_t res;
+} qdb_cqe;
+
+static void ring_unmap(qdb_ring *ring) {
+    if (ring->sqes != NULL && ring->sqes != MAP_FAILED) {
+        munmap(ring->sqes, ring->sqes_len);
+    }
+    if (ring->cq_ptr != NULL && ring->cq_ptr != MAP_FAILED && ring->cq_ptr != ring->sq_ptr) {
+        munmap(ring->cq_ptr, ring->cq_len);
+    }
+    if (ring->sq_ptr != NULL && ring->sq_ptr != MAP_FAILED) {
+        munmap(ring->sq_ptr, ring->sq_len);
+    }
+}
+
+static qdb_ring *ring_create(unsigned entries) {
+    struct io_uring_params p;
+    memset(&p, 0, sizeof(p));
+    int fd = qdb_io_uring_setup(entries, &p);
+    if (fd < 0) {
+        return NULL;
+    }
+
+    qdb_ring *ring = calloc(1, sizeof(qdb_ring));
+    if (ring == NULL) {
+        close(fd);
+        return NULL;
+    }
+    ring->fd = fd;
+    ring->sq_len = p.sq_off.array + p.sq_entries * sizeof(unsigned);
+    ring->cq_len = p.cq_off.cqes + p.cq_entries * sizeof(struct io_uring_cqe);
+    if (p.features & IORING_FEAT_SINGLE_MMAP) {
+        if (ring->cq_len > ring->sq_len) {
+            ring->sq_len = ring->cq_len;
+        }
+        ring->cq_len = ring->sq_len;
+    }
+
+    ring->sq_ptr = mmap(NULL, ring->sq_len, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, fd, IORING_OFF_SQ_RING);
+    if (ring->sq_ptr == MAP_FAILED) {
+        goto fail;
+    }
+    if (p.features & IORING_FEAT_SINGLE_MMAP) {
+        ring->cq_ptr = ring->sq_ptr;
+    } else {
+        ring->cq_ptr = mmap(NULL, ring->cq_len, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, fd, IORING_OFF_CQ_RING);
+        if (ring->cq_ptr == MAP_FAILED) {
+            goto fail;
+        }
+    }
+    ring->sqes_len = p.sq_entries * sizeof(struct io_uring_sqe);
+    ring->sqes = mmap(NULL, ring->sqes_len, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, fd, IORING_OFF_SQES);
+    if (ring->sqes == MAP_FAILED) {
+        goto fail;
+    }
+
+    char *sq = (char *) ring->sq_ptr;
+    ring->sq_head = (unsigned *) (sq + p.sq_off.head);
+    ring->sq_tail = (unsigned *) (sq + p.sq_off.tail);
+    ring->sq_mask = (unsigned *) (sq + p.sq_off.ring_mask);
+    ring->sq_entries = (unsigned *) (sq + p.sq_off.ring_entries);
+    ring->sq_array = (unsigned *) (sq + p.sq_off.array);
+
+    char *cq = (char *) ring->cq_ptr;
+    ring->cq_head = (unsigned *) (cq + p.cq_off.head);
+    ring->cq_tail = (unsigned *) (cq + p.cq_off.tail);
+    ring->cq_mask = (unsigned *) (cq + p.cq_off.ring_mask);
+    ring->cqes = (struct io_uring_cqe *) (cq + p.cq_off.cqes);
+    return ring;
+
+    fail:
+    ring_unmap(ring);
+    close(fd);
+    free(ring);
+    return NULL;
+}
+
+static struct io_uring_sqe *ring_next_sqe(qdb_ring *ring) {
+    const unsigned head = __atomic_load_n(ring->sq_head, __ATOMIC_ACQUIRE);
+    const unsigned tail = *ring->sq_tail;
+    if (tail - head >= *ring->sq_entries) {
+        return NULL;
+    }
+    const unsigned index = tail & *ring->sq_mask;
+    struct io_uring_sqe *sqe = &ring->sqes[index];
+    memset(sqe, 0, sizeof(struct io_uring_sqe));
+    ring->sq_array[index] = index;
+    return sqe;
+}
+
+static void ring_commit_sqe(qdb_ring *ring) {
+    __atomic_store_n(ring->sq_tail, *ring->sq_tail + 1, __ATOMIC_RELEASE);
+    ring->to_submit++;
+}
+
+JNIEXPORT jboolean JNICALL Java_io_questdb_network_IOURingAccessor_isAvailable
+        (JNIEnv *e, jclass cl) {
+    qdb_ring *ring = ring_create(2);
+    if (ring == NULL) {
+        return JNI_FALSE;
+    }
+    ring_unmap(ring);
+    close(ring->fd);
+    free(ring);
+    return JNI_TRUE;
+}
+
+JNIEXPORT jlong JNICALL Java_io_questdb_network_IOURingAccessor_create
+        (JNIEnv *e, jclass cl, jint capacity) {
+    return (jlong) ring_create((unsigned) capacity);
+}
+
+JNIEXPORT void JNICALL Java_io_questdb_network_IOURingAccessor_close
+        (JNIEnv *e, jclass cl, jlong ptr) {
+    qdb_ring *ring = (qdb_ring *) ptr;
+    ring_unmap(ring);
+    close(ring->fd);
+    free(ring);
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_network_IOURingAccessor_pollAdd
+        (JNIEnv *e, jclass cl, jlong ptr, jlong fd, jlong userData, jint mask) {
+    qdb_ring *ring = (qdb_ring *) ptr;
+    struct io_uring_sqe *sqe = ring_next_sqe(ring);
+    if (sqe == NULL) {
+        return -1;
+    }
+    sqe->opcode = IORING_OP_POLL_ADD;
+    sqe->fd = (int) fd;
+    sqe->poll_events = (uint16_t) mask;
+    sqe->user_data = (uint64_t) userData;
+    ring_commit_sqe(ring);
+    return 0;
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_network_IOURingAccessor_pollRemove
+        (JNIEnv *e, jclass cl, jlong ptr, jlong targetUserData, jlong userData) {
+    qdb_ring *ring = (qdb_ring *) ptr;
+    struct io_uring_sqe *sqe = ring_next_sqe(ring);
+    if (sqe == NULL) {
+        return -1;
+    }
+    sqe->opcode = IORING_OP_POLL_REMOVE;
+    sqe->fd = -1;
+    sqe->addr = (uint64_t) targetUserData;
+    sqe->user_data = (uint64_t) userData;
+    ring_commit_sqe(ring);
+    return 0;
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_network_IOURingAccessor_submit
+        (JNIEnv *e, jclass cl, jlong ptr) {
+    qdb_ring *ring = (qdb_ring *) ptr;
+    if (ring->to_submit == 0) {
+        return 0;
+    }
+    const int n = qdb_io_uring_enter(ring->fd, ring->to_submit, 0, 0);
+    if (n > 0) {
+        ring->to_submit -= n;
+    }
+    return n;
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_network_IOURingAccessor_submitAndWait
+        (JNIEnv *e, jclass cl, jlong ptr, jint minComplete) {
+    qdb_ring *ring = (qdb_ring *) ptr;
+    const int n = qdb_io_uring_enter(ring->fd, ring->to_submit, (unsigned) minComplete, IORING_ENTER_GETEVENTS);
+    if (n > 0) {
+        ring->to_submit -= n;
+    }
+    return n;
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_network_IOURingAccessor_reap
+        (JNIEnv *e, jclass cl, jlong ptr, jlong cqesPtr, jint capacity) {
+    qdb_ring *ring = (qdb_ring *) ptr;
+    qdb_cqe *out = (qdb_cqe *) cqesPtr;
+    unsigned head = *ring->cq_head;
+    const unsigned tail = __atomic_load_n(ring->cq_tail, __ATOMIC_ACQUIRE);
+    const unsigned mask = *ring->cq_mask;
+    int n = 0;
+    while (head != tail && n < capacity) {
+        const struct io_uring_cqe *cqe = &ring->cqes[head & mask];
+        out[n].user_data = cqe->user_data;
+        out[n].res = cqe->res;
+        n++;
+        head++;
+    }
+    __atomic_store_n(ring->cq_head, head, __ATOMIC_RELEASE);
+    return n;
+}
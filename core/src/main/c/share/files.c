@@ -256,6 +256,29 @@ JNIEXPORT jint JNICALL Java_io_questdb_std_Files_msync(JNIEnv *e, jclass cl, jlo
     return msync((void *) addr, len, async ? MS_ASYNC : MS_SYNC);
 }
 
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_madvise0(JNIEnv *e, jclass cl, jlong addr, jlong len, jint advice) {
+    switch (advice) {
+        case com_questdb_std_Files_MADV_RANDOM:
+            return posix_madvise((void *) addr, (size_t) len, POSIX_MADV_RANDOM);
+        case com_questdb_std_Files_MADV_SEQUENTIAL:
+            return posix_madvise((void *) addr, (size_t) len, POSIX_MADV_SEQUENTIAL);
+        case com_questdb_std_Files_MADV_WILLNEED:
+            return posix_madvise((void *) addr, (size_t) len, POSIX_MADV_WILLNEED);
+        case com_questdb_std_Files_MADV_DONTNEED:
+            // posix_madvise(POSIX_MADV_DONTNEED) is a no-op on Linux, use madvise()
+            // to actually release pages of the shared file mapping
+            return madvise((void *) addr, (size_t) len, MADV_DONTNEED);
+        case com_questdb_std_Files_MADV_HUGEPAGE:
+#ifdef MADV_HUGEPAGE
+            return madvise((void *) addr, (size_t) len, MADV_HUGEPAGE);
+#else
+            return 0;
+#endif
+        default:
+            return posix_madvise((void *) addr, (size_t) len, POSIX_MADV_NORMAL);
+    }
+}
+
 JNIEXPORT jint JNICALL Java_io_questdb_std_Files_fsync(JNIEnv *e, jclass cl, jlong fd) {
     return fsync((int) fd);
 }
@@ -401,6 +424,11 @@ JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_rename
     return (jboolean) (rename((const char *) lpszOld, (const char *) lpszNew) == 0);
 }
 
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_hardLink0
+        (JNIEnv *e, jclass cls, jlong lpszSrc, jlong lpszHardLink) {
+    return link((const char *) lpszSrc, (const char *) lpszHardLink);
+}
+
 JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_exists0
         (JNIEnv *e, jclass cls, jlong lpsz) {
     return access((const char *) lpsz, F_OK) == 0;
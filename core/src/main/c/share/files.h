@@ -29,6 +29,18 @@ extern "C" {
 #define com_questdb_std_Files_MAP_RO 1L
 #undef com_questdb_std_Files_MAP_RW
 #define com_questdb_std_Files_MAP_RW 2L
+#undef com_questdb_std_Files_MADV_NORMAL
+#define com_questdb_std_Files_MADV_NORMAL 0L
+#undef com_questdb_std_Files_MADV_RANDOM
+#define com_questdb_std_Files_MADV_RANDOM 1L
+#undef com_questdb_std_Files_MADV_SEQUENTIAL
+#define com_questdb_std_Files_MADV_SEQUENTIAL 2L
+#undef com_questdb_std_Files_MADV_WILLNEED
+#define com_questdb_std_Files_MADV_WILLNEED 3L
+#undef com_questdb_std_Files_MADV_DONTNEED
+#define com_questdb_std_Files_MADV_DONTNEED 4L
+#undef com_questdb_std_Files_MADV_HUGEPAGE
+#define com_questdb_std_Files_MADV_HUGEPAGE 5L
 /*
  * Class:     com_questdb_std_Files
  * Method:    append
@@ -288,6 +300,22 @@ JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_setLastModified
 JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_rename
         (JNIEnv *, jclass, jlong, jlong);
 
+/*
+ * Class:     com_questdb_std_Files
+ * Method:    hardLink0
+ * Signature: (JJ)I
+ */
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_hardLink0
+        (JNIEnv *, jclass, jlong, jlong);
+
+/*
+ * Class:     com_questdb_std_Files
+ * Method:    madvise0
+ * Signature: (JJI)I
+ */
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_madvise0
+        (JNIEnv *, jclass, jlong, jlong, jint);
+
 #ifdef __cplusplus
 }
 #endif
@@ -392,6 +392,120 @@ inline void measure_time(int index, T func) {
 #endif
 }
 
+// upsert key descriptor, matches layout documented on Vect.dedupMergeIndex()
+typedef struct {
+    int64_t size;
+    int64_t float_kind;
+    const uint8_t *data;
+    const uint8_t *o3;
+} dedup_key_t;
+
+#define DEDUP_KEY_FLOAT 1
+#define DEDUP_KEY_DOUBLE 2
+
+inline const uint8_t *dedup_key_address(const dedup_key_t *key, int64_t row) {
+    return row < 0
+           ? key->data + (row & INT64_MAX) * key->size
+           : key->o3 + row * key->size;
+}
+
+// 0.0 and -0.0 are the same key, so are NaNs with different payloads
+inline int64_t dedup_key_value(const dedup_key_t *key, const uint8_t *addr) {
+    if (key->float_kind == DEDUP_KEY_FLOAT) {
+        const float f = *reinterpret_cast<const float *>(addr);
+        if (f == 0) {
+            return 0;
+        }
+        if (f != f) {
+            return 0x7fc00000;
+        }
+        return *reinterpret_cast<const int32_t *>(addr);
+    }
+    if (key->float_kind == DEDUP_KEY_DOUBLE) {
+        const double d = *reinterpret_cast<const double *>(addr);
+        if (d == 0) {
+            return 0;
+        }
+        if (d != d) {
+            return 0x7ff8000000000000L;
+        }
+        return *reinterpret_cast<const int64_t *>(addr);
+    }
+    switch (key->size) {
+        case 1:
+            return *reinterpret_cast<const int8_t *>(addr);
+        case 2:
+            return *reinterpret_cast<const int16_t *>(addr);
+        case 4:
+            return *reinterpret_cast<const int32_t *>(addr);
+        case 8:
+            return *reinterpret_cast<const int64_t *>(addr);
+        default: {
+            const auto *l = reinterpret_cast<const int64_t *>(addr);
+            return l[0] ^ l[1] ^ l[2] ^ l[3];
+        }
+    }
+}
+
+inline uint64_t dedup_key_hash(const dedup_key_t *keys, int64_t key_count, int64_t row) {
+    uint64_t hash = 0;
+    for (int64_t k = 0; k < key_count; k++) {
+        hash = hash * 31 + dedup_key_value(&keys[k], dedup_key_address(&keys[k], row));
+    }
+    return hash & INT64_MAX;
+}
+
+inline bool dedup_keys_equal(const dedup_key_t *keys, int64_t key_count, int64_t row1, int64_t row2) {
+    for (int64_t k = 0; k < key_count; k++) {
+        const uint8_t *addr1 = dedup_key_address(&keys[k], row1);
+        const uint8_t *addr2 = dedup_key_address(&keys[k], row2);
+        if (keys[k].size > 8) {
+            if (memcmp(addr1, addr2, 32) != 0) {
+                return false;
+            }
+        } else if (dedup_key_value(&keys[k], addr1) != dedup_key_value(&keys[k], addr2)) {
+            return false;
+        }
+    }
+    return true;
+}
+
+inline bool dedup_run_contains(
+        const dedup_key_t *keys,
+        int64_t key_count,
+        int64_t data_ref,
+        int64_t o3_lo,
+        int64_t o3_hi,
+        const index_t *hashes
+) {
+    if (hashes == nullptr) {
+        for (int64_t o3_row = o3_lo; o3_row < o3_hi; o3_row++) {
+            if (dedup_keys_equal(keys, key_count, data_ref, o3_row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    const uint64_t hash = dedup_key_hash(keys, key_count, data_ref);
+    int64_t lo = 0;
+    int64_t hi = o3_hi - o3_lo;
+    while (lo < hi) {
+        const int64_t mid = (lo + hi) >> 1;
+        if (hashes[mid].ts < hash) {
+            lo = mid + 1;
+        } else {
+            hi = mid;
+        }
+    }
+    for (int64_t i = lo, n = o3_hi - o3_lo; i < n && hashes[i].ts == hash; i++) {
+        if (dedup_keys_equal(keys, key_count, data_ref, static_cast<int64_t>(hashes[i].i))) {
+            return true;
+        }
+    }
+    return false;
+}
+
 extern "C" {
 
 DECLARE_DISPATCHER(platform_memcpy);
@@ -557,6 +671,76 @@ Java_io_questdb_std_Vect_mergeTwoLongIndexesAsc(
     return reinterpret_cast<jlong>(merged_index);
 }
 
+JNIEXPORT jlong JNICALL
+Java_io_questdb_std_Vect_dedupMergeIndex0(JAVA_STATIC, jlong pDataTimestamps, jlong dataCount, jlong pO3Index,
+                                          jlong o3Lo, jlong o3Hi, jlong pKeys, jlong keyCount, jlong pDest) {
+    const auto *data_ts = reinterpret_cast<const int64_t *>(pDataTimestamps);
+    const auto *o3_index = reinterpret_cast<const index_t *>(pO3Index);
+    const auto *keys = reinterpret_cast<const dedup_key_t *>(pKeys);
+    auto *dest = reinterpret_cast<index_t *>(pDest);
+    const int64_t data_count = __JLONG_REINTERPRET_CAST__(int64_t, dataCount);
+    const int64_t o3_hi = __JLONG_REINTERPRET_CAST__(int64_t, o3Hi);
+    const int64_t key_count = __JLONG_REINTERPRET_CAST__(int64_t, keyCount);
+
+    index_t *hashes = nullptr;
+    int64_t hashes_capacity = 0;
+    int64_t out = 0;
+    int64_t data_row = 0;
+    int64_t o3_row = __JLONG_REINTERPRET_CAST__(int64_t, o3Lo);
+    while (o3_row <= o3_hi) {
+        const auto ts = static_cast<int64_t>(o3_index[o3_row].ts);
+        for (; data_row < data_count && data_ts[data_row] < ts; data_row++) {
+            dest[out].ts = data_ts[data_row];
+            dest[out++].i = data_row | INT64_MIN;
+        }
+        int64_t o3_run_hi = o3_row + 1;
+        while (o3_run_hi <= o3_hi && static_cast<int64_t>(o3_index[o3_run_hi].ts) == ts) {
+            o3_run_hi++;
+        }
+        int64_t data_run_hi = data_row;
+        while (data_run_hi < data_count && data_ts[data_run_hi] == ts) {
+            data_run_hi++;
+        }
+
+        if (data_run_hi > data_row) {
+            const int64_t o3_run_count = o3_run_hi - o3_row;
+            const bool hashed = o3_run_count * (data_run_hi - data_row) > 64;
+            if (hashed) {
+                // long runs are matched on sorted key hashes of O3 rows
+                if (hashes_capacity < o3_run_count) {
+                    free(hashes);
+                    hashes = reinterpret_cast<index_t *>(malloc(o3_run_count * sizeof(index_t)));
+                    hashes_capacity = o3_run_count;
+                }
+                for (int64_t i = 0; i < o3_run_count; i++) {
+                    hashes[i].ts = dedup_key_hash(keys, key_count, o3_row + i);
+                    hashes[i].i = o3_row + i;
+                }
+                radix_sort_long_index_asc_in_place(hashes, o3_run_count);
+            }
+            for (int64_t r = data_row; r < data_run_hi; r++) {
+                const int64_t ref = r | INT64_MIN;
+                if (!dedup_run_contains(keys, key_count, ref, o3_row, o3_run_hi, hashed ? hashes : nullptr)) {
+                    dest[out].ts = ts;
+                    dest[out++].i = ref;
+                }
+            }
+            data_row = data_run_hi;
+        }
+
+        for (; o3_row < o3_run_hi; o3_row++) {
+            dest[out].ts = ts;
+            dest[out++].i = o3_row;
+        }
+    }
+    for (; data_row < data_count; data_row++) {
+        dest[out].ts = data_ts[data_row];
+        dest[out++].i = data_row | INT64_MIN;
+    }
+    free(hashes);
+    return out;
+}
+
 JNIEXPORT void JNICALL
 Java_io_questdb_std_Vect_freeMergedIndex(JNIEnv *env, jclass cl, jlong pIndex) {
     free(reinterpret_cast<void *>(pIndex));
@@ -26,8 +26,7 @@
 #include <src/main/c/share/zlib-1.2.8/zutil.h>
 #include <src/main/c/share/zip.h>
 
-JNIEXPORT jlong JNICALL Java_io_questdb_std_Zip_deflateInit
-        (JNIEnv *e, jclass cl) {
+static jlong deflate_init(int level) {
     z_streamp strm = calloc(1, sizeof(z_stream));
 
     if (strm == 0) {
@@ -35,7 +34,7 @@ JNIEXPORT jlong JNICALL Java_io_questdb_std_Zip_deflateInit
     }
 
     int ret;
-    switch (ret = deflateInit2(strm, -1, Z_DEFLATED, -MAX_WBITS, DEF_MEM_LEVEL, Z_DEFAULT_STRATEGY)) {
+    switch (ret = deflateInit2(strm, level, Z_DEFLATED, -MAX_WBITS, DEF_MEM_LEVEL, Z_DEFAULT_STRATEGY)) {
         case Z_OK:
             return (jlong) strm;
         default:
@@ -44,6 +43,16 @@ JNIEXPORT jlong JNICALL Java_io_questdb_std_Zip_deflateInit
     }
 }
 
+JNIEXPORT jlong JNICALL Java_io_questdb_std_Zip_deflateInit
+        (JNIEnv *e, jclass cl) {
+    return deflate_init(Z_DEFAULT_COMPRESSION);
+}
+
+JNIEXPORT jlong JNICALL Java_io_questdb_std_Zip_deflateInitLevel
+        (JNIEnv *e, jclass cl, jint level) {
+    return deflate_init(level);
+}
+
 JNIEXPORT void JNICALL Java_io_questdb_std_Zip_setInput
         (JNIEnv *e, jclass cl, jlong ptr, jlong address, jint available) {
     z_streamp strm = (z_streamp) ptr;
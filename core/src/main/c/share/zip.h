@@ -43,6 +43,14 @@ JNIEXPORT void JNICALL Java_io_questdb_std_Zip_deflateEnd
 JNIEXPORT jlong JNICALL Java_io_questdb_std_Zip_deflateInit
         (JNIEnv *, jclass);
 
+/*
+ * Class:     com_questdb_std_Zip
+ * Method:    deflateInitLevel
+ * Signature: (I)J
+ */
+JNIEXPORT jlong JNICALL Java_io_questdb_std_Zip_deflateInitLevel
+        (JNIEnv *, jclass, jint);
+
 /*
  * Class:     com_questdb_std_Zip
  * Method:    deflateReset
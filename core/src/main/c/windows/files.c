@@ -175,6 +175,11 @@ JNIEXPORT jint JNICALL Java_io_questdb_std_Files_msync(JNIEnv *e, jclass cl, jlo
     return 0;
 }
 
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_madvise0(JNIEnv *e, jclass cl, jlong addr, jlong len, jint advice) {
+    // access pattern hints are not supported on Windows
+    return 0;
+}
+
 JNIEXPORT jint JNICALL Java_io_questdb_std_Files_fsync(JNIEnv *e, jclass cl, jlong fd) {
     // Windows does not seem to have fsync or cannot fsync directory.
     // To be fair we never saw our destructive test fail on windows,
@@ -635,6 +640,28 @@ JNIEXPORT jlong JNICALL Java_io_questdb_std_Files_openCleanRW
 
 }
 
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_hardLink0(JNIEnv *e, jclass cl, jlong lpszSrc, jlong lpszHardLink) {
+
+    size_t len = MultiByteToWideChar(CP_UTF8, 0, (LPCCH) lpszSrc, -1, NULL, 0);
+    if (len > 0) {
+        wchar_t buf1[len];
+        MultiByteToWideChar(CP_UTF8, 0, (LPCCH) lpszSrc, -1, buf1, len);
+
+        len = MultiByteToWideChar(CP_UTF8, 0, (LPCCH) lpszHardLink, -1, NULL, 0);
+
+        if (len > 0) {
+            wchar_t buf2[len];
+            MultiByteToWideChar(CP_UTF8, 0, (LPCCH) lpszHardLink, -1, buf2, len);
+
+            if (CreateHardLinkW(buf2, buf1, NULL)) {
+                return 0;
+            }
+        }
+    }
+    SaveLastError();
+    return -1;
+}
+
 JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_rename(JNIEnv *e, jclass cl, jlong lpszOld, jlong lpszNew) {
 
     size_t len = MultiByteToWideChar(CP_UTF8, 0, (LPCCH) lpszOld, -1, NULL, 0);
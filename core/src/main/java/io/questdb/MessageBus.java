@@ -25,6 +25,7 @@
 package io.questdb;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.O3MergeBudget;
 import io.questdb.mp.*;
 import io.questdb.std.Misc;
 import io.questdb.tasks.*;
@@ -39,6 +40,18 @@ public interface MessageBus extends Closeable {
         Misc.free(getTableWriterEventQueue());
     }
 
+    Sequence getBackupCopyPubSeq();
+
+    RingQueue<BackupCopyTask> getBackupCopyQueue();
+
+    Sequence getBackupCopySubSeq();
+
+    Sequence getColumnUpdatePubSeq();
+
+    RingQueue<ColumnUpdateTask> getColumnUpdateQueue();
+
+    Sequence getColumnUpdateSubSeq();
+
     CairoConfiguration getConfiguration();
 
     Sequence getIndexerPubSequence();
@@ -61,6 +74,8 @@ public interface MessageBus extends Closeable {
 
     MPSequence getO3CopyPubSeq();
 
+    O3MergeBudget getO3MergeBudget();
+
     RingQueue<O3CopyTask> getO3CopyQueue();
 
     MCSequence getO3CopySubSeq();
@@ -89,6 +104,18 @@ public interface MessageBus extends Closeable {
 
     MCSequence getO3PurgeSubSeq();
 
+    Sequence getPageFrameReducePubSeq();
+
+    RingQueue<PageFrameReduceTask> getPageFrameReduceQueue();
+
+    Sequence getPageFrameReduceSubSeq();
+
+    Sequence getPartitionPrefetchPubSeq();
+
+    RingQueue<PartitionPrefetchTask> getPartitionPrefetchQueue();
+
+    Sequence getPartitionPrefetchSubSeq();
+
     MPSequence getTableWriterCommandPubSeq();
 
     RingQueue<TableWriterTask> getTableWriterCommandQueue();
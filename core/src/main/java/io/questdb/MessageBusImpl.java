@@ -25,6 +25,7 @@
 package io.questdb;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.O3MergeBudget;
 import io.questdb.mp.*;
 import io.questdb.std.DirectObjectFactory;
 import io.questdb.std.MemoryTag;
@@ -32,10 +33,21 @@ import io.questdb.tasks.*;
 import org.jetbrains.annotations.NotNull;
 
 public class MessageBusImpl implements MessageBus {
+    private final RingQueue<BackupCopyTask> backupCopyQueue;
+    private final MPSequence backupCopyPubSeq;
+    private final MCSequence backupCopySubSeq;
+
+    private final RingQueue<ColumnUpdateTask> columnUpdateQueue;
+    private final MPSequence columnUpdatePubSeq;
+    private final MCSequence columnUpdateSubSeq;
+
     private final RingQueue<ColumnIndexerTask> indexerQueue;
     private final MPSequence indexerPubSeq;
     private final MCSequence indexerSubSeq;
 
+    private final RingQueue<PageFrameReduceTask> pageFrameReduceQueue;
+    private final MPSequence pageFrameReducePubSeq;
+    private final MCSequence pageFrameReduceSubSeq;
     private final RingQueue<VectorAggregateTask> vectorAggregateQueue;
     private final MPSequence vectorAggregatePubSeq;
     private final MCSequence vectorAggregateSubSeq;
@@ -52,6 +64,10 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence o3PurgePubSeq;
     private final MCSequence o3PurgeSubSeq;
 
+    private final RingQueue<PartitionPrefetchTask> partitionPrefetchQueue;
+    private final MPSequence partitionPrefetchPubSeq;
+    private final MCSequence partitionPrefetchSubSeq;
+
     private final RingQueue<O3PartitionTask> o3PartitionQueue;
     private final MPSequence o3PartitionPubSeq;
     private final MCSequence o3PartitionSubSeq;
@@ -64,6 +80,8 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence o3CopyPubSeq;
     private final MCSequence o3CopySubSeq;
 
+    private final O3MergeBudget o3MergeBudget;
+
     private final RingQueue<LatestByTask> latestByQueue;
     private final MPSequence latestByPubSeq;
     private final MCSequence latestBySubSeq;
@@ -79,6 +97,16 @@ public class MessageBusImpl implements MessageBus {
 
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         this.configuration = configuration;
+        this.backupCopyQueue = new RingQueue<>(BackupCopyTask::new, configuration.getBackupCopyQueueCapacity());
+        this.backupCopyPubSeq = new MPSequence(backupCopyQueue.getCycle());
+        this.backupCopySubSeq = new MCSequence(backupCopyQueue.getCycle());
+        backupCopyPubSeq.then(backupCopySubSeq).then(backupCopyPubSeq);
+
+        this.columnUpdateQueue = new RingQueue<>(ColumnUpdateTask::new, configuration.getColumnUpdateQueueCapacity());
+        this.columnUpdatePubSeq = new MPSequence(columnUpdateQueue.getCycle());
+        this.columnUpdateSubSeq = new MCSequence(columnUpdateQueue.getCycle());
+        columnUpdatePubSeq.then(columnUpdateSubSeq).then(columnUpdatePubSeq);
+
         this.indexerQueue = new RingQueue<>(ColumnIndexerTask::new, configuration.getColumnIndexerQueueCapacity());
         this.indexerPubSeq = new MPSequence(indexerQueue.getCycle());
         this.indexerSubSeq = new MCSequence(indexerQueue.getCycle());
@@ -89,6 +117,13 @@ public class MessageBusImpl implements MessageBus {
         this.vectorAggregateSubSeq = new MCSequence(vectorAggregateQueue.getCycle());
         vectorAggregatePubSeq.then(vectorAggregateSubSeq).then(vectorAggregatePubSeq);
 
+        this.pageFrameReduceQueue = new RingQueue<>(PageFrameReduceTask::new, configuration.getPageFrameReduceQueueCapacity());
+        this.pageFrameReducePubSeq = new MPSequence(pageFrameReduceQueue.getCycle());
+        this.pageFrameReduceSubSeq = new MCSequence(pageFrameReduceQueue.getCycle());
+        pageFrameReducePubSeq.then(pageFrameReduceSubSeq).then(pageFrameReducePubSeq);
+
+        this.o3MergeBudget = new O3MergeBudget(configuration.getO3MergeMemoryBudget());
+
         this.o3CallbackQueue = new RingQueue<>(O3CallbackTask::new, configuration.getO3CallbackQueueCapacity());
         this.o3CallbackPubSeq = new MPSequence(this.o3CallbackQueue.getCycle());
         this.o3CallbackSubSeq = new MCSequence(this.o3CallbackQueue.getCycle());
@@ -119,6 +154,11 @@ public class MessageBusImpl implements MessageBus {
         this.o3PurgeSubSeq = new MCSequence(this.o3PurgeQueue.getCycle());
         this.o3PurgePubSeq.then(this.o3PurgeSubSeq).then(this.o3PurgePubSeq);
 
+        this.partitionPrefetchQueue = new RingQueue<>(PartitionPrefetchTask::new, configuration.getPartitionPrefetchQueueCapacity());
+        this.partitionPrefetchPubSeq = new MPSequence(partitionPrefetchQueue.getCycle());
+        this.partitionPrefetchSubSeq = new MCSequence(partitionPrefetchQueue.getCycle());
+        partitionPrefetchPubSeq.then(partitionPrefetchSubSeq).then(partitionPrefetchPubSeq);
+
         this.latestByQueue = new RingQueue<>(LatestByTask::new, configuration.getLatestByQueueCapacity());
         this.latestByPubSeq = new MPSequence(latestByQueue.getCycle());
         this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
@@ -147,6 +187,36 @@ public class MessageBusImpl implements MessageBus {
         this.tableWriterEventPubSeq.then(this.tableWriterEventSubSeq).then(this.tableWriterEventPubSeq);
     }
 
+    @Override
+    public Sequence getBackupCopyPubSeq() {
+        return backupCopyPubSeq;
+    }
+
+    @Override
+    public RingQueue<BackupCopyTask> getBackupCopyQueue() {
+        return backupCopyQueue;
+    }
+
+    @Override
+    public Sequence getBackupCopySubSeq() {
+        return backupCopySubSeq;
+    }
+
+    @Override
+    public Sequence getColumnUpdatePubSeq() {
+        return columnUpdatePubSeq;
+    }
+
+    @Override
+    public RingQueue<ColumnUpdateTask> getColumnUpdateQueue() {
+        return columnUpdateQueue;
+    }
+
+    @Override
+    public Sequence getColumnUpdateSubSeq() {
+        return columnUpdateSubSeq;
+    }
+
     @Override
     public CairoConfiguration getConfiguration() {
         return configuration;
@@ -202,6 +272,11 @@ public class MessageBusImpl implements MessageBus {
         return o3CopyPubSeq;
     }
 
+    @Override
+    public O3MergeBudget getO3MergeBudget() {
+        return o3MergeBudget;
+    }
+
     @Override
     public RingQueue<O3CopyTask> getO3CopyQueue() {
         return o3CopyQueue;
@@ -272,6 +347,36 @@ public class MessageBusImpl implements MessageBus {
         return o3PurgeSubSeq;
     }
 
+    @Override
+    public Sequence getPageFrameReducePubSeq() {
+        return pageFrameReducePubSeq;
+    }
+
+    @Override
+    public RingQueue<PageFrameReduceTask> getPageFrameReduceQueue() {
+        return pageFrameReduceQueue;
+    }
+
+    @Override
+    public Sequence getPageFrameReduceSubSeq() {
+        return pageFrameReduceSubSeq;
+    }
+
+    @Override
+    public Sequence getPartitionPrefetchPubSeq() {
+        return partitionPrefetchPubSeq;
+    }
+
+    @Override
+    public RingQueue<PartitionPrefetchTask> getPartitionPrefetchQueue() {
+        return partitionPrefetchQueue;
+    }
+
+    @Override
+    public Sequence getPartitionPrefetchSubSeq() {
+        return partitionPrefetchSubSeq;
+    }
+
     @Override
     public MPSequence getTableWriterCommandPubSeq() {
         return tableWriterCommandPubSeq;
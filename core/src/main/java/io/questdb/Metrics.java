@@ -24,7 +24,12 @@
 
 package io.questdb;
 
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.O3MergeBudget;
+import io.questdb.cairo.QueryAdmissionController;
+import io.questdb.cutlass.http.processors.AsyncQueryExecutor;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
+import io.questdb.cutlass.line.tcp.LineTcpReceiver;
 import io.questdb.metrics.MetricsRegistry;
 import io.questdb.metrics.MetricsRegistryImpl;
 import io.questdb.metrics.NullMetricsRegistry;
@@ -63,6 +68,41 @@ public class Metrics implements Scrapable {
         return new Metrics(false, new NullMetricsRegistry());
     }
 
+    public void addO3MergeGauges(O3MergeBudget o3MergeBudget) {
+        metricsRegistry.newVirtualGauge("o3_merge_memory_used", o3MergeBudget::getUsed);
+        metricsRegistry.newVirtualGauge("o3_merge_partitions_planned", o3MergeBudget::getPartitionsPlanned);
+        metricsRegistry.newVirtualGauge("o3_merge_partitions_merged", o3MergeBudget::getPartitionsMerged);
+        metricsRegistry.newVirtualGauge("o3_merge_throttle_count", o3MergeBudget::getThrottleCount);
+    }
+
+    public void addAsyncQueryGauges(AsyncQueryExecutor asyncQueryExecutor) {
+        metricsRegistry.newVirtualGauge("json_queries_async_pending", asyncQueryExecutor::getPendingCount);
+        metricsRegistry.newVirtualGauge("json_queries_async_queue_time_micros", asyncQueryExecutor::getQueueMicros);
+        metricsRegistry.newVirtualGauge("json_queries_async_execute_time_micros", asyncQueryExecutor::getExecuteMicros);
+    }
+
+    public void addReaderPoolGauges(CairoEngine engine) {
+        metricsRegistry.newVirtualGauge("reader_pool_hit_count", engine::getReaderPoolHitCount);
+        metricsRegistry.newVirtualGauge("reader_pool_miss_count", engine::getReaderPoolMissCount);
+        metricsRegistry.newVirtualGauge("reader_pool_reload_count", engine::getReaderPoolReloadCount);
+    }
+
+    public void addQueryAdmissionGauges(QueryAdmissionController queryAdmissionController) {
+        metricsRegistry.newVirtualGauge("query_admission_admitted_count", queryAdmissionController::getAdmittedCount);
+        metricsRegistry.newVirtualGauge("query_admission_queued_count", queryAdmissionController::getQueuedCount);
+        metricsRegistry.newVirtualGauge("query_admission_rejected_count", queryAdmissionController::getRejectedCount);
+        metricsRegistry.newVirtualGauge("query_admission_reserved_memory", queryAdmissionController::getReservedMemory);
+        metricsRegistry.newVirtualGauge("query_admission_interactive_active", () -> queryAdmissionController.getActiveCount(QueryAdmissionController.WORKLOAD_INTERACTIVE));
+        metricsRegistry.newVirtualGauge("query_admission_reporting_active", () -> queryAdmissionController.getActiveCount(QueryAdmissionController.WORKLOAD_REPORTING));
+    }
+
+    public void addLineTcpWriterQueueGauges(LineTcpReceiver lineTcpReceiver) {
+        for (int i = 0, n = lineTcpReceiver.getWriterQueueCount(); i < n; i++) {
+            final int writerThreadId = i;
+            metricsRegistry.newVirtualGauge("line_tcp_writer_queue_depth_" + i, () -> lineTcpReceiver.getWriterQueueDepth(writerThreadId));
+        }
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -86,6 +86,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int mkdirMode;
     private final int parallelIndexThreshold;
     private final int readerPoolMaxSegments;
+    private final int readerPoolPrewarmCount;
+    private final ObjList<String> readerPoolPrewarmTables = new ObjList<>();
+    private final long readerPoolRefreshInterval;
     private final long spinLockTimeoutUs;
     private final int sqlCacheRows;
     private final int sqlCacheBlocks;
@@ -159,11 +162,17 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlJitRowsThreshold;
     private final long sqlJitPageAddressCacheThreshold;
     private final boolean sqlJitDebugEnabled;
+    private final int sqlProjectionBatchSize;
+    private final int sqlPageFrameMaxInFlight;
+    private final long sqlPageFrameMaxRows;
+    private final int pageFrameReduceQueueCapacity;
     private final DateLocale locale;
     private final String backupRoot;
     private final DateFormat backupDirTimestampFormat;
     private final CharSequence backupTempDirName;
     private final int backupMkdirMode;
+    private final int backupCopyQueueCapacity;
+    private final long backupCopyThroughput;
     private final int sqlFloatToStrCastScale;
     private final int sqlDoubleToStrCastScale;
     private final PropPGWireDispatcherConfiguration propPGWireDispatcherConfiguration = new PropPGWireDispatcherConfiguration();
@@ -175,6 +184,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final IODispatcherConfiguration lineTcpReceiverDispatcherConfiguration = new PropLineTcpReceiverIODispatcherConfiguration();
     private final boolean lineTcpEnabled;
     private final WorkerPoolAwareConfiguration lineTcpWriterWorkerPoolConfiguration = new PropLineTcpWriterWorkerPoolConfiguration();
+    private final WorkerPoolConfiguration httpQueryWorkerPoolConfiguration = new PropHttpQueryWorkerPoolConfiguration();
     private final WorkerPoolAwareConfiguration lineTcpIOWorkerPoolConfiguration = new PropLineTcpIOWorkerPoolConfiguration();
     private final Log log;
     private final PropHttpMinServerConfiguration httpMinServerConfiguration = new PropHttpMinServerConfiguration();
@@ -198,12 +208,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int rerunMaxProcessingQueueSize;
     private final BuildInformation buildInformation;
     private final int columnIndexerQueueCapacity;
+    private final int columnUpdateQueueCapacity;
     private final int vectorAggregateQueueCapacity;
     private final int o3CallbackQueueCapacity;
     private final int o3PartitionQueueCapacity;
     private final int o3OpenColumnQueueCapacity;
     private final int o3CopyQueueCapacity;
     private final int o3UpdPartitionSizeQueueCapacity;
+    private final long o3MergeMemoryBudget;
     private final int o3PurgeDiscoveryQueueCapacity;
     private final int o3PurgeQueueCapacity;
     private final int o3ColumnMemorySize;
@@ -213,6 +225,23 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long instanceHashHi;
     private final int sqlTxnScoreboardEntryCount;
     private final boolean o3QuickSortEnabled;
+    private final boolean symbolCapacityAutoScaleEnabled;
+    private final long partitionPrefetchBudget;
+    private final int partitionPrefetchCount;
+    private final int partitionPrefetchQueueCapacity;
+    private final int queryAdmissionInteractiveLimit;
+    private final long queryAdmissionInteractiveMemory;
+    private final long queryAdmissionIngestionMemory;
+    private final long queryAdmissionMemoryLimit;
+    private final int queryAdmissionQueueCapacity;
+    private final long queryAdmissionQueueTimeout;
+    private final int queryAdmissionReportingLimit;
+    private final long queryAdmissionReportingMemory;
+    private final ObjList<String> queryAdmissionReportingUsers = new ObjList<>();
+    private final boolean hugePagesEnabled;
+    private final boolean fileMadviseDontNeedEnabled;
+    private final boolean fileMadviseEnabled;
+    private final boolean readerSharedColumnMappingsEnabled;
     private final MetricsConfiguration metricsConfiguration = new PropMetricsConfiguration();
     private final boolean metricsEnabled;
     private final int sqlDistinctTimestampKeyCapacity;
@@ -226,6 +255,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long writerDataIndexKeyAppendPageSize;
     private final long writerDataIndexValueAppendPageSize;
     private boolean httpAllowDeflateBeforeSend;
+    private int httpDeflateLevel;
     private int[] httpWorkerAffinity;
     private int[] httpMinWorkerAffinity;
     private int connectionPoolInitialCapacity;
@@ -238,6 +268,11 @@ public class PropServerConfiguration implements ServerConfiguration {
     private boolean httpWorkerHaltOnError;
     private long httpWorkerYieldThreshold;
     private long httpWorkerSleepThreshold;
+    private int httpQueryWorkerCount;
+    private int[] httpQueryWorkerAffinity;
+    private boolean httpQueryWorkerHaltOnError;
+    private long httpQueryAsyncThreshold;
+    private int httpQueryAsyncQueueCapacity;
     private boolean httpServerKeepAlive;
     private int sendBufferSize;
     private CharSequence indexFileName;
@@ -251,6 +286,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int httpListenBacklog;
     private int httpSndBufSize;
     private int httpRcvBufSize;
+    private boolean httpIOURingEnabled;
     private int dateAdapterPoolCapacity;
     private int jsonCacheLimit;
     private int jsonCacheSize;
@@ -286,6 +322,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgNetInterestQueueCapacity;
     private int pgNetListenBacklog;
     private int pgNetRcvBufSize;
+    private boolean pgNetIOURingEnabled;
     private int pgNetSndBufSize;
     private int pgCharacterStoreCapacity;
     private int pgBinaryParamsCapacity;
@@ -323,6 +360,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpNetInterestQueueCapacity;
     private int lineTcpNetListenBacklog;
     private int lineTcpNetRcvBufSize;
+    private boolean lineTcpNetIOURingEnabled;
     private int lineTcpConnectionPoolInitialCapacity;
     private LineProtoTimestampAdapter lineTcpTimestampAdapter;
     private int lineTcpMsgBufferSize;
@@ -450,10 +488,20 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpWorkerHaltOnError = getBoolean(properties, env, "http.worker.haltOnError", false);
                 this.httpWorkerYieldThreshold = getLong(properties, env, "http.worker.yield.threshold", 10);
                 this.httpWorkerSleepThreshold = getLong(properties, env, "http.worker.sleep.threshold", 10000);
+                this.httpQueryWorkerCount = getInt(properties, env, "http.query.worker.count", 0);
+                cpuUsed += this.httpQueryWorkerCount;
+                this.httpQueryWorkerAffinity = getAffinity(properties, env, "http.query.worker.affinity", httpQueryWorkerCount);
+                this.httpQueryWorkerHaltOnError = getBoolean(properties, env, "http.query.worker.haltOnError", false);
+                this.httpQueryAsyncThreshold = getLong(properties, env, "http.query.async.threshold", 1000);
+                this.httpQueryAsyncQueueCapacity = getQueueCapacity(properties, env, "http.query.async.queue.capacity", 64);
                 this.sendBufferSize = getIntSize(properties, env, "http.send.buffer.size", 2 * 1024 * 1024);
                 this.indexFileName = getString(properties, env, "http.static.index.file.name", "index.html");
                 this.httpFrozenClock = getBoolean(properties, env, "http.frozen.clock", false);
                 this.httpAllowDeflateBeforeSend = getBoolean(properties, env, "http.allow.deflate.before.send", false);
+                this.httpDeflateLevel = getInt(properties, env, "http.deflate.level", Zip.Z_DEFAULT_COMPRESSION);
+                if (httpDeflateLevel < Zip.Z_DEFAULT_COMPRESSION || httpDeflateLevel > Zip.Z_BEST_COMPRESSION) {
+                    throw new ServerConfigurationException("http.deflate.level", String.valueOf(httpDeflateLevel));
+                }
                 this.httpServerKeepAlive = getBoolean(properties, env, "http.server.keep.alive", true);
                 this.httpVersion = getString(properties, env, "http.version", "HTTP/1.1");
                 if (!httpVersion.endsWith(" ")) {
@@ -487,6 +535,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpListenBacklog = getInt(properties, env, "http.net.listen.backlog", 256);
                 this.httpSndBufSize = getIntSize(properties, env, "http.net.snd.buf.size", 2 * 1024 * 1024);
                 this.httpRcvBufSize = getIntSize(properties, env, "http.net.rcv.buf.size", 2 * 1024 * 1024);
+                this.httpIOURingEnabled = getBoolean(properties, env, "http.net.io.uring.enabled", false);
                 this.dateAdapterPoolCapacity = getInt(properties, env, "http.text.date.adapter.pool.capacity", 16);
                 this.jsonCacheLimit = getIntSize(properties, env, "http.text.json.cache.limit", 16384);
                 this.jsonCacheSize = getIntSize(properties, env, "http.text.json.cache.size", 8192);
@@ -543,6 +592,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgNetListenBacklog = getInt(properties, env, "pg.net.listen.backlog", 50_000);
                 this.pgNetRcvBufSize = getIntSize(properties, env, "pg.net.recv.buf.size", -1);
                 this.pgNetSndBufSize = getIntSize(properties, env, "pg.net.send.buf.size", -1);
+                this.pgNetIOURingEnabled = getBoolean(properties, env, "pg.net.io.uring.enabled", false);
                 this.pgCharacterStoreCapacity = getInt(properties, env, "pg.character.store.capacity", 4096);
                 this.pgBinaryParamsCapacity = getInt(properties, env, "pg.binary.param.count.capacity", 2);
                 this.pgCharacterStorePoolCapacity = getInt(properties, env, "pg.character.store.pool.capacity", 64);
@@ -581,6 +631,31 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.defaultMapType = getString(properties, env, "cairo.default.map.type", "fast");
             this.defaultSymbolCacheFlag = getBoolean(properties, env, "cairo.default.symbol.cache.flag", true);
             this.defaultSymbolCapacity = getInt(properties, env, "cairo.default.symbol.capacity", 256);
+            this.symbolCapacityAutoScaleEnabled = getBoolean(properties, env, "cairo.symbol.capacity.auto.scale.enabled", true);
+            this.partitionPrefetchQueueCapacity = getInt(properties, env, "cairo.sql.partition.prefetch.queue.capacity", 256);
+            this.partitionPrefetchBudget = getLongSize(properties, env, "cairo.sql.partition.prefetch.budget", 256 * 1024 * 1024);
+            this.partitionPrefetchCount = getInt(properties, env, "cairo.sql.partition.prefetch.count", 0);
+            this.queryAdmissionInteractiveLimit = getInt(properties, env, "cairo.query.admission.interactive.limit", 0);
+            this.queryAdmissionInteractiveMemory = getLongSize(properties, env, "cairo.query.admission.interactive.memory", 0);
+            this.queryAdmissionReportingLimit = getInt(properties, env, "cairo.query.admission.reporting.limit", 0);
+            this.queryAdmissionReportingMemory = getLongSize(properties, env, "cairo.query.admission.reporting.memory", 0);
+            final String reportingUsers = getString(properties, env, "cairo.query.admission.reporting.users", null);
+            if (reportingUsers != null) {
+                for (String user : reportingUsers.split(",")) {
+                    user = user.trim();
+                    if (user.length() > 0) {
+                        queryAdmissionReportingUsers.add(user);
+                    }
+                }
+            }
+            this.queryAdmissionIngestionMemory = getLongSize(properties, env, "cairo.query.admission.ingestion.memory", 0);
+            this.queryAdmissionMemoryLimit = getLongSize(properties, env, "cairo.query.admission.memory.limit", 0);
+            this.queryAdmissionQueueCapacity = getInt(properties, env, "cairo.query.admission.queue.capacity", 64);
+            this.queryAdmissionQueueTimeout = getLong(properties, env, "cairo.query.admission.queue.timeout", 5000);
+            this.hugePagesEnabled = getBoolean(properties, env, "cairo.huge.pages.enabled", false);
+            this.fileMadviseDontNeedEnabled = getBoolean(properties, env, "cairo.file.madvise.dontneed.enabled", false);
+            this.fileMadviseEnabled = getBoolean(properties, env, "cairo.file.madvise.enabled", false);
+            this.readerSharedColumnMappingsEnabled = getBoolean(properties, env, "cairo.reader.shared.column.mappings.enabled", true);
             this.fileOperationRetryCount = getInt(properties, env, "cairo.file.operation.retry.count", 30);
             this.idleCheckInterval = getLong(properties, env, "cairo.idle.check.interval", 5 * 60 * 1000L);
             this.inactiveReaderTTL = getLong(properties, env, "cairo.inactive.reader.ttl", 120_000);
@@ -589,6 +664,17 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxSwapFileCount = getInt(properties, env, "cairo.max.swap.file.count", 30);
             this.parallelIndexThreshold = getInt(properties, env, "cairo.parallel.index.threshold", 100000);
             this.readerPoolMaxSegments = getInt(properties, env, "cairo.reader.pool.max.segments", 5);
+            this.readerPoolPrewarmCount = getInt(properties, env, "cairo.reader.pool.prewarm.count", 1);
+            final String prewarmTables = getString(properties, env, "cairo.reader.pool.prewarm.tables", null);
+            if (prewarmTables != null) {
+                for (String tableName : prewarmTables.split(",")) {
+                    tableName = tableName.trim();
+                    if (tableName.length() > 0) {
+                        readerPoolPrewarmTables.add(tableName);
+                    }
+                }
+            }
+            this.readerPoolRefreshInterval = getLong(properties, env, "cairo.reader.pool.refresh.interval", 50);
             this.spinLockTimeoutUs = getLong(properties, env, "cairo.spin.lock.timeout", 1_000_000);
             this.sqlCacheRows = getInt(properties, env, "cairo.cache.rows", 16);
             this.sqlCacheBlocks = getIntSize(properties, env, "cairo.cache.blocks", 4);
@@ -658,6 +744,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlJitRowsThreshold = getLongSize(properties, env, "cairo.sql.jit.rows.threshold", 1024 * 1024);
             this.sqlJitPageAddressCacheThreshold = getLongSize(properties, env, "cairo.sql.jit.page.address.cache.threshold", 1024 * 1024);
             this.sqlJitDebugEnabled = getBoolean(properties, env, "cairo.sql.jit.debug.enabled", false);
+            this.sqlProjectionBatchSize = getInt(properties, env, "cairo.sql.projection.batch.size", 4096);
+            this.sqlPageFrameMaxRows = getLong(properties, env, "cairo.sql.page.frame.max.rows", 1_000_000);
+            this.sqlPageFrameMaxInFlight = getInt(properties, env, "cairo.sql.page.frame.max.in.flight", 8);
+            this.pageFrameReduceQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.page.frame.reduce.queue.capacity", 64));
 
             this.inputFormatConfiguration = new InputFormatConfiguration(
                     new DateFormatFactory(),
@@ -675,14 +765,18 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.backupDirTimestampFormat = getTimestampFormat(properties, env);
             this.backupTempDirName = getString(properties, env, "cairo.sql.backup.dir.tmp.name", "tmp");
             this.backupMkdirMode = getInt(properties, env, "cairo.sql.backup.mkdir.mode", 509);
+            this.backupCopyQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.backup.copy.queue.capacity", 64));
+            this.backupCopyThroughput = getLongSize(properties, env, "cairo.sql.backup.copy.throughput", 0);
             this.tableBlockWriterQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.table.block.writer.queue.capacity", 256));
             this.columnIndexerQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.column.indexer.queue.capacity", 64));
+            this.columnUpdateQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.column.update.queue.capacity", 64));
             this.vectorAggregateQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.vector.aggregate.queue.capacity", 128));
             this.o3CallbackQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.callback.queue.capacity", 128));
             this.o3PartitionQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.partition.queue.capacity", 128));
             this.o3OpenColumnQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.open.column.queue.capacity", 128));
             this.o3CopyQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.copy.queue.capacity", 128));
             this.o3UpdPartitionSizeQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.upd.partition.size.queue.capacity", 128));
+            this.o3MergeMemoryBudget = getLongSize(properties, env, "cairo.o3.merge.memory.budget", 4L * 1024 * 1024 * 1024);
             this.o3PurgeDiscoveryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.purge.discovery.queue.capacity", 128));
             this.o3PurgeQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.purge.queue.capacity", 128));
             this.o3ColumnMemorySize = (int) Files.ceilPageSize(getIntSize(properties, env, "cairo.o3.column.memory.size", 16 * Numbers.SIZE_1MB));
@@ -733,6 +827,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpNetInterestQueueCapacity = getInt(properties, env, "line.tcp.net.interest.queue.capacity", 1024);
                 this.lineTcpNetListenBacklog = getInt(properties, env, "line.tcp.net.listen.backlog", 50_000);
                 this.lineTcpNetRcvBufSize = getIntSize(properties, env, "line.tcp.net.recv.buf.size", -1);
+                this.lineTcpNetIOURingEnabled = getBoolean(properties, env, "line.tcp.net.io.uring.enabled", false);
                 this.lineTcpConnectionPoolInitialCapacity = getInt(properties, env, "line.tcp.connection.pool.capacity", 64);
                 this.lineTcpTimestampAdapter = getLineTimestampAdaptor(properties, env, "line.tcp.timestamp");
                 this.lineTcpMsgBufferSize = getIntSize(properties, env, "line.tcp.msg.buffer.size", 32768);
@@ -1198,6 +1293,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getQueuedConnectionTimeout() {
             return httpQueuedConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return httpIOURingEnabled;
+        }
     }
 
     private class PropHttpMinIODispatcherConfiguration implements IODispatcherConfiguration {
@@ -1414,6 +1514,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return connectionStringPoolCapacity;
         }
 
+        @Override
+        public int getDeflateLevel() {
+            return httpDeflateLevel;
+        }
+
         @Override
         public boolean getDumpNetworkTraffic() {
             return false;
@@ -1492,6 +1597,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlCacheRows;
         }
 
+        @Override
+        public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+            return httpQueryWorkerPoolConfiguration;
+        }
+
         @Override
         public WaitProcessorConfiguration getWaitProcessorConfiguration() {
             return httpWaitProcessorConfiguration;
@@ -1550,6 +1660,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerDataAppendPageSize;
         }
 
+        @Override
+        public int getBackupCopyQueueCapacity() {
+            return backupCopyQueueCapacity;
+        }
+
+        @Override
+        public long getBackupCopyThroughput() {
+            return backupCopyThroughput;
+        }
+
         @Override
         public DateFormat getBackupDirTimestampFormat() {
             return backupDirTimestampFormat;
@@ -1595,6 +1715,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return columnIndexerQueueCapacity;
         }
 
+        @Override
+        public int getColumnUpdateQueueCapacity() {
+            return columnUpdateQueueCapacity;
+        }
+
         @Override
         public long getCommitLag() {
             return commitLag;
@@ -1790,6 +1915,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3PartitionQueueCapacity;
         }
 
+        @Override
+        public long getO3MergeMemoryBudget() {
+            return o3MergeMemoryBudget;
+        }
+
         @Override
         public int getO3PartitionUpdateQueueCapacity() {
             return o3UpdPartitionSizeQueueCapacity;
@@ -1815,6 +1945,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return readerPoolMaxSegments;
         }
 
+        @Override
+        public int getReaderPoolPrewarmCount() {
+            return readerPoolPrewarmCount;
+        }
+
+        @Override
+        public ObjList<String> getReaderPoolPrewarmTables() {
+            return readerPoolPrewarmTables;
+        }
+
+        @Override
+        public long getReaderPoolRefreshInterval() {
+            return readerPoolRefreshInterval;
+        }
+
         @Override
         public CharSequence getRoot() {
             return root;
@@ -2070,6 +2215,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public int getSqlProjectionBatchSize() {
+            return sqlProjectionBatchSize;
+        }
+
+        @Override
+        public int getSqlPageFrameMaxInFlight() {
+            return sqlPageFrameMaxInFlight;
+        }
+
+        @Override
+        public long getSqlPageFrameMaxRows() {
+            return sqlPageFrameMaxRows;
+        }
+
+        @Override
+        public int getPageFrameReduceQueueCapacity() {
+            return pageFrameReduceQueueCapacity;
+        }
+
         @Override
         public int getRenameTableModelPoolCapacity() {
             return sqlRenameTableModelPoolCapacity;
@@ -2119,6 +2284,91 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean isParallelIndexingEnabled() {
             return parallelIndexingEnabled;
         }
+
+        @Override
+        public boolean isSymbolCapacityAutoScaleEnabled() {
+            return symbolCapacityAutoScaleEnabled;
+        }
+
+        @Override
+        public int getPartitionPrefetchQueueCapacity() {
+            return partitionPrefetchQueueCapacity;
+        }
+
+        @Override
+        public int getQueryAdmissionInteractiveLimit() {
+            return queryAdmissionInteractiveLimit;
+        }
+
+        @Override
+        public long getQueryAdmissionInteractiveMemory() {
+            return queryAdmissionInteractiveMemory;
+        }
+
+        @Override
+        public long getQueryAdmissionIngestionMemory() {
+            return queryAdmissionIngestionMemory;
+        }
+
+        @Override
+        public long getQueryAdmissionMemoryLimit() {
+            return queryAdmissionMemoryLimit;
+        }
+
+        @Override
+        public int getQueryAdmissionQueueCapacity() {
+            return queryAdmissionQueueCapacity;
+        }
+
+        @Override
+        public long getQueryAdmissionQueueTimeout() {
+            return queryAdmissionQueueTimeout;
+        }
+
+        @Override
+        public int getQueryAdmissionReportingLimit() {
+            return queryAdmissionReportingLimit;
+        }
+
+        @Override
+        public long getQueryAdmissionReportingMemory() {
+            return queryAdmissionReportingMemory;
+        }
+
+        @Override
+        public ObjList<String> getQueryAdmissionReportingUsers() {
+            return queryAdmissionReportingUsers;
+        }
+
+        @Override
+        public long getPartitionPrefetchBudget() {
+            return partitionPrefetchBudget;
+        }
+
+        @Override
+        public int getPartitionPrefetchCount() {
+            return partitionPrefetchCount;
+        }
+
+        @Override
+        public boolean isHugePagesEnabled() {
+            return hugePagesEnabled;
+        }
+
+        @Override
+        public boolean isFileMadviseDontNeedEnabled() {
+            return fileMadviseDontNeedEnabled;
+        }
+
+        @Override
+        public boolean isFileMadviseEnabled() {
+            return fileMadviseEnabled;
+        }
+
+        @Override
+        public boolean isReaderSharedColumnMappingsEnabled() {
+            return readerSharedColumnMappingsEnabled;
+        }
     }
 
     private class PropLineUdpReceiverConfiguration implements LineUdpReceiverConfiguration {
@@ -2284,6 +2534,33 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getQueuedConnectionTimeout() {
             return lineTcpNetQueuedConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return lineTcpNetIOURingEnabled;
+        }
+    }
+
+    private class PropHttpQueryWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        @Override
+        public int[] getWorkerAffinity() {
+            return httpQueryWorkerAffinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return httpQueryWorkerCount;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return httpQueryWorkerHaltOnError;
+        }
+
+        @Override
+        public String getPoolName() {
+            return "httpquery";
+        }
     }
 
     private class PropLineTcpWriterWorkerPoolConfiguration implements WorkerPoolAwareConfiguration {
@@ -2469,6 +2746,16 @@ public class PropServerConfiguration implements ServerConfiguration {
     }
 
     private class PropJsonQueryProcessorConfiguration implements JsonQueryProcessorConfiguration {
+        @Override
+        public int getAsyncQueryQueueCapacity() {
+            return httpQueryAsyncQueueCapacity;
+        }
+
+        @Override
+        public long getAsyncQueryThreshold() {
+            return httpQueryAsyncThreshold;
+        }
+
         @Override
         public MillisecondClock getClock() {
             return httpFrozenClock ? StationaryMillisClock.INSTANCE : MillisecondClockImpl.INSTANCE;
@@ -2651,6 +2938,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getQueuedConnectionTimeout() {
             return pgNetQueuedConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return pgNetIOURingEnabled;
+        }
     }
 
     private class PropPGWireConfiguration implements PGWireConfiguration {
@@ -25,6 +25,8 @@
 package io.questdb;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.sql.async.PageFrameReduceJob;
+import io.questdb.cairo.vm.Vm;
 import io.questdb.cutlass.http.HttpServer;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.line.tcp.LineTcpReceiver;
@@ -181,7 +183,12 @@ public class ServerMain {
         workerPool.assign(new O3CopyJob(cairoEngine.getMessageBus()));
         workerPool.assign(new O3PurgeDiscoveryJob(cairoEngine.getMessageBus(), workerPool.getWorkerCount()));
         workerPool.assign(new O3PurgeJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new BackupCopyJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new ColumnUpdateJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new PartitionPrefetchJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new PageFrameReduceJob(cairoEngine.getMessageBus()));
         O3Utils.initBuf(workerPool.getWorkerCount() + 1);
+        Vm.setHugePagesEnabled(configuration.getCairoConfiguration().isHugePagesEnabled());
 
         Metrics metrics;
         if (configuration.getMetricsConfiguration().isEnabled()) {
@@ -189,9 +196,13 @@ public class ServerMain {
         } else {
             metrics = Metrics.disabled();
         }
+        metrics.addO3MergeGauges(cairoEngine.getMessageBus().getO3MergeBudget());
+        metrics.addReaderPoolGauges(cairoEngine);
+        metrics.addQueryAdmissionGauges(cairoEngine.getQueryAdmissionController());
 
         try {
             initQuestDb(workerPool, cairoEngine, log);
+            cairoEngine.prewarmReaders();
 
             instancesToClean.add(createHttpServer(workerPool, log, cairoEngine, functionFactoryCache, metrics));
             instancesToClean.add(createMinHttpServer(workerPool, log, cairoEngine, functionFactoryCache, metrics));
@@ -223,12 +234,16 @@ public class ServerMain {
                 }
             }
 
-            instancesToClean.add(LineTcpReceiver.create(
+            final LineTcpReceiver lineTcpReceiver = LineTcpReceiver.create(
                     configuration.getLineTcpReceiverConfiguration(),
                     workerPool,
                     log,
                     cairoEngine
-            ));
+            );
+            if (lineTcpReceiver != null) {
+                metrics.addLineTcpWriterQueueGauges(lineTcpReceiver);
+            }
+            instancesToClean.add(lineTcpReceiver);
 
             startQuestDb(workerPool, cairoEngine, log);
             if (configuration.getHttpServerConfiguration().isEnabled()) {
@@ -32,6 +32,8 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
     protected TableReader reader;
     protected int partitionHi;
     protected int partitionIndex;
+    // partition of the last frame returned, used to hint OS about access pattern
+    protected int scanPartitionIndex = -1;
 
     @Override
     public void close() {
@@ -64,6 +66,19 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
         return reader.size();
     }
 
+    protected void adviseScan(int partitionIndex, int nextPartitionIndex) {
+        adviseScanComplete();
+        scanPartitionIndex = partitionIndex;
+        reader.adviseSequentialScan(partitionIndex, nextPartitionIndex);
+    }
+
+    protected void adviseScanComplete() {
+        if (scanPartitionIndex != -1) {
+            reader.adviseScanComplete(scanPartitionIndex);
+            scanPartitionIndex = -1;
+        }
+    }
+
     public DataFrameCursor of(TableReader reader) {
         this.reader = reader;
         this.partitionHi = reader.getPartitionCount();
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Unit of work of file level backup. Entry copies one file, or a key/value pair of bitmap index
+ * files, into backup directory. When source is a file of previous backup the entry attempts to
+ * hard link it first and falls back to copying. Entries are shared between the thread that publishes
+ * them and backup copy workers, whoever locks entry first executes it.
+ */
+public class BackupCopyEntry extends AbstractLockable implements Mutable {
+    private static final Log LOG = LogFactory.getLog(BackupCopyEntry.class);
+    private static final long COPY_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_INDEX_COPY_ATTEMPTS = 1000;
+    private FilesFacade ff;
+    private BackupCopyThrottle throttle;
+    private CharSequence srcFile;
+    private CharSequence dstFile;
+    private CharSequence srcValueFile;
+    private CharSequence dstValueFile;
+    private boolean link;
+    private CountDownLatchSPI doneLatch;
+    private volatile boolean failed;
+    private volatile int errno;
+    private volatile boolean linked;
+
+    @Override
+    public void clear() {
+        srcFile = null;
+        dstFile = null;
+        srcValueFile = null;
+        dstValueFile = null;
+        doneLatch = null;
+        failed = false;
+        linked = false;
+        errno = 0;
+    }
+
+    public CharSequence getDstFile() {
+        return dstFile;
+    }
+
+    public int getErrno() {
+        return errno;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public boolean isLinked() {
+        return linked;
+    }
+
+    public boolean run(Path srcPath, Path dstPath) {
+        if (tryLock()) {
+            try {
+                if (copy(srcPath, dstPath, srcFile, dstFile, srcValueFile != null)) {
+                    if (srcValueFile != null) {
+                        copy(srcPath, dstPath, srcValueFile, dstValueFile, false);
+                    }
+                }
+            } catch (Throwable e) {
+                LOG.error().$("backup copy failed [file=").$(srcFile).$(", e=").$(e).I$();
+                failed = true;
+            } finally {
+                doneLatch.countDown();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    void of(
+            int sequence,
+            FilesFacade ff,
+            BackupCopyThrottle throttle,
+            CharSequence srcFile,
+            CharSequence dstFile,
+            CharSequence srcValueFile,
+            CharSequence dstValueFile,
+            boolean link,
+            CountDownLatchSPI doneLatch
+    ) {
+        of(sequence);
+        this.ff = ff;
+        this.throttle = throttle;
+        this.srcFile = srcFile;
+        this.dstFile = dstFile;
+        this.srcValueFile = srcValueFile;
+        this.dstValueFile = dstValueFile;
+        this.link = link;
+        this.doneLatch = doneLatch;
+        this.failed = false;
+        this.linked = false;
+        this.errno = 0;
+    }
+
+    private boolean copy(Path srcPath, Path dstPath, CharSequence src, CharSequence dst, boolean indexKey) {
+        srcPath.of(src).$();
+        dstPath.of(dst).$();
+        if (link && ff.hardLink(srcPath, dstPath) == 0) {
+            linked = true;
+            return true;
+        }
+
+        int attempt = 0;
+        do {
+            if (!copyFile(srcPath, dstPath)) {
+                fail(ff.errno(), srcPath);
+                return false;
+            }
+            // index key file can be concurrently updated by table writer, header of the copy
+            // is only usable when writer was not in the middle of an update
+        } while (indexKey && !isIndexKeyConsistent(dstPath) && ++attempt < MAX_INDEX_COPY_ATTEMPTS);
+
+        if (attempt == MAX_INDEX_COPY_ATTEMPTS) {
+            fail(0, srcPath);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean copyFile(Path srcPath, Path dstPath) {
+        if (!throttle.isEnabled()) {
+            return ff.copy(srcPath, dstPath) > -1;
+        }
+
+        final long srcFd = ff.openRO(srcPath);
+        if (srcFd < 0) {
+            return false;
+        }
+        try {
+            final long dstFd = ff.openRW(dstPath);
+            if (dstFd < 0) {
+                return false;
+            }
+            final long buf = Unsafe.malloc(COPY_BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
+            try {
+                final long len = ff.length(srcFd);
+                long offset = 0;
+                while (offset < len) {
+                    final long n = Math.min(COPY_BUFFER_SIZE, len - offset);
+                    throttle.acquire(n);
+                    if (ff.read(srcFd, buf, n, offset) != n || ff.write(dstFd, buf, n, offset) != n) {
+                        return false;
+                    }
+                    offset += n;
+                }
+                return ff.truncate(dstFd, len);
+            } finally {
+                Unsafe.free(buf, COPY_BUFFER_SIZE, MemoryTag.NATIVE_DEFAULT);
+                ff.close(dstFd);
+            }
+        } finally {
+            ff.close(srcFd);
+        }
+    }
+
+    private void fail(int errno, Path path) {
+        LOG.error().$("could not backup [file=").$(path).$(", errno=").$(errno).I$();
+        this.errno = errno;
+        this.failed = true;
+    }
+
+    private boolean isIndexKeyConsistent(Path path) {
+        final long fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long sequence = ff.readULong(fd, BitmapIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE);
+            return sequence == ff.readULong(fd, BitmapIndexUtils.KEY_RESERVED_OFFSET_SEQUENCE_CHECK);
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
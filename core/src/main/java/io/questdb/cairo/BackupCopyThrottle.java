@@ -0,0 +1,73 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.NanosecondClock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Caps combined throughput of backup copy workers. Each caller reserves a time slot proportional
+ * to the number of bytes it is about to copy and parks until that slot begins. Slots are handed out
+ * back to back, so the aggregate rate across all threads sharing the throttle converges to the
+ * configured number of bytes per second.
+ */
+public class BackupCopyThrottle {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private final NanosecondClock clock;
+    private final AtomicLong horizon = new AtomicLong();
+    private final long bytesPerSecond;
+
+    public BackupCopyThrottle(NanosecondClock clock, long bytesPerSecond) {
+        this.clock = clock;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public void acquire(long bytes) {
+        if (bytesPerSecond < 1) {
+            return;
+        }
+        final long cost = bytes * NANOS_PER_SECOND / bytesPerSecond;
+        final long now = clock.getTicks();
+        long start;
+        while (true) {
+            final long h = horizon.get();
+            start = Math.max(h, now);
+            if (horizon.compareAndSet(h, start + cost)) {
+                break;
+            }
+        }
+        long remaining = start - now;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = start - clock.getTicks();
+        }
+    }
+
+    public boolean isEnabled() {
+        return bytesPerSecond > 0;
+    }
+}
@@ -30,6 +30,7 @@ import io.questdb.cutlass.text.TextConfiguration;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.NanosecondClock;
 import io.questdb.std.NanosecondClockImpl;
+import io.questdb.std.ObjList;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
@@ -46,6 +47,11 @@ public interface CairoConfiguration {
 
     long getDataAppendPageSize();
 
+    int getBackupCopyQueueCapacity();
+
+    // bytes per second, 0 disables throttling
+    long getBackupCopyThroughput();
+
     DateFormat getBackupDirTimestampFormat();
 
     int getBackupMkDirMode();
@@ -65,6 +71,8 @@ public interface CairoConfiguration {
 
     int getColumnIndexerQueueCapacity();
 
+    int getColumnUpdateQueueCapacity();
+
     /**
      * Default commit lag in microseconds for new tables. This value
      * can be overridden with 'create table' statement.
@@ -150,6 +158,8 @@ public interface CairoConfiguration {
 
     int getO3CopyQueueCapacity();
 
+    long getO3MergeMemoryBudget();
+
     int getO3OpenColumnQueueCapacity();
 
     int getO3PartitionQueueCapacity();
@@ -160,8 +170,43 @@ public interface CairoConfiguration {
 
     int getO3PurgeQueueCapacity();
 
+    int getPageFrameReduceQueueCapacity();
+
     int getParallelIndexThreshold();
 
+    long getPartitionPrefetchBudget();
+
+    int getPartitionPrefetchCount();
+
+    int getPartitionPrefetchQueueCapacity();
+
+    int getQueryAdmissionInteractiveLimit();
+
+    long getQueryAdmissionInteractiveMemory();
+
+    /**
+     * Native memory kept free for ingestion, queries are not admitted into it.
+     */
+    long getQueryAdmissionIngestionMemory();
+
+    /**
+     * Native memory limit that admitted queries and their reservations must fit under, 0 disables the check.
+     */
+    long getQueryAdmissionMemoryLimit();
+
+    int getQueryAdmissionQueueCapacity();
+
+    /**
+     * How long, in milliseconds, a query can wait in the admission queue before it is rejected.
+     */
+    long getQueryAdmissionQueueTimeout();
+
+    int getQueryAdmissionReportingLimit();
+
+    long getQueryAdmissionReportingMemory();
+
+    ObjList<String> getQueryAdmissionReportingUsers();
+
     default Rnd getRandom() {
         Rnd rnd = RANDOM.get();
         if (rnd == null) {
@@ -175,6 +220,12 @@ public interface CairoConfiguration {
 
     int getReaderPoolMaxSegments();
 
+    int getReaderPoolPrewarmCount();
+
+    ObjList<String> getReaderPoolPrewarmTables();
+
+    long getReaderPoolRefreshInterval();
+
     int getRenameTableModelPoolCapacity();
 
     CharSequence getRoot(); // some folder with suffix env['cairo.root'] e.g. /.../db
@@ -274,6 +325,12 @@ public interface CairoConfiguration {
 
     long getSqlJitPageAddressCacheThreshold();
 
+    int getSqlProjectionBatchSize();
+
+    int getSqlPageFrameMaxInFlight();
+
+    long getSqlPageFrameMaxRows();
+
     boolean isSqlJitDebugEnabled();
 
     int getTableBlockWriterQueueCapacity();
@@ -298,7 +355,17 @@ public interface CairoConfiguration {
 
     int getWriterTickRowsCountMod();
 
+    boolean isFileMadviseDontNeedEnabled();
+
+    boolean isFileMadviseEnabled();
+
+    boolean isHugePagesEnabled();
+
     boolean isO3QuickSortEnabled();
 
     boolean isParallelIndexingEnabled();
+
+    boolean isReaderSharedColumnMappingsEnabled();
+
+    boolean isSymbolCapacityAutoScaleEnabled();
 }
@@ -65,6 +65,7 @@ public class CairoEngine implements Closeable, WriterSource {
     private final MCSequence tableWriterCmdSubSeq;
     private final long tableIdMemSize;
     private final AtomicLong alterCommandCommandCorrelationId = new AtomicLong();
+    private final QueryAdmissionController queryAdmissionController;
     private long tableIdFd = -1;
     private long tableIdMem = 0;
 
@@ -74,6 +75,7 @@ public class CairoEngine implements Closeable, WriterSource {
         this.writerPool = new WriterPool(configuration, messageBus);
         this.readerPool = new ReaderPool(configuration);
         this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
+        this.queryAdmissionController = new QueryAdmissionController(configuration);
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
             this.telemetryPubSeq = new MPSequence(telemetryQueue.getCycle());
@@ -181,6 +183,18 @@ public class CairoEngine implements Closeable, WriterSource {
         return readerPool.getBusyCount();
     }
 
+    public long getReaderPoolHitCount() {
+        return readerPool.getHitCount();
+    }
+
+    public long getReaderPoolMissCount() {
+        return readerPool.getMissCount();
+    }
+
+    public long getReaderPoolReloadCount() {
+        return readerPool.getReloadCount();
+    }
+
     public int getBusyWriterCount() {
         return writerPool.getBusyCount();
     }
@@ -207,6 +221,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return next + 1;
     }
 
+    public QueryAdmissionController getQueryAdmissionController() {
+        return queryAdmissionController;
+    }
+
     public PoolListener getPoolListener() {
         return this.writerPool.getPoolListener();
     }
@@ -360,6 +378,34 @@ public class CairoEngine implements Closeable, WriterSource {
         writerPool.releaseAll();
     }
 
+    /**
+     * Opens readers for tables listed in configuration and returns them to the pool, so that
+     * first queries against these tables do not pay reader open cost. Tables that cannot be
+     * opened are logged and skipped.
+     */
+    public void prewarmReaders() {
+        final ObjList<String> tableNames = configuration.getReaderPoolPrewarmTables();
+        final int count = Math.min(configuration.getReaderPoolPrewarmCount(), readerPool.getMaxEntries());
+        final ObjList<TableReader> readers = new ObjList<>(count);
+        for (int i = 0, n = tableNames.size(); i < n; i++) {
+            final String tableName = tableNames.getQuick(i);
+            try {
+                for (int j = 0; j < count; j++) {
+                    readers.add(readerPool.get(tableName));
+                }
+                LOG.info().$("prewarmed readers [table=").utf8(tableName).$(", count=").$(readers.size()).I$();
+            } catch (CairoException e) {
+                LOG.error().$("could not prewarm readers [table=").utf8(tableName)
+                        .$(", errno=").$(e.getErrno())
+                        .$(", error=").$(e.getFlyweightMessage())
+                        .I$();
+            } finally {
+                Misc.freeObjListAndKeepObjects(readers);
+                readers.clear();
+            }
+        }
+    }
+
     public boolean releaseInactive() {
         boolean useful = writerPool.releaseInactive();
         useful |= readerPool.releaseInactive();
@@ -510,11 +556,14 @@ public class CairoEngine implements Closeable, WriterSource {
 
         private final MicrosecondClock clock;
         private final long checkInterval;
+        private final long readerRefreshInterval;
         private long last = 0;
+        private long lastReaderRefresh = 0;
 
         public EngineMaintenanceJob(CairoConfiguration configuration) {
             this.clock = configuration.getMicrosecondClock();
             this.checkInterval = configuration.getIdleCheckInterval() * 1000;
+            this.readerRefreshInterval = configuration.getReaderPoolRefreshInterval() * 1000;
         }
 
         @Override
@@ -525,6 +574,10 @@ public class CairoEngine implements Closeable, WriterSource {
                 // process and drain cmd queue
                 useful = true;
             }
+            if (readerRefreshInterval > 0 && lastReaderRefresh + readerRefreshInterval < t) {
+                lastReaderRefresh = t;
+                useful |= readerPool.reloadInactive();
+            }
             if (last + checkInterval < t) {
                 last = t;
                 return useful | releaseInactive();
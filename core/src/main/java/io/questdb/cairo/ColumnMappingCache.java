@@ -0,0 +1,218 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Read-only column file mappings shared by all pooled readers of a table. Readers that
+ * open the same partition of the same table version reuse one mapping instead of each
+ * mapping the file. Mappings are reference counted and unmapped when the last reader
+ * releases them.
+ * <p>
+ * A mapping is identified by file path, which carries partition name txn, and by table
+ * structure and data versions. Version mismatch means the file could have been
+ * recreated under the same name, in which case the existing mapping is detached from
+ * the cache and stays alive only for readers that still reference it. The same happens
+ * when reader needs more of the file than is mapped, e.g. in the active partition:
+ * larger mapping replaces the smaller one in the cache.
+ */
+public class ColumnMappingCache {
+    private static final Log LOG = LogFactory.getLog(ColumnMappingCache.class);
+    private final ConcurrentHashMap<Mapping> mappings = new ConcurrentHashMap<>();
+    private final StringSink lookupKey = new StringSink();
+    private int mapCount;
+
+    public synchronized Mapping acquire(
+            FilesFacade ff,
+            LPSZ name,
+            long structureVersion,
+            long dataVersion,
+            long size,
+            int memoryTag
+    ) {
+        lookupKey.clear();
+        lookupKey.put(name);
+        final Mapping current = mappings.get(lookupKey);
+        if (current != null && current.structureVersion == structureVersion && current.dataVersion == dataVersion) {
+            if (current.size >= size) {
+                current.refCount++;
+                return current;
+            }
+            return map(current.file, current.key, size, memoryTag, structureVersion, dataVersion, true);
+        }
+
+        if (!ff.exists(name)) {
+            throw CairoException.instance(0).put("File not found: ").put(name);
+        }
+        final FileHandle file = new FileHandle(ff, TableUtils.openRO(ff, name, LOG));
+        try {
+            return map(file, lookupKey.toString(), size, memoryTag, structureVersion, dataVersion, true);
+        } finally {
+            file.release();
+        }
+    }
+
+    /**
+     * Applies madvise() to the range of the mapping. Releasing pages would penalise other
+     * readers of the same mapping, so MADV_DONTNEED is skipped when the mapping is shared.
+     * Reference count is checked under the cache lock, the same lock acquire() takes to
+     * hand the mapping to another reader.
+     */
+    public synchronized void advise(Mapping mapping, long address, long size, int advice) {
+        if (advice != Files.MADV_DONTNEED || mapping.refCount == 1) {
+            mapping.file.ff.madvise(address, size, advice);
+        }
+    }
+
+    /**
+     * Swaps mapping for the one that covers at least newSize bytes of the same file.
+     * Reference to the original mapping is released.
+     */
+    public synchronized Mapping extend(Mapping mapping, long newSize) {
+        final Mapping current = mappings.get(mapping.key);
+        final boolean sameVersion = current != null
+                && current.structureVersion == mapping.structureVersion
+                && current.dataVersion == mapping.dataVersion;
+        final Mapping result;
+        if (sameVersion && current.size >= newSize) {
+            current.refCount++;
+            result = current;
+        } else {
+            // newer version of the file is in the cache, we must not replace it with the older one
+            result = map(mapping.file, mapping.key, newSize, mapping.memoryTag, mapping.structureVersion, mapping.dataVersion, current == null || sameVersion);
+        }
+        release(mapping);
+        return result;
+    }
+
+    public synchronized int getMapCount() {
+        return mapCount;
+    }
+
+    public synchronized void release(Mapping mapping) {
+        assert mapping.refCount > 0;
+        if (--mapping.refCount == 0) {
+            if (mappings.get(mapping.key) == mapping) {
+                mappings.remove(mapping.key);
+            }
+            mapping.free();
+            mapCount--;
+        }
+    }
+
+    private Mapping map(
+            FileHandle file,
+            String key,
+            long size,
+            int memoryTag,
+            long structureVersion,
+            long dataVersion,
+            boolean cache
+    ) {
+        final long address = size > 0 ? TableUtils.mapRO(file.ff, file.fd, size, memoryTag) : 0;
+        final Mapping mapping = new Mapping(key, file, address, size, memoryTag, structureVersion, dataVersion);
+        if (cache) {
+            // mapping that was current until now remains valid for readers referencing it
+            mappings.put(key, mapping);
+        }
+        mapCount++;
+        return mapping;
+    }
+
+    private static class FileHandle {
+        private final FilesFacade ff;
+        private final long fd;
+        private int refCount = 1;
+
+        private FileHandle(FilesFacade ff, long fd) {
+            this.ff = ff;
+            this.fd = fd;
+        }
+
+        private void release() {
+            if (--refCount == 0) {
+                ff.close(fd);
+            }
+        }
+    }
+
+    public static class Mapping {
+        private final String key;
+        private final FileHandle file;
+        private final long address;
+        private final long size;
+        private final int memoryTag;
+        private final long structureVersion;
+        private final long dataVersion;
+        private int refCount = 1;
+
+        private Mapping(
+                String key,
+                FileHandle file,
+                long address,
+                long size,
+                int memoryTag,
+                long structureVersion,
+                long dataVersion
+        ) {
+            this.key = key;
+            this.file = file;
+            this.address = address;
+            this.size = size;
+            this.memoryTag = memoryTag;
+            this.structureVersion = structureVersion;
+            this.dataVersion = dataVersion;
+            file.refCount++;
+        }
+
+        public long getAddress() {
+            return address;
+        }
+
+        public long getFd() {
+            return file.fd;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        private void free() {
+            if (address != 0) {
+                file.ff.munmap(address, size, memoryTag);
+            }
+            LOG.debug().$("unmapped [file=").$(key).$(", fd=").$(file.fd).$(", size=").$(size).$(']').$();
+            file.release();
+        }
+    }
+}
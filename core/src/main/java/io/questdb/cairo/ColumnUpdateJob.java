@@ -0,0 +1,55 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.MessageBus;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.tasks.ColumnUpdateTask;
+
+public class ColumnUpdateJob extends AbstractQueueConsumerJob<ColumnUpdateTask> {
+
+    public ColumnUpdateJob(MessageBus messageBus) {
+        super(messageBus.getColumnUpdateQueue(), messageBus.getColumnUpdateSubSeq());
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor) {
+        final ColumnUpdateTask task = queue.get(cursor);
+        // copy values and release queue item
+        final ColumnUpdater updater = task.updater;
+        final long sequence = task.sequence;
+        final SOCountDownLatch latch = task.countDownLatch;
+        subSeq.done(cursor);
+
+        // writer thread may have stolen this partition while the task waited in the queue
+        if (updater.tryLock(sequence)) {
+            ColumnUpdater.updateAndCountDown(updater, latch);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Writes new version of updated columns in single partition. Files of the current column version are copied
+ * to files suffixed with the update transaction and buffered values are written over the copy. Table writer
+ * buffers row ids and values on its own thread, files are written either by {@link ColumnUpdateJob} or by
+ * the writer when it steals the work back.
+ */
+public class ColumnUpdater implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ColumnUpdater.class);
+    private static final long SEQUENCE_OFFSET;
+    private final Path path = new Path();
+    private final MemoryCARW rowIds;
+    private final ObjList<MemoryCARW> values = new ObjList<>();
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final LongList columnNameTxns = new LongList();
+    private final long pageSize;
+    private FilesFacade ff;
+    private int plen;
+    private long partitionTimestamp;
+    private long partitionSize;
+    private long columnNameTxn;
+    private int commitMode;
+    @SuppressWarnings({"unused", "FieldCanBeLocal", "FieldMayBeFinal"})
+    private volatile long sequence = 0L;
+    private volatile boolean distressed = false;
+
+    public ColumnUpdater(long pageSize) {
+        this.pageSize = pageSize;
+        this.rowIds = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(path);
+        Misc.free(rowIds);
+        Misc.freeObjList(values);
+        values.clear();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    static void updateAndCountDown(ColumnUpdater updater, CountDownLatchSPI latch) {
+        try {
+            updater.update();
+        } catch (Throwable e) {
+            updater.distressed = true;
+            LOG.error().$("could not update [path=").$(updater.path)
+                    .$(", columnNameTxn=").$(updater.columnNameTxn)
+                    .$(", e=").$(e)
+                    .I$();
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    void addColumn(CharSequence columnName, int columnType, long srcColumnNameTxn) {
+        final int index = columnNames.size();
+        columnNames.add(columnName);
+        columnTypes.add(columnType);
+        columnNameTxns.add(srcColumnNameTxn);
+        if (index < values.size()) {
+            values.getQuick(index).jumpTo(0);
+        } else {
+            values.add(Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT));
+        }
+    }
+
+    void addRow(long row) {
+        rowIds.putLong(row);
+    }
+
+    long getPartitionTimestamp() {
+        return partitionTimestamp;
+    }
+
+    long getRowCount() {
+        return rowIds.getAppendOffset() / Long.BYTES;
+    }
+
+    long getValueAddress(int columnIndex) {
+        return values.getQuick(columnIndex).appendAddressFor(1L << ColumnType.pow2SizeOf(columnTypes.getQuick(columnIndex)));
+    }
+
+    boolean isDistressed() {
+        return distressed;
+    }
+
+    void of(
+            FilesFacade ff,
+            Path partitionPath,
+            long partitionTimestamp,
+            long partitionSize,
+            long columnNameTxn,
+            int commitMode
+    ) {
+        this.ff = ff;
+        this.path.of(partitionPath);
+        this.plen = path.length();
+        this.partitionTimestamp = partitionTimestamp;
+        this.partitionSize = partitionSize;
+        this.columnNameTxn = columnNameTxn;
+        this.commitMode = commitMode;
+        this.distressed = false;
+        this.rowIds.jumpTo(0);
+        this.columnNames.clear();
+        this.columnTypes.clear();
+        this.columnNameTxns.clear();
+    }
+
+    private static void scatter(long dstAddr, long valueAddr, long rowIdAddr, long rowCount, int shl) {
+        for (long i = 0; i < rowCount; i++) {
+            final long row = Unsafe.getUnsafe().getLong(rowIdAddr + i * Long.BYTES);
+            final long dst = dstAddr + (row << shl);
+            final long src = valueAddr + (i << shl);
+            switch (shl) {
+                case 0:
+                    Unsafe.getUnsafe().putByte(dst, Unsafe.getUnsafe().getByte(src));
+                    break;
+                case 1:
+                    Unsafe.getUnsafe().putShort(dst, Unsafe.getUnsafe().getShort(src));
+                    break;
+                case 2:
+                    Unsafe.getUnsafe().putInt(dst, Unsafe.getUnsafe().getInt(src));
+                    break;
+                case 3:
+                    Unsafe.getUnsafe().putLong(dst, Unsafe.getUnsafe().getLong(src));
+                    break;
+                default:
+                    Vect.memcpy(dst, src, 1L << shl);
+                    break;
+            }
+        }
+    }
+
+    private void update() {
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            updateColumn(i);
+        }
+    }
+
+    private void updateColumn(int index) {
+        final CharSequence columnName = columnNames.getQuick(index);
+        final int columnType = columnTypes.getQuick(index);
+        final long srcColumnNameTxn = columnNameTxns.getQuick(index);
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final long size = partitionSize << shl;
+
+        // column that has been added after partition was written has no file, column top spans whole partition
+        long columnTop = partitionSize;
+        if (ff.exists(TableUtils.dFile(path.trimTo(plen), columnName, srcColumnNameTxn))) {
+            columnTop = Math.min(TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, srcColumnNameTxn, true), partitionSize);
+        }
+
+        final long fd = TableUtils.openRW(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+        long addr = 0;
+        try {
+            if (!ff.truncate(fd, size)) {
+                throw CairoException.instance(ff.errno()).put("could not truncate [file=").put(path).put(", size=").put(size).put(']');
+            }
+            addr = TableUtils.mapRW(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+
+            // new version is written in full, column top of the current version becomes nulls
+            if (columnTop > 0) {
+                O3OpenColumnJob.setNull(columnType, addr, columnTop);
+            }
+            if (columnTop < partitionSize) {
+                final long srcSize = (partitionSize - columnTop) << shl;
+                final long srcFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, srcColumnNameTxn), LOG);
+                try {
+                    final long srcAddr = TableUtils.mapRO(ff, srcFd, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+                    Vect.memcpy(addr + (columnTop << shl), srcAddr, srcSize);
+                    ff.munmap(srcAddr, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+                } finally {
+                    ff.close(srcFd);
+                }
+            }
+
+            scatter(addr, values.getQuick(index).getAddress(), rowIds.getAddress(), getRowCount(), shl);
+
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.msync(addr, size, commitMode == CommitMode.ASYNC);
+            }
+        } finally {
+            if (addr != 0) {
+                ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+            path.trimTo(plen);
+        }
+    }
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(ColumnUpdater.class, "sequence");
+    }
+}
@@ -34,6 +34,7 @@ import io.questdb.std.str.LPSZ;
 import java.io.Closeable;
 
 public class ColumnVersionReader implements Closeable {
+    private final FilesFacade ff;
     private final MemoryCMR mem;
     private final LongList cachedList = new LongList();
 
@@ -41,6 +42,7 @@ public class ColumnVersionReader implements Closeable {
     // it can be zero when there are no columns deviating from the main
     // data branch
     public ColumnVersionReader(FilesFacade ff, LPSZ fileName, long size) {
+        this.ff = ff;
         this.mem = Vm.getCMRInstance(ff, fileName, size, MemoryTag.MMAP_TABLE_READER);
     }
 
@@ -49,10 +51,34 @@ public class ColumnVersionReader implements Closeable {
         mem.close();
     }
 
+    public long getColumnNameTxn(long partitionTimestamp, int columnIndex) {
+        return ColumnVersionWriter.getColumnNameTxn(cachedList, partitionTimestamp, columnIndex);
+    }
+
     public LongList getCachedList() {
         return cachedList;
     }
 
+    /**
+     * Reads area referenced by transaction that has been read concurrently with the writer. Offset and size
+     * are torn when writer commits at the same time, such values are rejected rather than read.
+     *
+     * @param offset   area offset, from transaction file
+     * @param areaSize area size, from transaction file
+     * @return false when offset and size do not point at area of the file, caller is expected to re-read transaction
+     */
+    public boolean readSafe(long offset, long areaSize) {
+        if (offset < 0 || areaSize < 0 || areaSize % ColumnVersionWriter.BLOCK_SIZE_BYTES != 0) {
+            return false;
+        }
+        final long lim = offset + areaSize;
+        if (lim > mem.size() && lim > ff.length(mem.getFd())) {
+            return false;
+        }
+        readUnsafe(offset, areaSize);
+        return true;
+    }
+
     public void readUnsafe(long offset, long areaSize) {
         resize(offset + areaSize);
 
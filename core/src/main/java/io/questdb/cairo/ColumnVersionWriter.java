@@ -104,6 +104,10 @@ public class ColumnVersionWriter implements Closeable {
         }
     }
 
+    public void clear() {
+        cachedList.clear();
+    }
+
     @Override
     public void close() {
         mem.close();
@@ -146,12 +150,17 @@ public class ColumnVersionWriter implements Closeable {
 
                 // is area 'A' above 'B' ?
                 if (aOffset < bOffset) {
-                    if (aSize <= bOffset - headerSize) {
+                    if (areaSize <= bOffset - headerSize) {
                         aOffset = headerSize;
                     } else {
                         aOffset = bOffset + bSize;
                         bumpFileSize(aOffset + areaSize);
                     }
+                } else {
+                    // check if file is big enough
+                    if (aSize < areaSize) {
+                        bumpFileSize(aOffset + areaSize);
+                    }
                 }
                 store(entryCount, aOffset);
                 // update offsets of 'A'
@@ -184,6 +193,10 @@ public class ColumnVersionWriter implements Closeable {
         }
     }
 
+    public long getColumnNameTxn(long partitionTimestamp, int columnIndex) {
+        return getColumnNameTxn(cachedList, partitionTimestamp, columnIndex);
+    }
+
     public long getOffset() {
         return transientOffset;
     }
@@ -212,6 +225,80 @@ public class ColumnVersionWriter implements Closeable {
         return (char) mem.getByte(OFFSET_AREA) == 'B';
     }
 
+    /**
+     * Reads area committed to the transaction file into the cached list. Area switch is aligned with the committed
+     * area, next commit must not overwrite entries readers of the committed transaction are using.
+     *
+     * @param offset   committed area offset, from transaction file
+     * @param areaSize committed area size, from transaction file
+     */
+    public void readUnsafe(long offset, long areaSize) {
+        cachedList.clear();
+        if (areaSize > 0) {
+            cachedList.setPos((int) (areaSize / Long.BYTES));
+            for (int i = 0, n = cachedList.size(); i < n; i++) {
+                cachedList.setQuick(i, mem.getLong(offset + (long) i * Long.BYTES));
+            }
+        }
+        if (size > 0) {
+            if (offset == getOffsetA()) {
+                switchToA();
+            } else if (offset == getOffsetB()) {
+                switchToB();
+            }
+        }
+    }
+
+    /**
+     * Removes entries of the column and shifts indexes of columns above it down by one.
+     *
+     * @param columnIndex index of removed column
+     */
+    public void removeColumn(int columnIndex) {
+        for (int i = cachedList.size() - BLOCK_SIZE; i > -1; i -= BLOCK_SIZE) {
+            final long thisIndex = cachedList.getQuick(i + 1);
+            if (thisIndex == columnIndex) {
+                cachedList.removeIndexBlock(i, BLOCK_SIZE);
+            } else if (thisIndex > columnIndex) {
+                cachedList.setQuick(i + 1, thisIndex - 1);
+            }
+        }
+    }
+
+    /**
+     * Removes entries of all columns of the partition.
+     *
+     * @param partitionTimestamp partition timestamp
+     */
+    public void removePartition(long partitionTimestamp) {
+        final int index = cachedList.binarySearchBlock(BLOCK_SIZE_MSB, partitionTimestamp, BinarySearch.SCAN_UP);
+        if (index > -1) {
+            final int size = cachedList.size();
+            int hi = index + BLOCK_SIZE;
+            while (hi < size && cachedList.getQuick(hi) == partitionTimestamp) {
+                hi += BLOCK_SIZE;
+            }
+            cachedList.arrayCopy(hi, index, size - hi);
+            cachedList.setPos(size - hi + index);
+        }
+    }
+
+    static long getColumnNameTxn(LongList cachedList, long partitionTimestamp, int columnIndex) {
+        int index = cachedList.binarySearchBlock(BLOCK_SIZE_MSB, partitionTimestamp, BinarySearch.SCAN_UP);
+        if (index > -1) {
+            for (int n = cachedList.size(); index < n && cachedList.getQuick(index) == partitionTimestamp; index += BLOCK_SIZE) {
+                final long thisIndex = cachedList.getQuick(index + 1);
+                if (thisIndex == columnIndex) {
+                    return cachedList.getQuick(index + 2);
+                }
+                if (thisIndex > columnIndex) {
+                    break;
+                }
+            }
+        }
+        return TableUtils.COLUMN_NAME_TXN_NONE;
+    }
+
     private void bumpFileSize(long size) {
         mem.setSize(size);
         this.size = size;
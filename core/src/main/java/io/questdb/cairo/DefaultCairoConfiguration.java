@@ -38,6 +38,8 @@ import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 
 public class DefaultCairoConfiguration implements CairoConfiguration {
 
+    private static final ObjList<String> NO_TABLES = new ObjList<>();
+    private static final ObjList<String> NO_USERS = new ObjList<>();
     private final CharSequence root;
     private final CharSequence confRoot;
 
@@ -188,6 +190,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 5;
     }
 
+    @Override
+    public int getReaderPoolPrewarmCount() {
+        return 1;
+    }
+
+    @Override
+    public ObjList<String> getReaderPoolPrewarmTables() {
+        return NO_TABLES;
+    }
+
+    @Override
+    public long getReaderPoolRefreshInterval() {
+        return 50;
+    }
+
     @Override
     public CharSequence getRoot() {
         return root;
@@ -213,6 +230,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return null;
     }
 
+    @Override
+    public int getBackupCopyQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public long getBackupCopyThroughput() {
+        return 0;
+    }
+
     @Override
     public DateFormat getBackupDirTimestampFormat() {
         return null;
@@ -525,6 +552,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getColumnUpdateQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getVectorAggregateQueueCapacity() {
         return 1024;
@@ -555,6 +587,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getO3MergeMemoryBudget() {
+        return 4L * 1024 * 1024 * 1024;
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return buildInformation;
@@ -590,6 +627,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return false;
     }
 
+    @Override
+    public boolean isSymbolCapacityAutoScaleEnabled() {
+        return true;
+    }
+
     @Override
     public int getLatestByQueueCapacity() {
         return 32;
@@ -640,8 +682,108 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB;
     }
 
+    @Override
+    public int getSqlProjectionBatchSize() {
+        return 4096;
+    }
+
+    @Override
+    public int getSqlPageFrameMaxInFlight() {
+        return 8;
+    }
+
+    @Override
+    public long getSqlPageFrameMaxRows() {
+        return 1_000_000;
+    }
+
     @Override
     public boolean isSqlJitDebugEnabled() {
         return false;
     }
+
+    @Override
+    public boolean isFileMadviseEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isFileMadviseDontNeedEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isReaderSharedColumnMappingsEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isHugePagesEnabled() {
+        return false;
+    }
+
+    @Override
+    public int getPartitionPrefetchCount() {
+        return 0;
+    }
+
+    @Override
+    public long getPartitionPrefetchBudget() {
+        return 256 * 1024 * 1024;
+    }
+
+    @Override
+    public int getPartitionPrefetchQueueCapacity() {
+        return 256;
+    }
+
+    @Override
+    public int getQueryAdmissionInteractiveLimit() {
+        return 0;
+    }
+
+    @Override
+    public long getQueryAdmissionInteractiveMemory() {
+        return 0;
+    }
+
+    @Override
+    public long getQueryAdmissionIngestionMemory() {
+        return 0;
+    }
+
+    @Override
+    public long getQueryAdmissionMemoryLimit() {
+        return 0;
+    }
+
+    @Override
+    public int getQueryAdmissionQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public long getQueryAdmissionQueueTimeout() {
+        return 5000;
+    }
+
+    @Override
+    public int getQueryAdmissionReportingLimit() {
+        return 0;
+    }
+
+    @Override
+    public long getQueryAdmissionReportingMemory() {
+        return 0;
+    }
+
+    @Override
+    public ObjList<String> getQueryAdmissionReportingUsers() {
+        return NO_USERS;
+    }
+
+    @Override
+    public int getPageFrameReduceQueueCapacity() {
+        return 64;
+    }
 }
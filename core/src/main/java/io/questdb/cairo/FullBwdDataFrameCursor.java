@@ -36,6 +36,7 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
                 // this partition is missing, skip
                 partitionIndex--;
             } else {
+                adviseScan(partitionIndex, partitionIndex - 1);
                 frame.partitionIndex = partitionIndex;
                 frame.rowHi = hi;
                 partitionIndex--;
@@ -43,11 +44,13 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
 
             }
         }
+        adviseScanComplete();
         return null;
     }
 
     @Override
     public void toTop() {
+        this.scanPartitionIndex = -1;
         this.partitionIndex = this.partitionHi - 1;
     }
 }
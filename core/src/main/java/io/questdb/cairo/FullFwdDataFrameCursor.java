@@ -28,6 +28,15 @@ import io.questdb.cairo.sql.DataFrame;
 import org.jetbrains.annotations.Nullable;
 
 public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
+    private final PartitionPrefetcher prefetcher;
+
+    public FullFwdDataFrameCursor() {
+        this(null);
+    }
+
+    public FullFwdDataFrameCursor(@Nullable PartitionPrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
+    }
 
     @Override
     public @Nullable DataFrame next() {
@@ -37,6 +46,10 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
                 // this partition is missing, skip
                 partitionIndex++;
             } else {
+                adviseScan(partitionIndex, partitionIndex + 1);
+                if (prefetcher != null) {
+                    prefetcher.prefetch(reader, partitionIndex, partitionHi);
+                }
                 frame.partitionIndex = partitionIndex;
                 frame.rowHi = hi;
                 partitionIndex++;
@@ -44,12 +57,17 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
 
             }
         }
+        adviseScanComplete();
         return null;
     }
 
 
     @Override
     public void toTop() {
+        this.scanPartitionIndex = -1;
         this.partitionIndex = 0;
+        if (prefetcher != null) {
+            prefetcher.clear();
+        }
     }
 }
@@ -28,10 +28,11 @@ import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.griffin.SqlExecutionContext;
 
 public class FullFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactory {
-    private final FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor();
+    private final FullFwdDataFrameCursor cursor;
 
     public FullFwdDataFrameCursorFactory(CairoEngine engine, String tableName, int tableId, long tableVersion) {
         super(engine, tableName, tableId, tableVersion);
+        this.cursor = new FullFwdDataFrameCursor(PartitionPrefetcher.newInstance(engine));
     }
 
     @Override
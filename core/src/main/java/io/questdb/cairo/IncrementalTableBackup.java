@@ -0,0 +1,434 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.tasks.BackupCopyTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * File level table backup. Instead of copying rows through table writer, files of the transaction
+ * pinned by table reader are copied as they are. Reader holds its transaction in the scoreboard,
+ * which keeps partition versions it uses on disk for the duration of the copy without blocking
+ * the table writer.
+ * <p>
+ * Backup is incremental when previous backup of the same table is supplied. Partitions, whose
+ * name txn, data txn and size are the same in both transactions, are hard linked from the previous
+ * backup rather than copied. Partitions are compared only when table structure and data versions
+ * did not change between the two backups, otherwise all files are copied.
+ * <p>
+ * Files are copied in parallel by {@link BackupCopyJob} workers, the calling thread copies what
+ * workers have not picked up.
+ */
+public class IncrementalTableBackup implements Closeable {
+    private static final Log LOG = LogFactory.getLog(IncrementalTableBackup.class);
+    private final CairoConfiguration configuration;
+    private final FilesFacade ff;
+    private final RingQueue<BackupCopyTask> queue;
+    private final Sequence pubSeq;
+    private final BackupCopyThrottle throttle;
+    private final ObjList<BackupCopyEntry> entries = new ObjList<>();
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final MemoryMARW mem = Vm.getMARWInstance();
+    private final Path path = new Path();
+    private final Path otherPath = new Path();
+    private final Path copySrcPath = new Path();
+    private final Path copyDstPath = new Path();
+    private final StringSink fileNameSink = new StringSink();
+    private final StringSink previousBackupSink = new StringSink();
+    private final long tempMem8b;
+    private int entryCount;
+    private int publishedCount;
+    // state of previous backup discovery
+    private CharSequence backupRoot;
+    private CharSequence tempDirName;
+    private CharSequence tableName;
+    private int tableId;
+    private long maxTxn;
+    private long previousBackupTxn;
+    private final FindVisitor previousBackupOnFind = (pUtf8NameZ, type) -> {
+        if (Files.isDir(pUtf8NameZ, type, fileNameSink) && !Chars.equals(fileNameSink, tempDirName)) {
+            checkPreviousBackup(fileNameSink);
+        }
+    };
+    // state of partition copy
+    private CharSequence srcDir;
+    private CharSequence dstDir;
+    private boolean linkFiles;
+    private final FindVisitor partitionFileOnFind = (pUtf8NameZ, type) -> {
+        if (type == Files.DT_FILE) {
+            fileNameSink.clear();
+            Chars.utf8DecodeZ(pUtf8NameZ, fileNameSink);
+            publishPartitionFile(fileNameSink);
+        }
+    };
+
+    public IncrementalTableBackup(CairoConfiguration configuration, MessageBus messageBus) {
+        this.configuration = configuration;
+        this.ff = configuration.getFilesFacade();
+        this.queue = messageBus.getBackupCopyQueue();
+        this.pubSeq = messageBus.getBackupCopyPubSeq();
+        this.throttle = new BackupCopyThrottle(configuration.getNanosecondClock(), configuration.getBackupCopyThroughput());
+        this.tempMem8b = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    /**
+     * Copies table files of the transaction held by reader to backupDir/tableName.
+     *
+     * @param reader            reader pinning transaction to back up
+     * @param backupDir         directory to create table backup in, table directory must not exist
+     * @param previousTableDir  table directory of previous backup or null for full backup
+     * @param mkDirMode         mode of directories to be created
+     */
+    public void backup(TableReader reader, CharSequence backupDir, @Nullable CharSequence previousTableDir, int mkDirMode) {
+        final CharSequence tableName = reader.getTableName();
+        path.of(backupDir).concat(tableName).slash$();
+        if (ff.exists(path)) {
+            throw CairoException.instance(0).put("Backup dir for table \"").put(tableName).put("\" already exists [dir=").put(path).put(']');
+        }
+        if (ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("Could not create [dir=").put(path).put(']');
+        }
+        final String tableBackupDir = Chars.toString(path.trimTo(path.length() - 1));
+        final String tableDir = Chars.toString(path.of(configuration.getRoot()).concat(tableName));
+        final TxReader txFile = reader.getTxFile();
+        final TxReader previousTxFile = openPreviousTxn(reader, previousTableDir);
+
+        int linkedPartitions = 0;
+        entryCount = 0;
+        publishedCount = 0;
+        doneLatch.reset();
+        try {
+            copySymbolMapFiles(reader, tableDir, tableBackupDir);
+
+            final int partitionBy = reader.getPartitionedBy();
+            for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+                final long timestamp = txFile.getPartitionTimestamp(i);
+                final long nameTxn = txFile.getPartitionNameTxn(i);
+                path.of(tableBackupDir);
+                setPartitionDir(path, partitionBy, timestamp, nameTxn);
+                if (ff.mkdirs(path.slash$(), mkDirMode) != 0) {
+                    throw CairoException.instance(ff.errno()).put("Could not create [dir=").put(path).put(']');
+                }
+                dstDir = Chars.toString(path.trimTo(path.length() - 1));
+
+                final int previousIndex = previousTxFile != null ? previousTxFile.findAttachedPartitionIndexByLoTimestamp(timestamp) : -1;
+                if (previousIndex > -1
+                        && previousTxFile.getPartitionNameTxnByIndex(previousIndex) == nameTxn
+                        && previousTxFile.getPartitionDataTxnByIndex(previousIndex) == txFile.getPartitionDataTxn(i)
+                        && previousTxFile.getPartitionSizeByIndex(previousIndex) == txFile.getPartitionSize(i)
+                ) {
+                    path.of(previousTableDir);
+                    linkFiles = true;
+                    linkedPartitions++;
+                } else {
+                    path.of(tableDir);
+                    linkFiles = false;
+                }
+                setPartitionDir(path, partitionBy, timestamp, nameTxn);
+                srcDir = Chars.toString(path);
+                if (ff.exists(path.$())) {
+                    ff.iterateDir(path, partitionFileOnFind);
+                }
+            }
+            awaitCompletion();
+
+            path.of(tableBackupDir).concat(TableUtils.META_FILE_NAME).$();
+            try {
+                mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+                reader.getMetadata().cloneTo(mem);
+                mem.smallFile(ff, path.of(tableBackupDir).concat(TableUtils.TXN_FILE_NAME).$(), MemoryTag.MMAP_DEFAULT);
+                reader.dumpTxn(mem);
+                copyColumnVersions(reader, tableBackupDir);
+            } finally {
+                mem.close();
+            }
+        } finally {
+            // entries must not outlive the backup, stale queue items may still point at them
+            awaitCompletion0();
+            Misc.free(previousTxFile);
+            srcDir = null;
+            dstDir = null;
+        }
+
+        LOG.info().$("backup copied [table=").$(tableName)
+                .$(", partitions=").$(txFile.getPartitionCount())
+                .$(", linkedPartitions=").$(linkedPartitions)
+                .$(", files=").$(entryCount)
+                .I$();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(mem);
+        Misc.free(path);
+        Misc.free(otherPath);
+        Misc.free(copySrcPath);
+        Misc.free(copyDstPath);
+        Unsafe.free(tempMem8b, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    /**
+     * Finds the most recent backup of the table under backup root. Backup is considered only when it is
+     * a backup of the same table instance, i.e. table id matches, and its transaction is not newer
+     * than transaction of the reader.
+     *
+     * @param reader     reader of the table being backed up
+     * @param backupRoot backup root directory
+     * @return table directory of previous backup or null if there is none
+     */
+    @Nullable
+    public CharSequence findPreviousBackup(TableReader reader, CharSequence backupRoot) {
+        this.backupRoot = backupRoot;
+        this.tempDirName = configuration.getBackupTempDirName();
+        this.tableName = reader.getTableName();
+        this.tableId = reader.getMetadata().getId();
+        this.maxTxn = reader.getTxn();
+        this.previousBackupTxn = -1;
+        previousBackupSink.clear();
+        try {
+            ff.iterateDir(otherPath.of(backupRoot).$(), previousBackupOnFind);
+        } finally {
+            this.backupRoot = null;
+            this.tableName = null;
+        }
+        return previousBackupTxn > -1 ? previousBackupSink : null;
+    }
+
+    private static void setPartitionDir(Path path, int partitionBy, long timestamp, long nameTxn) {
+        PartitionBy.setSinkForPartition(path.slash(), partitionBy, timestamp, false);
+        TableUtils.txnPartitionConditionally(path, nameTxn);
+    }
+
+    private void awaitCompletion() {
+        awaitCompletion0();
+        for (int i = 0; i < entryCount; i++) {
+            final BackupCopyEntry entry = entries.getQuick(i);
+            if (entry.isFailed()) {
+                throw CairoException.instance(entry.getErrno()).put("could not backup [file=").put(entry.getDstFile()).put(']');
+            }
+        }
+    }
+
+    private void awaitCompletion0() {
+        // copy files workers did not get to
+        for (int i = entryCount - 1; i > -1; i--) {
+            entries.getQuick(i).run(copySrcPath, copyDstPath);
+        }
+        doneLatch.await(publishedCount);
+    }
+
+    private void checkPreviousBackup(CharSequence dirName) {
+        otherPath.of(backupRoot).concat(dirName).concat(configuration.getDbDirectory()).concat(tableName);
+        final int plen = otherPath.length();
+        try {
+            if (!ff.exists(otherPath.concat(TableUtils.META_FILE_NAME).$()) || !ff.exists(otherPath.trimTo(plen).concat(TableUtils.TXN_FILE_NAME).$())) {
+                return;
+            }
+            final long metaFd = TableUtils.openRO(ff, otherPath.trimTo(plen).concat(TableUtils.META_FILE_NAME).$(), LOG);
+            try {
+                if (TableUtils.readIntOrFail(ff, metaFd, TableUtils.META_OFFSET_TABLE_ID, tempMem8b, otherPath) != tableId) {
+                    return;
+                }
+            } finally {
+                ff.close(metaFd);
+            }
+            final long txn = TableUtils.readLongAtOffset(ff, otherPath.trimTo(plen).concat(TableUtils.TXN_FILE_NAME).$(), tempMem8b, TableUtils.TX_OFFSET_TXN);
+            if (txn <= maxTxn && txn > previousBackupTxn) {
+                previousBackupTxn = txn;
+                previousBackupSink.clear();
+                previousBackupSink.put(otherPath.trimTo(plen));
+            }
+        } catch (CairoException e) {
+            LOG.info().$("ignoring backup [path=").$(otherPath.trimTo(plen)).$(", errno=").$(e.getErrno()).I$();
+        } finally {
+            otherPath.trimTo(plen);
+        }
+    }
+
+    /**
+     * Writes column versions of the reader transaction to the backup, versions file of the table can be
+     * overwritten by writer commits after the reader transaction. Transaction file is expected to be
+     * in "mem" and is pointed at the area written.
+     */
+    private void copyColumnVersions(TableReader reader, CharSequence tableBackupDir) {
+        final LongList columnVersions = reader.getColumnVersions();
+        long offset = 0;
+        long size = 0;
+        if (columnVersions != null && columnVersions.size() > 0) {
+            try (ColumnVersionWriter writer = new ColumnVersionWriter(ff, otherPath.of(tableBackupDir).concat(TableUtils.COLUMN_VERSION_FILE_NAME).$(), 0)) {
+                for (int i = 0, n = columnVersions.size(); i < n; i += ColumnVersionWriter.BLOCK_SIZE) {
+                    writer.upsert(columnVersions.getQuick(i), (int) columnVersions.getQuick(i + 1), columnVersions.getQuick(i + 2));
+                }
+                writer.commit();
+                offset = writer.getOffset();
+                size = writer.getSize();
+            }
+        }
+        mem.putLong(TableUtils.TX_OFFSET_COLUMN_VERSION_OFFSET, offset);
+        mem.putLong(TableUtils.TX_OFFSET_COLUMN_VERSION_SIZE, size);
+    }
+
+    private void copySymbolMapFiles(TableReader reader, CharSequence tableDir, CharSequence tableBackupDir) {
+        final TableReaderMetadata metadata = reader.getMetadata();
+        linkFiles = false;
+        srcDir = tableDir;
+        dstDir = tableBackupDir;
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                final CharSequence columnName = metadata.getColumnName(i);
+                // symbol map index can be rebuilt with larger capacity while we copy it,
+                // in which case copy is repeated
+                final long deadline = configuration.getMicrosecondClock().getTicks() + configuration.getSpinLockTimeoutUs();
+                while (true) {
+                    final int version = readSymbolIndexVersion(tableDir, columnName);
+                    if ((version & 1) == 0) {
+                        final int start = entryCount;
+                        publishSymbolMapFiles(columnName);
+                        awaitCompletion();
+                        if (version == readSymbolIndexVersion(tableDir, columnName)) {
+                            break;
+                        }
+                        entryCount = start;
+                    }
+                    if (configuration.getMicrosecondClock().getTicks() > deadline) {
+                        LOG.error().$("symbol map copy timeout [table=").$(reader.getTableName())
+                                .$(", column=").$(columnName)
+                                .$(", timeout=").$(configuration.getSpinLockTimeoutUs()).utf8("μs]").$();
+                        throw CairoException.instance(0).put("could not copy consistent symbol map [table=").put(reader.getTableName())
+                                .put(", column=").put(columnName)
+                                .put(']');
+                    }
+                    LockSupport.parkNanos(1);
+                }
+            }
+        }
+        srcDir = null;
+        dstDir = null;
+    }
+
+    private BackupCopyEntry nextEntry() {
+        BackupCopyEntry entry = entries.getQuiet(entryCount);
+        if (entry == null) {
+            entry = new BackupCopyEntry();
+            entries.extendAndSet(entryCount, entry);
+        }
+        entryCount++;
+        return entry;
+    }
+
+    @Nullable
+    private TxReader openPreviousTxn(TableReader reader, @Nullable CharSequence previousTableDir) {
+        if (previousTableDir == null) {
+            return null;
+        }
+        final TxReader txReader = new TxReader(ff, otherPath.of(previousTableDir), reader.getPartitionedBy());
+        txReader.unsafeLoadAll();
+        if (txReader.getStructureVersion() == reader.getVersion() && txReader.getDataVersion() == reader.getDataVersion()) {
+            return txReader;
+        }
+        LOG.info().$("table changed since previous backup, copying all files [table=").$(reader.getTableName())
+                .$(", previous=").$(previousTableDir)
+                .I$();
+        txReader.close();
+        return null;
+    }
+
+    private void publish(CharSequence srcFile, CharSequence dstFile, CharSequence srcValueFile, CharSequence dstValueFile) {
+        final BackupCopyEntry entry = nextEntry();
+        entry.of(entryCount, ff, throttle, srcFile, dstFile, srcValueFile, dstValueFile, linkFiles, doneLatch);
+        publishedCount++;
+        final long cursor = pubSeq.next();
+        if (cursor < 0) {
+            entry.run(copySrcPath, copyDstPath);
+        } else {
+            queue.get(cursor).entry = entry;
+            pubSeq.done(cursor);
+        }
+    }
+
+    private void publishPartitionFile(CharSequence fileName) {
+        final int len = fileName.length();
+        if (Chars.endsWith(fileName, ".v") && ff.exists(path.of(srcDir).concat(fileName, 0, len - 2).put(".k").$())) {
+            // value file is copied together with its key file
+            return;
+        }
+        final String srcFile = Chars.toString(path.of(srcDir).concat(fileName));
+        final String dstFile = Chars.toString(otherPath.of(dstDir).concat(fileName));
+        if (Chars.endsWith(fileName, ".k") && ff.exists(path.of(srcDir).concat(fileName, 0, len - 2).put(".v").$())) {
+            publish(
+                    srcFile,
+                    dstFile,
+                    Chars.toString(path.of(srcDir).concat(fileName, 0, len - 2).put(".v")),
+                    Chars.toString(otherPath.of(dstDir).concat(fileName, 0, len - 2).put(".v"))
+            );
+        } else {
+            publish(srcFile, dstFile, null, null);
+        }
+    }
+
+    private void publishSymbolMapFiles(CharSequence columnName) {
+        publish(
+                Chars.toString(SymbolMapWriter.offsetFileName(path.of(srcDir), columnName)),
+                Chars.toString(SymbolMapWriter.offsetFileName(otherPath.of(dstDir), columnName)),
+                null,
+                null
+        );
+        publish(
+                Chars.toString(SymbolMapWriter.charFileName(path.of(srcDir), columnName)),
+                Chars.toString(SymbolMapWriter.charFileName(otherPath.of(dstDir), columnName)),
+                null,
+                null
+        );
+        publish(
+                Chars.toString(BitmapIndexUtils.keyFileName(path.of(srcDir), columnName)),
+                Chars.toString(BitmapIndexUtils.keyFileName(otherPath.of(dstDir), columnName)),
+                Chars.toString(BitmapIndexUtils.valueFileName(path.of(srcDir), columnName)),
+                Chars.toString(BitmapIndexUtils.valueFileName(otherPath.of(dstDir), columnName))
+        );
+    }
+
+    private int readSymbolIndexVersion(CharSequence tableDir, CharSequence columnName) {
+        final long fd = TableUtils.openRO(ff, SymbolMapWriter.offsetFileName(path.of(tableDir), columnName), LOG);
+        try {
+            return TableUtils.readIntOrFail(ff, fd, SymbolMapWriter.HEADER_INDEX_VERSION, tempMem8b, path);
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
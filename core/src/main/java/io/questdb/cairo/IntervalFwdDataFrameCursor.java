@@ -27,8 +27,11 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
+import org.jetbrains.annotations.Nullable;
 
 public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor {
+    private final PartitionPrefetcher prefetcher;
+
     /**
      * Cursor for data frames that chronologically intersect collection of intervals.
      * Data frame low and high row will be within intervals inclusive of edges. Intervals
@@ -39,7 +42,12 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
      * @param timestampIndex index of timestamp column in the readr that is used by this cursor
      */
     public IntervalFwdDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
+        this(intervals, timestampIndex, null);
+    }
+
+    public IntervalFwdDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex, @Nullable PartitionPrefetcher prefetcher) {
         super(intervals, timestampIndex);
+        this.prefetcher = prefetcher;
     }
 
     @Override
@@ -97,6 +105,9 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
                     dataFrame.rowLo = lo;
                     dataFrame.rowHi = hi;
                     sizeSoFar += (hi - lo);
+                    if (prefetcher != null) {
+                        prefetcher.prefetch(reader, partitionLo, partitionHi);
+                    }
 
                     // we do have whole partition of fragment?
                     if (hi == rowCount) {
@@ -126,5 +137,8 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
     public void toTop() {
         super.toTop();
         partitionLimit = 0;
+        if (prefetcher != null) {
+            prefetcher.clear();
+        }
     }
 }
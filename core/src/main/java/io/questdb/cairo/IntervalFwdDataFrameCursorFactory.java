@@ -43,7 +43,7 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
             int timestampIndex
     ) {
         super(engine, tableName, tableId, tableVersion);
-        this.cursor = new IntervalFwdDataFrameCursor(intervals, timestampIndex);
+        this.cursor = new IntervalFwdDataFrameCursor(intervals, timestampIndex, PartitionPrefetcher.newInstance(engine));
         this.intervals = intervals;
     }
 
@@ -36,6 +36,7 @@ public class O3Basket implements Mutable {
     private int partCounterPointer;
     private int columnCount;
     private int indexCount;
+    private O3Dedup dedup;
 
     @Override
     public void clear() {
@@ -50,6 +51,13 @@ public class O3Basket implements Mutable {
         ensureCapacity0(columnCount, indexCount);
     }
 
+    O3Dedup getDedup() {
+        if (dedup == null) {
+            dedup = new O3Dedup();
+        }
+        return dedup;
+    }
+
     public BitmapIndexWriter nextIndexer() {
         return indexers.getQuick(indexerPointer++);
     }
@@ -670,6 +670,8 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             boolean partitionMutates,
             TableWriter tableWriter
     ) {
+        // partition is written, merge memory can be given to the next partition
+        tableWriter.o3ReleaseMergeMemory(partitionTimestamp);
         final long cursor = tableWriter.getO3PartitionUpdatePubSeq().next();
         if (cursor > -1) {
             publishUpdPartitionSizeTaskHarmonized(
@@ -0,0 +1,426 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.TableUtils.*;
+
+/**
+ * Replaces partition rows with O3 rows that have the same timestamp and upsert keys. Runs as part of
+ * O3 partition task, one instance per partition in flight. Partitions without replaced rows are left
+ * to the regular O3 merge.
+ */
+final class O3Dedup {
+    private static final Log LOG = LogFactory.getLog(O3Dedup.class);
+    // address, size and kind triples, kind is 0 for mapped memory and 1 for heap
+    private final LongList mem = new LongList();
+    private final LongList droppedRows = new LongList();
+    private long varAddr;
+    private long varSize;
+
+    /**
+     * Finds partition rows replaced by O3 rows with the same upsert keys and, when there are any,
+     * writes out new version of the partition without them.
+     *
+     * @return number of partition rows removed, 0 when partition is left for the regular O3 merge
+     */
+    long dedupPartition(
+            Path pathToTable,
+            ObjList<MemoryCARW> o3Columns,
+            long sortedTimestampsAddr,
+            long partitionTimestamp,
+            long srcNameTxn,
+            long srcDataMax,
+            long srcOooLo,
+            long srcOooHi,
+            long txn,
+            TableWriter tableWriter,
+            O3Basket o3Basket
+    ) {
+        final TableWriterMetadata metadata = tableWriter.getMetadata();
+        final Path path = Path.getThreadLocal(pathToTable);
+        setPathForPartition(path, tableWriter.getPartitionBy(), partitionTimestamp, false);
+        txnPartitionConditionally(path, srcNameTxn);
+        final int plen = path.length();
+        long keys = 0;
+        int keyCount = 0;
+        try {
+            final FilesFacade ff = tableWriter.getFilesFacade();
+            final long timestampAddr = mapFixColumn(ff, path, plen, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE, ColumnType.TIMESTAMP, srcDataMax);
+            final long dataTimestampMin = Unsafe.getUnsafe().getLong(timestampAddr);
+            final long dataTimestampMax = Unsafe.getUnsafe().getLong(timestampAddr + (srcDataMax - 1) * Long.BYTES);
+            if (getTimestamp(sortedTimestampsAddr, srcOooHi) < dataTimestampMin
+                    || getTimestamp(sortedTimestampsAddr, srcOooLo) > dataTimestampMax) {
+                return 0;
+            }
+
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                if (isDedupKey(metadata, i)) {
+                    keyCount++;
+                }
+            }
+            keys = Unsafe.malloc((long) keyCount * Vect.DEDUP_KEY_SIZE * Long.BYTES, MemoryTag.NATIVE_O3);
+            long p = keys;
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                if (isDedupKey(metadata, i)) {
+                    final int columnType = metadata.getColumnType(i);
+                    final int tag = ColumnType.tagOf(columnType);
+                    Unsafe.getUnsafe().putLong(p, ColumnType.sizeOf(columnType));
+                    Unsafe.getUnsafe().putLong(p + Long.BYTES, tag == ColumnType.FLOAT ? Vect.DEDUP_KEY_FLOAT : tag == ColumnType.DOUBLE ? Vect.DEDUP_KEY_DOUBLE : 0);
+                    Unsafe.getUnsafe().putLong(p + 2 * Long.BYTES, mapFixColumn(ff, path, plen, metadata.getColumnName(i), tableWriter.getColumnNameTxn(partitionTimestamp, i), columnType, srcDataMax));
+                    Unsafe.getUnsafe().putLong(p + 3 * Long.BYTES, o3Columns.getQuick(TableWriter.getPrimaryColumnIndex(i)).addressOf(0));
+                    p += Vect.DEDUP_KEY_SIZE * Long.BYTES;
+                }
+            }
+
+            final long o3RowCount = srcOooHi - srcOooLo + 1;
+            final long mergeIndex = malloc((srcDataMax + o3RowCount) * 16);
+            final long rowCount = Vect.dedupMergeIndex(timestampAddr, srcDataMax, sortedTimestampsAddr, srcOooLo, srcOooHi, keys, keyCount, mergeIndex);
+            final long dedupRowCount = srcDataMax + o3RowCount - rowCount;
+            if (dedupRowCount > 0) {
+                collectDroppedRows(mergeIndex, rowCount, srcDataMax);
+                writePartition(ff, pathToTable, path, o3Columns, partitionTimestamp, plen, mergeIndex, rowCount, srcDataMax, srcOooLo, srcOooHi, txn, tableWriter, o3Basket);
+                LOG.info().$("o3 deduplicated partition [table=").$(tableWriter.getTableName())
+                        .$(", partition=").$ts(partitionTimestamp)
+                        .$(", rows=").$(dedupRowCount)
+                        .I$();
+            }
+            return dedupRowCount;
+        } finally {
+            if (keys != 0) {
+                Unsafe.free(keys, (long) keyCount * Vect.DEDUP_KEY_SIZE * Long.BYTES, MemoryTag.NATIVE_O3);
+            }
+            free(tableWriter.getFilesFacade());
+            droppedRows.clear();
+        }
+    }
+
+    private static long getTimestamp(long sortedTimestampsAddr, long pos) {
+        return Unsafe.getUnsafe().getLong(sortedTimestampsAddr + pos * 16);
+    }
+
+    private static void indexColumn(
+            CairoConfiguration configuration,
+            FilesFacade ff,
+            Path path,
+            int plen,
+            CharSequence columnName,
+            int indexBlockCapacity,
+            long addr,
+            long rowCount,
+            BitmapIndexWriter indexWriter
+    ) {
+        // key and value file descriptors are closed by the indexer
+        final long kFd = openRW(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName), LOG);
+        final long vFd;
+        try {
+            vFd = openRW(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName), LOG);
+        } catch (Throwable e) {
+            ff.close(kFd);
+            throw e;
+        } finally {
+            path.trimTo(plen);
+        }
+        indexWriter.of(configuration, kFd, vFd, true, indexBlockCapacity);
+        try {
+            for (long row = 0; row < rowCount; row++) {
+                indexWriter.add(toIndexKey(Unsafe.getUnsafe().getInt(addr + row * Integer.BYTES)), row);
+            }
+            indexWriter.setMaxValue(rowCount - 1);
+        } finally {
+            Misc.free(indexWriter);
+        }
+    }
+
+    private static boolean isDedupKey(TableWriterMetadata metadata, int columnIndex) {
+        return columnIndex != metadata.getTimestampIndex() && metadata.isDedupKey(columnIndex);
+    }
+
+    private void collectDroppedRows(long mergeIndex, long rowCount, long srcDataMax) {
+        long nextRow = 0;
+        for (long i = 0; i < rowCount; i++) {
+            final long row = Unsafe.getUnsafe().getLong(mergeIndex + i * 16 + Long.BYTES);
+            if (row < 0) {
+                for (long r = nextRow, n = row & Long.MAX_VALUE; r < n; r++) {
+                    droppedRows.add(r);
+                }
+                nextRow = (row & Long.MAX_VALUE) + 1;
+            }
+        }
+        for (long r = nextRow; r < srcDataMax; r++) {
+            droppedRows.add(r);
+        }
+    }
+
+    private void free(FilesFacade ff) {
+        for (int i = 0, n = mem.size(); i < n; i += 3) {
+            final long addr = mem.getQuick(i);
+            final long size = mem.getQuick(i + 1);
+            if (mem.getQuick(i + 2) == 0) {
+                ff.munmap(addr, size, MemoryTag.MMAP_O3);
+            } else {
+                Unsafe.free(addr, size, MemoryTag.NATIVE_O3);
+            }
+        }
+        mem.clear();
+    }
+
+    private long malloc(long size) {
+        final long addr = Unsafe.malloc(size, MemoryTag.NATIVE_O3);
+        mem.add(addr, size);
+        mem.add(1);
+        return addr;
+    }
+
+    private long mapColumnTop(FilesFacade ff, Path path, int plen, CharSequence columnName, long columnNameTxn, long rowCount) {
+        if (ff.exists(dFile(path.trimTo(plen), columnName, columnNameTxn))) {
+            return Math.min(readColumnTop(ff, path.trimTo(plen), columnName, plen, columnNameTxn, true), rowCount);
+        }
+        return rowCount;
+    }
+
+    private long mapDst(FilesFacade ff, LPSZ name, long size) {
+        final long fd = openRW(ff, name, LOG);
+        try {
+            final long addr = mapRW(ff, fd, size, MemoryTag.MMAP_O3);
+            mem.add(addr, size);
+            mem.add(0);
+            return addr;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    /**
+     * Maps partition values of fixed size column, materializing column top as nulls.
+     */
+    private long mapFixColumn(FilesFacade ff, Path path, int plen, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final long columnTop = mapColumnTop(ff, path, plen, columnName, columnNameTxn, rowCount);
+        if (columnTop == 0) {
+            return mapRO(ff, dFile(path.trimTo(plen), columnName, columnNameTxn), rowCount << shl);
+        }
+        final long addr = malloc(rowCount << shl);
+        O3OpenColumnJob.setNull(columnType, addr, columnTop);
+        if (columnTop < rowCount) {
+            final long srcSize = (rowCount - columnTop) << shl;
+            Vect.memcpy(addr + (columnTop << shl), mapRO(ff, dFile(path.trimTo(plen), columnName, columnNameTxn), srcSize), srcSize);
+        }
+        return addr;
+    }
+
+    private long mapRO(FilesFacade ff, LPSZ name, long size) {
+        final long fd = openRO(ff, name, LOG);
+        try {
+            final long addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_O3);
+            mem.add(addr, size);
+            mem.add(0);
+            return addr;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    /**
+     * Maps partition values of variable length column, materializing column top as nulls. Returns
+     * address of fixed part, the variable part is left in varAddr and varSize.
+     */
+    private long mapVarColumn(FilesFacade ff, Path path, int plen, CharSequence columnName, int columnType, long rowCount) {
+        // variable length columns cannot be updated, they have no versions
+        final long columnTop = mapColumnTop(ff, path, plen, columnName, COLUMN_NAME_TXN_NONE, rowCount);
+        final long dataRowCount = rowCount - columnTop;
+        long srcFixAddr = 0;
+        long srcVarAddr = 0;
+        long srcVarSize = 0;
+        if (dataRowCount > 0) {
+            srcFixAddr = mapRO(ff, iFile(path.trimTo(plen), columnName), (dataRowCount + 1) * Long.BYTES);
+            srcVarSize = Unsafe.getUnsafe().getLong(srcFixAddr + dataRowCount * Long.BYTES);
+            if (srcVarSize > 0) {
+                srcVarAddr = mapRO(ff, dFile(path.trimTo(plen), columnName), srcVarSize);
+            }
+        }
+        if (columnTop == 0) {
+            varAddr = srcVarAddr;
+            varSize = srcVarSize;
+            return srcFixAddr;
+        }
+
+        final boolean string = ColumnType.isString(columnType);
+        final long reservedBytesForColTopNulls = columnTop * (string ? Integer.BYTES : Long.BYTES);
+        final long fixAddr = malloc((rowCount + 1) * Long.BYTES);
+        final long nullsAddr = malloc(reservedBytesForColTopNulls + srcVarSize);
+        // binary repr of null length is all bytes set to -1
+        Vect.memset(nullsAddr, reservedBytesForColTopNulls, -1);
+        if (srcVarSize > 0) {
+            Vect.memcpy(nullsAddr + reservedBytesForColTopNulls, srcVarAddr, srcVarSize);
+        }
+        if (string) {
+            Vect.setVarColumnRefs32Bit(fixAddr, 0, columnTop);
+        } else {
+            Vect.setVarColumnRefs64Bit(fixAddr, 0, columnTop);
+        }
+        if (dataRowCount > 0) {
+            O3Utils.shiftCopyFixedSizeColumnData(-reservedBytesForColTopNulls, srcFixAddr, 0, dataRowCount, fixAddr + columnTop * Long.BYTES);
+        } else {
+            Unsafe.getUnsafe().putLong(fixAddr + rowCount * Long.BYTES, reservedBytesForColTopNulls);
+        }
+        varAddr = nullsAddr;
+        varSize = reservedBytesForColTopNulls + srcVarSize;
+        return fixAddr;
+    }
+
+    private void writeColumn(
+            FilesFacade ff,
+            ObjList<MemoryCARW> o3Columns,
+            TableWriter tableWriter,
+            int columnIndex,
+            long partitionTimestamp,
+            Path path,
+            int plen,
+            Path dstPath,
+            int dstLen,
+            long srcDataMax,
+            long srcOooLo,
+            long srcOooHi,
+            long mergeIndex,
+            long rowCount,
+            O3Basket o3Basket
+    ) {
+        final TableWriterMetadata metadata = tableWriter.getMetadata();
+        final CairoConfiguration configuration = tableWriter.getConfiguration();
+        final int commitMode = configuration.getCommitMode();
+        final CharSequence columnName = metadata.getColumnName(columnIndex);
+        final int columnType = metadata.getColumnType(columnIndex);
+        final long dstAddr;
+        final long dstSize;
+        if (ColumnType.isVariableLength(columnType)) {
+            final long srcDataFixAddr = mapVarColumn(ff, path, plen, columnName, columnType, srcDataMax);
+            final long srcDataVarAddr = varAddr;
+            final long srcOooFixAddr = o3Columns.getQuick(TableWriter.getSecondaryColumnIndex(columnIndex)).addressOf(0);
+            final long srcOooVarAddr = o3Columns.getQuick(TableWriter.getPrimaryColumnIndex(columnIndex)).addressOf(0);
+            long dstVarSize = varSize
+                    + Unsafe.getUnsafe().getLong(srcOooFixAddr + (srcOooHi + 1) * Long.BYTES)
+                    - Unsafe.getUnsafe().getLong(srcOooFixAddr + srcOooLo * Long.BYTES);
+            for (int i = 0, n = droppedRows.size(); i < n; i++) {
+                final long row = droppedRows.getQuick(i);
+                dstVarSize -= Unsafe.getUnsafe().getLong(srcDataFixAddr + (row + 1) * Long.BYTES) - Unsafe.getUnsafe().getLong(srcDataFixAddr + row * Long.BYTES);
+            }
+            final long dstFixAddr = mapDst(ff, iFile(dstPath.trimTo(dstLen), columnName), (rowCount + 1) * Long.BYTES);
+            final long dstVarAddr = mapDst(ff, dFile(dstPath.trimTo(dstLen), columnName), dstVarSize);
+            if (ColumnType.isString(columnType)) {
+                Vect.oooMergeCopyStrColumn(mergeIndex, rowCount, srcDataFixAddr, srcDataVarAddr, srcOooFixAddr, srcOooVarAddr, dstFixAddr, dstVarAddr, 0);
+            } else {
+                Vect.oooMergeCopyBinColumn(mergeIndex, rowCount, srcDataFixAddr, srcDataVarAddr, srcOooFixAddr, srcOooVarAddr, dstFixAddr, dstVarAddr, 0);
+            }
+            Unsafe.getUnsafe().putLong(dstFixAddr + rowCount * Long.BYTES, dstVarSize);
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.msync(dstFixAddr, (rowCount + 1) * Long.BYTES, commitMode == CommitMode.ASYNC);
+            }
+            dstAddr = dstVarAddr;
+            dstSize = dstVarSize;
+        } else if (columnIndex == metadata.getTimestampIndex()) {
+            dstSize = rowCount * Long.BYTES;
+            dstAddr = mapDst(ff, dFile(dstPath.trimTo(dstLen), columnName), dstSize);
+            Vect.oooCopyIndex(mergeIndex, rowCount, dstAddr);
+        } else {
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            final long columnNameTxn = tableWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
+            final long srcDataAddr = mapFixColumn(ff, path, plen, columnName, columnNameTxn, columnType, srcDataMax);
+            final long srcOooAddr = o3Columns.getQuick(TableWriter.getPrimaryColumnIndex(columnIndex)).addressOf(0);
+            dstSize = rowCount << shl;
+            dstAddr = mapDst(ff, dFile(dstPath.trimTo(dstLen), columnName, columnNameTxn), dstSize);
+            switch (shl) {
+                case 0:
+                    Vect.mergeShuffle8Bit(srcDataAddr, srcOooAddr, dstAddr, mergeIndex, rowCount);
+                    break;
+                case 1:
+                    Vect.mergeShuffle16Bit(srcDataAddr, srcOooAddr, dstAddr, mergeIndex, rowCount);
+                    break;
+                case 2:
+                    Vect.mergeShuffle32Bit(srcDataAddr, srcOooAddr, dstAddr, mergeIndex, rowCount);
+                    break;
+                case 3:
+                    Vect.mergeShuffle64Bit(srcDataAddr, srcOooAddr, dstAddr, mergeIndex, rowCount);
+                    break;
+                default:
+                    Vect.mergeShuffle256Bit(srcDataAddr, srcOooAddr, dstAddr, mergeIndex, rowCount);
+                    break;
+            }
+            if (metadata.isColumnIndexed(columnIndex)) {
+                indexColumn(configuration, ff, dstPath, dstLen, columnName, metadata.getIndexValueBlockCapacity(columnIndex), dstAddr, rowCount, o3Basket.nextIndexer());
+            }
+        }
+        if (commitMode != CommitMode.NOSYNC) {
+            ff.msync(dstAddr, dstSize, commitMode == CommitMode.ASYNC);
+        }
+    }
+
+    private void writePartition(
+            FilesFacade ff,
+            Path pathToTable,
+            Path path,
+            ObjList<MemoryCARW> o3Columns,
+            long partitionTimestamp,
+            int plen,
+            long mergeIndex,
+            long rowCount,
+            long srcDataMax,
+            long srcOooLo,
+            long srcOooHi,
+            long txn,
+            TableWriter tableWriter,
+            O3Basket o3Basket
+    ) {
+        final Path dstPath = Path.getThreadLocal2(pathToTable);
+        setPathForPartition(dstPath, tableWriter.getPartitionBy(), partitionTimestamp, false);
+        txnPartitionConditionally(dstPath, txn);
+        final int dstLen = dstPath.length();
+        // directory could have been left behind by commit that failed
+        if (ff.exists(dstPath.slash$()) && ff.rmdir(dstPath) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not remove [path=").put(dstPath).put(']');
+        }
+        if (ff.mkdirs(dstPath, tableWriter.getConfiguration().getMkDirMode()) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create directory [path=").put(dstPath).put(']');
+        }
+
+        try {
+            for (int i = 0, n = tableWriter.getMetadata().getColumnCount(); i < n; i++) {
+                writeColumn(ff, o3Columns, tableWriter, i, partitionTimestamp, path, plen, dstPath, dstLen, srcDataMax, srcOooLo, srcOooHi, mergeIndex, rowCount, o3Basket);
+            }
+        } catch (Throwable e) {
+            free(ff);
+            if (ff.rmdir(dstPath.trimTo(dstLen).slash$()) != 0) {
+                LOG.error().$("could not remove [path=").$(dstPath).$(", errno=").$(ff.errno()).I$();
+            }
+            throw e;
+        }
+    }
+}
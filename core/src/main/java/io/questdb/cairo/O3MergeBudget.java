@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory budget shared by O3 partition merges of all writers on the message bus. Writer
+ * reserves estimated merge size before publishing partition task and the reservation is
+ * returned once partition is written. Writer that has nothing in flight is always let through,
+ * so that no table is starved while another table is merging a large backlog.
+ */
+public class O3MergeBudget {
+    private final long limit;
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong partitionsPlanned = new AtomicLong();
+    private final AtomicLong partitionsMerged = new AtomicLong();
+    private final AtomicLong throttleCount = new AtomicLong();
+
+    public O3MergeBudget(long limit) {
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getPartitionsMerged() {
+        return partitionsMerged.get();
+    }
+
+    public long getPartitionsPlanned() {
+        return partitionsPlanned.get();
+    }
+
+    public long getThrottleCount() {
+        return throttleCount.get();
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    void onMerged() {
+        partitionsMerged.incrementAndGet();
+    }
+
+    void onPlanned(int partitionCount) {
+        partitionsPlanned.addAndGet(partitionCount);
+    }
+
+    void onThrottled() {
+        throttleCount.incrementAndGet();
+    }
+
+    void release(long size) {
+        used.addAndGet(-size);
+    }
+
+    boolean tryAcquire(long size, boolean force) {
+        while (true) {
+            final long current = used.get();
+            if (!force && current > 0 && current + size > limit) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+}
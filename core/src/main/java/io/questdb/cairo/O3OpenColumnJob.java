@@ -297,6 +297,8 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         final int pplen = pathToPartition.length();
         TableUtils.txnPartitionConditionally(pathToPartition, srcDataTxn);
         final int plen = pathToPartition.length();
+        // updated columns are read from and written to their version files
+        final long columnNameTxn = tableWriter.getColumnNameTxn(oooTimestampLo, columnName);
         // append jobs do not set value of part counter, we do it here for those
         switch (openColumnMode) {
             case OPEN_MID_PARTITION_FOR_APPEND:
@@ -304,6 +306,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         pathToPartition,
                         plen,
                         columnName,
+                        columnNameTxn,
                         columnCounter,
                         columnType,
                         srcOooFixAddr,
@@ -331,6 +334,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         plen,
                         pplen,
                         columnName,
+                        columnNameTxn,
                         columnCounter,
                         partCounter,
                         columnType,
@@ -372,6 +376,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         pathToPartition,
                         pplen,
                         columnName,
+                        columnNameTxn,
                         columnCounter,
                         partCounter,
                         columnType,
@@ -441,6 +446,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             Path pathToPartition,
             int plen,
             CharSequence columnName,
+            long columnNameTxn,
             AtomicInteger columnCounter,
             int columnType,
             long srcOooFixAddr,
@@ -466,7 +472,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         final FilesFacade ff = tableWriter.getFilesFacade();
         if (srcDataTop == -1) {
             try {
-                srcDataTop = getSrcDataTop(ff, pathToPartition, plen, columnName, srcDataMax);
+                srcDataTop = getSrcDataTop(ff, pathToPartition, plen, columnName, columnNameTxn, srcDataMax);
                 if (srcDataTop == srcDataMax) {
                     TableUtils.writeColumnTop(
                             ff,
@@ -557,7 +563,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 } // else fall through
             default:
                 try {
-                    dFile(pathToPartition.trimTo(plen), columnName);
+                    dFile(pathToPartition.trimTo(plen), columnName, columnNameTxn);
                     dstFixFd = openRW(ff, pathToPartition, LOG);
                 } catch (Throwable e) {
                     LOG.error().$("append mid partition error 3 [table=").$(tableWriter.getTableName())
@@ -1365,6 +1371,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             Path pathToPartition,
             int pplen,
             CharSequence columnName,
+            long columnNameTxn,
             AtomicInteger columnCounter,
             AtomicInteger partCounter,
             int columnType,
@@ -1452,6 +1459,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         pathToPartition,
                         pplen,
                         columnName,
+                        columnNameTxn,
                         columnCounter,
                         partCounter,
                         columnType,
@@ -1497,6 +1505,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int plen,
             int pplen,
             CharSequence columnName,
+            long columnNameTxn,
             AtomicInteger columnCounter,
             AtomicInteger partCounter,
             int columnType,
@@ -1536,7 +1545,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         // not set, we need to check file existence and read
         if (srcDataTop == -1) {
             try {
-                srcDataTop = getSrcDataTop(ff, pathToPartition, plen, columnName, srcDataMax);
+                srcDataTop = getSrcDataTop(ff, pathToPartition, plen, columnName, columnNameTxn, srcDataMax);
             } catch (Throwable e) {
                 LOG.error().$("merge mid partition error 1 [table=").$(tableWriter.getTableName())
                         .$(", e=").$(e)
@@ -1613,7 +1622,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         // ensure timestamp srcDataFixFd is always negative, we will close it externally
                         srcDataFixFd = -srcTimestampFd;
                     } else {
-                        dFile(pathToPartition.trimTo(plen), columnName);
+                        dFile(pathToPartition.trimTo(plen), columnName, columnNameTxn);
                         srcDataFixFd = openRW(ff, pathToPartition, LOG);
                     }
                 } catch (Throwable e) {
@@ -1627,6 +1636,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         pathToPartition,
                         pplen,
                         columnName,
+                        columnNameTxn,
                         columnCounter,
                         partCounter,
                         columnType,
@@ -1689,15 +1699,17 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             Path path,
             int plen,
             CharSequence columnName,
+            long columnNameTxn,
             long srcDataMax
     ) {
-        boolean dFileExists = ff.exists(dFile(path.trimTo(plen), columnName));
+        boolean dFileExists = ff.exists(dFile(path.trimTo(plen), columnName, columnNameTxn));
         if (dFileExists) {
             return TableUtils.readColumnTop(
                     ff,
                     path.trimTo(plen),
                     columnName,
                     plen,
+                    columnNameTxn,
                     true
             );
         }
@@ -1708,6 +1720,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             Path pathToPartition,
             int pplen,
             CharSequence columnName,
+            long columnNameTxn,
             AtomicInteger columnCounter,
             AtomicInteger partCounter,
             int columnType,
@@ -1798,7 +1811,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             srcDataTopOffset = srcDataTop << shl;
 
-            pathToPartition.trimTo(pDirNameLen).concat(columnName).put(FILE_SUFFIX_D).$();
+            dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG);
             dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop) << shl;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
@@ -2251,7 +2264,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         );
     }
 
-    private static void setNull(int columnType, long addr, long count) {
+    static void setNull(int columnType, long addr, long count) {
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BOOLEAN:
             case ColumnType.BYTE:
@@ -69,6 +69,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
             long srcDataMax,
             long srcDataTxn,
             boolean last,
+            boolean dedup,
             long txn,
             long sortedTimestampsAddr,
             TableWriter tableWriter,
@@ -76,6 +77,25 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
             O3Basket o3Basket,
             long tmpBuf
     ) {
+        if (dedup && processDedupPartition(
+                pathToTable,
+                oooColumns,
+                srcOooLo,
+                srcOooHi,
+                srcOooMax,
+                o3TimestampMin,
+                o3TimestampMax,
+                partitionTimestamp,
+                srcDataMax,
+                srcDataTxn,
+                txn,
+                sortedTimestampsAddr,
+                tableWriter,
+                o3Basket
+        )) {
+            return;
+        }
+
         // is out of order data hitting the last partition?
         // if so we do not need to re-open files and write to existing file descriptors
         final long o3TimestampLo = getTimestampIndexValue(sortedTimestampsAddr, srcOooLo);
@@ -557,6 +577,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         final long srcDataMax = task.getSrcDataMax();
         final long srcDataTxn = task.getSrcNameTxn();
         final boolean last = task.isLast();
+        final boolean dedup = task.isDedup();
         final long txn = task.getTxn();
         final long sortedTimestampsAddr = task.getSortedTimestampsAddr();
         final TableWriter tableWriter = task.getTableWriter();
@@ -580,6 +601,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                 srcDataMax,
                 srcDataTxn,
                 last,
+                dedup,
                 txn,
                 sortedTimestampsAddr,
                 tableWriter,
@@ -613,6 +635,76 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         return result;
     }
 
+    /**
+     * Replaces partition rows that have the same timestamp and upsert keys as O3 rows. Partition that had
+     * rows replaced is fully written here and the writer is notified right away.
+     *
+     * @return true when partition is done, false when it has no replaced rows and goes through regular merge
+     */
+    private static boolean processDedupPartition(
+            Path pathToTable,
+            ObjList<MemoryCARW> oooColumns,
+            long srcOooLo,
+            long srcOooHi,
+            long srcOooMax,
+            long o3TimestampMin,
+            long o3TimestampMax,
+            long partitionTimestamp,
+            long srcDataMax,
+            long srcDataTxn,
+            long txn,
+            long sortedTimestampsAddr,
+            TableWriter tableWriter,
+            O3Basket o3Basket
+    ) {
+        final long dedupRowCount;
+        try {
+            dedupRowCount = o3Basket.getDedup().dedupPartition(
+                    pathToTable,
+                    oooColumns,
+                    sortedTimestampsAddr,
+                    partitionTimestamp,
+                    srcDataTxn,
+                    srcDataMax,
+                    srcOooLo,
+                    srcOooHi,
+                    txn,
+                    tableWriter,
+                    o3Basket
+            );
+        } catch (Throwable e) {
+            LOG.error().$("process dedup partition error [table=").$(tableWriter.getTableName())
+                    .$(", e=").$(e)
+                    .I$();
+            tableWriter.o3BumpErrorCount();
+            tableWriter.o3ClockDownPartitionUpdateCount();
+            tableWriter.o3CountDownDoneLatch();
+            throw e;
+        }
+
+        if (dedupRowCount == 0) {
+            return false;
+        }
+
+        try {
+            tableWriter.o3PartitionDeduplicated(partitionTimestamp, dedupRowCount);
+            O3CopyJob.notifyWriter(
+                    srcOooLo,
+                    srcOooHi,
+                    o3TimestampMin,
+                    o3TimestampMax,
+                    partitionTimestamp,
+                    srcOooMax,
+                    srcDataMax - dedupRowCount,
+                    true,
+                    tableWriter
+            );
+        } finally {
+            tableWriter.o3CountDownDoneLatch();
+        }
+        return true;
+    }
+
     private static void publishOpenColumnTaskHarmonized(
             long cursor,
             int openColumnMode,
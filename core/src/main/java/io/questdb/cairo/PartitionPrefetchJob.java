@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.MessageBus;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.tasks.PartitionPrefetchTask;
+
+/**
+ * Reads column files of partitions that a table scan is about to reach into OS page cache.
+ * Files are mapped, hinted with MADV_WILLNEED and then touched page by page so that page faults
+ * are taken on worker thread rather than on the thread executing the query. The hint goes through
+ * Files.madvise(), which is a no-op when native library lacks it, touching pages still does the work.
+ */
+public class PartitionPrefetchJob extends AbstractQueueConsumerJob<PartitionPrefetchTask> {
+    private static final Log LOG = LogFactory.getLog(PartitionPrefetchJob.class);
+    private final FilesFacade ff;
+    // sum of touched bytes, kept to stop JIT from eliminating page reads
+    private long checksum;
+
+    public PartitionPrefetchJob(MessageBus messageBus) {
+        super(messageBus.getPartitionPrefetchQueue(), messageBus.getPartitionPrefetchSubSeq());
+        this.ff = messageBus.getConfiguration().getFilesFacade();
+    }
+
+    public static long prefetch(FilesFacade ff, LPSZ path, long size) {
+        final long fd = ff.openRO(path);
+        if (fd == -1) {
+            // column may have been added after partition was written
+            return 0;
+        }
+        try {
+            long len = ff.length(fd);
+            if (size > -1 && size < len) {
+                len = size;
+            }
+            if (len < 1) {
+                return 0;
+            }
+            final long addr = ff.mmap(fd, len, 0, Files.MAP_RO, MemoryTag.MMAP_DEFAULT);
+            if (addr == -1) {
+                LOG.info().$("could not map [file=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+                return 0;
+            }
+            try {
+                ff.madvise(addr, len, Files.MADV_WILLNEED);
+                long sum = 0;
+                for (long p = 0; p < len; p += Files.PAGE_SIZE) {
+                    sum += Unsafe.getUnsafe().getByte(addr + p);
+                }
+                return sum;
+            } finally {
+                ff.munmap(addr, len, MemoryTag.MMAP_DEFAULT);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor) {
+        final PartitionPrefetchTask task = queue.get(cursor);
+        final Path path = Path.PATH.get().of(task.getFile()).$();
+        final long size = task.getSize();
+        subSeq.done(cursor);
+        checksum += prefetch(ff, path, size);
+        return true;
+    }
+}
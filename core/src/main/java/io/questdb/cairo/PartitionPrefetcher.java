@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.MessageBus;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.tasks.PartitionPrefetchTask;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Publishes column files of partitions ahead of a forward table scan to {@link PartitionPrefetchJob}.
+ * Bytes queued ahead of the scan are bounded by budget, which is released as the scan reaches
+ * prefetched partitions. Prefetch is a hint, files are skipped when the queue is full.
+ * <p>
+ * Prefetcher does not touch reader state beyond reading transaction file, partitions are still
+ * opened by the scan itself.
+ */
+public class PartitionPrefetcher {
+    private final CharSequence root;
+    private final FilesFacade ff;
+    private final RingQueue<PartitionPrefetchTask> queue;
+    private final Sequence pubSeq;
+    private final int prefetchCount;
+    private final long budget;
+    // pairs of partition index and bytes queued for that partition, ascending by partition index
+    private final LongList queued = new LongList();
+    private final StringSink partitionDir = new StringSink();
+    private final StringSink file = new StringSink();
+    private int queuedLo;
+    private long queuedBytes;
+    // partitions below this index have been considered for prefetch
+    private int prefetchHi;
+
+    public PartitionPrefetcher(CairoConfiguration configuration, MessageBus messageBus) {
+        this.root = configuration.getRoot();
+        this.ff = configuration.getFilesFacade();
+        this.queue = messageBus.getPartitionPrefetchQueue();
+        this.pubSeq = messageBus.getPartitionPrefetchPubSeq();
+        this.prefetchCount = configuration.getPartitionPrefetchCount();
+        this.budget = configuration.getPartitionPrefetchBudget();
+    }
+
+    @Nullable
+    public static PartitionPrefetcher newInstance(CairoEngine engine) {
+        final CairoConfiguration configuration = engine.getConfiguration();
+        return configuration.getPartitionPrefetchCount() > 0 ? new PartitionPrefetcher(configuration, engine.getMessageBus()) : null;
+    }
+
+    public void clear() {
+        queued.clear();
+        queuedLo = 0;
+        queuedBytes = 0;
+        prefetchHi = 0;
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    /**
+     * Called when scan has reached partition. Queues partitions that follow, up to
+     * prefetch count, while they fit the budget.
+     *
+     * @param reader         reader the scan is using
+     * @param partitionIndex partition the scan has reached
+     * @param partitionHi    partition index the scan will stop at, exclusive
+     */
+    public void prefetch(TableReader reader, int partitionIndex, int partitionHi) {
+        releaseBudget(partitionIndex);
+        final int hi = Math.min(partitionHi, partitionIndex + 1 + prefetchCount);
+        for (int p = Math.max(prefetchHi, partitionIndex + 1); p < hi; p++) {
+            final long rowCount = reader.getTxFile().getPartitionSize(p);
+            if (rowCount < 1) {
+                prefetchHi = p + 1;
+                continue;
+            }
+            setPartitionDir(reader, p);
+            final long bytes = getPartitionBytes(reader.getMetadata(), rowCount);
+            if (queuedBytes + bytes > budget) {
+                // try again when scan frees some of the budget
+                break;
+            }
+            // budget is accounted for even when files do not make it to the queue,
+            // this keeps prefetch from running ahead when workers cannot keep up
+            publishPartition(reader.getMetadata(), rowCount);
+            queued.add(p);
+            queued.add(bytes);
+            queuedBytes += bytes;
+            prefetchHi = p + 1;
+        }
+    }
+
+    private long getPartitionBytes(TableReaderMetadata metadata, long rowCount) {
+        long bytes = 0;
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int type = metadata.getColumnType(i);
+            if (ColumnType.isVariableLength(type)) {
+                setFile(metadata.getColumnName(i), ".d");
+                bytes += rowCount * Long.BYTES + Math.max(0, ff.length(Path.getThreadLocal2(file).$()));
+            } else {
+                bytes += rowCount << ColumnType.pow2SizeOf(type);
+            }
+        }
+        return bytes;
+    }
+
+    private void publishFile(long size) {
+        final long cursor = pubSeq.next();
+        if (cursor > -1) {
+            queue.get(cursor).of(file, size);
+            pubSeq.done(cursor);
+        }
+    }
+
+    private void publishPartition(TableReaderMetadata metadata, long rowCount) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final CharSequence name = metadata.getColumnName(i);
+            final int type = metadata.getColumnType(i);
+            if (ColumnType.isVariableLength(type)) {
+                setFile(name, ".i");
+                publishFile(rowCount * Long.BYTES);
+                setFile(name, ".d");
+                publishFile(-1);
+            } else {
+                setFile(name, ".d");
+                publishFile(rowCount << ColumnType.pow2SizeOf(type));
+            }
+        }
+    }
+
+    private void releaseBudget(int partitionIndex) {
+        while (queuedLo < queued.size() && queued.getQuick(queuedLo) <= partitionIndex) {
+            queuedBytes -= queued.getQuick(queuedLo + 1);
+            queuedLo += 2;
+        }
+        if (queuedLo == queued.size()) {
+            queued.clear();
+            queuedLo = 0;
+        }
+    }
+
+    private void setFile(CharSequence columnName, CharSequence suffix) {
+        file.clear();
+        file.put(partitionDir).put(Files.SEPARATOR).put(columnName).put(suffix);
+    }
+
+    private void setPartitionDir(TableReader reader, int partitionIndex) {
+        partitionDir.clear();
+        partitionDir.put(root);
+        if (!(root.length() > 0 && root.charAt(root.length() - 1) == Files.SEPARATOR)) {
+            partitionDir.put(Files.SEPARATOR);
+        }
+        partitionDir.put(reader.getTableName()).put(Files.SEPARATOR);
+        PartitionBy.setSinkForPartition(partitionDir, reader.getPartitionedBy(), reader.getPartitionTimestampByIndex(partitionIndex), false);
+        TableUtils.txnPartitionConditionally(partitionDir, reader.getTxFile().getPartitionNameTxn(partitionIndex));
+    }
+}
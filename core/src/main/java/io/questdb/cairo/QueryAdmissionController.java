@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for queries that open cursors. Queries are split into workload classes,
+ * each class has its own concurrency limit, queue capacity and per-query memory reservation.
+ * Query is admitted when its class is below the concurrency limit and native memory in use,
+ * plus reservations of admitted queries, plus its own reservation fits under the memory limit
+ * less the headroom kept for ingestion. Ingestion itself is never gated, the headroom makes
+ * queries back off before they starve ILP and import writers of memory.
+ */
+public class QueryAdmissionController {
+    public static final int WORKLOAD_INTERACTIVE = 0;
+    public static final int WORKLOAD_REPORTING = 1;
+    private static final int WORKLOAD_CLASS_COUNT = WORKLOAD_REPORTING + 1;
+    private static final IntList NATIVE_MEMORY_TAGS = new IntList();
+    private final int[] concurrencyLimits = new int[WORKLOAD_CLASS_COUNT];
+    private final long[] memoryReservations = new long[WORKLOAD_CLASS_COUNT];
+    private final AtomicInteger[] activeCounts = new AtomicInteger[WORKLOAD_CLASS_COUNT];
+    private final AtomicInteger[] queuedCounts = new AtomicInteger[WORKLOAD_CLASS_COUNT];
+    private final AtomicLong reservedMemory = new AtomicLong();
+    private final AtomicLong admittedCount = new AtomicLong();
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final ObjList<String> reportingUsers;
+    private final long memoryLimit;
+    private final int queueCapacity;
+    private final long queueTimeout;
+
+    public QueryAdmissionController(CairoConfiguration configuration) {
+        concurrencyLimits[WORKLOAD_INTERACTIVE] = configuration.getQueryAdmissionInteractiveLimit();
+        concurrencyLimits[WORKLOAD_REPORTING] = configuration.getQueryAdmissionReportingLimit();
+        memoryReservations[WORKLOAD_INTERACTIVE] = configuration.getQueryAdmissionInteractiveMemory();
+        memoryReservations[WORKLOAD_REPORTING] = configuration.getQueryAdmissionReportingMemory();
+        for (int i = 0; i < WORKLOAD_CLASS_COUNT; i++) {
+            activeCounts[i] = new AtomicInteger();
+            queuedCounts[i] = new AtomicInteger();
+        }
+        final long limit = configuration.getQueryAdmissionMemoryLimit();
+        this.memoryLimit = limit > 0 ? Math.max(limit - configuration.getQueryAdmissionIngestionMemory(), 0) : -1;
+        this.queueCapacity = configuration.getQueryAdmissionQueueCapacity();
+        this.queueTimeout = configuration.getQueryAdmissionQueueTimeout();
+        this.reportingUsers = configuration.getQueryAdmissionReportingUsers();
+    }
+
+    public static long getNativeMemUsed() {
+        long used = 0;
+        for (int i = 0, n = NATIVE_MEMORY_TAGS.size(); i < n; i++) {
+            used += Unsafe.getMemUsedByTag(NATIVE_MEMORY_TAGS.getQuick(i));
+        }
+        return used;
+    }
+
+    public static String nameOf(int workloadClass) {
+        return workloadClass == WORKLOAD_REPORTING ? "reporting" : "interactive";
+    }
+
+    /**
+     * Admits query or throws cacheable CairoException when the query cannot run now.
+     */
+    public void acquire(int workloadClass) {
+        if (!tryAcquire(workloadClass)) {
+            throw reject(workloadClass);
+        }
+    }
+
+    public void dequeue(int workloadClass) {
+        queuedCounts[workloadClass].decrementAndGet();
+    }
+
+    /**
+     * Takes a place in the queue of the workload class.
+     *
+     * @return false when the queue is full and query should be rejected
+     */
+    public boolean enqueue(int workloadClass) {
+        final AtomicInteger queued = queuedCounts[workloadClass];
+        while (true) {
+            final int n = queued.get();
+            if (n >= queueCapacity) {
+                return false;
+            }
+            if (queued.compareAndSet(n, n + 1)) {
+                queuedCount.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    public int getActiveCount(int workloadClass) {
+        return activeCounts[workloadClass].get();
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount.get();
+    }
+
+    public int getQueueCount(int workloadClass) {
+        return queuedCounts[workloadClass].get();
+    }
+
+    public long getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getReservedMemory() {
+        return reservedMemory.get();
+    }
+
+    public int getWorkloadClass(CharSequence user) {
+        if (user != null) {
+            for (int i = 0, n = reportingUsers.size(); i < n; i++) {
+                if (Chars.equals(reportingUsers.getQuick(i), user)) {
+                    return WORKLOAD_REPORTING;
+                }
+            }
+        }
+        return WORKLOAD_INTERACTIVE;
+    }
+
+    public CairoException reject(int workloadClass) {
+        rejectedCount.incrementAndGet();
+        return CairoException.instance(0)
+                .put("query rejected by admission control [class=").put(nameOf(workloadClass))
+                .put(", active=").put(activeCounts[workloadClass].get())
+                .put(", limit=").put(concurrencyLimits[workloadClass])
+                .put(", memReserved=").put(reservedMemory.get())
+                .put(", memLimit=").put(memoryLimit)
+                .put(']')
+                .setCacheable(true);
+    }
+
+    public void release(int workloadClass) {
+        reservedMemory.addAndGet(-memoryReservations[workloadClass]);
+        activeCounts[workloadClass].decrementAndGet();
+    }
+
+    public boolean tryAcquire(int workloadClass) {
+        final AtomicInteger active = activeCounts[workloadClass];
+        final int limit = concurrencyLimits[workloadClass];
+        while (true) {
+            final int n = active.get();
+            if (limit > 0 && n >= limit) {
+                return false;
+            }
+            if (active.compareAndSet(n, n + 1)) {
+                break;
+            }
+        }
+
+        final long reservation = memoryReservations[workloadClass];
+        final long reserved = reservedMemory.addAndGet(reservation);
+        if (memoryLimit > -1 && getNativeMemUsed() + reserved > memoryLimit) {
+            release(workloadClass);
+            return false;
+        }
+        admittedCount.incrementAndGet();
+        return true;
+    }
+
+    static {
+        for (int i = 0; i < MemoryTag.SIZE; i++) {
+            if (MemoryTag.nameOf(i).startsWith("NATIVE_")) {
+                NATIVE_MEMORY_TAGS.add(i);
+            }
+        }
+    }
+}
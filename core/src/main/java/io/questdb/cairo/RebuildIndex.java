@@ -30,6 +30,7 @@ import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
@@ -39,6 +40,7 @@ import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
 
+import static io.questdb.cairo.TableUtils.COLUMN_VERSION_FILE_NAME;
 import static io.questdb.cairo.TableUtils.lockName;
 
 /**
@@ -58,6 +60,7 @@ public class RebuildIndex implements Closeable, Mutable {
     private TableReaderMetadata metadata;
     private final SymbolColumnIndexer indexer = new SymbolColumnIndexer();
     private final StringSink tempStringSink = new StringSink();
+    private final LongList columnVersions = new LongList();
 
     public RebuildIndex of(CharSequence tablePath, CairoConfiguration configuration) {
         this.path.concat(tablePath);
@@ -111,6 +114,15 @@ public class RebuildIndex implements Closeable, Mutable {
             try (TxReader txReader = new TxReader(ff, path, partitionBy)) {
                 txReader.unsafeLoadAll();
                 path.trimTo(rootLen);
+                columnVersions.clear();
+                if (txReader.getColumnVersionSize() > 0) {
+                    try (ColumnVersionReader columnVersionReader = new ColumnVersionReader(ff, path.concat(COLUMN_VERSION_FILE_NAME).$(), 0)) {
+                        columnVersionReader.readUnsafe(txReader.getColumnVersionOffset(), txReader.getColumnVersionSize());
+                        columnVersions.add(columnVersionReader.getCachedList());
+                    } finally {
+                        path.trimTo(rootLen);
+                    }
+                }
 
                 if (PartitionBy.isPartitioned(partitionBy)) {
                     // Resolve partition timestamp if partition name specified
@@ -148,6 +160,10 @@ public class RebuildIndex implements Closeable, Mutable {
         }
     }
 
+    private long getColumnNameTxn(long partitionTimestamp, int columnIndex) {
+        return ColumnVersionWriter.getColumnNameTxn(columnVersions, partitionTimestamp, columnIndex);
+    }
+
     private void rebuildIndex(
             int rebuildColumnIndex,
             FilesFacade ff,
@@ -166,14 +182,14 @@ public class RebuildIndex implements Closeable, Mutable {
                 if (metadata.isColumnIndexed(columnIndex)) {
                     CharSequence columnName = metadata.getColumnName(columnIndex);
                     int indexValueBlockCapacity = metadata.getIndexValueBlockCapacity(columnIndex);
-                    rebuildIndex(indexer, columnName, sink, indexValueBlockCapacity, partitionSize, ff);
+                    rebuildIndex(indexer, columnName, getColumnNameTxn(partitionTimestamp, columnIndex), sink, indexValueBlockCapacity, partitionSize, ff);
                 }
             }
         } else {
             if (metadata.isColumnIndexed(rebuildColumnIndex)) {
                 CharSequence columnName = metadata.getColumnName(rebuildColumnIndex);
                 int indexValueBlockCapacity = metadata.getIndexValueBlockCapacity(rebuildColumnIndex);
-                rebuildIndex(indexer, columnName, sink, indexValueBlockCapacity, partitionSize, ff);
+                rebuildIndex(indexer, columnName, getColumnNameTxn(partitionTimestamp, rebuildColumnIndex), sink, indexValueBlockCapacity, partitionSize, ff);
             } else {
                 throw CairoException.instance(0).put("Column is not indexed");
             }
@@ -183,6 +199,7 @@ public class RebuildIndex implements Closeable, Mutable {
     private void rebuildIndex(
             SymbolColumnIndexer indexer,
             CharSequence columnName,
+            long columnNameTxn,
             CharSequence partitionName,
             int indexValueBlockCapacity,
             long partitionSize,
@@ -194,15 +211,15 @@ public class RebuildIndex implements Closeable, Mutable {
         if (ff.exists(path.$())) {
             try (final MemoryMR roMem = indexMem) {
                 removeIndexFiles(columnName, ff);
-                TableUtils.dFile(path.trimTo(plen), columnName);
+                TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
 
                 if (ff.exists(path.$())) {
                     LOG.info().$("indexing [path=").utf8(path).I$();
-                    final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, false);
+                    final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, columnNameTxn, false);
                     createIndexFiles(columnName, indexValueBlockCapacity, plen, ff);
 
                     if (partitionSize > columnTop) {
-                        TableUtils.dFile(path.trimTo(plen), columnName);
+                        TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
                         final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
                         roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
                         indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnTop);
@@ -31,9 +31,11 @@ import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
 
 import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
 
 public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private static final Log LOG = LogFactory.getLog(SymbolMapReaderImpl.class);
@@ -41,6 +43,10 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private final MemoryMR charMem = Vm.getMRInstance();
     private final MemoryMR offsetMem = Vm.getMRInstance();
     private final ObjList<String> cache = new ObjList<>();
+    private CairoConfiguration configuration;
+    private Path path;
+    private String columnName;
+    private int indexVersion;
     private int maxHash;
     private boolean cached;
     private int symbolCount;
@@ -62,6 +68,7 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         this.cache.clear();
         long fd = this.offsetMem.getFd();
         Misc.free(offsetMem);
+        this.path = Misc.free(path);
         LOG.debug().$("closed [fd=").$(fd).$(']').$();
     }
 
@@ -90,6 +97,11 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             // which will indicate size of the char column
             this.offsetMem.extend(maxOffset + Long.BYTES);
             this.charMem.extend(this.offsetMem.getLong(maxOffset));
+            if (this.offsetMem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION) != indexVersion) {
+                // writer outgrew symbol capacity and swapped in index for larger capacity,
+                // index files we have open do not contain new symbols
+                openIndex();
+            }
         } else if (symbolCount < this.symbolCount) {
             cache.remove(symbolCount + 1, this.symbolCount);
             this.symbolCount = symbolCount;
@@ -133,13 +145,19 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             final long offsetMemSize = SymbolMapWriter.keyToOffset(symbolCount) + Long.SIZE;
             LOG.debug().$("offsetMem.of [columnName=").$(path).$(",offsetMemSize=").$(offsetMemSize).I$();
             this.offsetMem.of(ff, path, offsetMemSize, offsetMemSize, MemoryTag.MMAP_INDEX_READER);
-            this.symbolCapacity = offsetMem.getInt(SymbolMapWriter.HEADER_CAPACITY);
-            assert this.symbolCapacity > 0;
             this.cached = offsetMem.getBool(SymbolMapWriter.HEADER_CACHE_ENABLED);
             this.nullValue = offsetMem.getBool(SymbolMapWriter.HEADER_NULL_FLAG);
 
+            // keep index location, writer may swap index files when symbol capacity grows
+            this.configuration = configuration;
+            if (this.path == null) {
+                this.path = new Path();
+            }
+            this.path.of(path.trimTo(plen));
+            this.columnName = Chars.toString(columnName);
+
             // index writer is used to identify attempts to store duplicate symbol value
-            this.indexReader.of(configuration, path.trimTo(plen), columnName, 0, -1);
+            openIndex();
 
             // this is the place where symbol values are stored
             this.charMem.wholeFile(ff, SymbolMapWriter.charFileName(path.trimTo(plen), columnName), MemoryTag.MMAP_INDEX_READER);
@@ -147,10 +165,6 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             // move append pointer for symbol values in the correct place
             this.charMem.extend(this.offsetMem.getLong(maxOffset));
 
-            // we use index hash maximum equals to half of symbol capacity, which
-            // theoretically should require 2 value cells in index per hash
-            // we use 4 cells to compensate for occasionally unlucky hash distribution
-            this.maxHash = Numbers.ceilPow2(symbolCapacity / 2) - 1;
             if (cached) {
                 this.cache.setPos(symbolCapacity);
             }
@@ -212,6 +226,45 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         return null;
     }
 
+    private void openIndex() {
+        final MicrosecondClock clock = configuration.getMicrosecondClock();
+        final long deadline = clock.getTicks() + configuration.getSpinLockTimeoutUs();
+        while (true) {
+            // header capacity and index files agree only when index version is even and stays
+            // the same while we open the index
+            final int version = offsetMem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION);
+            Unsafe.getUnsafe().loadFence();
+            if ((version & 1) == 0) {
+                final int capacity = offsetMem.getInt(SymbolMapWriter.HEADER_CAPACITY);
+                try {
+                    indexReader.of(configuration, path, columnName, 0, -1);
+                } catch (CairoException e) {
+                    // index files could have been swapped while we were opening them
+                    if (version == offsetMem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION)) {
+                        throw e;
+                    }
+                }
+                Unsafe.getUnsafe().loadFence();
+                if (version == offsetMem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION)) {
+                    assert capacity > 0;
+                    this.indexVersion = version;
+                    this.symbolCapacity = capacity;
+                    // we use index hash maximum equals to half of symbol capacity, which
+                    // theoretically should require 2 value cells in index per hash
+                    // we use 4 cells to compensate for occasionally unlucky hash distribution
+                    this.maxHash = SymbolMapWriter.maxHash(capacity);
+                    return;
+                }
+            }
+
+            if (clock.getTicks() > deadline) {
+                LOG.error().$("symbol index swap timeout [column=").$(columnName).$(", timeout=").$(configuration.getSpinLockTimeoutUs()).utf8("μs]").$();
+                throw CairoException.instance(0).put("Symbol index swap timeout [column=").put(columnName).put(']');
+            }
+            LockSupport.parkNanos(1);
+        }
+    }
+
     private CharSequence cachedValue(int key) {
         String symbol = cache.getQuiet(key);
         return symbol != null ? symbol : fetchAndCache(key);
@@ -43,13 +43,24 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
     public static final int HEADER_CAPACITY = 0;
     public static final int HEADER_CACHE_ENABLED = 4;
     public static final int HEADER_NULL_FLAG = 8;
+    // even value means hash index files are in agreement with header capacity,
+    // odd value means writer is in the middle of swapping index files
+    public static final int HEADER_INDEX_VERSION = 12;
+    private static final int MAX_AUTO_SCALE_CAPACITY = 1 << 30;
+    private static final String REBUILD_FILE_SUFFIX = ".r";
     private static final Log LOG = LogFactory.getLog(SymbolMapWriter.class);
+    private final CairoConfiguration configuration;
     private final BitmapIndexWriter indexWriter;
     private final MemoryMARW charMem;
     private final MemoryMARW offsetMem;
     private final CharSequenceIntHashMap cache;
-    private final int maxHash;
     private final SymbolValueCountCollector valueCountCollector;
+    private boolean capacityAutoScale;
+    private final Path path;
+    private final int rootLen;
+    private String columnName;
+    private int symbolCapacity;
+    private int maxHash;
     private boolean nullValue = false;
     private int symbolIndexInTxWriter;
 
@@ -62,6 +73,11 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
             @NotNull SymbolValueCountCollector valueCountCollector
     ) {
         final int plen = path.length();
+        this.configuration = configuration;
+        this.capacityAutoScale = configuration.isSymbolCapacityAutoScaleEnabled();
+        this.path = new Path().of(path);
+        this.rootLen = plen;
+        this.columnName = Chars.toString(name);
         try {
             final FilesFacade ff = configuration.getFilesFacade();
             final long mapPageSize = configuration.getMiscAppendPageSize();
@@ -85,21 +101,11 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
             // we left off. Where we left off is stored externally to symbol map
             this.offsetMem = Vm.getWholeMARWInstance(ff, path, mapPageSize, MemoryTag.MMAP_INDEX_WRITER);
             // formula for calculating symbol capacity needs to be in agreement with symbol reader
-            final int symbolCapacity = offsetMem.getInt(HEADER_CAPACITY);
+            this.symbolCapacity = offsetMem.getInt(HEADER_CAPACITY);
             assert symbolCapacity > 0;
             final boolean useCache = offsetMem.getBool(HEADER_CACHE_ENABLED);
             this.offsetMem.jumpTo(keyToOffset(symbolCount) + Long.BYTES);
 
-            // index writer is used to identify attempts to store duplicate symbol value
-            // symbol table index stores int keys and long values, e.g. value = key * 2 storage size
-            this.indexWriter = new BitmapIndexWriter(
-                    configuration,
-                    path.trimTo(plen),
-                    name,
-                    configuration.getDataIndexKeyAppendPageSize(),
-                    configuration.getDataIndexKeyAppendPageSize() * 2
-            );
-
             // this is the place where symbol values are stored
             this.charMem = Vm.getWholeMARWInstance(ff, charFileName(path.trimTo(plen), name), mapPageSize, MemoryTag.MMAP_INDEX_WRITER);
 
@@ -109,7 +115,20 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
             // we use index hash maximum equals to half of symbol capacity, which
             // theoretically should require 2 value cells in index per hash
             // we use 4 cells to compensate for occasionally unlucky hash distribution
-            this.maxHash = Numbers.ceilPow2(symbolCapacity / 2) - 1;
+            this.maxHash = maxHash(symbolCapacity);
+
+            // index writer is used to identify attempts to store duplicate symbol value
+            // symbol table index stores int keys and long values, e.g. value = key * 2 storage size
+            this.indexWriter = new BitmapIndexWriter();
+
+            if ((offsetMem.getInt(HEADER_INDEX_VERSION) & 1) == 1) {
+                // previous writer did not finish swapping index files, we cannot
+                // trust either of them; index is derived data, so we rebuild it
+                LOG.info().$("repairing interrupted symbol index swap [name=").$(path.trimTo(plen).concat(name).$()).I$();
+                rebuildIndex(symbolCapacity);
+            } else {
+                openIndexWriter();
+            }
 
             if (useCache) {
                 this.cache = new CharSequenceIntHashMap(symbolCapacity);
@@ -184,6 +203,7 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
     @Override
     public void close() {
         Misc.free(indexWriter);
+        Misc.free(path);
         Misc.free(charMem);
         if (this.offsetMem != null) {
             long fd = this.offsetMem.getFd();
@@ -193,6 +213,10 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         nullValue = false;
     }
 
+    public int getSymbolCapacity() {
+        return symbolCapacity;
+    }
+
     public int getSymbolCount() {
         return offsetToKey(offsetMem.getAppendOffset() - Long.BYTES);
     }
@@ -228,6 +252,10 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         }
     }
 
+    public void setColumnName(CharSequence columnName) {
+        this.columnName = Chars.toString(columnName);
+    }
+
     public void setSymbolIndexInTxWriter(int symbolIndexInTxWriter) {
         this.symbolIndexInTxWriter = symbolIndexInTxWriter;
     }
@@ -240,6 +268,10 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         offsetMem.putBool(HEADER_NULL_FLAG, flag);
     }
 
+    static int maxHash(int symbolCapacity) {
+        return Numbers.ceilPow2(symbolCapacity / 2) - 1;
+    }
+
     static int offsetToKey(long offset) {
         return (int) ((offset - HEADER_SIZE) / 8L);
     }
@@ -260,6 +292,135 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         }
     }
 
+    private void growCapacity() {
+        final int newCapacity = Numbers.ceilPow2(symbolCapacity) * 2;
+        LOG.info().$("growing symbol capacity [name=").$(columnName)
+                .$(", symbolCount=").$(getSymbolCount())
+                .$(", oldCapacity=").$(symbolCapacity)
+                .$(", newCapacity=").$(newCapacity)
+                .I$();
+        try {
+            rebuildIndex(newCapacity);
+        } catch (CairoException e) {
+            // symbol is already stored and the live index is intact, we keep the old capacity
+            // and stop growing rather than fail every subsequent put
+            capacityAutoScale = false;
+            LOG.error().$("could not grow symbol capacity, auto scale is disabled for this writer [name=").$(columnName)
+                    .$(", capacity=").$(symbolCapacity)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+        }
+    }
+
+    private void openIndexWriter() {
+        indexWriter.of(
+                configuration,
+                path.trimTo(rootLen),
+                columnName,
+                configuration.getDataIndexKeyAppendPageSize(),
+                configuration.getDataIndexKeyAppendPageSize() * 2
+        );
+        path.trimTo(rootLen);
+    }
+
+    /**
+     * Rebuilds hash index of symbol values for given capacity. Symbol keys are positions in "offset"
+     * file, which is not touched, so column data remains valid. New index is written to temporary files,
+     * which are then renamed over live index files. Readers that have live files mapped keep using them
+     * until they observe new index version in the header and reopen the index.
+     *
+     * @param newCapacity symbol capacity new index is built for
+     */
+    private void rebuildIndex(int newCapacity) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int newMaxHash = maxHash(newCapacity);
+        final int symbolCount = getSymbolCount();
+        try (BitmapIndexWriter rebuildWriter = new BitmapIndexWriter()) {
+            final long keyFd = TableUtils.openRW(ff, path.trimTo(rootLen).concat(columnName).put(".k").put(REBUILD_FILE_SUFFIX).$(), LOG);
+            final long valueFd;
+            try {
+                valueFd = TableUtils.openRW(ff, path.trimTo(rootLen).concat(columnName).put(".v").put(REBUILD_FILE_SUFFIX).$(), LOG);
+            } catch (CairoException e) {
+                ff.close(keyFd);
+                throw e;
+            }
+            rebuildWriter.of(configuration, keyFd, valueFd, true, TableUtils.MIN_INDEX_VALUE_BLOCK_SIZE);
+            populateIndex(rebuildWriter, symbolCount, newMaxHash);
+        } finally {
+            path.trimTo(rootLen);
+        }
+
+        // odd version tells readers that index files and capacity disagree
+        final int version = offsetMem.getInt(HEADER_INDEX_VERSION) | 1;
+        offsetMem.putInt(HEADER_INDEX_VERSION, version);
+        Unsafe.getUnsafe().storeFence();
+
+        // live index writer stays open until both files are swapped, should swap fail
+        // we can carry on with the old index
+        try {
+            swapIndexFile(ff, ".k");
+        } catch (Throwable e) {
+            offsetMem.putInt(HEADER_INDEX_VERSION, version + 1);
+            throw e;
+        }
+
+        try {
+            swapIndexFile(ff, ".v");
+        } catch (Throwable e) {
+            // key file is new and value file is old, neither index is usable,
+            // re-index live files in place for the old capacity
+            try {
+                reindexLiveFiles(ff, symbolCount);
+            } finally {
+                path.trimTo(rootLen);
+            }
+            offsetMem.putInt(HEADER_INDEX_VERSION, version + 1);
+            throw e;
+        }
+
+        indexWriter.close();
+        offsetMem.putInt(HEADER_CAPACITY, newCapacity);
+        Unsafe.getUnsafe().storeFence();
+        offsetMem.putInt(HEADER_INDEX_VERSION, version + 1);
+
+        this.symbolCapacity = newCapacity;
+        this.maxHash = newMaxHash;
+        openIndexWriter();
+    }
+
+    private void populateIndex(BitmapIndexWriter writer, int symbolCount, int maxHash) {
+        for (int key = 0; key < symbolCount; key++) {
+            final long offsetOffset = keyToOffset(key);
+            writer.add(Hash.boundedHash(charMem.getStr(offsetMem.getLong(offsetOffset)), maxHash), offsetOffset);
+        }
+        if (symbolCount > 0) {
+            writer.setMaxValue(keyToOffset(symbolCount - 1));
+        }
+    }
+
+    private void reindexLiveFiles(FilesFacade ff, int symbolCount) {
+        indexWriter.close();
+        final long keyFd = TableUtils.openRW(ff, BitmapIndexUtils.keyFileName(path.trimTo(rootLen), columnName), LOG);
+        final long valueFd;
+        try {
+            valueFd = TableUtils.openRW(ff, BitmapIndexUtils.valueFileName(path.trimTo(rootLen), columnName), LOG);
+        } catch (CairoException e) {
+            ff.close(keyFd);
+            throw e;
+        }
+        indexWriter.of(configuration, keyFd, valueFd, true, TableUtils.MIN_INDEX_VALUE_BLOCK_SIZE);
+        populateIndex(indexWriter, symbolCount, maxHash);
+    }
+
+    private void swapIndexFile(FilesFacade ff, CharSequence fileExtension) {
+        final Path to = Path.PATH2.get().of(path.trimTo(rootLen)).concat(columnName).put(fileExtension).$();
+        final Path from = path.concat(columnName).put(fileExtension).put(REBUILD_FILE_SUFFIX).$();
+        if (!ff.rename(from, to)) {
+            throw CairoException.instance(ff.errno()).put("could not swap symbol index file [from=").put(from).put(", to=").put(to).put(']');
+        }
+    }
+
     private int lookupAndPut(CharSequence symbol) {
         int hash = Hash.boundedHash(symbol, maxHash);
         RowCursor cursor = indexWriter.getCursor(hash);
@@ -285,13 +446,18 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         indexWriter.add(hash, offsetOffset);
         final int symIndex = offsetToKey(offsetOffset);
         valueCountCollector.collectValueCount(symbolIndexInTxWriter, symIndex + 1);
+        if (symIndex >= symbolCapacity && capacityAutoScale && symbolCapacity < MAX_AUTO_SCALE_CAPACITY) {
+            growCapacity();
+        }
         return symIndex;
     }
 
     void truncate() {
         final int symbolCapacity = offsetMem.getInt(HEADER_CAPACITY);
+        final int indexVersion = offsetMem.getInt(HEADER_INDEX_VERSION);
         offsetMem.truncate();
         offsetMem.putInt(HEADER_CAPACITY, symbolCapacity);
+        offsetMem.putInt(HEADER_INDEX_VERSION, indexVersion);
         offsetMem.jumpTo(keyToOffset(0) + Long.BYTES);
         charMem.truncate();
         indexWriter.truncate();
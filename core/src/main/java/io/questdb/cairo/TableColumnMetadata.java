@@ -36,6 +36,7 @@ public class TableColumnMetadata {
     private String name;
     private int indexValueBlockCapacity;
     private boolean indexed;
+    private boolean dedupKey;
 
     public TableColumnMetadata(String name, long hash, int type) {
         this(name, hash, type, null);
@@ -103,6 +104,14 @@ public class TableColumnMetadata {
         indexed = value;
     }
 
+    public boolean isDedupKey() {
+        return dedupKey;
+    }
+
+    public void setDedupKey(boolean value) {
+        dedupKey = value;
+    }
+
     public boolean isSymbolTableStatic() {
         return symbolTableStatic;
     }
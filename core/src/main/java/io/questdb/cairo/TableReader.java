@@ -27,8 +27,10 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.cairo.vm.MemoryCMRImpl;
+import io.questdb.cairo.vm.MemorySharedCMRImpl;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.cairo.vm.api.MemoryMW;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -37,6 +39,7 @@ import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.Path;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.locks.LockSupport;
@@ -64,6 +67,10 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final TxReader txFile;
     private final MemoryMR todoMem = Vm.getMRInstance();
     private final TxnScoreboard txnScoreboard;
+    private final boolean madviseEnabled;
+    private final boolean madviseDontNeedEnabled;
+    private final ColumnMappingCache mappingCache;
+    private ColumnVersionReader columnVersionReader;
     private int partitionCount;
     private LongList columnTops;
     private ObjList<MemoryMR> columns;
@@ -76,8 +83,15 @@ public class TableReader implements Closeable, SymbolTableSource {
     private boolean active;
 
     public TableReader(CairoConfiguration configuration, CharSequence tableName) {
+        this(configuration, tableName, null);
+    }
+
+    public TableReader(CairoConfiguration configuration, CharSequence tableName, @Nullable ColumnMappingCache mappingCache) {
         this.configuration = configuration;
+        this.mappingCache = mappingCache;
         this.ff = configuration.getFilesFacade();
+        this.madviseEnabled = configuration.isFileMadviseEnabled();
+        this.madviseDontNeedEnabled = madviseEnabled && configuration.isFileMadviseDontNeedEnabled();
         this.tableName = Chars.toString(tableName);
         this.path = new Path();
         this.path.of(configuration.getRoot()).concat(this.tableName);
@@ -131,6 +145,36 @@ public class TableReader implements Closeable, SymbolTableSource {
         return 2 + base + index * 2;
     }
 
+    /**
+     * Hints OS that scan of partition has finished. Pages of the partition are released from
+     * this reader's mappings when enabled in configuration.
+     *
+     * @param partitionIndex index of partition that has been scanned
+     */
+    public void adviseScanComplete(int partitionIndex) {
+        if (madviseDontNeedEnabled) {
+            advisePartition(partitionIndex, Files.MADV_DONTNEED);
+        }
+    }
+
+    /**
+     * Hints OS that partition is about to be read sequentially and that the partition that follows in
+     * scan order is going to be needed next, which lets kernel read it ahead while the current partition
+     * is being processed. No-op unless enabled in configuration.
+     *
+     * @param partitionIndex     index of open partition being scanned
+     * @param nextPartitionIndex index of partition to be scanned next, ignored when out of range or not open,
+     *                           advice is not worth the cost of opening partition
+     */
+    public void adviseSequentialScan(int partitionIndex, int nextPartitionIndex) {
+        if (madviseEnabled) {
+            advisePartition(partitionIndex, Files.MADV_SEQUENTIAL);
+            if (nextPartitionIndex > -1 && nextPartitionIndex < partitionCount && getPartitionRowCount(nextPartitionIndex) > 0) {
+                advisePartition(nextPartitionIndex, Files.MADV_WILLNEED);
+            }
+        }
+    }
+
     public double avgDouble(int columnIndex) {
         double result = 0;
         long countTotal = 0;
@@ -163,6 +207,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(metadata);
             goPassive();
             Misc.free(txFile);
+            columnVersionReader = Misc.free(columnVersionReader);
             Misc.free(todoMem);
             freeColumns();
             freeTempMem();
@@ -209,6 +254,10 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     public BitmapIndexReader getBitmapIndexReader(int partitionIndex, int columnIndex, int direction) {
+        if (madviseEnabled) {
+            // rows found via index are scattered across the partition
+            advisePartition(partitionIndex, Files.MADV_RANDOM);
+        }
         int columnBase = getColumnBase(partitionIndex);
         return getBitmapIndexReader(partitionIndex, columnBase, columnIndex, direction);
     }
@@ -319,6 +368,16 @@ public class TableReader implements Closeable, SymbolTableSource {
         return tempMem8b != 0;
     }
 
+    /**
+     * Checks if table has been committed to since this reader last reloaded. Unlike reload() the check
+     * does not require reader to be active.
+     *
+     * @return true when reload would move reader to newer transaction
+     */
+    public boolean isOutdated() {
+        return txn != txFile.unsafeReadTxn();
+    }
+
     public double maxDouble(int columnIndex) {
         double max = Double.NEGATIVE_INFINITY;
         for (int i = 0; i < partitionCount; i++) {
@@ -412,6 +471,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                     this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1);
                     openPartition0(partitionIndex);
                     this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, txPartitionNameTxn);
+                    this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN, txPartitionDataTxn);
                     changed = true;
                 }
                 txPartitionIndex++;
@@ -551,6 +611,21 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private void advisePartition(int partitionIndex, int advice) {
+        final int base = getColumnBase(partitionIndex);
+        for (int i = 0; i < columnCount; i++) {
+            final int index = getPrimaryColumnIndex(base, i);
+            final MemoryMR primary = columns.getQuick(index);
+            if (primary != null) {
+                primary.advise(advice);
+            }
+            final MemoryMR secondary = columns.getQuick(index + 1);
+            if (secondary != null) {
+                secondary.advise(advice);
+            }
+        }
+    }
+
     private void closeColumn(int columnBase, int columnIndex) {
         final int index = getPrimaryColumnIndex(columnBase, columnIndex);
         Misc.free(columns.getAndSetQuick(index, NullColumn.INSTANCE));
@@ -560,6 +635,7 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     private void copyColumnsTo(
+            int partitionIndex,
             ObjList<MemoryMR> columns,
             LongList columnTops,
             ObjList<BitmapIndexReader> indexReaders,
@@ -577,6 +653,7 @@ public class TableReader implements Closeable, SymbolTableSource {
         tempCopyStruct.forwardReader = indexReaders.getAndSetQuick(index + 1, tempCopyStruct.forwardReader);
         if (reload) {
             reloadColumnAt(
+                    partitionIndex,
                     path,
                     columns,
                     columnTops,
@@ -661,10 +738,10 @@ public class TableReader implements Closeable, SymbolTableSource {
                     final int copyFrom = Unsafe.getUnsafe().getInt(pIndexBase + i * 8L) - 1;
                     if (copyFrom > -1) {
                         fetchColumnsFrom(oldBase, copyFrom);
-                        copyColumnsTo(columns, columnTops, indexReaders, base, i, partitionRowCount);
+                        copyColumnsTo(partitionIndex, columns, columnTops, indexReaders, base, i, partitionRowCount);
                     } else {
                         // new instance
-                        reloadColumnAt(path, columns, columnTops, indexReaders, base, i, partitionRowCount);
+                        reloadColumnAt(partitionIndex, path, columns, columnTops, indexReaders, base, i, partitionRowCount);
                     }
                 }
 
@@ -766,6 +843,21 @@ public class TableReader implements Closeable, SymbolTableSource {
         return txn;
     }
 
+    void dumpTxn(MemoryMW txMem) {
+        txFile.dumpTo(txMem, symbolCountSnapshot);
+    }
+
+    /**
+     * Column versions of the reader transaction, 4 longs per entry, see ColumnVersionWriter.
+     */
+    LongList getColumnVersions() {
+        return columnVersionReader != null ? columnVersionReader.getCachedList() : null;
+    }
+
+    TxReader getTxFile() {
+        return txFile;
+    }
+
     TxnScoreboard getTxnScoreboard() {
         return txnScoreboard;
     }
@@ -813,6 +905,18 @@ public class TableReader implements Closeable, SymbolTableSource {
             MemoryMR mem,
             long columnSize
     ) {
+        if (mappingCache != null) {
+            final MemorySharedCMRImpl sharedMem;
+            if (mem instanceof MemorySharedCMRImpl) {
+                sharedMem = (MemorySharedCMRImpl) mem;
+            } else {
+                sharedMem = new MemorySharedCMRImpl(mappingCache);
+                columns.setQuick(primaryIndex, sharedMem);
+            }
+            sharedMem.of(ff, path, txFile.getStructureVersion(), txFile.getDataVersion(), columnSize, MemoryTag.MMAP_TABLE_READER);
+            return sharedMem;
+        }
+
         if (mem != null && mem != NullColumn.INSTANCE) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
@@ -847,7 +951,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                         .$(']').$();
 
                 if (partitionSize > 0) {
-                    openPartitionColumns(path, getColumnBase(partitionIndex), partitionSize);
+                    openPartitionColumns(partitionIndex, path, getColumnBase(partitionIndex), partitionSize);
                     final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
                     this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, partitionSize);
                 }
@@ -878,9 +982,10 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
-    private void openPartitionColumns(Path path, int columnBase, long partitionRowCount) {
+    private void openPartitionColumns(int partitionIndex, Path path, int columnBase, long partitionRowCount) {
         for (int i = 0; i < columnCount; i++) {
             reloadColumnAt(
+                    partitionIndex,
                     path,
                     this.columns,
                     this.columnTops,
@@ -936,7 +1041,7 @@ public class TableReader implements Closeable, SymbolTableSource {
 
                 Unsafe.getUnsafe().loadFence();
                 // ok, we have snapshot, check if our snapshot is stable
-                if (txn == txFile.unsafeReadTxn()) {
+                if (readColumnVersions() && txn == txFile.unsafeReadTxn()) {
                     // good, very stable, congrats
                     if (active) {
                         txnScoreboard.releaseTxn(this.txn);
@@ -966,6 +1071,31 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private long getColumnNameTxn(int partitionIndex, int columnIndex) {
+        if (columnVersionReader == null) {
+            return TableUtils.COLUMN_NAME_TXN_NONE;
+        }
+        return columnVersionReader.getColumnNameTxn(openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE), columnIndex);
+    }
+
+    private boolean readColumnVersions() {
+        final long size = txFile.getColumnVersionSize();
+        if (size > 0) {
+            if (columnVersionReader == null) {
+                columnVersionReader = new ColumnVersionReader(
+                        ff,
+                        Path.getThreadLocal(configuration.getRoot()).concat(tableName).concat(TableUtils.COLUMN_VERSION_FILE_NAME).$(),
+                        0
+                );
+            }
+            return columnVersionReader.readSafe(txFile.getColumnVersionOffset(), size);
+        }
+        if (columnVersionReader != null) {
+            columnVersionReader.getCachedList().clear();
+        }
+        return true;
+    }
+
     private void reconcileOpenPartitions(long prevPartitionVersion) {
         // Reconcile partition full or partial will only update row count of last partition and append new partitions
         if (this.txFile.getPartitionTableVersion() == prevPartitionVersion) {
@@ -993,6 +1123,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                         } else {
                             openPartition0(partitionIndex);
                             this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, txPartitionNameTxn);
+                            this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN, txPartitionDataTxn);
                         }
                     }
                     partitionIndex++;
@@ -1018,6 +1149,7 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     private void reloadColumnAt(
+            int partitionIndex,
             Path path,
             ObjList<MemoryMR> columns,
             LongList columnTops,
@@ -1035,13 +1167,14 @@ public class TableReader implements Closeable, SymbolTableSource {
             MemoryMR mem1 = columns.getQuick(primaryIndex);
             MemoryMR mem2 = columns.getQuick(secondaryIndex);
 
-            final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), name, plen, false);
+            final long columnNameTxn = getColumnNameTxn(partitionIndex, columnIndex);
+            final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), name, plen, columnNameTxn, false);
             final long columnRowCount = partitionRowCount - columnTop;
 
             // When column is added mid-table existence the .top file is only
             // created in the current partition. Older partitions would simply have no
             // column file. This makes it necessary to check for .d file existence
-            if (partitionRowCount > 0 && ff.exists(TableUtils.dFile(path.trimTo(plen), name))) {
+            if (partitionRowCount > 0 && ff.exists(TableUtils.dFile(path.trimTo(plen), name, columnNameTxn))) {
                 final int columnType = metadata.getColumnType(columnIndex);
 
                 if (ColumnType.isVariableLength(columnType)) {
@@ -1049,11 +1182,11 @@ public class TableReader implements Closeable, SymbolTableSource {
                     TableUtils.iFile(path.trimTo(plen), name);
                     mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize);
                     columnSize = mem2.getLong(columnRowCount * 8L);
-                    TableUtils.dFile(path.trimTo(plen), name);
+                    TableUtils.dFile(path.trimTo(plen), name, columnNameTxn);
                     openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
                 } else {
                     long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
-                    TableUtils.dFile(path.trimTo(plen), name);
+                    TableUtils.dFile(path.trimTo(plen), name, columnNameTxn);
                     openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
@@ -1131,6 +1264,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 final MemoryMR mem1 = columns.getQuick(index);
                 if (mem1 instanceof NullColumn) {
                     reloadColumnAt(
+                            partitionIndex,
                             path,
                             columns,
                             columnTops,
@@ -1238,8 +1372,9 @@ public class TableReader implements Closeable, SymbolTableSource {
                             //    instance and the column from disk
                             // 3. Column hasn't been altered and we can skip to next column.
                             MemoryMR col = columns.getQuick(getPrimaryColumnIndex(base, i));
-                            if ((col instanceof MemoryCMRImpl && col.isDeleted()) || col instanceof NullColumn) {
+                            if (((col instanceof MemoryCMRImpl || col instanceof MemorySharedCMRImpl) && col.isDeleted()) || col instanceof NullColumn) {
                                 reloadColumnAt(
+                                        partitionIndex,
                                         path,
                                         columns,
                                         columnTops,
@@ -1254,10 +1389,10 @@ public class TableReader implements Closeable, SymbolTableSource {
 
                         if (copyFrom > -1) {
                             fetchColumnsFrom(base, copyFrom);
-                            copyColumnsTo(this.columns, this.columnTops, this.bitmapIndexes, base, i, partitionRowCount);
+                            copyColumnsTo(partitionIndex, this.columns, this.columnTops, this.bitmapIndexes, base, i, partitionRowCount);
                             int copyTo = Unsafe.getUnsafe().getInt(pIndexBase + i * 8L + 4) - 1;
                             while (copyTo > -1 && TableUtils.isEntryToBeProcessed(pState, copyTo)) {
-                                copyColumnsTo(this.columns, this.columnTops, this.bitmapIndexes, base, copyTo, partitionRowCount);
+                                copyColumnsTo(partitionIndex, this.columns, this.columnTops, this.bitmapIndexes, base, copyTo, partitionRowCount);
                                 copyTo = Unsafe.getUnsafe().getInt(pIndexBase + (copyTo - 1) * 8L + 4);
                             }
                             Misc.free(tempCopyStruct.mem1);
@@ -1267,6 +1402,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                         } else {
                             // new instance
                             reloadColumnAt(
+                                    partitionIndex,
                                     path,
                                     columns,
                                     columnTops,
@@ -43,6 +43,7 @@ public final class TableUtils {
     public static final String META_FILE_NAME = "_meta";
     public static final String TXN_FILE_NAME = "_txn";
     public static final String TXN_SCOREBOARD_FILE_NAME = "_txn_scoreboard";
+    public static final String COLUMN_VERSION_FILE_NAME = "_cv";
     public static final String UPGRADE_FILE_NAME = "_upgrade.d";
     public static final String DETACHED_DIR_MARKER = ".detached";
     public static final String TAB_INDEX_FILE_NAME = "_tab_index.d";
@@ -54,6 +55,10 @@ public final class TableUtils {
     public static final long TX_OFFSET_FIXED_ROW_COUNT = 16;
     public static final long TX_OFFSET_STRUCT_VERSION = 40;
     public static final long TX_OFFSET_TXN_CHECK = 64;
+    public static final long TX_OFFSET_COLUMN_VERSION_OFFSET = 72;
+    public static final long TX_OFFSET_COLUMN_VERSION_SIZE = 80;
+    // column files without version suffix
+    public static final long COLUMN_NAME_TXN_NONE = -1L;
     public static final long META_OFFSET_COUNT = 0;
     public static final long META_OFFSET_TIMESTAMP_INDEX = 8;
     public static final long META_OFFSET_VERSION = 12;
@@ -87,6 +92,8 @@ public final class TableUtils {
      * long struct_version; // data structure version; whenever columns added or removed this version changes.
      * long partition_version; // version that increments whenever non-current partitions are modified/added/removed
      * long txn_check; // same as txn - sanity check for concurrent reads and writes
+     * long column_version_offset; // offset of committed area in _cv file
+     * long column_version_size; // size of committed area in _cv file, 0 when no column has versions
      * int  map_writer_count; // symbol writer count
      * int  map_writer_position[map_writer_count]; // position of each of map writers
      * }
@@ -101,6 +108,7 @@ public final class TableUtils {
     static final long META_OFFSET_PARTITION_BY = 4;
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
+    static final int META_FLAG_BIT_DEDUP_KEY = 1 << 2;
     static final String TODO_FILE_NAME = "_todo_";
     private static final int MIN_SYMBOL_CAPACITY = 2;
     private static final int MAX_SYMBOL_CAPACITY = Numbers.ceilPow2(Integer.MAX_VALUE);
@@ -272,6 +280,14 @@ public final class TableUtils {
         return path.concat(columnName).put(FILE_SUFFIX_D).$();
     }
 
+    public static LPSZ dFile(Path path, CharSequence columnName, long columnNameTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_D);
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnNameTxn);
+        }
+        return path.$();
+    }
+
     public static int exists(FilesFacade ff, Path path, CharSequence root, CharSequence name) {
         return exists(ff, path, root, name, 0, name.length());
     }
@@ -528,6 +544,17 @@ public final class TableUtils {
         throw CairoException.instance(ff.errno()).put("could not open read-write [file=").put(path).put(']');
     }
 
+    /**
+     * Same as {@link #readColumnTop(FilesFacade, Path, CharSequence, int, boolean)} for given version of column files.
+     * Column versions are written out in full, they do not have top.
+     */
+    public static long readColumnTop(FilesFacade ff, Path path, CharSequence name, int plen, long columnNameTxn, boolean failIfCouldNotRead) {
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            return 0;
+        }
+        return readColumnTop(ff, path, name, plen, failIfCouldNotRead);
+    }
+
     /**
      * path member variable has to be set to location of "top" file.
      *
@@ -627,6 +654,9 @@ public final class TableUtils {
         txMem.putLong(TX_OFFSET_DATA_VERSION, dataVersion);
         // partition table version
         txMem.putLong(TX_OFFSET_PARTITION_TABLE_VERSION, partitionTableVersion);
+        // column versions
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_OFFSET, 0);
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_SIZE, 0);
 
         txMem.putInt(TX_OFFSET_MAP_WRITER_COUNT, symbolMapCount);
         for (int i = 0; i < symbolMapCount; i++) {
@@ -839,6 +869,10 @@ public final class TableUtils {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_SEQUENTIAL) != 0;
     }
 
+    static boolean isDedupKey(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_DEDUP_KEY) != 0;
+    }
+
     static int getIndexBlockCapacity(MemoryR metaMem, int columnIndex) {
         return metaMem.getInt(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 4 + 8);
     }
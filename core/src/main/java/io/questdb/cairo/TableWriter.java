@@ -26,6 +26,8 @@ package io.questdb.cairo;
 
 import io.questdb.MessageBus;
 import io.questdb.MessageBusImpl;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.vm.MemoryFCRImpl;
@@ -67,6 +69,13 @@ public class TableWriter implements Closeable {
     private static final int ROW_ACTION_NO_TIMESTAMP = 2;
     private static final int ROW_ACTION_O3 = 3;
     private static final int ROW_ACTION_SWITCH_PARTITION = 4;
+    private static final int O3_PLAN_ENTRY_SIZE = 8;
+    private static final long O3_PLAN_LAST = 1;
+    private static final long O3_PLAN_APPEND = 2;
+    private static final long O3_PLAN_DEDUP = 4;
+    // timestamp index of this many rows or more is sorted in chunks on the worker pool
+    private static final long O3_SORT_CHUNK_SIZE = 512 * 1024;
+    private static final int O3_SORT_MAX_CHUNKS = 16;
     private static final Log LOG = LogFactory.getLog(TableWriter.class);
     private static final CharSequenceHashSet IGNORED_FILES = new CharSequenceHashSet();
     private static final Runnable NOOP = () -> {
@@ -119,24 +128,49 @@ public class TableWriter implements Closeable {
     private final ObjList<O3CallbackTask> o3PendingCallbackTasks = new ObjList<>();
     private final O3ColumnUpdateMethod oooSortVarColumnRef = this::o3SortVarColumn;
     private final O3ColumnUpdateMethod oooSortFixColumnRef = this::o3SortFixColumn;
+    private final O3ColumnUpdateMethod o3SortChunkRef = this::o3SortChunk;
+    private final O3ColumnUpdateMethod o3MergeChunksRef = this::o3MergeChunks;
     private final SOUnboundedCountDownLatch o3DoneLatch = new SOUnboundedCountDownLatch();
     private final AtomicLong o3PartitionUpdRemaining = new AtomicLong();
     private final AtomicInteger o3ErrorCount = new AtomicInteger();
+    // merge plan of the current O3 commit, O3_PLAN_ENTRY_SIZE longs per partition
+    private final LongList o3MergePlan = new LongList();
+    // merge memory estimate by partition timestamp, read by O3 jobs when partition is done
+    private final LongLongHashMap o3PartitionMergeMemory = new LongLongHashMap();
+    // merge memory this writer holds in the shared budget
+    private final AtomicLong o3ReservedMemory = new AtomicLong();
     private final MemoryMARW todoMem = Vm.getMARWInstance();
     private final TxWriter txWriter;
     private final LongList o3PartitionRemoveCandidates = new LongList();
+    private final IntList o3DedupKeyColumns = new IntList();
+    private final LongList o3DedupKeys = new LongList();
+    // partition timestamp and number of rows replaced in the partition by current O3 commit
+    private final LongList o3DedupRowCounts = new LongList();
+    private final LongList o3DedupRows = new LongList();
     private final ObjectPool<O3MutableAtomicInteger> o3ColumnCounters = new ObjectPool<>(O3MutableAtomicInteger::new, 64);
     private final ObjectPool<O3Basket> o3BasketPool = new ObjectPool<>(O3Basket::new, 64);
     private final TxnScoreboard txnScoreboard;
     private final StringSink o3Sink = new StringSink();
     private final StringSink fileNameSink = new StringSink();
+    private final StringSink columnVersionNameSink = new StringSink();
+    private final LongList columnVersionTxns = new LongList();
     private final FindVisitor removePartitionDirectories = this::removePartitionDirectories0;
     private final FindVisitor removePartitionDirsNotAttached = this::removePartitionDirsNotAttached;
+    private final FindVisitor purgeColumnVersionFile = this::purgeColumnVersionFile;
+    private final ObjList<ColumnUpdater> columnUpdaters = new ObjList<>();
+    private final LongList updateSequences = new LongList();
+    private final IntList updatePartitions = new IntList();
+    private final SOCountDownLatch updateLatch = new SOCountDownLatch();
+    // column versions superseded by update, pairs of partition timestamp and the version that superseded them
+    private final LongList columnPurgeList = new LongList();
+    private final ObjList<CharSequence> columnPurgeNames = new ObjList<>();
     private final StringSink o3FileNameSink = new StringSink();
     private final RingQueue<O3PartitionUpdateTask> o3PartitionUpdateQueue;
     private final MPSequence o3PartitionUpdatePubSeq;
     private final SCSequence o3PartitionUpdateSubSeq;
     private final boolean o3QuickSortEnabled;
+    private int o3SortChunkCount;
+    private long o3SortCpyAddr;
     private final LongConsumer appendTimestampSetter;
     private final MemoryMR indexMem = Vm.getMRInstance();
     private final MemoryFR slaveMetaMem = new MemoryFCRImpl();
@@ -171,6 +205,8 @@ public class TableWriter implements Closeable {
     private LifecycleManager lifecycleManager;
     private String designatedTimestampColumnName;
     private long o3RowCount;
+    private boolean o3DedupCheck;
+    private boolean o3DedupForced;
     private final O3ColumnUpdateMethod o3MoveUncommittedRef = this::o3MoveUncommitted0;
     private long lastPartitionTimestamp;
     private boolean o3InError = false;
@@ -179,6 +215,10 @@ public class TableWriter implements Closeable {
     private int rowActon = ROW_ACTION_OPEN_PARTITION;
     private final AlterStatement alterTableStatement = new AlterStatement();
     private long committedMasterRef;
+    private ColumnVersionWriter columnVersionWriter;
+    private CharSequence purgeColumnName;
+    private long purgeColumnNameTxn;
+    private int purgePathLen;
 
 
     public TableWriter(CairoConfiguration configuration, CharSequence tableName) {
@@ -268,6 +308,10 @@ public class TableWriter implements Closeable {
             this.txWriter = new TxWriter(ff, path, partitionBy);
             this.txnScoreboard = new TxnScoreboard(ff, path.trimTo(rootLen), configuration.getTxnScoreboardEntryCount());
             path.trimTo(rootLen);
+            if (txWriter.getColumnVersionSize() > 0 || ff.exists(path.concat(COLUMN_VERSION_FILE_NAME).$())) {
+                openColumnVersionWriter();
+            }
+            path.trimTo(rootLen);
             // we have to do truncate repair at this stage of constructor
             // because this operation requires metadata
             switch (todo) {
@@ -312,6 +356,8 @@ public class TableWriter implements Closeable {
             configureAppendPosition();
             purgeUnusedPartitions();
             clearTodoLog();
+            queueColumnVersionsForPurge();
+            processColumnPurgeList();
         } catch (Throwable e) {
             doClose(false);
             throw e;
@@ -498,7 +544,7 @@ public class TableWriter implements Closeable {
                 //
                 if (PartitionBy.isPartitioned(partitionBy)) {
                     // run indexer for the whole table
-                    final long timestamp = indexHistoricPartitions(indexer, columnName, indexValueBlockSize);
+                    final long timestamp = indexHistoricPartitions(indexer, columnName, columnIndex, indexValueBlockSize);
                     if (timestamp != Numbers.LONG_NaN) {
                         path.trimTo(rootLen);
                         setStateForTimestamp(path, timestamp, true);
@@ -806,6 +852,8 @@ public class TableWriter implements Closeable {
                         switchPartition(timestamp);
                     }
                 }
+                // row that repeats max timestamp can replace a row on upsert keys, keys are checked on append
+                o3DedupCheck = timestamp == txWriter.getMaxTimestamp() && metadata.isDedupEnabled();
                 updateMaxTimestamp(timestamp);
                 break;
             case ROW_ACTION_NO_PARTITION:
@@ -902,6 +950,11 @@ public class TableWriter implements Closeable {
 
             // remove column files has to be done after _todo is removed
             removeColumnFiles(name, type, REMOVE_OR_LOG);
+            renameColumnPurgeEntries(name, null);
+            if (columnVersionWriter != null) {
+                columnVersionWriter.removeColumn(index);
+                commitColumnVersions();
+            }
         } catch (CairoException err) {
             throwDistressException(err);
         }
@@ -964,6 +1017,10 @@ public class TableWriter implements Closeable {
             txWriter.removeAttachedPartitions(timestamp);
             txWriter.setMinTimestamp(nextMinTimestamp);
             txWriter.finishPartitionSizeUpdate(nextMinTimestamp, txWriter.getMaxTimestamp());
+            if (columnVersionWriter != null) {
+                columnVersionWriter.removePartition(timestamp);
+                commitColumnVersions();
+            }
             txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
 
             if (ff.exists(path.$())) {
@@ -1019,6 +1076,11 @@ public class TableWriter implements Closeable {
 
             // rename column files has to be done after _todo is removed
             renameColumnFiles(currentName, newName, type);
+            renameColumnPurgeEntries(currentName, newName);
+            if (ColumnType.isSymbol(type)) {
+                // symbol map writer needs to know file names should it have to rebuild its index
+                symbolMapWriters.getQuick(index).setColumnName(newName);
+            }
         } catch (CairoException err) {
             throwDistressException(err);
         }
@@ -1122,6 +1184,7 @@ public class TableWriter implements Closeable {
                                 path.trimTo(plen),
                                 columnName,
                                 plen,
+                                getColumnNameTxn(ts, j),
                                 true
                         );
 
@@ -1328,6 +1391,8 @@ public class TableWriter implements Closeable {
                 o3InError = false;
                 // when we rolled transaction back, hasO3() has to be false
                 o3MasterRef = -1;
+                o3DedupCheck = false;
+                o3DedupForced = false;
                 LOG.info().$("tx rollback complete [name=").$(tableName).$(']').$();
                 processCommandQueue(false);
             } catch (Throwable e) {
@@ -1362,6 +1427,59 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Sets upsert keys of the table. Rows that match existing or pending rows on the designated
+     * timestamp and all key columns replace those rows instead of being appended. Key columns must
+     * be fixed size and must include the designated timestamp, an empty list disables deduplication.
+     *
+     * @param columnIndexes indexes of key columns
+     */
+    public void setMetaDedupKeys(IntList columnIndexes) {
+        final int timestampIndex = metadata.getTimestampIndex();
+        if (columnIndexes.size() > 0) {
+            if (!PartitionBy.isPartitioned(partitionBy)) {
+                throw CairoException.instance(0).put("deduplication is supported on partitioned tables only");
+            }
+            if (columnIndexes.indexOf(timestampIndex, 0, columnIndexes.size()) < 0) {
+                throw CairoException.instance(0).put("upsert keys must include designated timestamp");
+            }
+            for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+                if (ColumnType.isVariableLength(metadata.getColumnType(columnIndexes.getQuick(i)))) {
+                    throw CairoException.instance(0).put("variable length column cannot be an upsert key [column=")
+                            .put(metadata.getColumnName(columnIndexes.getQuick(i))).put(']');
+                }
+            }
+        }
+
+        try {
+            commit();
+            long metaSize = copyMetadataAndUpdateVersion();
+            openMetaSwapFileByIndex(ff, ddlMem, path, rootLen, this.metaSwapIndex);
+            try {
+                for (int i = 0; i < columnCount; i++) {
+                    final long flagsOffset = META_OFFSET_COLUMN_TYPES + i * META_COLUMN_DATA_SIZE + 4;
+                    long flags = getColumnFlags(metaMem, i) & ~META_FLAG_BIT_DEDUP_KEY;
+                    if (columnIndexes.indexOf(i, 0, columnIndexes.size()) > -1) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
+                    ddlMem.jumpTo(flagsOffset);
+                    ddlMem.putLong(flags);
+                }
+                ddlMem.jumpTo(metaSize);
+            } finally {
+                ddlMem.close();
+            }
+
+            finishMetaSwapUpdate();
+            for (int i = 0; i < columnCount; i++) {
+                metadata.setDedupKey(i, columnIndexes.indexOf(i, 0, columnIndexes.size()) > -1);
+            }
+            clearTodoLog();
+        } finally {
+            ddlMem.close();
+        }
+    }
+
     public void setMetaMaxUncommittedRows(int maxUncommittedRows) {
         try {
             commit();
@@ -1471,6 +1589,12 @@ public class TableWriter implements Closeable {
             }
         }
 
+        if (columnVersionWriter != null) {
+            // column versions of removed partitions are gone together with their files
+            columnVersionWriter.clear();
+            columnPurgeList.clear();
+            columnPurgeNames.clear();
+        }
         txWriter.resetTimestamp();
         txWriter.truncate();
         row = regularRow;
@@ -1483,6 +1607,176 @@ public class TableWriter implements Closeable {
         LOG.info().$("truncated [name=").$(tableName).$(']').$();
     }
 
+    /**
+     * Overwrites values of fixed-size columns in rows produced by the cursor. Record row ids must address
+     * rows of this table in ascending partition order and record column "i" supplies value for column columnIndexes[i].
+     * <p>
+     * Updated columns are written as new column versions, files suffixed with the transaction of the update.
+     * Partition directories and files of columns that are not updated stay as they are. Row ids and values
+     * are buffered one partition at a time and partitions are written out in parallel by {@link ColumnUpdateJob}.
+     * New versions are recorded in the column version file and published by single commit, readers keep using
+     * previous versions until they reload. Previous versions are purged once released.
+     *
+     * @param columnIndexes  writer indexes of columns to update
+     * @param valuesMetadata metadata of cursor record
+     * @param cursor         cursor of rows to update and their new values
+     * @return number of updated rows
+     */
+    public long updateColumns(IntList columnIndexes, RecordMetadata valuesMetadata, RecordCursor cursor) {
+        checkDistressed();
+        commit();
+
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            throw CairoException.instance(0).put("cannot update non-partitioned table [table=").put(tableName).put(']');
+        }
+
+        final int updateColumnCount = columnIndexes.size();
+        for (int i = 0; i < updateColumnCount; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final int columnType = metadata.getColumnType(columnIndex);
+            if (columnIndex == metadata.getTimestampIndex()
+                    || ColumnType.isVariableLength(columnType)
+                    || metadata.isColumnIndexed(columnIndex)) {
+                throw CairoException.instance(0).put("designated timestamp, variable length and indexed columns cannot be updated [table=")
+                        .put(tableName)
+                        .put(", column=").put(metadata.getColumnName(columnIndex))
+                        .put(']');
+            }
+        }
+
+        if (columnVersionWriter == null) {
+            openColumnVersionWriter();
+        }
+
+        // new versions become visible with the commit below
+        final long columnNameTxn = txWriter.getTxn() + 1;
+        final int lastPartitionIndex = txWriter.getPartitionCount() - 1;
+        final int updaterCapacity = messageBus.getColumnUpdateQueue().getCycle();
+        final Record record = cursor.getRecord();
+        boolean lastPartitionClosed = false;
+        long rowCount = 0;
+        int updaterCount = 0;
+        int partitionIndex = -1;
+        ColumnUpdater updater = null;
+        updatePartitions.clear();
+        try {
+            while (cursor.hasNext()) {
+                final long rowId = record.getRowId();
+                final int rowPartitionIndex = Rows.toPartitionIndex(rowId);
+                if (rowPartitionIndex != partitionIndex) {
+                    if (rowPartitionIndex < partitionIndex) {
+                        throw CairoException.instance(0).put("rows to update must be ordered by partition [table=").put(tableName).put(']');
+                    }
+                    if (updaterCount == updaterCapacity) {
+                        updateColumnsParallel(updaterCount);
+                        updaterCount = 0;
+                    }
+                    partitionIndex = rowPartitionIndex;
+
+                    final long partitionSize;
+                    if (partitionIndex == lastPartitionIndex) {
+                        closeActivePartition(true);
+                        lastPartitionClosed = true;
+                        partitionSize = txWriter.getTransientRowCount();
+                    } else {
+                        partitionSize = txWriter.getPartitionSize(partitionIndex);
+                    }
+                    final long partitionTimestamp = txWriter.getPartitionTimestamp(partitionIndex);
+                    if (updaterCount < columnUpdaters.size()) {
+                        updater = columnUpdaters.getQuick(updaterCount);
+                    } else {
+                        updater = new ColumnUpdater(o3ColumnMemorySize);
+                        columnUpdaters.add(updater);
+                    }
+                    updaterCount++;
+                    try {
+                        setPathForPartition(path, partitionBy, partitionTimestamp, false);
+                        TableUtils.txnPartitionConditionally(path, txWriter.getPartitionNameTxn(partitionIndex));
+                        updater.of(ff, path, partitionTimestamp, partitionSize, columnNameTxn, defaultCommitMode);
+                    } finally {
+                        path.trimTo(rootLen);
+                    }
+                    for (int i = 0; i < updateColumnCount; i++) {
+                        final int columnIndex = columnIndexes.getQuick(i);
+                        updater.addColumn(
+                                metadata.getColumnName(columnIndex),
+                                metadata.getColumnType(columnIndex),
+                                getColumnNameTxn(partitionTimestamp, columnIndex)
+                        );
+                    }
+                    updatePartitions.add(partitionIndex);
+                }
+
+                updater.addRow(Rows.toLocalRowID(rowId));
+                for (int i = 0; i < updateColumnCount; i++) {
+                    final int columnIndex = columnIndexes.getQuick(i);
+                    updateValue(
+                            updater.getValueAddress(i),
+                            columnIndex,
+                            metadata.getColumnType(columnIndex),
+                            record,
+                            i,
+                            valuesMetadata.getColumnType(i)
+                    );
+                }
+                rowCount++;
+            }
+
+            if (updaterCount > 0) {
+                updateColumnsParallel(updaterCount);
+            }
+        } catch (Throwable e) {
+            LOG.error().$("update failed, removing new column versions [table=").$(tableName).$(", e=").$(e).I$();
+            removeColumnVersionFiles(columnIndexes, columnNameTxn);
+            rollbackSymbolTables();
+            if (lastPartitionClosed) {
+                openPartition(txWriter.getMaxTimestamp());
+                setAppendPosition(txWriter.getTransientRowCount(), false);
+            }
+            throw e;
+        }
+
+        if (rowCount == 0) {
+            return 0;
+        }
+
+        try {
+            for (int i = 0, n = updatePartitions.size(); i < n; i++) {
+                final int index = updatePartitions.getQuick(i);
+                final long partitionTimestamp = txWriter.getPartitionTimestamp(index);
+                for (int j = 0; j < updateColumnCount; j++) {
+                    columnVersionWriter.upsert(partitionTimestamp, columnIndexes.getQuick(j), columnNameTxn);
+                }
+                txWriter.updatePartitionDataTxnByIndex(index * LONGS_PER_TX_ATTACHED_PARTITION);
+            }
+            commitColumnVersions();
+            txWriter.bumpPartitionTableVersion();
+            txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+        } catch (Throwable e) {
+            throwDistressException(e);
+        }
+
+        LOG.info().$("updated [table=").$(tableName)
+                .$(", rows=").$(rowCount)
+                .$(", partitions=").$(updatePartitions.size())
+                .$(", txn=").$(txWriter.txn)
+                .I$();
+
+        for (int i = 0, n = updatePartitions.size(); i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(updatePartitions.getQuick(i));
+            for (int j = 0; j < updateColumnCount; j++) {
+                queueColumnVersionForPurge(partitionTimestamp, metadata.getColumnName(columnIndexes.getQuick(j)), columnNameTxn);
+            }
+        }
+        processColumnPurgeList();
+
+        if (lastPartitionClosed) {
+            openPartition(txWriter.getMaxTimestamp());
+            setAppendPosition(txWriter.getTransientRowCount(), false);
+        }
+        return rowCount;
+    }
+
     /**
      * Eagerly sets up writer instance. Otherwise, writer will initialize lazily. Invoking this method could improve
      * performance of some applications. UDP receivers use this in order to avoid initial receive buffer contention.
@@ -1609,6 +1903,68 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private static double getUpdateDoubleValue(Record record, int col, int valueTag) {
+        switch (valueTag) {
+            case ColumnType.FLOAT:
+                return record.getFloat(col);
+            case ColumnType.DOUBLE:
+                return record.getDouble(col);
+            default:
+                final long value = getUpdateLongValue(record, col, valueTag);
+                return value == Numbers.LONG_NaN ? Double.NaN : value;
+        }
+    }
+
+    private static long getUpdateGeoHashValue(Record record, int col, int valueType, int columnBits) {
+        final int valueBits = ColumnType.getGeoHashBits(valueType);
+        if (valueBits == 0) {
+            return GeoHashes.NULL;
+        }
+        final long hash;
+        switch (ColumnType.tagOf(valueType)) {
+            case ColumnType.GEOBYTE:
+                hash = record.getGeoByte(col);
+                break;
+            case ColumnType.GEOSHORT:
+                hash = record.getGeoShort(col);
+                break;
+            case ColumnType.GEOINT:
+                hash = record.getGeoInt(col);
+                break;
+            default:
+                hash = record.getGeoLong(col);
+                break;
+        }
+        // value may be more precise than the column, drop extra bits
+        return hash == GeoHashes.NULL ? hash : hash >>> (valueBits - columnBits);
+    }
+
+    private static long getUpdateLongValue(Record record, int col, int valueTag) {
+        switch (valueTag) {
+            case ColumnType.BYTE:
+                return record.getByte(col);
+            case ColumnType.SHORT:
+                return record.getShort(col);
+            case ColumnType.CHAR:
+                return record.getChar(col);
+            case ColumnType.INT:
+                final int value = record.getInt(col);
+                return value == Numbers.INT_NaN ? Numbers.LONG_NaN : value;
+            case ColumnType.DATE:
+                return record.getDate(col);
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(col);
+            case ColumnType.FLOAT:
+                final float f = record.getFloat(col);
+                return Float.isNaN(f) ? Numbers.LONG_NaN : (long) f;
+            case ColumnType.DOUBLE:
+                final double d = record.getDouble(col);
+                return Double.isNaN(d) ? Numbers.LONG_NaN : (long) d;
+            default:
+                return record.getLong(col);
+        }
+    }
+
     private static void openMetaFile(FilesFacade ff, Path path, int rootLen, MemoryMR metaMem) {
         path.concat(META_FILE_NAME).$();
         try {
@@ -1779,6 +2135,7 @@ public class TableWriter implements Closeable {
 
     private void clearO3() {
         this.o3MasterRef = -1; // clears o3 flag, hasO3() will be returning false
+        o3DedupForced = false;
         rowActon = ROW_ACTION_SWITCH_PARTITION;
         // transaction log is either not required or pending
         activeColumns = columns;
@@ -1868,6 +2225,7 @@ public class TableWriter implements Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             o3ProcessPartitionRemoveCandidates();
+            processColumnPurgeList();
         }
     }
 
@@ -2054,6 +2412,9 @@ public class TableWriter implements Closeable {
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isDedupKey(metaMem, i)) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.putLong(getColumnHash(metaMem, i));
@@ -2172,7 +2533,10 @@ public class TableWriter implements Closeable {
         boolean tx = inTransaction();
         freeSymbolMapWriters();
         freeIndexers();
+        processColumnPurgeList();
         Misc.free(txWriter);
+        Misc.free(columnVersionWriter);
+        Misc.freeObjList(columnUpdaters);
         Misc.free(metaMem);
         Misc.free(ddlMem);
         Misc.free(indexMem);
@@ -2275,6 +2639,19 @@ public class TableWriter implements Closeable {
         return indexers.getQuick(columnIndex).getWriter();
     }
 
+    /**
+     * Returns version of column files in the partition, {@link TableUtils#COLUMN_NAME_TXN_NONE} when column
+     * has not been updated in the partition.
+     */
+    long getColumnNameTxn(long partitionTimestamp, int columnIndex) {
+        return columnVersionWriter != null ? columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex) : COLUMN_NAME_TXN_NONE;
+    }
+
+    long getColumnNameTxn(long timestamp, CharSequence columnName) {
+        final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+        return columnIndex > -1 ? getColumnNameTxn(txWriter.getPartitionTimestampLo(timestamp), columnIndex) : COLUMN_NAME_TXN_NONE;
+    }
+
     long getColumnTop(int columnIndex) {
         return columnTops.getQuick(columnIndex);
     }
@@ -2341,7 +2718,7 @@ public class TableWriter implements Closeable {
         return o3MasterRef > -1;
     }
 
-    private long indexHistoricPartitions(SymbolColumnIndexer indexer, CharSequence columnName, int indexValueBlockSize) {
+    private long indexHistoricPartitions(SymbolColumnIndexer indexer, CharSequence columnName, int columnIndex, int indexValueBlockSize) {
         final long ts = this.txWriter.getMaxTimestamp();
         if (ts > Numbers.LONG_NaN) {
             final long maxTimestamp = partitionFloorMethod.floor(ts);
@@ -2357,8 +2734,9 @@ public class TableWriter implements Closeable {
                     if (txWriter.attachedPartitionsContains(timestamp) && ff.exists(path.$())) {
 
                         final int plen = path.length();
+                        final long columnNameTxn = getColumnNameTxn(timestamp, columnIndex);
 
-                        TableUtils.dFile(path.trimTo(plen), columnName);
+                        TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
 
                         if (ff.exists(path)) {
 
@@ -2369,10 +2747,10 @@ public class TableWriter implements Closeable {
                             createIndexFiles(columnName, indexValueBlockSize, plen, true);
 
                             final long partitionSize = txWriter.getPartitionSizeByPartitionTimestamp(timestamp);
-                            final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, true);
+                            final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, columnNameTxn, true);
 
                             if (partitionSize > columnTop) {
-                                TableUtils.dFile(path.trimTo(plen), columnName);
+                                TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
                                 final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
                                 roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
                                 indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnTop);
@@ -2395,7 +2773,8 @@ public class TableWriter implements Closeable {
 
         createIndexFiles(columnName, indexValueBlockSize, plen, true);
 
-        final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, true);
+        final long columnNameTxn = getColumnNameTxn(txWriter.getPartitionTimestampLo(txWriter.getMaxTimestamp()), columnIndex);
+        final long columnTop = TableUtils.readColumnTop(ff, path.trimTo(plen), columnName, plen, columnNameTxn, true);
 
         // set indexer up to continue functioning as normal
         indexer.configureFollowerAndWriter(configuration, path.trimTo(plen), columnName, getPrimaryColumn(columnIndex), columnTop);
@@ -2436,6 +2815,16 @@ public class TableWriter implements Closeable {
         o3PartitionUpdRemaining.decrementAndGet();
     }
 
+    void o3ReleaseMergeMemory(long partitionTimestamp) {
+        final long memory = o3PartitionMergeMemory.get(partitionTimestamp);
+        if (memory > 0) {
+            o3ReservedMemory.addAndGet(-memory);
+            final O3MergeBudget mergeBudget = messageBus.getO3MergeBudget();
+            mergeBudget.release(memory);
+            mergeBudget.onMerged();
+        }
+    }
+
     /**
      * Commits O3 data. Lag is optional. When 0 is specified the entire O3 segment is committed.
      *
@@ -2458,8 +2847,14 @@ public class TableWriter implements Closeable {
         // we will check new partitionTimestampHi value against the limit to see if the writer
         // will have to switch partition internally
         long partitionTimestampHiLimit = partitionCeilMethod.ceil(partitionTimestampHi) - 1;
+        final boolean dedup = metadata.isDedupEnabled();
+        if (dedup) {
+            o3DedupConfigureKeys();
+        }
         try {
-            o3RowCount += o3MoveUncommitted(timestampIndex);
+            final long movedRowLo = o3RowCount;
+            final long movedRowCount = o3MoveUncommitted(timestampIndex);
+            o3RowCount += movedRowCount;
             final long transientRowCount = txWriter.transientRowCount;
 
             // we may need to re-use file descriptors when this partition is the "current" one
@@ -2468,15 +2863,20 @@ public class TableWriter implements Closeable {
             // to determine that 'ooTimestampLo' goes into current partition
             // we need to compare 'partitionTimestampHi', which is appropriately truncated to DAY/MONTH/YEAR
             // to this.maxTimestamp, which isn't truncated yet. So we need to truncate it first
-            LOG.info().$("sorting o3 [table=").$(tableName).$(']').$();
             final long sortedTimestampsAddr = o3TimestampMem.getAddress();
 
-            // ensure there is enough size
-            if (o3RowCount > 600 || !o3QuickSortEnabled) {
-                o3TimestampMemCpy.jumpTo(o3TimestampMem.getAppendOffset());
-                Vect.radixSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
-            } else {
-                Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
+            // batch that arrived in timestamp order, such as replay of an earlier day, is already
+            // sorted; its index is identity and column data does not have to be reshuffled
+            boolean o3InOrder = o3IsInOrder(sortedTimestampsAddr, o3RowCount);
+            if (!o3InOrder) {
+                LOG.info().$("sorting o3 [table=").$(tableName).$(']').$();
+                // ensure there is enough size
+                if (o3RowCount > 600 || !o3QuickSortEnabled) {
+                    o3TimestampMemCpy.jumpTo(o3TimestampMem.getAppendOffset());
+                    o3SortTimestampIndex(sortedTimestampsAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
+                } else {
+                    Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
+                }
             }
 
             // we have three frames:
@@ -2550,6 +2950,24 @@ public class TableWriter implements Closeable {
                 return true;
             }
 
+            if (dedup) {
+                // rows of equal timestamp must not straddle lag boundary, otherwise a row
+                // could be committed before the row that replaces it
+                while (srcOooMax < o3RowCount
+                        && getTimestampIndexValue(sortedTimestampsAddr, srcOooMax) == getTimestampIndexValue(sortedTimestampsAddr, srcOooMax - 1)) {
+                    srcOooMax++;
+                }
+                o3LagRowCount = o3RowCount - srcOooMax;
+                final long dedupRowCount = o3DedupIndex(sortedTimestampsAddr, srcOooMax, movedRowLo, movedRowCount);
+                if (dedupRowCount < srcOooMax) {
+                    // replaced rows have to be compacted out of column data
+                    o3InOrder = false;
+                    Vect.memmove(sortedTimestampsAddr + dedupRowCount * 16, sortedTimestampsAddr + srcOooMax * 16, o3LagRowCount * 16);
+                    o3RowCount = dedupRowCount + o3LagRowCount;
+                    srcOooMax = dedupRowCount;
+                }
+            }
+
             // we could have moved the "srcOooMax" and hence we re-read the max timestamp
             o3TimestampMax = getTimestampIndexValue(sortedTimestampsAddr, srcOooMax - 1);
             // move uncommitted is liable to change max timestamp
@@ -2559,16 +2977,18 @@ public class TableWriter implements Closeable {
             // we are going to use this soon to avoid double-copying lag data
             // final boolean yep = isAppendLastPartitionOnly(sortedTimestampsAddr, o3TimestampMax);
 
-            // reshuffle all columns according to timestamp index
-            o3Sort(sortedTimestampsAddr, timestampIndex, o3RowCount);
-            LOG.info().$("sorted [table=").utf8(tableName).I$();
+            if (!o3InOrder) {
+                // reshuffle all columns according to timestamp index
+                o3Sort(sortedTimestampsAddr, timestampIndex, o3RowCount);
+                LOG.info().$("sorted [table=").utf8(tableName).I$();
+            }
 
             this.o3DoneLatch.reset();
             this.o3PartitionUpdRemaining.set(0);
             boolean success = true;
             int latchCount = 0;
             long srcOoo = 0;
-            boolean flattenTimestamp = true;
+            boolean flattenTimestamp = !o3InOrder;
             int pCount = 0;
             try {
                 // We do not know upfront which partition is going to be last because this is
@@ -2577,6 +2997,10 @@ public class TableWriter implements Closeable {
                 // we move prevTransientRowCount into the "fixedRowCount" sum and set new value on the
                 // transientRowCount
                 long prevTransientRowCount = transientRowCount;
+                final long o3RowSize = o3RowSizeEstimate();
+                o3MergePlan.clear();
+                o3PartitionMergeMemory.clear();
+                o3DedupRowCounts.clear();
 
                 while (srcOoo < srcOooMax) {
                     try {
@@ -2616,7 +3040,10 @@ public class TableWriter implements Closeable {
                             srcNameTxn = -1;
                         }
 
-                        final boolean append = last && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
+                        // O3 rows could replace partition rows on upsert keys, partition task checks that;
+                        // row counts are corrected for replaced rows once partition tasks are done
+                        final boolean dedupPartition = dedup && srcDataMax > 0 && !(last && o3Timestamp > maxTimestamp);
+                        final boolean append = !dedupPartition && last && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
                         final long partitionSize = srcDataMax + srcOooHi - srcOooLo + 1;
 
                         LOG.debug().
@@ -2634,6 +3061,7 @@ public class TableWriter implements Closeable {
                                 .$(", last=").$(last)
                                 .$(", partitionSize=").$(partitionSize)
                                 .$(", append=").$(append)
+                                .$(", dedup=").$(dedupPartition)
                                 .$(", memUsed=").$(Unsafe.getMemUsed())
                                 .I$();
 
@@ -2649,6 +3077,35 @@ public class TableWriter implements Closeable {
                             prevTransientRowCount = partitionSize;
                         }
 
+                        final long mergeRowCount = append ? srcOooHi - srcOooLo + 1 : partitionSize;
+                        final long mergeMemory = mergeRowCount * o3RowSize;
+                        o3MergePlan.add(srcOooLo, srcOooHi, partitionTimestamp, srcDataMax);
+                        o3MergePlan.add(srcNameTxn, (last ? O3_PLAN_LAST : 0) | (append ? O3_PLAN_APPEND : 0) | (dedupPartition ? O3_PLAN_DEDUP : 0), mergeMemory, 0);
+                        o3PartitionMergeMemory.put(partitionTimestamp, mergeMemory);
+                    } catch (CairoException | CairoError e) {
+                        LOG.error().$((Sinkable) e).$();
+                        success = false;
+                        throw e;
+                    }
+                }
+
+                // partitions are merged newest first, these are the ones readers are most likely to be on
+                final O3MergeBudget mergeBudget = messageBus.getO3MergeBudget();
+                mergeBudget.onPlanned(o3MergePlan.size() / O3_PLAN_ENTRY_SIZE);
+                for (int p = o3MergePlan.size() - O3_PLAN_ENTRY_SIZE; p > -1; p -= O3_PLAN_ENTRY_SIZE) {
+                    try {
+                        final long srcOooLo = o3MergePlan.getQuick(p);
+                        final long srcOooHi = o3MergePlan.getQuick(p + 1);
+                        final long partitionTimestamp = o3MergePlan.getQuick(p + 2);
+                        final long srcDataMax = o3MergePlan.getQuick(p + 3);
+                        final long srcNameTxn = o3MergePlan.getQuick(p + 4);
+                        final long flags = o3MergePlan.getQuick(p + 5);
+                        final boolean last = (flags & O3_PLAN_LAST) != 0;
+                        final boolean append = (flags & O3_PLAN_APPEND) != 0;
+                        final boolean dedupPartition = (flags & O3_PLAN_DEDUP) != 0;
+
+                        o3AcquireMergeMemory(mergeBudget, o3MergePlan.getQuick(p + 6));
+
                         pCount++;
                         o3PartitionUpdRemaining.incrementAndGet();
                         final O3Basket o3Basket = o3BasketPool.next();
@@ -2756,6 +3213,7 @@ public class TableWriter implements Closeable {
                                     srcOooHi,
                                     partitionTimestamp,
                                     last,
+                                    dedupPartition,
                                     srcDataMax,
                                     srcNameTxn,
                                     o3Basket
@@ -2787,6 +3245,9 @@ public class TableWriter implements Closeable {
 
                 o3DoneLatch.await(latchCount);
 
+                // partitions that failed or were skipped do not return their memory
+                messageBus.getO3MergeBudget().release(o3ReservedMemory.getAndSet(0));
+
                 o3InError = !success || o3ErrorCount.get() > 0;
                 if (success && o3ErrorCount.get() > 0) {
                     //noinspection ThrowFromFinallyBlock
@@ -2794,6 +3255,8 @@ public class TableWriter implements Closeable {
                 }
             }
 
+            o3DedupUpdateRowCounts();
+
             if (o3LagRowCount > 0) {
                 o3ShiftLagRowsUp(timestampIndex, o3LagRowCount, srcOooMax);
             }
@@ -2847,6 +3310,7 @@ public class TableWriter implements Closeable {
             long srcOooHi,
             long partitionTimestamp,
             boolean last,
+            boolean dedup,
             long srcDataMax,
             long srcNameTxn,
             O3Basket o3Basket
@@ -2869,6 +3333,7 @@ public class TableWriter implements Closeable {
                     srcDataMax,
                     srcNameTxn,
                     last,
+                    dedup,
                     getTxn(),
                     sortedTimestampsAddr,
                     this,
@@ -2892,6 +3357,7 @@ public class TableWriter implements Closeable {
                     srcDataMax,
                     srcNameTxn,
                     last,
+                    dedup,
                     getTxn(),
                     sortedTimestampsAddr,
                     this,
@@ -2907,13 +3373,6 @@ public class TableWriter implements Closeable {
             long timestampMin,
             long timestampMax
     ) {
-        final Sequence partitionSubSeq = messageBus.getO3PartitionSubSeq();
-        final RingQueue<O3PartitionTask> partitionQueue = messageBus.getO3PartitionQueue();
-        final Sequence openColumnSubSeq = messageBus.getO3OpenColumnSubSeq();
-        final RingQueue<O3OpenColumnTask> openColumnQueue = messageBus.getO3OpenColumnQueue();
-        final Sequence copySubSeq = messageBus.getO3CopySubSeq();
-        final RingQueue<O3CopyTask> copyQueue = messageBus.getO3CopyQueue();
-
         do {
             long cursor = o3PartitionUpdateSubSeq.next();
             if (cursor > -1) {
@@ -2943,72 +3402,100 @@ public class TableWriter implements Closeable {
                 continue;
             }
 
-            cursor = partitionSubSeq.next();
-            if (cursor > -1) {
-                final O3PartitionTask partitionTask = partitionQueue.get(cursor);
-                if (partitionTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
-                    // do we need to free anything on the task?
-                    partitionSubSeq.done(cursor);
-                    o3ClockDownPartitionUpdateCount();
-                    o3CountDownDoneLatch();
-                } else {
-                    o3ProcessPartitionSafe(partitionSubSeq, cursor, partitionTask);
-                }
-                continue;
+            o3StealWork();
+        } while (this.o3PartitionUpdRemaining.get() > 0);
+    }
+
+    // executes one queued O3 task, of this or any other writer
+    private void o3StealWork() {
+        final Sequence partitionSubSeq = messageBus.getO3PartitionSubSeq();
+        final RingQueue<O3PartitionTask> partitionQueue = messageBus.getO3PartitionQueue();
+        final Sequence openColumnSubSeq = messageBus.getO3OpenColumnSubSeq();
+        final RingQueue<O3OpenColumnTask> openColumnQueue = messageBus.getO3OpenColumnQueue();
+        final Sequence copySubSeq = messageBus.getO3CopySubSeq();
+        final RingQueue<O3CopyTask> copyQueue = messageBus.getO3CopyQueue();
+
+        long cursor = partitionSubSeq.next();
+        if (cursor > -1) {
+            final O3PartitionTask partitionTask = partitionQueue.get(cursor);
+            if (partitionTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
+                // do we need to free anything on the task?
+                partitionSubSeq.done(cursor);
+                o3ClockDownPartitionUpdateCount();
+                o3CountDownDoneLatch();
+            } else {
+                o3ProcessPartitionSafe(partitionSubSeq, cursor, partitionTask);
             }
+            return;
+        }
 
-            cursor = openColumnSubSeq.next();
-            if (cursor > -1) {
-                O3OpenColumnTask openColumnTask = openColumnQueue.get(cursor);
-                if (openColumnTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
-                    O3CopyJob.closeColumnIdle(
-                            openColumnTask.getColumnCounter(),
-                            openColumnTask.getTimestampMergeIndexAddr(),
-                            openColumnTask.getSrcTimestampFd(),
-                            openColumnTask.getSrcTimestampAddr(),
-                            openColumnTask.getSrcTimestampSize(),
-                            this
-                    );
-                    openColumnSubSeq.done(cursor);
-                } else {
-                    o3OpenColumnSafe(openColumnSubSeq, cursor, openColumnTask);
-                }
-                continue;
+        cursor = openColumnSubSeq.next();
+        if (cursor > -1) {
+            O3OpenColumnTask openColumnTask = openColumnQueue.get(cursor);
+            if (openColumnTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
+                O3CopyJob.closeColumnIdle(
+                        openColumnTask.getColumnCounter(),
+                        openColumnTask.getTimestampMergeIndexAddr(),
+                        openColumnTask.getSrcTimestampFd(),
+                        openColumnTask.getSrcTimestampAddr(),
+                        openColumnTask.getSrcTimestampSize(),
+                        this
+                );
+                openColumnSubSeq.done(cursor);
+            } else {
+                o3OpenColumnSafe(openColumnSubSeq, cursor, openColumnTask);
             }
+            return;
+        }
 
-            cursor = copySubSeq.next();
-            if (cursor > -1) {
-                O3CopyTask copyTask = copyQueue.get(cursor);
-                if (copyTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
-                    O3CopyJob.copyIdle(
-                            copyTask.getColumnCounter(),
-                            copyTask.getPartCounter(),
-                            copyTask.getTimestampMergeIndexAddr(),
-                            copyTask.getSrcDataFixFd(),
-                            copyTask.getSrcDataFixAddr(),
-                            copyTask.getSrcDataFixSize(),
-                            copyTask.getSrcDataVarFd(),
-                            copyTask.getSrcDataVarAddr(),
-                            copyTask.getSrcDataVarSize(),
-                            copyTask.getDstFixFd(),
-                            copyTask.getDstFixAddr(),
-                            copyTask.getDstFixSize(),
-                            copyTask.getDstVarFd(),
-                            copyTask.getDstVarAddr(),
-                            copyTask.getDstVarSize(),
-                            copyTask.getSrcTimestampFd(),
-                            copyTask.getSrcTimestampAddr(),
-                            copyTask.getSrcTimestampSize(),
-                            copyTask.getDstKFd(),
-                            copyTask.getDstVFd(),
-                            this
-                    );
-                    copySubSeq.done(cursor);
-                } else {
-                    o3CopySafe(cursor);
-                }
+        cursor = copySubSeq.next();
+        if (cursor > -1) {
+            O3CopyTask copyTask = copyQueue.get(cursor);
+            if (copyTask.getTableWriter() == this && o3ErrorCount.get() > 0) {
+                O3CopyJob.copyIdle(
+                        copyTask.getColumnCounter(),
+                        copyTask.getPartCounter(),
+                        copyTask.getTimestampMergeIndexAddr(),
+                        copyTask.getSrcDataFixFd(),
+                        copyTask.getSrcDataFixAddr(),
+                        copyTask.getSrcDataFixSize(),
+                        copyTask.getSrcDataVarFd(),
+                        copyTask.getSrcDataVarAddr(),
+                        copyTask.getSrcDataVarSize(),
+                        copyTask.getDstFixFd(),
+                        copyTask.getDstFixAddr(),
+                        copyTask.getDstFixSize(),
+                        copyTask.getDstVarFd(),
+                        copyTask.getDstVarAddr(),
+                        copyTask.getDstVarSize(),
+                        copyTask.getSrcTimestampFd(),
+                        copyTask.getSrcTimestampAddr(),
+                        copyTask.getSrcTimestampSize(),
+                        copyTask.getDstKFd(),
+                        copyTask.getDstVFd(),
+                        this
+                );
+                copySubSeq.done(cursor);
+            } else {
+                o3CopySafe(cursor);
             }
-        } while (this.o3PartitionUpdRemaining.get() > 0);
+        }
+    }
+
+    private void o3AcquireMergeMemory(O3MergeBudget mergeBudget, long memory) {
+        // writer that has nothing in flight goes ahead regardless of budget
+        if (!mergeBudget.tryAcquire(memory, o3ReservedMemory.get() == 0)) {
+            mergeBudget.onThrottled();
+            LOG.info().$("o3 merge throttled [table=").utf8(tableName)
+                    .$(", memory=").$(memory)
+                    .$(", reserved=").$(o3ReservedMemory.get())
+                    .$(", budget=").$(mergeBudget.getLimit())
+                    .I$();
+            do {
+                o3StealWork();
+            } while (!mergeBudget.tryAcquire(memory, o3ReservedMemory.get() == 0 || o3ErrorCount.get() > 0));
+        }
+        o3ReservedMemory.addAndGet(memory);
     }
 
     private void o3CopySafe(
@@ -3080,42 +3567,315 @@ public class TableWriter implements Closeable {
         }
     }
 
-    private long o3MoveUncommitted(final int timestampIndex) {
-        final long committedRowCount = txWriter.getCommittedFixedRowCount() + txWriter.getCommittedTransientRowCount();
-        final long rowsAdded = txWriter.getRowCount() - committedRowCount;
-        long transientRowsAdded = Math.min(txWriter.getTransientRowCount(), rowsAdded);
-        final long committedTransientRowCount = txWriter.getTransientRowCount() - transientRowsAdded;
-        if (transientRowsAdded > 0) {
-            LOG.debug()
-                    .$("o3 move uncommitted [table=").$(tableName)
-                    .$(", transientRowsAdded=").$(transientRowsAdded)
-                    .I$();
-            return o3ScheduleMoveUncommitted0(
-                    timestampIndex,
-                    transientRowsAdded,
-                    committedTransientRowCount
-            );
+    /**
+     * Parses transaction of versioned data file of the column, "col.d.txn".
+     *
+     * @return transaction or COLUMN_NAME_TXN_NONE when file is not a versioned data file of the column
+     */
+    private static long getColumnVersion(CharSequence fileName, CharSequence columnName) {
+        final int lo = columnName.length() + 3;
+        final int hi = fileName.length();
+        if (hi > lo && Chars.startsWith(fileName, columnName) && Chars.equals(fileName, lo - 3, lo, ".d.", 0, 3)) {
+            try {
+                return Numbers.parseLong(fileName, lo, hi);
+            } catch (NumericException ignore) {
+            }
         }
-        return 0;
+        return COLUMN_NAME_TXN_NONE;
     }
 
-    private void o3MoveUncommitted0(
-            int colIndex,
-            int columnType,
-            long committedTransientRowCount,
-            long transientRowsAdded
-    ) {
-        if (colIndex > -1) {
-            MemoryMAR srcDataMem = getPrimaryColumn(colIndex);
-            int shl = ColumnType.pow2SizeOf(columnType);
-            long srcFixOffset;
-            final MemoryARW o3DataMem = o3Columns.get(getPrimaryColumnIndex(colIndex));
-            final MemoryARW o3IndexMem = o3Columns.get(getSecondaryColumnIndex(colIndex));
-
-            long extendedSize;
-            long dstVarOffset = o3DataMem.getAppendOffset();
+    /**
+     * Checks that file belongs to version of the column older than the given one: unversioned data and top
+     * files or data file suffixed with lower transaction.
+     */
+    private static boolean isSupersededColumnFile(CharSequence fileName, CharSequence columnName, long columnNameTxn) {
+        final int len = columnName.length();
+        if (fileName.length() <= len + 1 || !Chars.startsWith(fileName, columnName) || fileName.charAt(len) != '.') {
+            return false;
+        }
+        final int lo = len + 1;
+        final int hi = fileName.length();
+        if (Chars.equals(fileName, lo, hi, "d", 0, 1) || Chars.equals(fileName, lo, hi, "top", 0, 3)) {
+            return true;
+        }
+        final long txn = getColumnVersion(fileName, columnName);
+        return txn != COLUMN_NAME_TXN_NONE && txn < columnNameTxn;
+    }
 
-            final long columnTop = columnTops.getQuick(colIndex);
+    private static long o3DedupAppendAddress(MemoryMAR mem, long offset) {
+        final long pageAddress = mem.getPageAddress(mem.pageIndex(offset));
+        return pageAddress != 0 ? pageAddress + mem.offsetInPage(offset) : 0;
+    }
+
+    private boolean o3DedupAppendKeysEqual(long row1, long row2) {
+        for (int k = 0, n = o3DedupKeyColumns.size(); k < n; k++) {
+            final int columnIndex = o3DedupKeyColumns.getQuick(k);
+            final int columnType = metadata.getColumnType(columnIndex);
+            final long columnTop = columnTops.getQuick(columnIndex);
+            final MemoryMAR mem = getPrimaryColumn(columnIndex);
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            final long addr1 = row1 < columnTop ? 0 : o3DedupAppendAddress(mem, (row1 - columnTop) << shl);
+            if (addr1 == 0) {
+                return true;
+            }
+            if (!o3DedupKeyEquals(addr1, o3DedupAppendAddress(mem, (row2 - columnTop) << shl), columnType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the row appended at max timestamp repeats upsert keys of another row of the same timestamp
+     * in the last partition. Rows that are not on mapped append page or are under column top are reported
+     * as colliding, O3 merge compares them exactly.
+     */
+    private boolean o3DedupAppendRowCollides() {
+        final long row = txWriter.getTransientRowCount() - 1;
+        final long timestamp = txWriter.getMaxTimestamp();
+        final MemoryMAR timestampMem = getPrimaryColumn(metadata.getTimestampIndex());
+        o3DedupConfigureKeys();
+        for (long r = row - 1; r > -1; r--) {
+            final long timestampAddr = o3DedupAppendAddress(timestampMem, r << 3);
+            if (timestampAddr == 0) {
+                return true;
+            }
+            if (Unsafe.getUnsafe().getLong(timestampAddr) != timestamp) {
+                return false;
+            }
+            if (o3DedupAppendKeysEqual(r, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Switches writer to O3 without O3 rows, uncommitted rows of the last partition are moved to O3
+     * memory and deduplicated on commit.
+     */
+    private void o3DedupAppendSwitch() {
+        LOG.info().$("switched to o3 on upsert key [table=").utf8(tableName).$(']').$();
+        txWriter.beginPartitionSizeUpdate();
+        o3OpenColumns();
+        o3InError = false;
+        o3MasterRef = masterRef + 1;
+        o3DedupForced = true;
+        rowActon = ROW_ACTION_O3;
+    }
+
+    private void o3DedupConfigureKeys() {
+        o3DedupKeyColumns.clear();
+        for (int i = 0; i < columnCount; i++) {
+            if (i != metadata.getTimestampIndex() && metadata.isDedupKey(i)) {
+                o3DedupKeyColumns.add(i);
+            }
+        }
+    }
+
+    /**
+     * Removes rows superseded by a later row with the same upsert keys from the sorted O3 index.
+     * Only rows in runs of equal timestamps can collide. Rows moved from the last partition by
+     * {@link #o3MoveUncommitted(int)} are indexed after the O3 rows but were written before them,
+     * which is why row age is derived from the row id.
+     *
+     * @return number of index entries left
+     */
+    private long o3DedupIndex(long sortedTimestampsAddr, long rowCount, long movedRowLo, long movedRowCount) {
+        o3DedupKeys.clear();
+        for (int k = 0, n = o3DedupKeyColumns.size(); k < n; k++) {
+            final int columnIndex = o3DedupKeyColumns.getQuick(k);
+            o3DedupKeys.add(metadata.getColumnType(columnIndex));
+            o3DedupKeys.add(o3Columns.getQuick(getPrimaryColumnIndex(columnIndex)).addressOf(0));
+        }
+        o3DedupRows.clear();
+
+        long lo = 0;
+        while (lo < rowCount) {
+            final long timestamp = getTimestampIndexValue(sortedTimestampsAddr, lo);
+            long hi = lo + 1;
+            while (hi < rowCount && getTimestampIndexValue(sortedTimestampsAddr, hi) == timestamp) {
+                hi++;
+            }
+            if (hi - lo > 1) {
+                final long count = hi - lo;
+                final long scratch = o3DedupScratch(count);
+                for (long i = 0; i < count; i++) {
+                    final long row = o3DedupIndexRow(sortedTimestampsAddr, lo + i);
+                    Unsafe.getUnsafe().putLong(scratch + i * 16, o3DedupKeyHash(row));
+                    Unsafe.getUnsafe().putLong(scratch + i * 16 + Long.BYTES, lo + i);
+                }
+                Vect.sortLongIndexAscInPlace(scratch, count);
+
+                long g = 0;
+                while (g < count) {
+                    final long hash = Unsafe.getUnsafe().getLong(scratch + g * 16);
+                    long gHi = g + 1;
+                    while (gHi < count && Unsafe.getUnsafe().getLong(scratch + gHi * 16) == hash) {
+                        gHi++;
+                    }
+                    for (long m = g; m < gHi; m++) {
+                        final long pos = Unsafe.getUnsafe().getLong(scratch + m * 16 + Long.BYTES);
+                        final long row = o3DedupIndexRow(sortedTimestampsAddr, pos);
+                        final long age = row < movedRowLo ? row + movedRowCount : row - movedRowLo;
+                        for (long n = g; n < gHi; n++) {
+                            final long otherRow = o3DedupIndexRow(sortedTimestampsAddr, Unsafe.getUnsafe().getLong(scratch + n * 16 + Long.BYTES));
+                            final long otherAge = otherRow < movedRowLo ? otherRow + movedRowCount : otherRow - movedRowLo;
+                            if (otherAge > age && o3DedupKeysEqual(row, otherRow)) {
+                                o3DedupRows.add(pos);
+                                break;
+                            }
+                        }
+                    }
+                    g = gHi;
+                }
+            }
+            lo = hi;
+        }
+
+        final int dropCount = o3DedupRows.size();
+        if (dropCount == 0) {
+            return rowCount;
+        }
+        o3DedupRows.sort();
+        long dst = o3DedupRows.getQuick(0);
+        for (long i = dst, k = 0; i < rowCount; i++) {
+            if (k < dropCount && o3DedupRows.getQuick((int) k) == i) {
+                k++;
+                continue;
+            }
+            Unsafe.getUnsafe().putLong(sortedTimestampsAddr + dst * 16, Unsafe.getUnsafe().getLong(sortedTimestampsAddr + i * 16));
+            Unsafe.getUnsafe().putLong(sortedTimestampsAddr + dst * 16 + Long.BYTES, Unsafe.getUnsafe().getLong(sortedTimestampsAddr + i * 16 + Long.BYTES));
+            dst++;
+        }
+        LOG.info().$("o3 deduplicated [table=").$(tableName).$(", rows=").$(dropCount).I$();
+        return dst;
+    }
+
+    private static long o3DedupIndexRow(long sortedTimestampsAddr, long pos) {
+        return Unsafe.getUnsafe().getLong(sortedTimestampsAddr + pos * 16 + Long.BYTES);
+    }
+
+    private long o3DedupKeyAddress(int key, long ref) {
+        return o3DedupKeys.getQuick(key * 2 + 1) + ref * ColumnType.sizeOf((int) o3DedupKeys.getQuick(key * 2));
+    }
+
+    private long o3DedupKeyHash(long ref) {
+        long hash = 0;
+        for (int k = 0, n = o3DedupKeyColumns.size(); k < n; k++) {
+            hash = hash * 31 + o3DedupKeyValue(o3DedupKeyAddress(k, ref), (int) o3DedupKeys.getQuick(k * 2));
+        }
+        return hash;
+    }
+
+    private static boolean o3DedupKeyEquals(long addr1, long addr2, int columnType) {
+        if (ColumnType.tagOf(columnType) == ColumnType.LONG256) {
+            for (long o = 0; o < Long256.BYTES; o += Long.BYTES) {
+                if (Unsafe.getUnsafe().getLong(addr1 + o) != Unsafe.getUnsafe().getLong(addr2 + o)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return o3DedupKeyValue(addr1, columnType) == o3DedupKeyValue(addr2, columnType);
+    }
+
+    private static long o3DedupKeyValue(long addr, int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.FLOAT:
+                // -0.0 and 0.0 are the same key, so are NaNs with different payloads
+                final float f = Unsafe.getUnsafe().getFloat(addr);
+                return f == 0 ? 0 : Float.floatToIntBits(f);
+            case ColumnType.DOUBLE:
+                final double d = Unsafe.getUnsafe().getDouble(addr);
+                return d == 0 ? 0 : Double.doubleToLongBits(d);
+            default:
+                break;
+        }
+        switch (ColumnType.sizeOf(columnType)) {
+            case Byte.BYTES:
+                return Unsafe.getUnsafe().getByte(addr);
+            case Short.BYTES:
+                return Unsafe.getUnsafe().getShort(addr);
+            case Integer.BYTES:
+                return Unsafe.getUnsafe().getInt(addr);
+            case Long.BYTES:
+                return Unsafe.getUnsafe().getLong(addr);
+            default:
+                return Unsafe.getUnsafe().getLong(addr)
+                        ^ Unsafe.getUnsafe().getLong(addr + Long.BYTES)
+                        ^ Unsafe.getUnsafe().getLong(addr + Long.BYTES * 2)
+                        ^ Unsafe.getUnsafe().getLong(addr + Long.BYTES * 3);
+        }
+    }
+
+    private boolean o3DedupKeysEqual(long ref1, long ref2) {
+        for (int k = 0, n = o3DedupKeyColumns.size(); k < n; k++) {
+            if (!o3DedupKeyEquals(o3DedupKeyAddress(k, ref1), o3DedupKeyAddress(k, ref2), (int) o3DedupKeys.getQuick(k * 2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long o3DedupScratch(long count) {
+        o3TimestampMemCpy.jumpTo(count * 16);
+        return o3TimestampMemCpy.addressOf(0);
+    }
+
+    /**
+     * Takes rows replaced by partition tasks out of the row counts, these were planned as if
+     * every partition row stayed.
+     */
+    private void o3DedupUpdateRowCounts() {
+        final long lastPartitionTimestamp = partitionFloorMethod.floor(txWriter.getMaxTimestamp());
+        for (int i = 0, n = o3DedupRowCounts.size(); i < n; i += 2) {
+            final long rowCount = o3DedupRowCounts.getQuick(i + 1);
+            if (o3DedupRowCounts.getQuick(i) == lastPartitionTimestamp) {
+                txWriter.transientRowCount -= rowCount;
+            } else {
+                txWriter.fixedRowCount -= rowCount;
+            }
+        }
+        o3DedupRowCounts.clear();
+    }
+
+    private long o3MoveUncommitted(final int timestampIndex) {
+        final long committedRowCount = txWriter.getCommittedFixedRowCount() + txWriter.getCommittedTransientRowCount();
+        final long rowsAdded = txWriter.getRowCount() - committedRowCount;
+        long transientRowsAdded = Math.min(txWriter.getTransientRowCount(), rowsAdded);
+        final long committedTransientRowCount = txWriter.getTransientRowCount() - transientRowsAdded;
+        if (transientRowsAdded > 0) {
+            LOG.debug()
+                    .$("o3 move uncommitted [table=").$(tableName)
+                    .$(", transientRowsAdded=").$(transientRowsAdded)
+                    .I$();
+            return o3ScheduleMoveUncommitted0(
+                    timestampIndex,
+                    transientRowsAdded,
+                    committedTransientRowCount
+            );
+        }
+        return 0;
+    }
+
+    private void o3MoveUncommitted0(
+            int colIndex,
+            int columnType,
+            long committedTransientRowCount,
+            long transientRowsAdded
+    ) {
+        if (colIndex > -1) {
+            MemoryMAR srcDataMem = getPrimaryColumn(colIndex);
+            int shl = ColumnType.pow2SizeOf(columnType);
+            long srcFixOffset;
+            final MemoryARW o3DataMem = o3Columns.get(getPrimaryColumnIndex(colIndex));
+            final MemoryARW o3IndexMem = o3Columns.get(getSecondaryColumnIndex(colIndex));
+
+            long extendedSize;
+            long dstVarOffset = o3DataMem.getAppendOffset();
+
+            final long columnTop = columnTops.getQuick(colIndex);
 
             if (columnTop > 0) {
                 LOG.debug()
@@ -3305,6 +4065,10 @@ public class TableWriter implements Closeable {
         }
     }
 
+    synchronized void o3PartitionDeduplicated(long partitionTimestamp, long rowCount) {
+        o3DedupRowCounts.add(partitionTimestamp, rowCount);
+    }
+
     synchronized void o3PartitionUpdateSynchronized(
             long timestampMin,
             long timestampMax,
@@ -3509,6 +4273,22 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private long o3RowSizeEstimate() {
+        long size = 0;
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType > 0) {
+                if (ColumnType.isVariableLength(columnType)) {
+                    // assume existing rows are about the size of O3 rows
+                    size += Long.BYTES + o3Columns.getQuick(getPrimaryColumnIndex(i)).getAppendOffset() / Math.max(1, o3RowCount);
+                } else {
+                    size += ColumnType.sizeOf(columnType);
+                }
+            }
+        }
+        return size;
+    }
+
     private void o3ShiftLagRowsUp(int timestampIndex, long o3LagRowCount, long o3RowCount) {
         o3PendingCallbackTasks.clear();
 
@@ -3559,6 +4339,19 @@ public class TableWriter implements Closeable {
         o3DoneLatch.await(queuedCount);
     }
 
+    private static boolean o3IsInOrder(long timestampIndexAddr, long rowCount) {
+        long prev = Long.MIN_VALUE;
+        for (long i = 0; i < rowCount; i++) {
+            final long addr = timestampIndexAddr + i * 16;
+            final long ts = Unsafe.getUnsafe().getLong(addr);
+            if (ts < prev || Unsafe.getUnsafe().getLong(addr + Long.BYTES) != i) {
+                return false;
+            }
+            prev = ts;
+        }
+        return true;
+    }
+
     private void o3Sort(long mergedTimestamps, int timestampIndex, long rowCount) {
         o3PendingCallbackTasks.clear();
 
@@ -3607,6 +4400,92 @@ public class TableWriter implements Closeable {
         o3DoneLatch.await(queuedCount);
     }
 
+    private void o3SortTimestampIndex(long timestampIndexAddr, long rowCount, long cpyAddr) {
+        final int chunkCount = (int) Math.min(rowCount / O3_SORT_CHUNK_SIZE, O3_SORT_MAX_CHUNKS);
+        if (chunkCount < 2
+                || configuration.getO3CallbackQueueCapacity() == 0
+                || LongIndexSort.countRuns(timestampIndexAddr, 0, rowCount, chunkCount) <= chunkCount) {
+            // mostly sorted index is merged in a single pass or two, which is cheaper than
+            // splitting the work
+            LongIndexSort.sort(timestampIndexAddr, rowCount, cpyAddr);
+            return;
+        }
+
+        LOG.info().$("sorting o3 in chunks [table=").$(tableName).$(", chunks=").$(chunkCount).I$();
+        o3SortChunkCount = chunkCount;
+        o3SortCpyAddr = cpyAddr;
+        // chunks are sorted independently and then merged pairwise, merges at the same
+        // level do not overlap and run in parallel too
+        o3DispatchSortTasks(o3SortChunkRef, 0, timestampIndexAddr, rowCount);
+        for (int width = 1; width < chunkCount; width *= 2) {
+            o3DispatchSortTasks(o3MergeChunksRef, width, timestampIndexAddr, rowCount);
+        }
+    }
+
+    private void o3DispatchSortTasks(O3ColumnUpdateMethod method, int width, long timestampIndexAddr, long rowCount) {
+        o3PendingCallbackTasks.clear();
+
+        final Sequence pubSeq = this.messageBus.getO3CallbackPubSeq();
+        final RingQueue<O3CallbackTask> queue = this.messageBus.getO3CallbackQueue();
+
+        o3DoneLatch.reset();
+        int queuedCount = 0;
+        final int step = width == 0 ? 1 : width * 2;
+        for (int chunk = 0; chunk + width < o3SortChunkCount; chunk += step) {
+            long cursor = pubSeq.next();
+            if (cursor > -1) {
+                try {
+                    final O3CallbackTask task = queue.get(cursor);
+                    task.of(
+                            o3DoneLatch,
+                            chunk,
+                            width,
+                            timestampIndexAddr,
+                            rowCount,
+                            method
+                    );
+                    o3PendingCallbackTasks.add(task);
+                } finally {
+                    queuedCount++;
+                    pubSeq.done(cursor);
+                }
+            } else {
+                method.run(chunk, width, timestampIndexAddr, rowCount);
+            }
+        }
+
+        for (int n = o3PendingCallbackTasks.size() - 1; n > -1; n--) {
+            final O3CallbackTask task = o3PendingCallbackTasks.getQuick(n);
+            if (task.tryLock()) {
+                O3CallbackJob.runCallbackWithCol(
+                        task,
+                        -1,
+                        null
+                );
+            }
+        }
+
+        o3DoneLatch.await(queuedCount);
+    }
+
+    private long o3SortChunkLo(int chunk, long rowCount) {
+        return chunk < o3SortChunkCount ? chunk * (rowCount / o3SortChunkCount) : rowCount;
+    }
+
+    private void o3SortChunk(int chunk, int width, long timestampIndexAddr, long rowCount) {
+        final long lo = o3SortChunkLo(chunk, rowCount);
+        final long hi = o3SortChunkLo(chunk + 1, rowCount);
+        final long offset = lo * LongIndexSort.ENTRY_SIZE;
+        LongIndexSort.sort(timestampIndexAddr + offset, hi - lo, o3SortCpyAddr + offset);
+    }
+
+    private void o3MergeChunks(int chunk, int width, long timestampIndexAddr, long rowCount) {
+        final long lo = o3SortChunkLo(chunk, rowCount);
+        final long mid = o3SortChunkLo(chunk + width, rowCount);
+        final long hi = o3SortChunkLo(Math.min(chunk + 2 * width, o3SortChunkCount), rowCount);
+        LongIndexSort.merge(timestampIndexAddr, lo, mid, hi, o3SortCpyAddr + lo * LongIndexSort.ENTRY_SIZE);
+    }
+
     private void o3SortColumn(long mergedTimestamps, int i, int type, long rowCount) {
         if (ColumnType.isVariableLength(type)) {
             o3SortVarColumn(i, type, mergedTimestamps, rowCount);
@@ -3705,12 +4584,12 @@ public class TableWriter implements Closeable {
         o3TimestampMem.putLong128(timestamp, getO3RowCount0());
     }
 
-    private void openColumnFiles(CharSequence name, int i, int plen) {
+    private void openColumnFiles(CharSequence name, long columnNameTxn, int i, int plen) {
         MemoryMAR mem1 = getPrimaryColumn(i);
         MemoryMAR mem2 = getSecondaryColumn(i);
 
         try {
-            mem1.of(ff, dFile(path.trimTo(plen), name), configuration.getDataAppendPageSize(), -1, MemoryTag.MMAP_TABLE_WRITER);
+            mem1.of(ff, dFile(path.trimTo(plen), name, columnNameTxn), configuration.getDataAppendPageSize(), -1, MemoryTag.MMAP_TABLE_WRITER);
             if (mem2 != null) {
                 mem2.of(ff, iFile(path.trimTo(plen), name), configuration.getDataAppendPageSize(), -1, MemoryTag.MMAP_TABLE_WRITER);
             }
@@ -3719,6 +4598,21 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void commitColumnVersions() {
+        columnVersionWriter.commit();
+        txWriter.setColumnVersion(columnVersionWriter.getOffset(), columnVersionWriter.getSize());
+    }
+
+    private void openColumnVersionWriter() {
+        try {
+            path.concat(COLUMN_VERSION_FILE_NAME).$();
+            columnVersionWriter = new ColumnVersionWriter(ff, path, ff.exists(path) ? ff.length(path) : 0);
+            columnVersionWriter.readUnsafe(txWriter.getColumnVersionOffset(), txWriter.getColumnVersionSize());
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void openFirstPartition(long timestamp) {
         final long ts = repairDataGaps(timestamp);
         openPartition(ts);
@@ -3743,7 +4637,7 @@ public class TableWriter implements Closeable {
                 createIndexFiles(name, indexValueBlockCapacity, plen, true);
             }
 
-            openColumnFiles(name, columnIndex, plen);
+            openColumnFiles(name, COLUMN_NAME_TXN_NONE, columnIndex, plen);
             if (txWriter.getTransientRowCount() > 0) {
                 // write .top file
                 writeColumnTop(name);
@@ -3776,8 +4670,10 @@ public class TableWriter implements Closeable {
 
             assert columnCount > 0;
 
+            final long partitionTimestamp = txWriter.getPartitionTimestampLo(timestamp);
             for (int i = 0; i < columnCount; i++) {
                 final CharSequence name = metadata.getColumnName(i);
+                final long columnNameTxn = getColumnNameTxn(partitionTimestamp, i);
                 final ColumnIndexer indexer = metadata.isColumnIndexed(i) ? indexers.getQuick(i) : null;
                 final long columnTop;
 
@@ -3789,8 +4685,8 @@ public class TableWriter implements Closeable {
                     indexer.closeSlider();
                 }
 
-                openColumnFiles(name, i, plen);
-                columnTop = readColumnTop(ff, path, name, plen, true);
+                openColumnFiles(name, columnNameTxn, i, plen);
+                columnTop = readColumnTop(ff, path, name, plen, columnNameTxn, true);
                 columnTops.extendAndSet(i, columnTop);
 
                 if (indexer != null) {
@@ -3855,6 +4751,32 @@ public class TableWriter implements Closeable {
         indexCount = denseIndexers.size();
     }
 
+    private void processColumnPurgeList() {
+        final int n = columnPurgeList.size();
+        if (n == 0) {
+            return;
+        }
+        int keep = 0;
+        for (int i = 0; i < n; i += 2) {
+            final long partitionTimestamp = columnPurgeList.getQuick(i);
+            final long columnNameTxn = columnPurgeList.getQuick(i + 1);
+            final CharSequence columnName = columnPurgeNames.getQuick(i / 2);
+            if (txnScoreboard.isTxnAvailableBelow(columnNameTxn)) {
+                // partition could have been dropped in the meantime
+                if (txWriter.attachedPartitionsContains(partitionTimestamp)) {
+                    purgeColumnVersions(partitionTimestamp, columnName, columnNameTxn);
+                }
+            } else {
+                columnPurgeList.setQuick(keep, partitionTimestamp);
+                columnPurgeList.setQuick(keep + 1, columnNameTxn);
+                columnPurgeNames.setQuick(keep / 2, columnName);
+                keep += 2;
+            }
+        }
+        columnPurgeList.setPos(keep);
+        columnPurgeNames.setPos(keep / 2);
+    }
+
     private void processCommandQueue(boolean acceptStructureChange) {
         long cursor;
         while ((cursor = commandSubSeq.next()) > -1) {
@@ -3889,6 +4811,84 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void purgeColumnVersionFile(long pUtf8NameZ, int type) {
+        if (type == Files.DT_FILE) {
+            fileNameSink.clear();
+            Chars.utf8DecodeZ(pUtf8NameZ, fileNameSink);
+            if (isSupersededColumnFile(fileNameSink, purgeColumnName, purgeColumnNameTxn)) {
+                other.trimTo(purgePathLen).concat(pUtf8NameZ).$();
+                if (ff.remove(other)) {
+                    LOG.info().$("purged [path=").$(other).I$();
+                } else {
+                    LOG.error().$("could not purge [path=").$(other).$(", errno=").$(ff.errno()).I$();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes files of column versions older than the given one from the partition.
+     */
+    private void purgeColumnVersions(long partitionTimestamp, CharSequence columnName, long columnNameTxn) {
+        try {
+            setPathForPartition(other, partitionBy, partitionTimestamp, false);
+            TableUtils.txnPartitionConditionally(other, txWriter.getPartitionNameTxnByPartitionTimestamp(partitionTimestamp));
+            purgePathLen = other.length();
+            purgeColumnName = columnName;
+            purgeColumnNameTxn = columnNameTxn;
+            ff.iterateDir(other.$(), purgeColumnVersionFile);
+        } finally {
+            purgeColumnName = null;
+            other.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Re-targets queued purges of the column after its files were renamed or drops them when files were
+     * removed together with the column.
+     *
+     * @param newName new column name or null when column is removed
+     */
+    private void renameColumnPurgeEntries(CharSequence columnName, @Nullable CharSequence newName) {
+        int keep = 0;
+        for (int i = 0, n = columnPurgeNames.size(); i < n; i++) {
+            CharSequence name = columnPurgeNames.getQuick(i);
+            if (Chars.equalsIgnoreCase(name, columnName)) {
+                if (newName == null) {
+                    continue;
+                }
+                name = Chars.toString(newName);
+            }
+            columnPurgeList.setQuick(2 * keep, columnPurgeList.getQuick(2 * i));
+            columnPurgeList.setQuick(2 * keep + 1, columnPurgeList.getQuick(2 * i + 1));
+            columnPurgeNames.setQuick(keep++, name);
+        }
+        columnPurgeList.setPos(2 * keep);
+        columnPurgeNames.setPos(keep);
+    }
+
+    private void queueColumnVersionForPurge(long partitionTimestamp, CharSequence columnName, long columnNameTxn) {
+        columnPurgeList.add(partitionTimestamp, columnNameTxn);
+        columnPurgeNames.add(Chars.toString(columnName));
+    }
+
+    /**
+     * Queues files of versions superseded by column versions in the column version file. Writer could have
+     * been closed before readers released them.
+     */
+    private void queueColumnVersionsForPurge() {
+        if (columnVersionWriter != null) {
+            final LongList columnVersions = columnVersionWriter.getCachedList();
+            for (int i = 0, n = columnVersions.size(); i < n; i += ColumnVersionWriter.BLOCK_SIZE) {
+                queueColumnVersionForPurge(
+                        columnVersions.getQuick(i),
+                        metadata.getColumnName((int) columnVersions.getQuick(i + 1)),
+                        columnVersions.getQuick(i + 2)
+                );
+            }
+        }
+    }
+
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp, false);
         try {
@@ -3975,6 +4975,45 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void removeColumnVersionFiles(IntList columnIndexes, long columnNameTxn) {
+        for (int i = 0, n = updatePartitions.size(); i < n; i++) {
+            final int partitionIndex = updatePartitions.getQuick(i);
+            try {
+                setPathForPartition(path, partitionBy, txWriter.getPartitionTimestamp(partitionIndex), false);
+                TableUtils.txnPartitionConditionally(path, txWriter.getPartitionNameTxn(partitionIndex));
+                final int plen = path.length();
+                for (int j = 0, m = columnIndexes.size(); j < m; j++) {
+                    dFile(path.trimTo(plen), metadata.getColumnName(columnIndexes.getQuick(j)), columnNameTxn);
+                    if (ff.exists(path) && !ff.remove(path)) {
+                        LOG.error().$("could not remove [path=").$(path).$(", errno=").$(ff.errno()).I$();
+                    }
+                }
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+    }
+
+    /**
+     * Collects transactions of all versioned data files of the column in the directory, path is left
+     * pointing at the directory.
+     */
+    private void findColumnVersions(Path path, CharSequence columnName) {
+        columnVersionTxns.clear();
+        final int plen = path.length();
+        ff.iterateDir(path.$(), (pUtf8NameZ, type) -> {
+            if (type == Files.DT_FILE) {
+                columnVersionNameSink.clear();
+                Chars.utf8DecodeZ(pUtf8NameZ, columnVersionNameSink);
+                final long columnNameTxn = getColumnVersion(columnVersionNameSink, columnName);
+                if (columnNameTxn != COLUMN_NAME_TXN_NONE) {
+                    columnVersionTxns.add(columnNameTxn);
+                }
+            }
+        });
+        path.trimTo(plen);
+    }
+
     private void removeColumnFiles(CharSequence columnName, int columnType, RemoveFileLambda removeLambda) {
         try {
             ff.iterateDir(path.$(), (pUtf8NameZ, type) -> {
@@ -3987,6 +5026,10 @@ public class TableWriter implements Closeable {
                     removeLambda.remove(ff, topFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName));
+                    findColumnVersions(path.trimTo(plen), columnName);
+                    for (int i = 0, n = columnVersionTxns.size(); i < n; i++) {
+                        removeLambda.remove(ff, dFile(path.trimTo(plen), columnName, columnVersionTxns.getQuick(i)));
+                    }
                 }
             });
 
@@ -4213,6 +5256,11 @@ public class TableWriter implements Closeable {
                     renameFileOrLog(ff, topFile(path.trimTo(plen), columnName), topFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName), BitmapIndexUtils.keyFileName(other.trimTo(plen), newName));
                     renameFileOrLog(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName), BitmapIndexUtils.valueFileName(other.trimTo(plen), newName));
+                    findColumnVersions(path.trimTo(plen), columnName);
+                    for (int i = 0, n = columnVersionTxns.size(); i < n; i++) {
+                        final long columnNameTxn = columnVersionTxns.getQuick(i);
+                        renameFileOrLog(ff, dFile(path.trimTo(plen), columnName, columnNameTxn), dFile(other.trimTo(plen), newName, columnNameTxn));
+                    }
                 }
             });
 
@@ -4484,6 +5532,12 @@ public class TableWriter implements Closeable {
                 }
             }
             masterRef++;
+            if (o3DedupCheck) {
+                o3DedupCheck = false;
+                if (o3DedupAppendRowCollides()) {
+                    o3DedupAppendSwitch();
+                }
+            }
         }
     }
 
@@ -4491,6 +5545,7 @@ public class TableWriter implements Closeable {
         if ((masterRef & 1) == 0) {
             return;
         }
+        o3DedupCheck = false;
 
         if (hasO3()) {
             final long o3RowCount = getO3RowCount0();
@@ -4498,6 +5553,10 @@ public class TableWriter implements Closeable {
                 // O3 mode and there are some rows.
                 masterRef--;
                 setO3AppendPosition(o3RowCount);
+            } else if (o3DedupForced) {
+                // uncommitted rows of the last partition still have to be deduplicated by O3
+                setO3AppendPosition(0);
+                masterRef--;
             } else {
                 // Cancelling first row in o3, reverting to non-o3
                 setO3AppendPosition(0);
@@ -4706,6 +5765,68 @@ public class TableWriter implements Closeable {
         updateIndexesSlow();
     }
 
+    private void updateColumnsParallel(int updaterCount) {
+        final Sequence pubSeq = messageBus.getColumnUpdatePubSeq();
+        final RingQueue<ColumnUpdateTask> queue = messageBus.getColumnUpdateQueue();
+        final int nParallelUpdaters = updaterCount - 1;
+        updateSequences.clear();
+        updateLatch.setCount(updaterCount);
+
+        // we are going to write last partition in this thread while other partitions are on the queue
+        OUT:
+        for (int i = 0; i < nParallelUpdaters; i++) {
+            final ColumnUpdater updater = columnUpdaters.getQuick(i);
+            long cursor = pubSeq.next();
+            if (cursor == -1) {
+                // queue is full, write partition in the current thread
+                ColumnUpdater.updateAndCountDown(updater, updateLatch);
+                // updater cannot be stolen
+                updateSequences.add(-1);
+                continue;
+            }
+
+            if (cursor == -2) {
+                // CAS issue, retry
+                do {
+                    cursor = pubSeq.next();
+                    if (cursor == -1) {
+                        ColumnUpdater.updateAndCountDown(updater, updateLatch);
+                        updateSequences.add(-1);
+                        continue OUT;
+                    }
+                } while (cursor < 0);
+            }
+
+            final ColumnUpdateTask task = queue.get(cursor);
+            final long sequence = updater.getSequence();
+            task.updater = updater;
+            task.countDownLatch = updateLatch;
+            task.sequence = sequence;
+            updateSequences.add(sequence);
+            pubSeq.done(cursor);
+        }
+
+        ColumnUpdater.updateAndCountDown(columnUpdaters.getQuick(nParallelUpdaters), updateLatch);
+
+        if (!updateLatch.await(configuration.getWorkStealTimeoutNanos())) {
+            // other partitions are still in-flight, steal the ones workers have not picked up
+            for (int i = 0; i < nParallelUpdaters; i++) {
+                final ColumnUpdater updater = columnUpdaters.getQuick(i);
+                if (updater.tryLock(updateSequences.getQuick(i))) {
+                    ColumnUpdater.updateAndCountDown(updater, updateLatch);
+                }
+            }
+            // wait for the ones we cannot steal
+            updateLatch.await();
+        }
+
+        for (int i = 0; i < updaterCount; i++) {
+            if (columnUpdaters.getQuick(i).isDistressed()) {
+                throw CairoException.instance(0).put("could not write column versions [table=").put(tableName).put(']');
+            }
+        }
+    }
+
     private void updateIndexesParallel(long lo, long hi) {
         indexSequences.clear();
         indexLatch.setCount(indexCount);
@@ -4822,6 +5943,82 @@ public class TableWriter implements Closeable {
         this.timestampSetter.accept(timestamp);
     }
 
+    private void updateValue(long addr, int columnIndex, int columnType, Record record, int col, int valueType) {
+        final int valueTag = ColumnType.tagOf(valueType);
+        final int columnTag = ColumnType.tagOf(columnType);
+        if (valueTag == ColumnType.NULL && !ColumnType.isGeoHash(columnType)) {
+            O3OpenColumnJob.setNull(columnType, addr, 1);
+            return;
+        }
+        switch (columnTag) {
+            case ColumnType.BOOLEAN:
+                Unsafe.getUnsafe().putByte(addr, (byte) (record.getBool(col) ? 1 : 0));
+                break;
+            case ColumnType.BYTE:
+                Unsafe.getUnsafe().putByte(addr, (byte) getUpdateLongValue(record, col, valueTag));
+                break;
+            case ColumnType.SHORT:
+                Unsafe.getUnsafe().putShort(addr, (short) getUpdateLongValue(record, col, valueTag));
+                break;
+            case ColumnType.CHAR:
+                Unsafe.getUnsafe().putChar(addr, (char) getUpdateLongValue(record, col, valueTag));
+                break;
+            case ColumnType.INT:
+                final long intValue = getUpdateLongValue(record, col, valueTag);
+                Unsafe.getUnsafe().putInt(addr, intValue == Numbers.LONG_NaN ? Numbers.INT_NaN : (int) intValue);
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                Unsafe.getUnsafe().putLong(addr, getUpdateLongValue(record, col, valueTag));
+                break;
+            case ColumnType.FLOAT:
+                Unsafe.getUnsafe().putFloat(addr, (float) getUpdateDoubleValue(record, col, valueTag));
+                break;
+            case ColumnType.DOUBLE:
+                Unsafe.getUnsafe().putDouble(addr, getUpdateDoubleValue(record, col, valueTag));
+                break;
+            case ColumnType.SYMBOL:
+                final SymbolMapWriter symbolMapWriter = symbolMapWriters.getQuick(columnIndex);
+                Unsafe.getUnsafe().putInt(
+                        addr,
+                        valueTag == ColumnType.CHAR
+                                ? symbolMapWriter.put(record.getChar(col))
+                                : symbolMapWriter.put(valueTag == ColumnType.SYMBOL ? record.getSym(col) : record.getStr(col))
+                );
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256 = record.getLong256A(col);
+                Unsafe.getUnsafe().putLong(addr, long256.getLong0());
+                Unsafe.getUnsafe().putLong(addr + Long.BYTES, long256.getLong1());
+                Unsafe.getUnsafe().putLong(addr + Long.BYTES * 2, long256.getLong2());
+                Unsafe.getUnsafe().putLong(addr + Long.BYTES * 3, long256.getLong3());
+                break;
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                final long hash = getUpdateGeoHashValue(record, col, valueType, ColumnType.getGeoHashBits(columnType));
+                switch (columnTag) {
+                    case ColumnType.GEOBYTE:
+                        Unsafe.getUnsafe().putByte(addr, (byte) hash);
+                        break;
+                    case ColumnType.GEOSHORT:
+                        Unsafe.getUnsafe().putShort(addr, (short) hash);
+                        break;
+                    case ColumnType.GEOINT:
+                        Unsafe.getUnsafe().putInt(addr, (int) hash);
+                        break;
+                    default:
+                        Unsafe.getUnsafe().putLong(addr, hash);
+                        break;
+                }
+                break;
+            default:
+                throw CairoException.instance(0).put("unsupported column type [type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -4851,6 +6048,10 @@ public class TableWriter implements Closeable {
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isDedupKey(metaMem, i)) {
+            flags |= META_FLAG_BIT_DEDUP_KEY;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.putLong(getColumnHash(metaMem, i));
@@ -57,17 +57,17 @@ public class TableWriterMetadata extends BaseRecordMetadata {
             CharSequence name = metaMem.getStr(offset);
             assert name != null;
             int type = TableUtils.getColumnType(metaMem, i);
-            columnMetadata.add(
-                    new TableColumnMetadata(
-                            Chars.toString(name),
-                            TableUtils.getColumnHash(metaMem, i),
-                            type,
-                            TableUtils.isColumnIndexed(metaMem, i),
-                            TableUtils.getIndexBlockCapacity(metaMem, i),
-                            true,
-                            null
-                    )
+            final TableColumnMetadata column = new TableColumnMetadata(
+                    Chars.toString(name),
+                    TableUtils.getColumnHash(metaMem, i),
+                    type,
+                    TableUtils.isColumnIndexed(metaMem, i),
+                    TableUtils.getIndexBlockCapacity(metaMem, i),
+                    true,
+                    null
             );
+            column.setDedupKey(TableUtils.isDedupKey(metaMem, i));
+            columnMetadata.add(column);
             if (ColumnType.isSymbol(type)) {
                 symbolMapCount++;
             }
@@ -80,6 +80,23 @@ public class TableWriterMetadata extends BaseRecordMetadata {
         return symbolMapCount;
     }
 
+    /**
+     * Rows of a table with upsert keys replace existing rows that have the same designated timestamp
+     * and the same values in all other key columns. The designated timestamp is always part of the key,
+     * and its flag doubles as the table-wide switch.
+     */
+    public boolean isDedupEnabled() {
+        return timestampIndex > -1 && columnMetadata.getQuick(timestampIndex).isDedupKey();
+    }
+
+    public boolean isDedupKey(int columnIndex) {
+        return columnMetadata.getQuick(columnIndex).isDedupKey();
+    }
+
+    void setDedupKey(int columnIndex, boolean value) {
+        columnMetadata.getQuick(columnIndex).setDedupKey(value);
+    }
+
     void addColumn(CharSequence name, long hash, int type, boolean indexFlag, int indexValueBlockCapacity) {
         String str = name.toString();
         columnNameIndexMap.put(str, columnMetadata.size());
@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.cairo.vm.api.MemoryMW;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
 
@@ -50,6 +51,8 @@ public class TxReader implements Closeable {
     protected long transientRowCount;
     protected int partitionBy;
     protected long partitionTableVersion;
+    protected long columnVersionOffset;
+    protected long columnVersionSize;
     protected int attachedPartitionsSize = 0;
     private MemoryMR roTxMem;
 
@@ -73,6 +76,14 @@ public class TxReader implements Closeable {
         roTxMem = Misc.free(roTxMem);
     }
 
+    public long getColumnVersionOffset() {
+        return columnVersionOffset;
+    }
+
+    public long getColumnVersionSize() {
+        return columnVersionSize;
+    }
+
     public long getDataVersion() {
         return dataVersion;
     }
@@ -165,6 +176,43 @@ public class TxReader implements Closeable {
         return findAttachedPartitionIndexByLoTimestamp(getPartitionTimestampLo(ts));
     }
 
+    /**
+     * Writes transaction state loaded by this reader to txMem using _txn file layout. Symbol counts are
+     * taken from the supplied snapshot, which the caller keeps consistent with the loaded transaction.
+     *
+     * @param txMem        memory of the destination _txn file
+     * @param symbolCounts symbol counts, one per symbol column
+     */
+    void dumpTo(MemoryMW txMem, IntList symbolCounts) {
+        txMem.putLong(TX_OFFSET_TXN, txn);
+        txMem.putLong(TX_OFFSET_TRANSIENT_ROW_COUNT, transientRowCount);
+        txMem.putLong(TX_OFFSET_FIXED_ROW_COUNT, fixedRowCount);
+        txMem.putLong(TX_OFFSET_MIN_TIMESTAMP, minTimestamp);
+        txMem.putLong(TX_OFFSET_MAX_TIMESTAMP, maxTimestamp);
+        txMem.putLong(TX_OFFSET_STRUCT_VERSION, structureVersion);
+        txMem.putLong(TX_OFFSET_DATA_VERSION, dataVersion);
+        txMem.putLong(TX_OFFSET_PARTITION_TABLE_VERSION, partitionTableVersion);
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_OFFSET, columnVersionOffset);
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_SIZE, columnVersionSize);
+
+        txMem.putInt(TX_OFFSET_MAP_WRITER_COUNT, symbolColumnCount);
+        for (int i = 0; i < symbolColumnCount; i++) {
+            final int count = i < symbolCounts.size() ? symbolCounts.getQuick(i) : 0;
+            final long offset = getSymbolWriterIndexOffset(i);
+            txMem.putInt(offset, count);
+            txMem.putInt(offset + Integer.BYTES, count);
+        }
+
+        // non-partitioned tables keep synthetic partition in the list, it is not part of the file
+        final int partitionTableSize = PartitionBy.isPartitioned(partitionBy) ? attachedPartitions.size() : 0;
+        txMem.putInt(getPartitionTableSizeOffset(symbolColumnCount), partitionTableSize * Long.BYTES);
+        for (int i = 0; i < partitionTableSize; i++) {
+            txMem.putLong(getPartitionTableIndexOffset(symbolColumnCount, i), attachedPartitions.getQuick(i));
+        }
+        txMem.putLong(TX_OFFSET_TXN_CHECK, txn);
+        txMem.setTruncateSize(getTxMemSize(symbolColumnCount, partitionTableSize));
+    }
+
     int findAttachedPartitionIndexByLoTimestamp(long ts) {
         // Start from the end, usually it will be last partition searched / appended
         return attachedPartitions.binarySearchBlock(LONGS_PER_TX_ATTACHED_PARTITION_MSB, ts, BinarySearch.SCAN_UP);
@@ -200,6 +248,8 @@ public class TxReader implements Closeable {
         this.maxTimestamp = roTxMem.getLong(TX_OFFSET_MAX_TIMESTAMP);
         this.dataVersion = roTxMem.getLong(TX_OFFSET_DATA_VERSION);
         this.structureVersion = roTxMem.getLong(TX_OFFSET_STRUCT_VERSION);
+        this.columnVersionOffset = roTxMem.getLong(TX_OFFSET_COLUMN_VERSION_OFFSET);
+        this.columnVersionSize = roTxMem.getLong(TX_OFFSET_COLUMN_VERSION_SIZE);
         final long prevSymbolCount = this.symbolColumnCount;
         this.symbolColumnCount = roTxMem.getInt(TX_OFFSET_MAP_WRITER_COUNT);
         final long prevPartitionTableVersion = this.partitionTableVersion;
@@ -75,6 +75,8 @@ public final class TxWriter extends TxReader implements Closeable, SymbolValueCo
         Unsafe.getUnsafe().storeFence();
 
         txMem.putLong(TX_OFFSET_STRUCT_VERSION, ++structureVersion);
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_OFFSET, columnVersionOffset);
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_SIZE, columnVersionSize);
 
         final int count = denseSymbolMapWriters.size();
         final int oldCount = txMem.getInt(TX_OFFSET_MAP_WRITER_COUNT);
@@ -157,6 +159,8 @@ public final class TxWriter extends TxReader implements Closeable, SymbolValueCo
         txMem.putLong(TX_OFFSET_MIN_TIMESTAMP, minTimestamp);
         txMem.putLong(TX_OFFSET_MAX_TIMESTAMP, maxTimestamp);
         txMem.putLong(TX_OFFSET_PARTITION_TABLE_VERSION, this.partitionTableVersion);
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_OFFSET, columnVersionOffset);
+        txMem.putLong(TX_OFFSET_COLUMN_VERSION_SIZE, columnVersionSize);
         // store symbol counts
         storeSymbolCounts(symbolCountProviders);
 
@@ -253,6 +257,15 @@ public final class TxWriter extends TxReader implements Closeable, SymbolValueCo
         minTimestamp = prevMinTimestamp;
     }
 
+    /**
+     * Sets location of column version area committed to _cv file. Value is written to the transaction file
+     * by the next commit.
+     */
+    public void setColumnVersion(long offset, long size) {
+        columnVersionOffset = offset;
+        columnVersionSize = size;
+    }
+
     public void setMinTimestamp(long timestamp) {
         minTimestamp = timestamp;
         if (prevMinTimestamp == Long.MAX_VALUE) {
@@ -287,6 +300,8 @@ public final class TxWriter extends TxReader implements Closeable, SymbolValueCo
         txPartitionCount = 1;
         attachedPositionDirtyIndex = 0;
         attachedPartitions.clear();
+        columnVersionOffset = 0;
+        columnVersionSize = 0;
         resetTxn(txMem, symbolColumnCount, txn, ++dataVersion, ++partitionTableVersion);
     }
 
@@ -390,4 +405,9 @@ public final class TxWriter extends TxReader implements Closeable, SymbolValueCo
         attachedPartitions.set(index + PARTITION_NAME_TX_OFFSET, txn);
         attachedPositionDirtyIndex = Math.min(attachedPositionDirtyIndex, index);
     }
+
+    void updatePartitionDataTxnByIndex(int index) {
+        attachedPartitions.set(index + PARTITION_DATA_TX_OFFSET, txn);
+        attachedPositionDirtyIndex = Math.min(attachedPositionDirtyIndex, index);
+    }
 }
\ No newline at end of file
@@ -42,12 +42,14 @@ public class TxnScoreboard implements Closeable {
     private long fd ;
     private long mem;
     private final long size;
+    private final int entryCount;
     private final FilesFacade ff;
 
     public TxnScoreboard(FilesFacade ff, @Transient Path root, int entryCount) {
         this.ff = ff;
         root.concat(TableUtils.TXN_SCOREBOARD_FILE_NAME).$();
         int pow2EntryCount = Numbers.ceilPow2(entryCount);
+        this.entryCount = pow2EntryCount;
         this.size = TxnScoreboard.getScoreboardSize(pow2EntryCount);
         this.fd = openCleanRW(ff, root, this.size);
 
@@ -103,6 +105,26 @@ public class TxnScoreboard implements Closeable {
         return isTxnAvailable(mem, nameTxn);
     }
 
+    /**
+     * Checks that no reader is using transaction lower than the given one.
+     *
+     * @param txn transaction to check
+     * @return true when all transactions below given one have been released
+     */
+    public boolean isTxnAvailableBelow(long txn) {
+        final long min = getMin(mem);
+        if (min < 0) {
+            return true;
+        }
+        // active readers are within entry count of the minimum
+        for (long t = min, hi = Math.min(txn, min + entryCount); t < hi; t++) {
+            if (getCount(mem, t) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void releaseTxn(long txn) {
         releaseTxn(mem, txn);
     }
@@ -26,6 +26,7 @@ package io.questdb.cairo.pool;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnMappingCache;
 import io.questdb.cairo.EntryUnavailableException;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.pool.ex.EntryLockedException;
@@ -37,11 +38,15 @@ import io.questdb.std.Unsafe;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 public class ReaderPool extends AbstractPool implements ResourcePool<TableReader> {
 
     private static final Log LOG = LogFactory.getLog(ReaderPool.class);
     private static final long UNLOCKED = -1L;
+    // slot owner while reloadInactive() is refreshing idle reader, lock() waits for such slots
+    private static final long RELOADING = -2L;
     private static final long NEXT_STATUS = Unsafe.getFieldOffset(Entry.class, "nextStatus");
     private static final int ENTRY_SIZE = 32;
     private static final long LOCK_OWNER = Unsafe.getFieldOffset(Entry.class, "lockOwner");
@@ -51,11 +56,16 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     private final ConcurrentHashMap<Entry> entries = new ConcurrentHashMap<>();
     private final int maxSegments;
     private final int maxEntries;
+    private final boolean sharedColumnMappingsEnabled;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong reloadCount = new AtomicLong();
 
     public ReaderPool(CairoConfiguration configuration) {
         super(configuration, configuration.getInactiveReaderTTL());
         this.maxSegments = configuration.getReaderPoolMaxSegments();
         this.maxEntries = maxSegments * ENTRY_SIZE;
+        this.sharedColumnMappingsEnabled = configuration.isReaderSharedColumnMappingsEnabled();
     }
 
     @Override
@@ -89,8 +99,10 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
                         }
 
                         e.readers[i] = r;
+                        missCount.incrementAndGet();
                         notifyListener(thread, name, PoolListener.EV_CREATE, e.index, i);
                     } else {
+                        hitCount.incrementAndGet();
                         r.goActive();
                         notifyListener(thread, name, PoolListener.EV_GET, e.index, i);
                     }
@@ -112,7 +124,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
             // all allocated, create next entry if possible
             if (Unsafe.getUnsafe().compareAndSwapInt(e, NEXT_STATUS, NEXT_OPEN, NEXT_ALLOCATED)) {
                 LOG.debug().$("Thread ").$(thread).$(" allocated entry ").$(e.index + 1).$();
-                e.next = new Entry(e.index + 1, clock.getTicks());
+                e.next = new Entry(e.index + 1, clock.getTicks(), e.mappingCache);
             }
             e = e.next;
         } while (e != null && e.index < maxSegments);
@@ -139,16 +151,42 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         return count;
     }
 
+    /**
+     * @return number of times get() was served by pooled reader
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
     public int getMaxEntries() {
         return maxEntries;
     }
 
+    /**
+     * @return number of times get() had to open new reader
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of idle readers moved to the latest transaction by reloadInactive()
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
     public boolean lock(CharSequence name) {
         Entry e = getEntry(name);
         final long thread = Thread.currentThread().getId();
         if (Unsafe.cas(e, LOCK_OWNER, UNLOCKED, thread) || Unsafe.cas(e, LOCK_OWNER, thread, thread)) {
             do {
                 for (int i = 0; i < ENTRY_SIZE; i++) {
+                    // idle reader is being reloaded, reload job gives up the slot without
+                    // reloading further readers once it sees the entry locked
+                    while (Unsafe.arrayGetVolatile(e.allocations, i) == RELOADING) {
+                        LockSupport.parkNanos(1);
+                    }
                     if (Unsafe.cas(e.allocations, i, UNALLOCATED, thread)) {
                         closeReader(thread, e, i, PoolListener.EV_LOCK_CLOSE, PoolConstants.CR_NAME_LOCK);
                     } else if (Unsafe.cas(e.allocations, i, thread, thread)) {
@@ -182,6 +220,59 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         return true;
     }
 
+    /**
+     * Reloads idle readers of tables that have been committed to since the readers
+     * were last used. This takes reload cost off the thread that gets reader next.
+     * Readers that fail to reload are closed.
+     *
+     * @return true if any reader was reloaded
+     */
+    public boolean reloadInactive() {
+        if (isClosed()) {
+            return false;
+        }
+
+        final long thread = Thread.currentThread().getId();
+        boolean useful = false;
+        for (Map.Entry<CharSequence, Entry> me : entries.entrySet()) {
+            Entry e = me.getValue();
+            do {
+                for (int i = 0; i < ENTRY_SIZE; i++) {
+                    if (e.lockOwner != UNLOCKED) {
+                        break;
+                    }
+                    if (e.readers[i] != null
+                            && Unsafe.arrayGetVolatile(e.allocations, i) == UNALLOCATED
+                            && Unsafe.cas(e.allocations, i, UNALLOCATED, RELOADING)
+                    ) {
+                        // entry could have been locked between the check above and the slot CAS,
+                        // lock owner waits for this slot, so it must be released without reload
+                        final R r = e.lockOwner == UNLOCKED ? e.readers[i] : null;
+                        // reader can be closed by another thread until we own the slot
+                        if (r != null && r.isOutdated()) {
+                            try {
+                                r.goActive();
+                                r.goPassive();
+                                reloadCount.incrementAndGet();
+                                useful = true;
+                            } catch (CairoException ex) {
+                                LOG.error().$("could not reload '").utf8(r.getTableName())
+                                        .$("' [at=").$(e.index).$(':').$(i)
+                                        .$(", errno=").$(ex.getErrno())
+                                        .$(", error=").$(ex.getFlyweightMessage())
+                                        .I$();
+                                closeReader(thread, e, i, PoolListener.EV_EXPIRE, PoolConstants.CR_DISTRESSED);
+                            }
+                        }
+                        Unsafe.arrayPutOrdered(e.allocations, i, UNALLOCATED);
+                    }
+                }
+                e = e.next;
+            } while (e != null && e.lockOwner == UNLOCKED);
+        }
+        return useful;
+    }
+
     public void unlock(CharSequence name) {
         Entry e = entries.get(name);
         long thread = Thread.currentThread().getId();
@@ -283,7 +374,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
 
         Entry e = entries.get(name);
         if (e == null) {
-            e = new Entry(0, clock.getTicks());
+            e = new Entry(0, clock.getTicks(), sharedColumnMappingsEnabled ? new ColumnMappingCache() : null);
             Entry other = entries.putIfAbsent(name, e);
             if (other != null) {
                 e = other;
@@ -335,13 +426,16 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         final long[] releaseTimes = new long[ENTRY_SIZE];
         final R[] readers = new R[ENTRY_SIZE];
         final int index;
+        // column mappings are shared across all segments of the table
+        final ColumnMappingCache mappingCache;
         volatile long lockOwner = -1L;
         @SuppressWarnings("unused")
         int nextStatus = 0;
         volatile Entry next;
 
-        public Entry(int index, long currentMicros) {
+        public Entry(int index, long currentMicros, ColumnMappingCache mappingCache) {
             this.index = index;
+            this.mappingCache = mappingCache;
             Arrays.fill(allocations, UNALLOCATED);
             Arrays.fill(releaseTimes, currentMicros);
         }
@@ -353,7 +447,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         private Entry entry;
 
         public R(ReaderPool pool, Entry entry, int index, CharSequence name) {
-            super(pool.getConfiguration(), name);
+            super(pool.getConfiguration(), name, entry.mappingCache);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
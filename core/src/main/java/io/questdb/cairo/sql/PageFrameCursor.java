@@ -43,7 +43,7 @@ public interface PageFrameCursor extends Closeable {
     void toTop();
 
     /**
-     * @return size of page in bytes
+     * @return number of rows in all page frames of the cursor
      */
     long size();
 
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Single page frame in flight between the thread that owns a {@link PageFrameSequence}
+ * and the worker threads reducing it. Page addresses are copied from the frame when the
+ * entry is armed, so that workers never touch the page frame cursor itself.
+ */
+public class PageFrameReduceEntry extends AbstractLockable implements Closeable {
+    private final DirectLongList pageAddresses = new DirectLongList(16, MemoryTag.NATIVE_LONG_LIST);
+    private final LongList indexPageAddresses = new LongList();
+    private final LongList pageSizes = new LongList();
+    private final DirectLongList rows = new DirectLongList(1024, MemoryTag.NATIVE_LONG_LIST);
+    private PageFrameSequence<?> frameSequence;
+    private int frameIndex;
+    private long frameRowCount;
+    private int partitionIndex;
+    private boolean columnTops;
+    private int lockSequence;
+    private Throwable error;
+    private volatile boolean done;
+
+    @Override
+    public void close() {
+        Misc.free(pageAddresses);
+        Misc.free(rows);
+    }
+
+    public long getColumnAddressesAddress() {
+        return pageAddresses.getAddress();
+    }
+
+    public int getColumnCount() {
+        return (int) pageAddresses.size();
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    public long getFrameRowCount() {
+        return frameRowCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> PageFrameSequence<T> getFrameSequence() {
+        return (PageFrameSequence<T>) frameSequence;
+    }
+
+    public long getIndexPageAddress(int columnIndex) {
+        return indexPageAddresses.getQuick(columnIndex);
+    }
+
+    public long getPageAddress(int columnIndex) {
+        return pageAddresses.get(columnIndex);
+    }
+
+    public long getPageSize(int columnIndex) {
+        return pageSizes.getQuick(columnIndex);
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    /**
+     * Reducer output, typically row indexes within the frame that passed a filter.
+     */
+    public DirectLongList getRows() {
+        return rows;
+    }
+
+    /**
+     * @return true when at least one of the columns is null for the whole frame, e.g. the frame
+     * is below the column top. Reducers are free to leave such frames to the owner thread.
+     */
+    public boolean hasColumnTops() {
+        return columnTops;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean run(int workerId) {
+        if (tryLock()) {
+            reduce(workerId);
+            return true;
+        }
+        return false;
+    }
+
+    private void reduce(int workerId) {
+        try {
+            if (!frameSequence.isCancelled()) {
+                frameSequence.getReducer().reduce(workerId, this);
+            }
+        } catch (Throwable th) {
+            error = th;
+        } finally {
+            done = true;
+        }
+    }
+
+    void of(PageFrameSequence<?> frameSequence, int frameIndex, PageFrame frame, int columnCount) {
+        this.frameSequence = frameSequence;
+        this.frameIndex = frameIndex;
+        this.frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        this.partitionIndex = frame.getPartitionIndex();
+        this.columnTops = false;
+        this.error = null;
+        this.done = false;
+        pageAddresses.clear();
+        indexPageAddresses.clear();
+        pageSizes.clear();
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final long pageAddress = frame.getPageAddress(columnIndex);
+            columnTops |= pageAddress == 0;
+            pageAddresses.add(pageAddress);
+            indexPageAddresses.add(frame.getIndexPageAddress(columnIndex));
+            pageSizes.add(frame.getPageSize(columnIndex));
+        }
+        rows.clear();
+        // the entry may still be referenced by a stale queue slot of a previous execution,
+        // lock sequence must therefore never repeat between executions
+        lockSequence += 2;
+        Unsafe.getUnsafe().storeFence();
+        of(lockSequence);
+    }
+
+    void shrink(long rowsCapacityThreshold) {
+        if (rows.getCapacity() > rowsCapacityThreshold) {
+            rows.extend(rowsCapacityThreshold);
+        }
+    }
+}
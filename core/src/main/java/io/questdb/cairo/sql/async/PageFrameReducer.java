@@ -0,0 +1,39 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+@FunctionalInterface
+public interface PageFrameReducer {
+    /**
+     * Reduces single page frame. Called concurrently by worker threads and the thread that
+     * owns the frame sequence, implementations must not mutate shared state other than
+     * the entry itself and per-worker scratch indexed by worker id.
+     *
+     * @param workerId id of the worker, in range [0, frameSequence.getWorkerCount()]; the
+     *                 value equal to worker count denotes the owner thread
+     * @param entry    frame to reduce, results are written to the entry
+     */
+    void reduce(int workerId, PageFrameReduceEntry entry);
+}
@@ -0,0 +1,333 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.tasks.PageFrameReduceTask;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Owner side of the parallel page frame pipeline. Page frames of the base factory are sliced
+ * into frames of at most "max rows" rows, which are published to the shared reduce queue,
+ * at most "max in flight" frames at a time, and are
+ * reduced by {@link PageFrameReduceJob} on the worker pool. Frames that do not fit the
+ * queue, or are not picked up by workers in time, are reduced by the owner thread while
+ * it waits for results.
+ * <p>
+ * Results are handed back either in frame order or in order of completion. Entry returned
+ * by {@link #next()} remains valid until the subsequent call to next(), toTop() or clear().
+ *
+ * @param <T> query specific state shared by all reducers of the sequence, e.g. compiled filter
+ */
+public class PageFrameSequence<T> implements Mutable, Closeable {
+    private final PageFrameReducer reducer;
+    private final PageAddressCache pageAddressCache;
+    private final ObjList<PageFrameReduceEntry> entries = new ObjList<>();
+    private final ObjList<PageFrameReduceEntry> freeEntries = new ObjList<>();
+    private final ObjList<PageFrameReduceEntry> inFlightEntries = new ObjList<>();
+    private final PageFrameSlice slice = new PageFrameSlice();
+    private final int maxInFlight;
+    private final long maxRows;
+    private final long rowsCapacityThreshold;
+    private MessageBus messageBus;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private PageFrameCursor pageFrameCursor;
+    private T atom;
+    private boolean ordered;
+    private int workerCount;
+    private int columnCount;
+    private int frameCount;
+    private boolean frameCursorExhausted;
+    // page frame of the base cursor being sliced and the start of its next slice
+    private PageFrame baseFrame;
+    private long baseFrameRowLo;
+    private PageFrameReduceEntry current;
+    private volatile boolean cancelled;
+
+    public PageFrameSequence(CairoConfiguration configuration, PageFrameReducer reducer) {
+        this.reducer = reducer;
+        this.pageAddressCache = new PageAddressCache(configuration);
+        this.maxInFlight = Math.max(1, configuration.getSqlPageFrameMaxInFlight());
+        final long maxRows = configuration.getSqlPageFrameMaxRows();
+        this.maxRows = maxRows > 0 ? maxRows : Long.MAX_VALUE;
+        this.rowsCapacityThreshold = configuration.getSqlJitRowsThreshold() / Long.BYTES;
+    }
+
+    @Override
+    public void clear() {
+        if (pageFrameCursor != null) {
+            cancelInFlight();
+            for (int i = 0, n = entries.size(); i < n; i++) {
+                entries.getQuick(i).shrink(rowsCapacityThreshold);
+            }
+            pageAddressCache.clear();
+            pageFrameCursor = Misc.free(pageFrameCursor);
+        }
+        baseFrame = null;
+        atom = null;
+        circuitBreaker = null;
+        messageBus = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        freeEntries.clear();
+        Misc.freeObjList(entries);
+    }
+
+    public T getAtom() {
+        return atom;
+    }
+
+    public PageAddressCache getPageAddressCache() {
+        return pageAddressCache;
+    }
+
+    public PageFrameCursor getPageFrameCursor() {
+        return pageFrameCursor;
+    }
+
+    public SymbolMapReader getSymbolMapReader(int columnIndex) {
+        return pageFrameCursor.getSymbolMapReader(columnIndex);
+    }
+
+    /**
+     * @return number of worker threads that may reduce frames of this sequence; reducers
+     * should size per-worker scratch state as worker count + 1, the last slot is used by
+     * the owner thread
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Publishes more frames, if there is room, and returns the next reduced frame.
+     *
+     * @return reduced frame or null when all frames of the cursor have been consumed
+     */
+    public PageFrameReduceEntry next() {
+        releaseCurrent();
+        dispatch();
+
+        if (inFlightEntries.size() == 0) {
+            return null;
+        }
+
+        int index;
+        while ((index = findDone()) < 0) {
+            circuitBreaker.test();
+            if (!stealWork()) {
+                LockSupport.parkNanos(1);
+            }
+        }
+
+        final PageFrameReduceEntry entry = inFlightEntries.getQuick(index);
+        inFlightEntries.remove(index);
+        current = entry;
+
+        final Throwable error = entry.getError();
+        if (error != null) {
+            if (error instanceof CairoException) {
+                // worker threads throw their own thread-local instances, copy the message
+                final CairoException e = (CairoException) error;
+                throw CairoException.instance(e.getErrno())
+                        .put(e.getFlyweightMessage())
+                        .setInterruption(e.isInterruption());
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw CairoException.instance(0).put(error.getMessage());
+        }
+        return entry;
+    }
+
+    public PageFrameSequence<T> of(
+            RecordCursorFactory base,
+            SqlExecutionContext executionContext,
+            T atom,
+            boolean ordered
+    ) throws SqlException {
+        final RecordMetadata metadata = base.getMetadata();
+        this.pageFrameCursor = base.getPageFrameCursor(executionContext);
+        this.messageBus = executionContext.getMessageBus();
+        this.circuitBreaker = executionContext.getCircuitBreaker();
+        this.workerCount = executionContext.getWorkerCount();
+        this.atom = atom;
+        this.ordered = ordered;
+        this.columnCount = metadata.getColumnCount();
+        this.frameCount = 0;
+        this.frameCursorExhausted = false;
+        this.baseFrame = null;
+        pageAddressCache.of(metadata);
+        return this;
+    }
+
+    /**
+     * Abandons frames in flight and rewinds the sequence to the first frame.
+     */
+    public void toTop() {
+        cancelInFlight();
+        pageFrameCursor.toTop();
+        frameCount = 0;
+        frameCursorExhausted = false;
+        baseFrame = null;
+    }
+
+    private void cancelInFlight() {
+        cancelled = true;
+        try {
+            for (int i = 0, n = inFlightEntries.size(); i < n; i++) {
+                final PageFrameReduceEntry entry = inFlightEntries.getQuick(i);
+                // locking the entry prevents workers from picking it up; when the lock
+                // is taken by a worker we have to let it finish before reusing the entry
+                if (!entry.tryLock()) {
+                    while (!entry.isDone()) {
+                        LockSupport.parkNanos(1);
+                    }
+                }
+                freeEntries.add(entry);
+            }
+            inFlightEntries.clear();
+            releaseCurrent();
+        } finally {
+            cancelled = false;
+        }
+    }
+
+    private void dispatch() {
+        final RingQueue<PageFrameReduceTask> queue = messageBus.getPageFrameReduceQueue();
+        final Sequence pubSeq = messageBus.getPageFrameReducePubSeq();
+
+        while (!frameCursorExhausted && inFlightEntries.size() < maxInFlight) {
+            if (baseFrame == null) {
+                baseFrame = pageFrameCursor.next();
+                if (baseFrame == null) {
+                    frameCursorExhausted = true;
+                    break;
+                }
+                baseFrameRowLo = 0;
+            }
+
+            final long baseFrameRowCount = baseFrame.getPartitionHi() - baseFrame.getPartitionLo();
+            final long rowHi = baseFrameRowCount - baseFrameRowLo > maxRows ? baseFrameRowLo + maxRows : baseFrameRowCount;
+            final PageFrame frame = slice.of(baseFrame, baseFrameRowLo, rowHi);
+            baseFrameRowLo = rowHi;
+            if (rowHi == baseFrameRowCount) {
+                baseFrame = null;
+            }
+
+            final int frameIndex = frameCount++;
+            pageAddressCache.add(frameIndex, frame);
+
+            final PageFrameReduceEntry entry = nextFreeEntry();
+            entry.of(this, frameIndex, frame, columnCount);
+            inFlightEntries.add(entry);
+
+            long cursor;
+            do {
+                cursor = pubSeq.next();
+            } while (cursor == -2);
+
+            if (cursor > -1) {
+                queue.get(cursor).entry = entry;
+                pubSeq.done(cursor);
+            }
+            // when the queue is full, the entry stays with the owner thread,
+            // which reduces it while waiting for results
+        }
+    }
+
+    private int findDone() {
+        if (ordered) {
+            return inFlightEntries.getQuick(0).isDone() ? 0 : -1;
+        }
+        for (int i = 0, n = inFlightEntries.size(); i < n; i++) {
+            if (inFlightEntries.getQuick(i).isDone()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private PageFrameReduceEntry nextFreeEntry() {
+        final int size = freeEntries.size();
+        if (size > 0) {
+            final PageFrameReduceEntry entry = freeEntries.getQuick(size - 1);
+            freeEntries.setPos(size - 1);
+            return entry;
+        }
+        final PageFrameReduceEntry entry = new PageFrameReduceEntry();
+        entries.add(entry);
+        return entry;
+    }
+
+    private void releaseCurrent() {
+        if (current != null) {
+            freeEntries.add(current);
+            current = null;
+        }
+    }
+
+    private boolean stealWork() {
+        // in ordered mode the oldest frame is the one we wait for, hence we start from it
+        final int ownerId = workerCount;
+        for (int i = 0, n = inFlightEntries.size(); i < n; i++) {
+            if (inFlightEntries.getQuick(i).run(ownerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    PageFrameReducer getReducer() {
+        return reducer;
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.sql.PageFrame;
+
+/**
+ * Row range of a page frame. Fixed size columns are offset to the start of the range,
+ * variable length columns keep their data page and have only the index page offset,
+ * since index entries are offsets into the data page.
+ */
+class PageFrameSlice implements PageFrame {
+    private PageFrame frame;
+    private long rowLo;
+    private long rowHi;
+
+    @Override
+    public BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward) {
+        return frame.getBitmapIndexReader(columnIndex, dirForward);
+    }
+
+    @Override
+    public int getColumnShiftBits(int columnIndex) {
+        return frame.getColumnShiftBits(columnIndex);
+    }
+
+    @Override
+    public long getPageAddress(int columnIndex) {
+        final long address = frame.getPageAddress(columnIndex);
+        final int shr = frame.getColumnShiftBits(columnIndex);
+        return address == 0 || shr < 0 ? address : address + (rowLo << shr);
+    }
+
+    @Override
+    public long getIndexPageAddress(int columnIndex) {
+        final long address = frame.getIndexPageAddress(columnIndex);
+        return address == 0 ? 0 : address + (rowLo << 3);
+    }
+
+    @Override
+    public long getPageSize(int columnIndex) {
+        final int shr = frame.getColumnShiftBits(columnIndex);
+        return shr < 0 ? frame.getPageSize(columnIndex) : (rowHi - rowLo) << shr;
+    }
+
+    @Override
+    public int getPartitionIndex() {
+        return frame.getPartitionIndex();
+    }
+
+    @Override
+    public long getPartitionLo() {
+        return frame.getPartitionLo() + rowLo;
+    }
+
+    @Override
+    public long getPartitionHi() {
+        return frame.getPartitionLo() + rowHi;
+    }
+
+    PageFrameSlice of(PageFrame frame, long rowLo, long rowHi) {
+        this.frame = frame;
+        this.rowLo = rowLo;
+        this.rowHi = rowHi;
+        return this;
+    }
+}
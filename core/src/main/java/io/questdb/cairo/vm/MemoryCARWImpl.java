@@ -203,10 +203,14 @@ public class MemoryCARWImpl extends AbstractMemoryCR implements MemoryCARW, Muta
     }
 
     protected long reallocateMemory(long currentBaseAddress, long currentSize, long newSize) {
+        final long address;
         if (currentBaseAddress != 0) {
-            return Unsafe.realloc(currentBaseAddress, currentSize, newSize, memoryTag);
+            address = Unsafe.realloc(currentBaseAddress, currentSize, newSize, memoryTag);
+        } else {
+            address = Unsafe.malloc(newSize, memoryTag);
         }
-        return Unsafe.malloc(newSize, memoryTag);
+        Vm.adviseHugePages(address, newSize);
+        return address;
     }
 
     protected final void setPageSize(long size) {
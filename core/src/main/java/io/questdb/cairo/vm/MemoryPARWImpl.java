@@ -734,7 +734,9 @@ public class MemoryPARWImpl implements MemoryARW {
         if (page >= maxPages) {
             throw LimitOverflowException.instance().put("Maximum number of pages (").put(maxPages).put(") breached in VirtualMemory");
         }
-        return Unsafe.malloc(getExtendSegmentSize(), memoryTag);
+        final long address = Unsafe.malloc(getExtendSegmentSize(), memoryTag);
+        Vm.adviseHugePages(address, getExtendSegmentSize());
+        return address;
     }
 
     protected long cachePageAddress(int index, long address) {
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.ColumnMappingCache;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Read-only contiguous memory backed by a mapping from {@link ColumnMappingCache}. Mapping
+ * may be larger than size of this memory when another reader had mapped more of the file.
+ */
+public class MemorySharedCMRImpl extends AbstractMemoryCR implements MemoryCMR {
+    private final ColumnMappingCache cache;
+    private ColumnMappingCache.Mapping mapping;
+    private long structureVersion;
+    private long dataVersion;
+
+    public MemorySharedCMRImpl(ColumnMappingCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void advise(int advice) {
+        if (pageAddress != 0) {
+            cache.advise(mapping, pageAddress, size, advice);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (mapping != null) {
+            cache.release(mapping);
+            mapping = null;
+        }
+        pageAddress = 0;
+        size = 0;
+        fd = -1;
+        grownLength = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        grownLength = Math.max(newSize, grownLength);
+        if (newSize > size) {
+            if (newSize > mapping.getSize()) {
+                try {
+                    mapping = cache.extend(mapping, newSize);
+                } catch (Throwable e) {
+                    close();
+                    throw e;
+                }
+                pageAddress = mapping.getAddress();
+            }
+            size = newSize;
+        }
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag) {
+        of(ff, name, structureVersion, dataVersion, size, memoryTag);
+    }
+
+    public void of(FilesFacade ff, LPSZ name, long structureVersion, long dataVersion, long size, int memoryTag) {
+        close();
+        this.ff = ff;
+        this.structureVersion = structureVersion;
+        this.dataVersion = dataVersion;
+        mapping = cache.acquire(ff, name, structureVersion, dataVersion, size, memoryTag);
+        pageAddress = mapping.getAddress();
+        fd = mapping.getFd();
+        this.size = size;
+    }
+}
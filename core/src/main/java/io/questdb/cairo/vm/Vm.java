@@ -32,6 +32,25 @@ import io.questdb.std.str.LPSZ;
 
 public class Vm {
     public static final int STRING_LENGTH_BYTES = 4;
+    private static volatile boolean hugePagesEnabled = false;
+
+    /**
+     * Hints OS to back native memory region with transparent huge pages. Only the part of the region
+     * aligned to huge page boundaries is affected, regions smaller than a huge page are left alone.
+     * No-op unless enabled via {@link #setHugePagesEnabled(boolean)}.
+     *
+     * @param address start of the region
+     * @param size    size of the region in bytes
+     */
+    public static void adviseHugePages(long address, long size) {
+        if (hugePagesEnabled && size >= Files.HUGE_PAGE_SIZE) {
+            final long lo = (address + Files.HUGE_PAGE_SIZE - 1) & -Files.HUGE_PAGE_SIZE;
+            final long hi = (address + size) & -Files.HUGE_PAGE_SIZE;
+            if (hi > lo) {
+                Files.madvise(lo, hi - lo, Files.MADV_HUGEPAGE);
+            }
+        }
+    }
 
     public static void bestEffortClose(FilesFacade ff, Log log, long fd, boolean truncate, long size) {
         try {
@@ -108,6 +127,10 @@ public class Vm {
         return new MemoryCMRImpl(ff, name, size, memoryTag);
     }
 
+    public static void setHugePagesEnabled(boolean enabled) {
+        hugePagesEnabled = enabled;
+    }
+
     public static MemoryMA getSmallMAInstance(FilesFacade ff, LPSZ name, int memoryTag) {
         return new MemoryCMARWImpl(ff, name, ff.getPageSize(), -1, memoryTag);
     }
@@ -25,6 +25,16 @@
 package io.questdb.cairo.vm.api;
 
 public interface MemoryMR extends MemoryM, MemoryR {
+
+    /**
+     * Hints OS about the way mapped memory is going to be accessed. Implementations that
+     * do not map memory ignore the hint.
+     *
+     * @param advice one of Files.MADV_* constants
+     */
+    default void advise(int advice) {
+    }
+
     default void growToFileSize() {
         extend(getFilesFacade().length(getFd()));
     }
@@ -26,6 +26,7 @@ package io.questdb.cutlass.http;
 
 import io.questdb.network.NetworkFacade;
 import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.Zip;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 
@@ -50,6 +51,11 @@ public class DefaultHttpContextConfiguration implements HttpContextConfiguration
         return 128;
     }
 
+    @Override
+    public int getDeflateLevel() {
+        return Zip.Z_DEFAULT_COMPRESSION;
+    }
+
     @Override
     public boolean getDumpNetworkTraffic() {
         return false;
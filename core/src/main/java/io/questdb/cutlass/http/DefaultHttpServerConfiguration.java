@@ -28,6 +28,7 @@ import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.griffin.DefaultSqlExecutionCircuitBreakerConfiguration;
 import io.questdb.griffin.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.std.FilesFacade;
@@ -71,6 +72,16 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         }
     };
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new JsonQueryProcessorConfiguration() {
+        @Override
+        public int getAsyncQueryQueueCapacity() {
+            return 64;
+        }
+
+        @Override
+        public long getAsyncQueryThreshold() {
+            return 1000;
+        }
+
         @Override
         public MillisecondClock getClock() {
             return httpContextConfiguration.getClock();
@@ -160,6 +171,26 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return 32;
     }
 
+    @Override
+    public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+        return new WorkerPoolConfiguration() {
+            @Override
+            public int[] getWorkerAffinity() {
+                return new int[0];
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return 0;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+        };
+    }
+
     @Override
     public WaitProcessorConfiguration getWaitProcessorConfiguration() {
         return new WaitProcessorConfiguration() {
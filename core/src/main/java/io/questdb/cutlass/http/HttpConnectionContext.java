@@ -43,6 +43,7 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
     private final int recvBufferSize;
     private final HttpMultipartContentParser multipartContentParser;
     private final HttpHeaderParser multipartContentHeaderParser;
+    private final HttpRawContentParser rawContentParser = new HttpRawContentParser();
     private final HttpResponseSink responseSink;
     private final ObjectPool<DirectByteCharSequence> csPool;
     private final LocalValueMap localValueMap = new LocalValueMap();
@@ -93,6 +94,7 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
         this.headerParser.clear();
         this.multipartContentParser.clear();
         this.multipartContentHeaderParser.clear();
+        this.rawContentParser.clear();
         this.csPool.clear();
         this.localValueMap.clear();
         this.responseSink.clear();
@@ -345,6 +347,83 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
         return continueConsumeMultipart(fd, start, buf, bufRemaining, multipartListener, processor, rescheduleContext);
     }
 
+    private boolean consumeRawContent(
+            long fd,
+            HttpRequestProcessor processor,
+            long headerEnd,
+            int read,
+            boolean newRequest,
+            RescheduleContext rescheduleContext
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        if (newRequest) {
+            processor.onHeadersReady(this);
+            rawContentParser.of(headerParser);
+        }
+
+        processor.resumeRecv(this);
+
+        final HttpRawContentListener rawContentListener = (HttpRawContentListener) processor;
+        final long bufferEnd = recvBuffer + read;
+
+        LOG.debug().$("raw content").$();
+
+        // body bytes that arrived together with headers, empty body completes here too
+        if (rawContentParser.parse(headerEnd < bufferEnd ? headerEnd : bufferEnd, bufferEnd, rawContentListener)) {
+            completeRequest(processor, rescheduleContext);
+            return true;
+        }
+
+        long buf = recvBuffer;
+        int bufRemaining = recvBufferSize;
+        long spinsRemaining = multipartIdleSpinCount;
+
+        while (true) {
+            final int n = nf.recv(fd, buf, bufRemaining);
+            if (n < 0) {
+                handlePeerDisconnect(DISCONNECT_REASON_PEER_DISCONNECT_AT_RAW_RECV);
+                return false;
+            }
+
+            if (n == 0) {
+                // same mini-Nagle as multipart, processor is better off with bigger chunks
+                if (spinsRemaining-- > 0) {
+                    continue;
+                }
+
+                if (buf > recvBuffer) {
+                    if (rawContentParser.parse(recvBuffer, buf, rawContentListener)) {
+                        completeRequest(processor, rescheduleContext);
+                        return true;
+                    }
+                    buf = recvBuffer;
+                    bufRemaining = recvBufferSize;
+                    spinsRemaining = multipartIdleSpinCount;
+                    continue;
+                }
+
+                LOG.debug().$("peer is slow [raw]").$();
+                dispatcher.registerChannel(this, IOOperation.READ);
+                return false;
+            }
+
+            LOG.debug().$("raw recv [len=").$(n).$(']').$();
+
+            dumpBuffer(buf, n);
+
+            bufRemaining -= n;
+            buf += n;
+
+            if (bufRemaining == 0) {
+                if (rawContentParser.parse(recvBuffer, buf, rawContentListener)) {
+                    completeRequest(processor, rescheduleContext);
+                    return true;
+                }
+                buf = recvBuffer;
+                bufRemaining = recvBufferSize;
+            }
+        }
+    }
+
     private boolean continueConsumeMultipart(
             long fd,
             long start,
@@ -536,15 +615,17 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
 
             final boolean multipartRequest = Chars.equalsNc("multipart/form-data", headerParser.getContentType());
             final boolean multipartProcessor = processor instanceof HttpMultipartContentListener;
+            final boolean rawContentProcessor = processor instanceof HttpRawContentListener;
 
-            if (allowDeflateBeforeSend && Chars.contains(headerParser.getHeader("Accept-Encoding"), "gzip")) {
-                responseSink.setDeflateBeforeSend(true);
-            }
+            // keep-alive connection serves clients that may or may not accept gzip
+            responseSink.setDeflateBeforeSend(allowDeflateBeforeSend && HttpHeaderParser.isGzipAccepted(headerParser.getHeader("Accept-Encoding")));
 
             try {
                 if (multipartRequest && !multipartProcessor) {
                     // bad request - multipart request for processor that doesn't expect multipart
                     busyRecv = rejectRequest("Bad request. non-multipart GET expected.");
+                } else if (!multipartRequest && rawContentProcessor) {
+                    busyRecv = consumeRawContent(fd, processor, headerEnd, read, newRequest, rescheduleContext);
                 } else if (!multipartRequest && multipartProcessor) {
                     // bad request - regular request for processor that expects multipart
                     busyRecv = rejectRequest("Bad request. Multipart POST expected.");
@@ -40,6 +40,8 @@ public interface HttpContextConfiguration {
 
     int getConnectionStringPoolCapacity();
 
+    int getDeflateLevel();
+
     boolean getDumpNetworkTraffic();
 
     String getHttpVersion();
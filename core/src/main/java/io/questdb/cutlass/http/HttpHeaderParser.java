@@ -26,6 +26,7 @@ package io.questdb.cutlass.http;
 
 import io.questdb.std.*;
 import io.questdb.std.str.DirectByteCharSequence;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -66,6 +67,73 @@ public class HttpHeaderParser implements Mutable, Closeable, HttpRequestHeader {
         clear();
     }
 
+    /**
+     * Checks if client accepts gzip content coding. Value of Accept-Encoding header is a list of
+     * codings with optional quality values, e.g. "gzip;q=0.8, br". Gzip is accepted when it is
+     * listed, or matched by "*", with quality other than zero.
+     *
+     * @param acceptEncoding value of Accept-Encoding header, null when header is absent
+     * @return true when response can be gzip encoded
+     */
+    public static boolean isGzipAccepted(@Nullable CharSequence acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        boolean wildcard = false;
+        final int len = acceptEncoding.length();
+        int lo = 0;
+        while (lo < len) {
+            int hi = Chars.indexOf(acceptEncoding, lo, len, ',');
+            if (hi == -1) {
+                hi = len;
+            }
+            int codingHi = Chars.indexOf(acceptEncoding, lo, hi, ';');
+            final boolean accepted = codingHi == -1 || !isZeroQuality(acceptEncoding, codingHi + 1, hi);
+            if (codingHi == -1) {
+                codingHi = hi;
+            }
+
+            int codingLo = lo;
+            while (codingLo < codingHi && acceptEncoding.charAt(codingLo) == ' ') {
+                codingLo++;
+            }
+            while (codingHi > codingLo && acceptEncoding.charAt(codingHi - 1) == ' ') {
+                codingHi--;
+            }
+
+            if (Chars.equalsLowerCaseAscii(acceptEncoding, codingLo, codingHi, "gzip", 0, 4)
+                    || Chars.equalsLowerCaseAscii(acceptEncoding, codingLo, codingHi, "x-gzip", 0, 6)) {
+                // explicit entry takes precedence over wildcard
+                return accepted;
+            }
+
+            if (codingHi - codingLo == 1 && acceptEncoding.charAt(codingLo) == '*') {
+                wildcard = accepted;
+            }
+            lo = hi + 1;
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(CharSequence params, int lo, int hi) {
+        int q = Chars.indexOf(params, lo, hi, '=');
+        if (q == -1) {
+            return false;
+        }
+        // q=0, q=0.0 and so on
+        boolean zero = false;
+        for (int i = q + 1; i < hi; i++) {
+            final char c = params.charAt(i);
+            if (c == '0') {
+                zero = true;
+            } else if (c != '.' && c != ' ') {
+                return false;
+            }
+        }
+        return zero;
+    }
+
     private static DirectByteCharSequence unquote(CharSequence key, DirectByteCharSequence that) {
         int len = that.length();
         if (len == 0) {
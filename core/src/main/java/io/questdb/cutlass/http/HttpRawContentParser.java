@@ -0,0 +1,203 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+import io.questdb.std.Chars;
+import io.questdb.std.Mutable;
+import io.questdb.std.Numbers;
+import io.questdb.std.NumericException;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectByteCharSequence;
+
+/**
+ * Decodes request body framed by Content-Length or by chunked transfer encoding. Parser keeps its
+ * state between calls, body can be split across receive buffers at any byte.
+ */
+public class HttpRawContentParser implements Mutable {
+    private static final int FIXED = 1;
+    private static final int CHUNK_SIZE = 2;
+    private static final int CHUNK_EXTENSION = 3;
+    private static final int CHUNK_DATA = 4;
+    private static final int CHUNK_DATA_END = 5;
+    private static final int TRAILER = 6;
+    private static final int DONE = 7;
+    // chunk size is accumulated in 4-bit steps, this keeps it from overflowing
+    private static final long MAX_CHUNK_SIZE = Long.MAX_VALUE >> 4;
+    private int state;
+    private long remaining;
+    private boolean sizeDigits;
+    private boolean trailerLineEmpty;
+
+    public HttpRawContentParser() {
+        clear();
+    }
+
+    @Override
+    public final void clear() {
+        state = DONE;
+        remaining = 0;
+        sizeDigits = false;
+        trailerLineEmpty = true;
+    }
+
+    public void of(HttpRequestHeader header) {
+        clear();
+        final DirectByteCharSequence transferEncoding = header.getHeader("Transfer-Encoding");
+        if (transferEncoding != null) {
+            if (!Chars.equalsIgnoreCase("chunked", transferEncoding)) {
+                throw HttpException.instance("unsupported transfer encoding [value=").put(transferEncoding).put(']');
+            }
+            state = CHUNK_SIZE;
+            return;
+        }
+
+        final DirectByteCharSequence contentLength = header.getHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                remaining = Numbers.parseLong(contentLength);
+            } catch (NumericException e) {
+                throw HttpException.instance("invalid content length [value=").put(contentLength).put(']');
+            }
+            if (remaining < 0) {
+                throw HttpException.instance("invalid content length [value=").put(contentLength).put(']');
+            }
+            state = remaining > 0 ? FIXED : DONE;
+        }
+        // request without either header does not have body
+    }
+
+    public boolean isDone() {
+        return state == DONE;
+    }
+
+    /**
+     * Feeds received bytes to the parser and passes body bytes to the listener.
+     *
+     * @return true when the body is complete, bytes after the body are ignored
+     */
+    public boolean parse(long lo, long hi, HttpRawContentListener listener) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        long p = lo;
+        while (p < hi && state != DONE) {
+            switch (state) {
+                case FIXED:
+                case CHUNK_DATA:
+                    final long n = Math.min(remaining, hi - p);
+                    listener.onChunk(p, p + n);
+                    p += n;
+                    remaining -= n;
+                    if (remaining == 0) {
+                        state = state == FIXED ? DONE : CHUNK_DATA_END;
+                    }
+                    break;
+                case CHUNK_SIZE:
+                    p = parseChunkSize(p, hi);
+                    break;
+                case CHUNK_EXTENSION:
+                    // extensions are ignored
+                    if (Unsafe.getUnsafe().getByte(p++) == '\n') {
+                        onChunkSizeEnd();
+                    }
+                    break;
+                case CHUNK_DATA_END:
+                    final byte b = Unsafe.getUnsafe().getByte(p++);
+                    if (b == '\n') {
+                        state = CHUNK_SIZE;
+                    } else if (b != '\r') {
+                        throw HttpException.instance("malformed chunk, CRLF expected after chunk data");
+                    }
+                    break;
+                case TRAILER:
+                    p = parseTrailer(p, hi);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (state == DONE) {
+            listener.onContentEnd();
+            return true;
+        }
+        return false;
+    }
+
+    private void onChunkSizeEnd() {
+        if (!sizeDigits) {
+            throw HttpException.instance("malformed chunk, size expected");
+        }
+        sizeDigits = false;
+        // last chunk is followed by optional trailer headers and empty line
+        state = remaining > 0 ? CHUNK_DATA : TRAILER;
+    }
+
+    private long parseChunkSize(long p, long hi) {
+        while (p < hi) {
+            final byte b = Unsafe.getUnsafe().getByte(p++);
+            final int digit;
+            if (b >= '0' && b <= '9') {
+                digit = b - '0';
+            } else if (b >= 'a' && b <= 'f') {
+                digit = b - 'a' + 10;
+            } else if (b >= 'A' && b <= 'F') {
+                digit = b - 'A' + 10;
+            } else if (b == ';' || b == ' ' || b == '\t' || b == '\r') {
+                state = CHUNK_EXTENSION;
+                return p;
+            } else if (b == '\n') {
+                onChunkSizeEnd();
+                return p;
+            } else {
+                throw HttpException.instance("malformed chunk size");
+            }
+
+            if (remaining > MAX_CHUNK_SIZE) {
+                throw HttpException.instance("chunk is too large");
+            }
+            remaining = (remaining << 4) | digit;
+            sizeDigits = true;
+        }
+        return p;
+    }
+
+    private long parseTrailer(long p, long hi) {
+        while (p < hi) {
+            final byte b = Unsafe.getUnsafe().getByte(p++);
+            if (b == '\n') {
+                if (trailerLineEmpty) {
+                    state = DONE;
+                    return p;
+                }
+                trailerLineEmpty = true;
+            } else if (b != '\r') {
+                trailerLineEmpty = false;
+            }
+        }
+        return p;
+    }
+}
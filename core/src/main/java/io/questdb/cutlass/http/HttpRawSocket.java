@@ -26,6 +26,7 @@ package io.questdb.cutlass.http;
 
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.std.FilesFacade;
 
 public interface HttpRawSocket {
     long getBufferAddress();
@@ -33,4 +34,19 @@ public interface HttpRawSocket {
     int getBufferSize();
 
     void send(int size) throws PeerDisconnectedException, PeerIsSlowToReadException;
+
+    /**
+     * Sends region of a file to the peer. Where OS supports it bytes go from file to socket
+     * without being copied into the send buffer, otherwise file is read into the send buffer.
+     * Method returns early when peer is slow to read, return value then accounts only for the
+     * bytes that reached the socket.
+     *
+     * @param ff     files facade to read file with when zero-copy send is unavailable
+     * @param fileFd file descriptor
+     * @param offset offset in the file to send from
+     * @param len    number of bytes to send
+     * @return number of bytes of the file consumed, less than len when peer is slow to read
+     * @throws PeerDisconnectedException when peer disconnected or file could not be read
+     */
+    long sendFile(FilesFacade ff, long fileFd, long offset, long len) throws PeerDisconnectedException;
 }
@@ -63,6 +63,7 @@ public class HttpResponseSink implements Closeable, Mutable {
     private final int responseBufferSize;
     private final boolean dumpNetworkTraffic;
     private final String httpVersion;
+    private final int deflateLevel;
     private long fd;
     private long z_streamp = 0;
     private boolean deflateBeforeSend = false;
@@ -84,6 +85,7 @@ public class HttpResponseSink implements Closeable, Mutable {
         this.dumpNetworkTraffic = configuration.getDumpNetworkTraffic();
         this.httpVersion = configuration.getHttpVersion();
         this.connectionCloseHeader = !configuration.getServerKeepAlive();
+        this.deflateLevel = configuration.getDeflateLevel();
     }
 
     public HttpChunkedResponseSocket getChunkedSocket() {
@@ -113,7 +115,7 @@ public class HttpResponseSink implements Closeable, Mutable {
     public void setDeflateBeforeSend(boolean deflateBeforeSend) {
         this.deflateBeforeSend = deflateBeforeSend;
         if (z_streamp == 0 && deflateBeforeSend) {
-            z_streamp = Zip.deflateInit();
+            z_streamp = Zip.deflateInit(deflateLevel);
             compressOutBuffer = new ChunkBuffer(responseBufferSize);
         }
     }
@@ -516,6 +518,51 @@ public class HttpResponseSink implements Closeable, Mutable {
             flushSingle();
             buffer.clearAndPrepareToWriteToBuffer();
         }
+
+        @Override
+        public long sendFile(FilesFacade ff, long fileFd, long offset, long len) throws PeerDisconnectedException {
+            long sent = 0;
+            if (nf.isSendFileSupported()) {
+                while (sent < len) {
+                    final long n = nf.sendFile(fd, fileFd, offset + sent, len - sent);
+                    if (n < 0) {
+                        LOG.error()
+                                .$("disconnected [errno=").$(nf.errno())
+                                .$(", fd=").$(fd)
+                                .$(']').$();
+                        throw PeerDisconnectedException.INSTANCE;
+                    }
+                    if (n == 0) {
+                        break;
+                    }
+                    sent += n;
+                    totalBytesSent += n;
+                }
+                return sent;
+            }
+
+            try {
+                while (sent < len) {
+                    final long n = ff.read(fileFd, getBufferAddress(), Math.min(len - sent, getBufferSize()), offset + sent);
+                    if (n <= 0) {
+                        LOG.error()
+                                .$("could not read file [errno=").$(ff.errno())
+                                .$(", fd=").$(fd)
+                                .$(", fileFd=").$(fileFd)
+                                .$(", offset=").$(offset + sent)
+                                .$(']').$();
+                        throw PeerDisconnectedException.INSTANCE;
+                    }
+                    sent += n;
+                    send((int) n);
+                }
+            } catch (PeerIsSlowToReadException e) {
+                // drop what socket did not take, it is read from the file again when send resumes
+                sent -= buffer.getReadNAvailable();
+                buffer.clearAndPrepareToWriteToBuffer();
+            }
+            return sent;
+        }
     }
 
     private class ChunkedResponseImpl extends ResponseSinkImpl implements HttpChunkedResponseSocket {
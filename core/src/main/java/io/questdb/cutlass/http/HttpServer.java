@@ -28,8 +28,11 @@ import io.questdb.Metrics;
 import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
+import io.questdb.cairo.ColumnUpdateJob;
 import io.questdb.cutlass.http.processors.*;
 import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
 import io.questdb.log.Log;
@@ -57,7 +60,7 @@ public class HttpServer implements Closeable {
     private final HttpContextFactory httpContextFactory;
     private final WorkerPool workerPool;
     private final WaitProcessor rescheduleContext;
-
+    private AsyncQueryExecutor asyncQueryExecutor;
 
     public HttpServer(HttpMinServerConfiguration configuration, WorkerPool pool, boolean localPool) {
         this.workerCount = pool.getWorkerCount();
@@ -139,6 +142,18 @@ public class HttpServer implements Closeable {
             }
         });
 
+        server.bind(new HttpRequestProcessorFactory() {
+            @Override
+            public HttpRequestProcessor newInstance() {
+                return new LineHttpProcessor(cairoEngine);
+            }
+
+            @Override
+            public String getUrl() {
+                return "/write";
+            }
+        });
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public HttpRequestProcessor newInstance() {
@@ -156,6 +171,18 @@ public class HttpServer implements Closeable {
             }
         });
 
+        server.bind(new HttpRequestProcessorFactory() {
+            @Override
+            public HttpRequestProcessor newInstance() {
+                return new ColumnExportProcessor(cairoEngine, configuration);
+            }
+
+            @Override
+            public String getUrl() {
+                return "/exp/column";
+            }
+        });
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public HttpRequestProcessor newInstance() {
@@ -182,6 +209,7 @@ public class HttpServer implements Closeable {
 
         // jobs that help parallel execution of queries
         workerPool.assign(new ColumnIndexerJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new ColumnUpdateJob(cairoEngine.getMessageBus()));
         workerPool.assign(new GroupByJob(cairoEngine.getMessageBus()));
         workerPool.assign(new LatestByAllIndexedJob(cairoEngine.getMessageBus()));
     }
@@ -265,6 +293,8 @@ public class HttpServer implements Closeable {
         Misc.free(httpContextFactory);
         Misc.free(dispatcher);
         Misc.free(rescheduleContext);
+        // connections are closed by now, tasks they abandoned are freed by the query pool
+        asyncQueryExecutor = Misc.free(asyncQueryExecutor);
     }
 
     private static HttpServer create0(
@@ -277,13 +307,31 @@ public class HttpServer implements Closeable {
     ) {
         final HttpServer s = new HttpServer(configuration, workerPool, localPool);
         QueryCache.configure(configuration);
+        final AsyncQueryExecutor asyncQueryExecutor;
+        if (configuration.getQueryWorkerPoolConfiguration().getWorkerCount() > 0) {
+            asyncQueryExecutor = new AsyncQueryExecutor(
+                    configuration.getQueryWorkerPoolConfiguration(),
+                    configuration.getJsonQueryProcessorConfiguration(),
+                    cairoEngine,
+                    workerPool.getWorkerCount()
+            );
+            metrics.addAsyncQueryGauges(asyncQueryExecutor);
+            s.asyncQueryExecutor = asyncQueryExecutor;
+        } else {
+            asyncQueryExecutor = null;
+        }
         HttpRequestProcessorBuilder jsonQueryProcessorBuilder = () -> new JsonQueryProcessor(
                 configuration.getJsonQueryProcessorConfiguration(),
                 cairoEngine,
-                workerPool.getWorkerCount(),
-                functionFactoryCache,
-                metrics);
+                new SqlCompiler(cairoEngine, functionFactoryCache),
+                metrics,
+                new SqlExecutionContextImpl(cairoEngine, workerPool.getWorkerCount()),
+                asyncQueryExecutor
+        );
         addDefaultEndpoints(s, configuration, cairoEngine, workerPool, jsonQueryProcessorBuilder, functionFactoryCache);
+        if (asyncQueryExecutor != null) {
+            asyncQueryExecutor.start(LOG);
+        }
         return s;
     }
 
@@ -27,6 +27,7 @@ package io.questdb.cutlass.http;
 import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
+import io.questdb.mp.WorkerPoolConfiguration;
 
 public interface HttpServerConfiguration extends WorkerPoolAwareConfiguration, HttpMinServerConfiguration {
     String DEFAULT_PROCESSOR_URL = "*";
@@ -39,6 +40,12 @@ public interface HttpServerConfiguration extends WorkerPoolAwareConfiguration, H
 
     int getQueryCacheRows();
 
+    /**
+     * @return configuration of the pool, which executes expensive JSON queries; pool
+     * without workers disables asynchronous query execution
+     */
+    WorkerPoolConfiguration getQueryWorkerPoolConfiguration();
+
     WaitProcessorConfiguration getWaitProcessorConfiguration();
 
     StaticContentProcessorConfiguration getStaticContentProcessorConfiguration();
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.log.Log;
+import io.questdb.mp.*;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens cursors of expensive queries on a dedicated worker pool, so that HTTP workers
+ * remain available to cheap queries while aggregations, sorts and joins are being
+ * materialized. HTTP connection is parked while the query runs and polls for the
+ * result via the retry mechanism, records are then streamed by HTTP worker as usual.
+ * <p>
+ * Query is considered expensive once opening its cursor took longer than the threshold.
+ * Such queries are remembered by their text and are executed asynchronously next time.
+ * Query that turns out to be fast again is forgotten. Zero threshold sends all
+ * queries to the pool.
+ */
+public class AsyncQueryExecutor implements Closeable {
+    // history is reset once it grows to this size to keep memory bounded
+    private static final int SLOW_QUERY_HISTORY_CAPACITY = 1024;
+    private final RingQueue<Entry> queue;
+    private final MPSequence pubSeq;
+    private final MCSequence subSeq;
+    private final WorkerPool workerPool;
+    private final ObjList<QueryJob> jobs = new ObjList<>();
+    private final ConcurrentHashMap<Boolean> slowQueries = new ConcurrentHashMap<>();
+    private final NanosecondClock clock;
+    private final long thresholdNanos;
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong queueMicros = new AtomicLong();
+    private final AtomicLong executeMicros = new AtomicLong();
+    private final CairoEngine engine;
+    private final int sharedWorkerCount;
+    private final SqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration;
+
+    public AsyncQueryExecutor(
+            WorkerPoolConfiguration workerPoolConfiguration,
+            JsonQueryProcessorConfiguration configuration,
+            CairoEngine engine,
+            int sharedWorkerCount
+    ) {
+        final int queueCapacity = configuration.getAsyncQueryQueueCapacity();
+        this.queue = new RingQueue<>(Entry::new, queueCapacity);
+        this.pubSeq = new MPSequence(queueCapacity);
+        this.subSeq = new MCSequence(queueCapacity);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        this.engine = engine;
+        this.sharedWorkerCount = sharedWorkerCount;
+        this.circuitBreakerConfiguration = configuration.getCircuitBreakerConfiguration();
+        this.clock = engine.getConfiguration().getNanosecondClock();
+        this.thresholdNanos = configuration.getAsyncQueryThreshold() * 1_000_000L;
+        this.workerPool = new WorkerPool(workerPoolConfiguration);
+        for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
+            final QueryJob job = new QueryJob();
+            jobs.add(job);
+            workerPool.assign(i, job);
+        }
+        workerPool.assignCleaner(Path.CLEANER);
+    }
+
+    @Override
+    public void close() {
+        workerPool.halt();
+        // tasks that did not get to run release connections with an error
+        long cursor;
+        while ((cursor = subSeq.next()) > -1) {
+            final Entry entry = queue.get(cursor);
+            final AsyncQueryTask task = entry.task;
+            entry.task = null;
+            subSeq.done(cursor);
+            pendingCount.decrementAndGet();
+            task.reject("query pool is closed");
+        }
+        jobs.clear();
+    }
+
+    public long getExecuteMicros() {
+        return executeMicros.get();
+    }
+
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getQueueMicros() {
+        return queueMicros.get();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public void start(Log log) {
+        workerPool.start(log);
+    }
+
+    boolean isSlow(CharSequence query) {
+        return thresholdNanos == 0 || slowQueries.get(query) != null;
+    }
+
+    /**
+     * Creates task for a connection. Task owns execution context and circuit breaker, which
+     * the cursor it opens keeps using while connection streams it.
+     */
+    AsyncQueryTask newTask() {
+        return new AsyncQueryTask(engine, sharedWorkerCount, circuitBreakerConfiguration);
+    }
+
+    void onExecuted(CharSequence query, long nanos) {
+        if (thresholdNanos == 0) {
+            return;
+        }
+        if (nanos >= thresholdNanos) {
+            if (slowQueries.get(query) == null) {
+                if (slowQueries.size() >= SLOW_QUERY_HISTORY_CAPACITY) {
+                    slowQueries.clear();
+                }
+                slowQueries.putIfAbsent(Chars.toString(query), Boolean.TRUE);
+            }
+        } else if (slowQueries.get(query) != null) {
+            slowQueries.remove(query);
+        }
+    }
+
+    boolean submit(
+            AsyncQueryTask task,
+            CharSequence query,
+            RecordCursorFactory factory,
+            CairoSecurityContext securityContext,
+            Rnd rnd,
+            long fd
+    ) {
+        while (true) {
+            final long cursor = pubSeq.next();
+            // -2 = there was a contest for queue index and this thread has lost
+            if (cursor < -1) {
+                continue;
+            }
+
+            // -1 = queue is full, caller runs the query itself
+            if (cursor < 0) {
+                return false;
+            }
+
+            task.of(query, factory, securityContext, rnd, fd, clock.getTicks());
+            queue.get(cursor).task = task;
+            submittedCount.incrementAndGet();
+            pendingCount.incrementAndGet();
+            pubSeq.done(cursor);
+            return true;
+        }
+    }
+
+    private static class Entry {
+        private AsyncQueryTask task;
+    }
+
+    private class QueryJob implements Job {
+        @Override
+        public boolean run(int workerId) {
+            final long cursor = subSeq.next();
+            if (cursor < 0) {
+                return false;
+            }
+
+            final Entry entry = queue.get(cursor);
+            final AsyncQueryTask task = entry.task;
+            entry.task = null;
+            subSeq.done(cursor);
+
+            final long startNanos = clock.getTicks();
+            task.run(startNanos);
+            final long executeNanos = clock.getTicks() - startNanos;
+            task.setExecuteNanos(executeNanos);
+            queueMicros.addAndGet(task.getQueueNanos() / 1000);
+            executeMicros.addAndGet(executeNanos / 1000);
+            onExecuted(task.getQuery(), executeNanos);
+            pendingCount.decrementAndGet();
+            // task is handed over to the connection, it must not be touched after this call
+            task.complete();
+            return true;
+        }
+    }
+}
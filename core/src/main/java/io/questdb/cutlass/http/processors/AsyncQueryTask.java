@@ -0,0 +1,267 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoError;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.EntryUnavailableException;
+import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.NetworkSqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.std.Misc;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cursor of a query, which is opened on query worker pool while HTTP connection is parked.
+ * Task is owned by the connection state until it is submitted. After submission the
+ * factory and the cursor belong to whichever side observes the final status: query
+ * worker frees them when connection had abandoned the task, otherwise they are handed
+ * over to the connection state.
+ * <p>
+ * Cursors such as union, sample by and page frame sequences keep the execution context and
+ * its circuit breaker for their whole life, they are consulted while records are streamed on
+ * HTTP worker. This is why every task has its own context and circuit breaker rather than
+ * borrowing those of the query worker, which moves on to other tasks.
+ * <p>
+ * Exceptions thrown by the cursor are thread-local flyweights, this is why the task copies
+ * their content and re-creates them on HTTP worker thread.
+ */
+class AsyncQueryTask implements Closeable {
+    static final int STATUS_IDLE = 0;
+    static final int STATUS_QUEUED = 1;
+    static final int STATUS_DONE = 2;
+    static final int STATUS_ABANDONED = 3;
+    private static final int ERROR_NONE = 0;
+    private static final int ERROR_SQL = 1;
+    private static final int ERROR_CAIRO = 2;
+    private static final int ERROR_ENTRY_UNAVAILABLE = 3;
+    private static final int ERROR_READER_OUT_OF_DATE = 4;
+    private static final int ERROR_OTHER = 5;
+    private final AtomicInteger status = new AtomicInteger(STATUS_IDLE);
+    private final StringSink query = new StringSink();
+    private final StringSink errorMessage = new StringSink();
+    private final SqlExecutionContextImpl executionContext;
+    private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
+    private RecordCursorFactory factory;
+    private RecordCursor cursor;
+    private CairoSecurityContext securityContext;
+    private Rnd rnd;
+    private long fd;
+    private long enqueueNanos;
+    private long queueNanos;
+    private long executeNanos;
+    private int errorKind = ERROR_NONE;
+    private int errorPosition;
+    private int errno;
+    private boolean interruption;
+    private boolean cacheable;
+    private Throwable otherError;
+
+    AsyncQueryTask(CairoEngine engine, int sharedWorkerCount, SqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration) {
+        this.executionContext = new SqlExecutionContextImpl(engine, sharedWorkerCount);
+        this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(circuitBreakerConfiguration);
+    }
+
+    @Override
+    public void close() {
+        free();
+        Misc.free(circuitBreaker);
+    }
+
+    /**
+     * Called by connection state when it no longer waits for the task.
+     *
+     * @return true when query worker is still running the task and will free
+     * its resources, false when the caller has to free them
+     */
+    boolean abandon() {
+        return status.compareAndSet(STATUS_QUEUED, STATUS_ABANDONED);
+    }
+
+    /**
+     * Called by query worker when it is done with the task or when the task is
+     * discarded from the queue without running.
+     */
+    void complete() {
+        if (!status.compareAndSet(STATUS_QUEUED, STATUS_DONE)) {
+            // connection is gone, nobody is going to pick up the result
+            close();
+        }
+    }
+
+    void clear() {
+        status.set(STATUS_IDLE);
+        securityContext = null;
+        rnd = null;
+    }
+
+    void free() {
+        cursor = Misc.free(cursor);
+        factory = Misc.free(factory);
+        securityContext = null;
+        rnd = null;
+        otherError = null;
+    }
+
+    long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    long getQueueNanos() {
+        return queueNanos;
+    }
+
+    CharSequence getQuery() {
+        return query;
+    }
+
+    boolean isDone() {
+        return status.get() == STATUS_DONE;
+    }
+
+    boolean isReaderOutOfDate() {
+        return errorKind == ERROR_READER_OUT_OF_DATE;
+    }
+
+    void of(
+            CharSequence query,
+            RecordCursorFactory factory,
+            CairoSecurityContext securityContext,
+            Rnd rnd,
+            long fd,
+            long enqueueNanos
+    ) {
+        this.query.clear();
+        this.query.put(query);
+        this.factory = factory;
+        this.cursor = null;
+        this.securityContext = securityContext;
+        this.rnd = rnd;
+        this.fd = fd;
+        this.enqueueNanos = enqueueNanos;
+        this.queueNanos = 0;
+        this.executeNanos = 0;
+        this.errorKind = ERROR_NONE;
+        this.otherError = null;
+        status.set(STATUS_QUEUED);
+    }
+
+    void reject(CharSequence message) {
+        errorKind = ERROR_CAIRO;
+        errno = 0;
+        interruption = true;
+        cacheable = true;
+        errorMessage.clear();
+        errorMessage.put(message);
+        complete();
+    }
+
+    void run(long startNanos) {
+        queueNanos = startNanos - enqueueNanos;
+        executionContext.with(securityContext, null, rnd, fd, circuitBreaker.of(fd));
+        try {
+            cursor = factory.getCursor(executionContext);
+        } catch (SqlException e) {
+            errorKind = ERROR_SQL;
+            errorPosition = e.getPosition();
+            copyMessage(e.getFlyweightMessage());
+        } catch (ReaderOutOfDateException e) {
+            errorKind = ERROR_READER_OUT_OF_DATE;
+            copyMessage(e.getFlyweightMessage());
+        } catch (EntryUnavailableException e) {
+            errorKind = ERROR_ENTRY_UNAVAILABLE;
+            copyMessage(e.getFlyweightMessage());
+        } catch (CairoException e) {
+            errorKind = ERROR_CAIRO;
+            errno = e.getErrno();
+            interruption = e.isInterruption();
+            cacheable = e.isCacheable();
+            copyMessage(e.getFlyweightMessage());
+        } catch (RuntimeException | Error e) {
+            errorKind = ERROR_OTHER;
+            otherError = e;
+        } catch (Throwable e) {
+            errorKind = ERROR_OTHER;
+            otherError = new CairoError(e);
+        }
+    }
+
+    void setExecuteNanos(long executeNanos) {
+        this.executeNanos = executeNanos;
+    }
+
+    /**
+     * Hands the factory over to the caller, which becomes responsible for freeing it.
+     */
+    RecordCursorFactory takeFactory() {
+        final RecordCursorFactory factory = this.factory;
+        this.factory = null;
+        return factory;
+    }
+
+    /**
+     * Hands the cursor over to the caller or re-throws the exception the query worker
+     * caught opening it. Must be called after {@link #takeFactory()} so that factory
+     * is not lost when cursor failed.
+     */
+    RecordCursor takeCursor() throws SqlException {
+        clear();
+        final RecordCursor cursor = this.cursor;
+        this.cursor = null;
+        switch (errorKind) {
+            case ERROR_SQL:
+                throw SqlException.$(errorPosition, errorMessage);
+            case ERROR_ENTRY_UNAVAILABLE:
+                throw EntryUnavailableException.instance(errorMessage);
+            case ERROR_CAIRO:
+                throw CairoException.instance(errno).put(errorMessage).setInterruption(interruption).setCacheable(cacheable);
+            case ERROR_OTHER:
+                final Throwable e = otherError;
+                otherError = null;
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+                throw (RuntimeException) e;
+            default:
+                return cursor;
+        }
+    }
+
+    private void copyMessage(CharSequence message) {
+        errorMessage.clear();
+        errorMessage.put(message);
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.vm.api.MemoryM;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.cutlass.http.*;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.std.Chars;
+import io.questdb.std.Misc;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Streams raw column file of a single table partition, e.g.
+ * <pre>
+ *     GET /exp/column?table=trades&amp;partition=2022-03-01&amp;column=price
+ * </pre>
+ * Response body is column data exactly as it is stored on disk, little-endian values of fixed
+ * size. Data is sent from the column file straight to the socket, without being copied through
+ * the send buffer where OS supports it. Rows that precede column top are not part of the file;
+ * their count, as well as column type and partition row count, are returned in response headers.
+ * Non-partitioned tables have single partition called "default".
+ */
+public class ColumnExportProcessor implements HttpRequestProcessor {
+    private static final Log LOG = LogFactory.getLog(ColumnExportProcessor.class);
+    private static final LocalValue<ColumnExportProcessorState> LV = new LocalValue<>();
+    private final CairoEngine engine;
+    private final String keepAliveHeader;
+    private final String httpProtocolVersion;
+    private final StringSink partitionName = new StringSink();
+
+    public ColumnExportProcessor(CairoEngine engine, HttpServerConfiguration configuration) {
+        this.engine = engine;
+        this.keepAliveHeader = Chars.toString(configuration.getJsonQueryProcessorConfiguration().getKeepAliveHeader());
+        this.httpProtocolVersion = configuration.getHttpContextConfiguration().getHttpVersion();
+    }
+
+    @Override
+    public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final HttpRequestHeader header = context.getRequestHeader();
+        final CharSequence tableName = header.getUrlParam("table");
+        final CharSequence columnName = header.getUrlParam("column");
+        final CharSequence partition = header.getUrlParam("partition");
+        if (tableName == null || columnName == null || partition == null) {
+            context.simpleResponse().sendStatus(400, "table, column and partition parameters are required");
+            return;
+        }
+
+        ColumnExportProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new ColumnExportProcessorState());
+        }
+
+        final TableReader reader;
+        try {
+            reader = engine.getReader(context.getCairoSecurityContext(), tableName);
+        } catch (CairoException e) {
+            LOG.info().$("could not open reader [table=").$(tableName).$(", error=").$(e.getFlyweightMessage()).I$();
+            context.simpleResponse().sendStatus(404, "table does not exist");
+            return;
+        }
+        state.reader = reader;
+
+        final int columnIndex = reader.getMetadata().getColumnIndexQuiet(columnName);
+        if (columnIndex < 0) {
+            context.simpleResponse().sendStatus(404, "column does not exist");
+            return;
+        }
+
+        final int columnType = reader.getMetadata().getColumnType(columnIndex);
+        if (ColumnType.isVariableLength(columnType)) {
+            context.simpleResponse().sendStatus(400, "only fixed size columns can be exported");
+            return;
+        }
+
+        final int partitionIndex = findPartition(reader, partition);
+        if (partitionIndex < 0) {
+            context.simpleResponse().sendStatus(404, "partition does not exist");
+            return;
+        }
+
+        final long rowCount;
+        final long columnTop;
+        try {
+            rowCount = Math.max(reader.openPartition(partitionIndex), 0);
+            final int columnBase = reader.getColumnBase(partitionIndex);
+            columnTop = rowCount > 0 ? reader.getColumnTop(columnBase, columnIndex) : 0;
+            final MemoryR column = reader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, columnIndex));
+            state.fd = column instanceof MemoryM ? ((MemoryM) column).getFd() : -1;
+        } catch (CairoException e) {
+            LOG.error().$("could not open partition [table=").$(tableName)
+                    .$(", partition=").$(partition)
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+            context.simpleResponse().sendStatus(500, "could not open partition");
+            return;
+        }
+
+        // column that was added after partition had been written has no file
+        final long exportedTop = state.fd == -1 ? rowCount : columnTop;
+        state.bytesSent = 0;
+        state.sendMax = (rowCount - exportedTop) << ColumnType.pow2SizeOf(columnType);
+
+        final HttpResponseHeader responseHeader = context.getResponseHeader();
+        responseHeader.status(httpProtocolVersion, 200, "application/octet-stream", state.sendMax);
+        responseHeader.put("X-QuestDB-Column-Type: ").put(ColumnType.nameOf(columnType)).put(Misc.EOL);
+        responseHeader.put("X-QuestDB-Row-Count: ").put(rowCount).put(Misc.EOL);
+        responseHeader.put("X-QuestDB-Column-Top: ").put(exportedTop).put(Misc.EOL);
+        responseHeader.setKeepAlive(keepAliveHeader);
+        responseHeader.send();
+        resumeSend(context);
+    }
+
+    @Override
+    public void resumeSend(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final ColumnExportProcessorState state = LV.get(context);
+        if (state == null || state.bytesSent >= state.sendMax) {
+            return;
+        }
+
+        state.bytesSent += context.getRawResponseSocket().sendFile(
+                engine.getConfiguration().getFilesFacade(),
+                state.fd,
+                state.bytesSent,
+                state.sendMax - state.bytesSent
+        );
+        if (state.bytesSent < state.sendMax) {
+            throw PeerIsSlowToReadException.INSTANCE;
+        }
+    }
+
+    private int findPartition(TableReader reader, CharSequence partition) {
+        for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+            partitionName.clear();
+            PartitionBy.setSinkForPartition(partitionName, reader.getPartitionedBy(), reader.getPartitionTimestampByIndex(i), false);
+            if (Chars.equals(partitionName, partition)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+class ColumnExportProcessorState implements Mutable, Closeable {
+    // reader pins partition version for the duration of the export and owns column fd
+    TableReader reader;
+    long fd = -1;
+    long bytesSent;
+    long sendMax;
+
+    @Override
+    public void clear() {
+        reader = Misc.free(reader);
+        fd = -1;
+        bytesSent = 0;
+        sendMax = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+}
@@ -29,9 +29,15 @@ import io.questdb.metrics.MetricsRegistry;
 
 public class JsonQueryMetrics {
     private final Counter queriesCounter;
+    private final Counter asyncQueriesCounter;
 
     public JsonQueryMetrics(MetricsRegistry metricsRegistry) {
         this.queriesCounter = metricsRegistry.newCounter("json_queries");
+        this.asyncQueriesCounter = metricsRegistry.newCounter("json_queries_async");
+    }
+
+    public void markAsyncStart() {
+        asyncQueriesCounter.inc();
     }
 
     public void markStart() {
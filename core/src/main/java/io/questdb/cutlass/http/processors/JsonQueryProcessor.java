@@ -30,6 +30,7 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoError;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.EntryUnavailableException;
+import io.questdb.cairo.QueryAdmissionController;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.http.*;
@@ -63,6 +64,9 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final Metrics metrics;
     private final long alterStartTimeout;
     private final long alterStartFullTimeoutNs;
+    private final AsyncQueryExecutor asyncQueryExecutor;
+    private final QueryAdmissionController admissionController;
+    private final long admissionQueueTimeoutNs;
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
@@ -89,6 +93,17 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             SqlCompiler sqlCompiler,
             Metrics metrics,
             SqlExecutionContextImpl sqlExecutionContext
+    ) {
+        this(configuration, engine, sqlCompiler, metrics, sqlExecutionContext, null);
+    }
+
+    public JsonQueryProcessor(
+            JsonQueryProcessorConfiguration configuration,
+            CairoEngine engine,
+            SqlCompiler sqlCompiler,
+            Metrics metrics,
+            SqlExecutionContextImpl sqlExecutionContext,
+            @Nullable AsyncQueryExecutor asyncQueryExecutor
     ) {
         this.configuration = configuration;
         this.compiler = sqlCompiler;
@@ -106,12 +121,16 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.queryExecutors.extendAndSet(CompiledQuery.INSERT_AS_SELECT, sendConfirmation);
         this.queryExecutors.extendAndSet(CompiledQuery.COPY_REMOTE, JsonQueryProcessor::cannotCopyRemote);
         this.queryExecutors.extendAndSet(CompiledQuery.BACKUP_TABLE, sendConfirmation);
+        this.queryExecutors.extendAndSet(CompiledQuery.UPDATE, sendConfirmation);
         this.sqlExecutionContext = sqlExecutionContext;
         this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(configuration.getCircuitBreakerConfiguration());
         this.metrics = metrics;
         this.alterStartTimeout = engine.getConfiguration().getWriterAsyncCommandBusyWaitTimeout();
         this.alterStartFullTimeoutNs = engine.getConfiguration().getWriterAsyncCommandMaxTimeout() * 1000;
+        this.asyncQueryExecutor = asyncQueryExecutor;
+        this.admissionController = engine.getQueryAdmissionController();
+        this.admissionQueueTimeoutNs = admissionController.getQueueTimeout() * 1_000_000L;
     }
 
     @Override
@@ -126,22 +145,32 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         QueryFuture continueExecution = state.getContinueExecution();
         final HttpConnectionContext context = state.getHttpConnectionContext();
 
-        if (continueExecution == null) {
-            metrics.jsonQuery().markStart();
-            state.startExecutionTimer();
-            // do not set random for new request to avoid copying random from previous request into next one
-            // the only time we need to copy random from state is when we resume request execution
-            sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
-            state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
+        if (continueExecution == null && !state.isAsyncExecution()) {
+            if (state.isAdmissionQueued()) {
+                // query is waiting for admission, this worker's context has to be set up again
+                sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+            } else {
+                metrics.jsonQuery().markStart();
+                state.startExecutionTimer();
+                // do not set random for new request to avoid copying random from previous request into next one
+                // the only time we need to copy random from state is when we resume request execution
+                sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+                state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
+            }
         }
 
-        final RecordCursorFactory factory = QueryCache.getInstance().poll(state.getQuery());
         try {
             if (continueExecution != null) {
                 retryQueryExecution(state, continueExecution);
                 return;
             }
 
+            if (state.isAsyncExecution()) {
+                resumeAsyncSelect(state, configuration.getKeepAliveHeader());
+                return;
+            }
+
+            final RecordCursorFactory factory = QueryCache.getInstance().poll(state.getQuery());
             if (factory != null) {
                 try {
                     sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
@@ -167,7 +196,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         } catch (CairoError | CairoException e) {
             internalError(context.getChunkedResponseSocket(), e.getFlyweightMessage(), e, state);
             readyForNextRequest(context);
-        } catch (PeerIsSlowToReadException | PeerDisconnectedException e) {
+        } catch (PeerIsSlowToReadException | PeerDisconnectedException | RetryOperationException e) {
             // re-throw the exception
             throw e;
         } catch (Throwable e) {
@@ -176,6 +205,62 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
+    private void resumeAsyncSelect(
+            JsonQueryProcessorState state,
+            CharSequence keepAliveHeader
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        final AsyncQueryTask task = state.getAsyncTask(asyncQueryExecutor);
+        if (!task.isDone()) {
+            // query worker has not opened the cursor yet, keep the connection parked
+            throw RetryOperationException.INSTANCE;
+        }
+        state.setAsyncExecution(false);
+        state.info().$("async query done [queueTimeMicros=").$(task.getQueueNanos() / 1000)
+                .$(", executeTimeMicros=").$(task.getExecuteNanos() / 1000).$(']').$();
+
+        final HttpConnectionContext context = state.getHttpConnectionContext();
+        final RecordCursorFactory factory = task.takeFactory();
+        if (task.isReaderOutOfDate()) {
+            task.clear();
+            LOG.info().$("cached factory is out of date, recompiling [fd=").$(context.getFd()).$(']').$();
+            Misc.free(factory);
+            // this worker may have served other connections while the query was running
+            sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+            compileQuery(state);
+            return;
+        }
+
+        try {
+            if (state.of(factory, task)) {
+                header(context.getChunkedResponseSocket(), keepAliveHeader);
+                doResumeSend(state, context);
+            } else {
+                readyForNextRequest(context);
+            }
+        } catch (CairoException ex) {
+            state.setQueryCacheable(ex.isCacheable());
+            throw ex;
+        }
+    }
+
+    private boolean submitAsyncSelect(JsonQueryProcessorState state, RecordCursorFactory factory) {
+        final HttpConnectionContext context = state.getHttpConnectionContext();
+        if (asyncQueryExecutor.submit(
+                state.getAsyncTask(asyncQueryExecutor),
+                state.getQuery(),
+                factory,
+                context.getCairoSecurityContext(),
+                state.getRnd(),
+                context.getFd()
+        )) {
+            state.setAsyncExecution(true);
+            metrics.jsonQuery().markAsyncStart();
+            state.info().$("async exec [q='").utf8(state.getQuery()).$("']").$();
+            return true;
+        }
+        return false;
+    }
+
     private void retryQueryExecution(JsonQueryProcessorState state, QueryFuture continueExecution) throws SqlException, PeerIsSlowToReadException, PeerDisconnectedException {
         if (continueExecution.await(0) != QueryFuture.QUERY_COMPLETE) {
             if (state.getExecutionTime() < alterStartFullTimeoutNs) {
@@ -426,9 +511,24 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             RecordCursorFactory factory,
             CharSequence keepAliveHeader
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        if (!admit(state, factory)) {
+            // factory waits in the query cache while the connection is parked
+            QueryCache.getInstance().push(state.getQuery(), factory);
+            throw RetryOperationException.INSTANCE;
+        }
+
+        if (asyncQueryExecutor != null && asyncQueryExecutor.isSlow(state.getQuery()) && submitAsyncSelect(state, factory)) {
+            // connection is parked until query worker opens the cursor
+            throw RetryOperationException.INSTANCE;
+        }
+
         final HttpConnectionContext context = state.getHttpConnectionContext();
         try {
+            final long nanos = nanosecondClock.getTicks();
             if (state.of(factory, sqlExecutionContext)) {
+                if (asyncQueryExecutor != null) {
+                    asyncQueryExecutor.onExecuted(state.getQuery(), nanosecondClock.getTicks() - nanos);
+                }
                 header(context.getChunkedResponseSocket(), keepAliveHeader);
                 doResumeSend(state, context);
             } else {
@@ -440,6 +540,34 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
+    private boolean admit(JsonQueryProcessorState state, RecordCursorFactory factory) {
+        if (state.isAdmitted()) {
+            // recompiled after reader went out of date
+            return true;
+        }
+
+        if (admissionController.tryAcquire(QueryAdmissionController.WORKLOAD_INTERACTIVE)) {
+            if (state.isAdmissionQueued()) {
+                state.info().$("admitted [queueTimeMicros=").$(state.getAdmissionQueueTime() / 1000).$(']').$();
+            }
+            state.onAdmitted(admissionController);
+            return true;
+        }
+
+        if (state.isAdmissionQueued()) {
+            if (state.getAdmissionQueueTime() < admissionQueueTimeoutNs) {
+                return false;
+            }
+            state.leaveAdmissionQueue();
+        } else if (admissionController.enqueue(QueryAdmissionController.WORKLOAD_INTERACTIVE)) {
+            state.onAdmissionQueued(admissionController);
+            state.info().$("queued by admission control [q='").utf8(state.getQuery()).$("']").$();
+            return false;
+        }
+        QueryCache.getInstance().push(state.getQuery(), factory);
+        throw admissionController.reject(QueryAdmissionController.WORKLOAD_INTERACTIVE);
+    }
+
     private void internalError(
             HttpChunkedResponseSocket socket,
             CharSequence message,
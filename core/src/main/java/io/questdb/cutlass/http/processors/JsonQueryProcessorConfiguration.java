@@ -30,6 +30,14 @@ import io.questdb.std.datetime.millitime.MillisecondClock;
 
 public interface JsonQueryProcessorConfiguration {
 
+    int getAsyncQueryQueueCapacity();
+
+    /**
+     * @return time in milliseconds, which opening query cursor has to take for the query to
+     * be executed on query worker pool subsequently; zero sends all queries to the pool
+     */
+    long getAsyncQueryThreshold();
+
     MillisecondClock getClock();
 
     int getConnectionCheckFrequency();
@@ -26,6 +26,7 @@ package io.questdb.cutlass.http.processors;
 
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.QueryAdmissionController;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -74,6 +75,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final int doubleScale;
     private final SCSequence eventSubSequence = new SCSequence();
     private QueryFuture continueExecution;
+    private AsyncQueryTask asyncTask;
+    private boolean asyncExecution = false;
+    private QueryAdmissionController admissionController;
+    private boolean admitted = false;
+    private boolean admissionQueued = false;
+    private long admissionQueueStartNanos;
     private Rnd rnd;
     private RecordCursorFactory recordCursorFactory;
     private RecordCursor cursor;
@@ -135,6 +142,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         columnIndex = 0;
         countRows = false;
         continueExecution = Misc.free(continueExecution);
+        abandonAsyncExecution();
+        releaseAdmission();
     }
 
     @Override
@@ -142,6 +151,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         cursor = Misc.free(cursor);
         recordCursorFactory = Misc.free(recordCursorFactory);
         continueExecution = Misc.free(continueExecution);
+        abandonAsyncExecution();
+        // cursor that was streamed has been freed above, it no longer uses task's context
+        asyncTask = Misc.free(asyncTask);
+        releaseAdmission();
     }
 
     public void configure(
@@ -598,6 +611,52 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext.getFd();
     }
 
+    long getAdmissionQueueTime() {
+        return nanosecondClock.getTicks() - admissionQueueStartNanos;
+    }
+
+    AsyncQueryTask getAsyncTask(AsyncQueryExecutor executor) {
+        if (asyncTask == null) {
+            asyncTask = executor.newTask();
+        }
+        return asyncTask;
+    }
+
+    boolean isAdmissionQueued() {
+        return admissionQueued;
+    }
+
+    boolean isAdmitted() {
+        return admitted;
+    }
+
+    boolean isAsyncExecution() {
+        return asyncExecution;
+    }
+
+    void leaveAdmissionQueue() {
+        if (admissionQueued) {
+            admissionQueued = false;
+            admissionController.dequeue(QueryAdmissionController.WORKLOAD_INTERACTIVE);
+        }
+    }
+
+    void onAdmissionQueued(QueryAdmissionController admissionController) {
+        this.admissionController = admissionController;
+        this.admissionQueued = true;
+        this.admissionQueueStartNanos = nanosecondClock.getTicks();
+    }
+
+    void onAdmitted(QueryAdmissionController admissionController) {
+        leaveAdmissionQueue();
+        this.admissionController = admissionController;
+        this.admitted = true;
+    }
+
+    void setAsyncExecution(boolean asyncExecution) {
+        this.asyncExecution = asyncExecution;
+    }
+
     boolean noCursor() {
         return cursor == null;
     }
@@ -607,6 +666,18 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.recordCursorFactory = factory;
         queryCacheable = true;
         this.cursor = factory.getCursor(sqlExecutionContext);
+        return ofCursor(factory);
+    }
+
+    boolean of(RecordCursorFactory factory, AsyncQueryTask task)
+            throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        this.recordCursorFactory = factory;
+        queryCacheable = true;
+        this.cursor = task.takeCursor();
+        return ofCursor(factory);
+    }
+
+    private boolean ofCursor(RecordCursorFactory factory) throws PeerDisconnectedException, PeerIsSlowToReadException {
         final RecordMetadata metadata = factory.getMetadata();
         HttpRequestHeader header = httpConnectionContext.getRequestHeader();
         DirectByteCharSequence columnNames = header.getUrlParam("cols");
@@ -655,6 +726,28 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return true;
     }
 
+    private void abandonAsyncExecution() {
+        if (asyncExecution) {
+            asyncExecution = false;
+            if (asyncTask.abandon()) {
+                // query worker is still busy with the task, it frees the cursor, the factory
+                // and the task itself
+                asyncTask = null;
+            } else {
+                asyncTask.free();
+                asyncTask.clear();
+            }
+        }
+    }
+
+    private void releaseAdmission() {
+        leaveAdmissionQueue();
+        if (admitted) {
+            admitted = false;
+            admissionController.release(QueryAdmissionController.WORKLOAD_INTERACTIVE);
+        }
+    }
+
     private void addColumnTypeAndName(RecordMetadata metadata, int i) {
         int columnType = metadata.getColumnType(i);
 
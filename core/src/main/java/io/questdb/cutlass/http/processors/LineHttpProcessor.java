@@ -0,0 +1,224 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoError;
+import io.questdb.cairo.CairoException;
+import io.questdb.cutlass.http.*;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+import io.questdb.std.Chars;
+
+import java.io.Closeable;
+
+/**
+ * Accepts line protocol either as request body, framed by Content-Length or chunked transfer encoding,
+ * or in "data" part of multipart POST request. Lines are streamed into table writers as they arrive,
+ * without buffering the request. All tables written by the request are committed once, after the
+ * whole body has been received, so that the request is either persisted entirely or not at all.
+ * <p>
+ * Every response carries "status", "rowsCommitted" and "rowsRejected" fields:
+ * <ul>
+ * <li>200 - rows are committed, "status" is "OK", or "partial write" when some lines were rejected
+ * by the parser and are counted in "rowsRejected"</li>
+ * <li>400 - request is malformed, nothing is committed</li>
+ * <li>500 - rows could not be written, nothing is committed</li>
+ * </ul>
+ * Error responses add "error" with the message and report every received line as rejected. Errors
+ * in the middle of the body roll back the request straight away, the rest of the body is read and
+ * discarded and the connection remains usable.
+ */
+public class LineHttpProcessor implements HttpRequestProcessor, HttpMultipartContentListener, HttpRawContentListener, Closeable {
+    static final int RESPONSE_PREFIX = 1;
+    private static final int RESPONSE_COMPLETE = 2;
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_WRITE_ERROR = 500;
+    private static final int LEXER_BUFFER_SIZE = 4096;
+    private static final CharSequence CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessor.class);
+    // processor instance is per thread, key must be shared between instances, see TextImportProcessor
+    private static final LocalValue<LineHttpProcessorState> LV = new LocalValue<>();
+    private final CairoEngine engine;
+    private final int commitMode;
+    private HttpConnectionContext transientContext;
+    private LineHttpProcessorState transientState;
+
+    public LineHttpProcessor(CairoEngine engine) {
+        this.engine = engine;
+        this.commitMode = engine.getConfiguration().getCommitMode();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void failRequest(HttpConnectionContext context, HttpException e) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        // server disconnects after this call, the response is a courtesy to the client
+        final LineHttpProcessorState state = LV.get(context);
+        if (state != null) {
+            onError(state, STATUS_BAD_REQUEST, e.getFlyweightMessage());
+            final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+            sendResponse(state, socket);
+            socket.shutdownWrite();
+        }
+    }
+
+    @Override
+    public void onChunk(long lo, long hi) {
+        final LineHttpProcessorState state = transientState;
+        // body of failed request is discarded
+        if (hi > lo && state.errorStatus == 0) {
+            try {
+                state.lexer.parse(lo, hi);
+            } catch (CairoException | CairoError e) {
+                onError(state, STATUS_WRITE_ERROR, e.getFlyweightMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onContentEnd() {
+        parseLast(transientState);
+    }
+
+    @Override
+    public void onHeadersReady(HttpConnectionContext context) {
+        final LineHttpProcessorState state = LV.get(context);
+        if (state != null) {
+            state.clear();
+        }
+    }
+
+    @Override
+    public void onPartBegin(HttpRequestHeader partHeader) {
+        final LineHttpProcessorState state = transientState;
+        if (state.dataPart || !Chars.equalsNc("data", partHeader.getContentDispositionName())) {
+            onError(state, STATUS_BAD_REQUEST, "expected single multipart part named 'data'");
+        }
+        state.dataPart = true;
+    }
+
+    @Override
+    public void onPartEnd() {
+        parseLast(transientState);
+    }
+
+    @Override
+    public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final LineHttpProcessorState state = transientState;
+        if (state.errorStatus == 0) {
+            try {
+                state.parser.commitAll(commitMode);
+                state.addCounts();
+                state.parser.releaseWriters();
+                LOG.info().$("committed [fd=").$(context.getFd())
+                        .$(", rows=").$(state.rowCount)
+                        .$(", rejected=").$(state.lineCount - state.rowCount)
+                        .I$();
+            } catch (CairoException | CairoError e) {
+                onError(state, STATUS_WRITE_ERROR, e.getFlyweightMessage());
+            }
+        }
+        // state is cleared by connection once the response is sent
+        sendResponse(state, context.getChunkedResponseSocket());
+    }
+
+    @Override
+    public void resumeRecv(HttpConnectionContext context) {
+        this.transientContext = context;
+        this.transientState = LV.get(context);
+        if (this.transientState == null) {
+            LOG.debug().$("new line state").$();
+            LV.set(context, this.transientState = new LineHttpProcessorState(engine, context.getCairoSecurityContext(), LEXER_BUFFER_SIZE));
+        }
+    }
+
+    @Override
+    public void resumeSend(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        doResumeSend(LV.get(context), context.getChunkedResponseSocket());
+    }
+
+    private static void doResumeSend(
+            LineHttpProcessorState state,
+            HttpChunkedResponseSocket socket
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (state.responseState == RESPONSE_PREFIX) {
+            final boolean failed = state.errorStatus != 0;
+            socket.bookmark();
+            socket.put('{').putQuoted("status").put(':');
+            if (failed) {
+                socket.putQuoted("error");
+            } else {
+                socket.putQuoted(state.lineCount > state.rowCount ? "partial write" : "OK");
+            }
+            socket.put(',').putQuoted("rowsCommitted").put(':').put(failed ? 0 : state.rowCount)
+                    .put(',').putQuoted("rowsRejected").put(':').put(failed ? state.lineCount : state.lineCount - state.rowCount);
+            if (failed) {
+                socket.put(',').putQuoted("error").put(':').encodeUtf8AndQuote(state.errorMessage);
+            }
+            socket.put('}');
+            state.responseState = RESPONSE_COMPLETE;
+            socket.sendChunk(true);
+        }
+    }
+
+    private void onError(LineHttpProcessorState state, int status, CharSequence message) {
+        if (state.errorStatus == 0) {
+            LOG.error().$("could not write lines [fd=").$(transientContext.getFd()).$(", msg=").$(message).I$();
+            state.errorStatus = status;
+            state.errorMessage.put(message);
+            // lines received so far are reported as rejected
+            state.addCounts();
+            // writers are returned to pool without commit, this rolls back the request
+            state.parser.releaseWriters();
+        }
+    }
+
+    private void parseLast(LineHttpProcessorState state) {
+        if (state.errorStatus == 0) {
+            try {
+                // body does not have to end with new line
+                state.lexer.parseLast();
+            } catch (CairoException | CairoError e) {
+                onError(state, STATUS_WRITE_ERROR, e.getFlyweightMessage());
+            }
+        }
+    }
+
+    private void sendResponse(
+            LineHttpProcessorState state,
+            HttpChunkedResponseSocket socket
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        socket.status(state.errorStatus != 0 ? state.errorStatus : STATUS_OK, CONTENT_TYPE_JSON);
+        socket.sendHeader();
+        doResumeSend(state, socket);
+    }
+}
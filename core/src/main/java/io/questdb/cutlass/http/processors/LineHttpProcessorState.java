@@ -0,0 +1,81 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cutlass.line.LineProtoNanoTimestampAdapter;
+import io.questdb.cutlass.line.udp.LineUdpLexer;
+import io.questdb.cutlass.line.udp.LineUdpParserImpl;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+class LineHttpProcessorState implements Mutable, Closeable {
+    LineUdpLexer lexer;
+    LineUdpParserImpl parser;
+    long lineCount;
+    long rowCount;
+    int responseState = LineHttpProcessor.RESPONSE_PREFIX;
+    boolean dataPart = false;
+    // message is copied, exceptions are thread local and reused
+    final StringSink errorMessage = new StringSink();
+    // zero while request has not failed
+    int errorStatus;
+
+    LineHttpProcessorState(CairoEngine engine, CairoSecurityContext securityContext, int lexerBufferSize) {
+        this.lexer = new LineUdpLexer(lexerBufferSize);
+        this.parser = new LineUdpParserImpl(engine, securityContext, LineProtoNanoTimestampAdapter.INSTANCE);
+        this.lexer.withParser(parser);
+    }
+
+    @Override
+    public void clear() {
+        responseState = LineHttpProcessor.RESPONSE_PREFIX;
+        dataPart = false;
+        errorMessage.clear();
+        errorStatus = 0;
+        lineCount = 0;
+        rowCount = 0;
+        lexer.clear();
+        // uncommitted rows of abandoned request are rolled back
+        parser.releaseWriters();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        lexer = Misc.free(lexer);
+        parser = Misc.free(parser);
+    }
+
+    void addCounts() {
+        // parser counts are reset when writers are released
+        lineCount += parser.getLineCount();
+        rowCount += parser.getAppendedRowCount();
+    }
+}
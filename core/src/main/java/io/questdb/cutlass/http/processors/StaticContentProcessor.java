@@ -107,18 +107,9 @@ public class StaticContentProcessor implements HttpRequestProcessor, Closeable {
             return;
         }
 
-        final HttpRawSocket socket = context.getRawResponseSocket();
-        long address = socket.getBufferAddress();
-        int size = socket.getBufferSize();
-
-        long l;
-        // todo: check what happens when this code cannot read file
-        while (state.bytesSent < state.sendMax && (l = ff.read(state.fd, address, size, state.bytesSent)) > 0) {
-            if (l + state.bytesSent > state.sendMax) {
-                l = state.sendMax - state.bytesSent;
-            }
-            state.bytesSent += l;
-            socket.send((int) l);
+        state.bytesSent += context.getRawResponseSocket().sendFile(ff, state.fd, state.bytesSent, state.sendMax - state.bytesSent);
+        if (state.bytesSent < state.sendMax) {
+            throw PeerIsSlowToReadException.INSTANCE;
         }
     }
 
@@ -29,6 +29,7 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoError;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.QueryAdmissionController;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cutlass.http.*;
@@ -66,6 +67,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final MillisecondClock clock;
     private final int doubleScale;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
+    private final QueryAdmissionController admissionController;
 
     public TextQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
@@ -88,6 +90,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount);
         this.doubleScale = configuration.getDoubleScale();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(configuration.getCircuitBreakerConfiguration());
+        this.admissionController = engine.getQueryAdmissionController();
     }
 
     @Override
@@ -130,6 +133,9 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
 
             if (state.recordCursorFactory != null) {
                 try {
+                    // exports run in reporting workload class, they are rejected rather than queued
+                    admissionController.acquire(QueryAdmissionController.WORKLOAD_REPORTING);
+                    state.onAdmitted(admissionController);
                     boolean runQuery = true;
                     do {
                         try {
@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.http.processors;
 
+import io.questdb.cairo.QueryAdmissionController;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -52,6 +53,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     int queryState = JsonQueryProcessorState.QUERY_PREFIX;
     int columnIndex;
     private boolean queryCacheable = false;
+    private QueryAdmissionController admissionController;
     String fileName;
 
     public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
@@ -76,18 +78,31 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         queryState = JsonQueryProcessorState.QUERY_PREFIX;
         columnIndex = 0;
         countRows = false;
+        releaseAdmission();
     }
 
     @Override
     public void close() {
         cursor = Misc.free(cursor);
         recordCursorFactory = Misc.free(recordCursorFactory);
+        releaseAdmission();
     }
 
     public long getFd() {
         return httpConnectionContext.getFd();
     }
 
+    void onAdmitted(QueryAdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    private void releaseAdmission() {
+        if (admissionController != null) {
+            admissionController.release(QueryAdmissionController.WORKLOAD_REPORTING);
+            admissionController = null;
+        }
+    }
+
     void setQueryCacheable(boolean queryCacheable) {
         this.queryCacheable = queryCacheable;
     }
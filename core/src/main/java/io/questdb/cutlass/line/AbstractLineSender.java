@@ -97,9 +97,7 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
 
     public void $() {
         put('\n');
-        lineStart = ptr;
-        hasMetric = false;
-        noFields = true;
+        completeLine();
     }
 
     @Override
@@ -202,6 +200,12 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         throw CairoException.instance(0).put("metric expected");
     }
 
+    protected void completeLine() {
+        lineStart = ptr;
+        hasMetric = false;
+        noFields = true;
+    }
+
     protected abstract long createSocket(int interfaceIPv4Address, int ttl, long sockaddr);
 
     private CharSink field(CharSequence name) {
@@ -246,6 +250,17 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         }
     }
 
+    protected void putBytes(long lo, int len) {
+        if (ptr + len >= hi) {
+            send00();
+            if (ptr + len >= hi) {
+                throw CairoException.instance(0).put("value too long");
+            }
+        }
+        Vect.memcpy(ptr, lo, len);
+        ptr += len;
+    }
+
     private void sendLine() {
         if (lo < lineStart) {
             int len = (int) (lineStart - lo);
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cutlass.line.tcp.LineTcpBinaryParser;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.std.*;
+
+/**
+ * Line sender that uses binary variant of the protocol, see {@link LineTcpBinaryParser}. Table, column names and
+ * tag values are sent once per connection and referred to by their ids afterwards.
+ */
+public class BinaryLineTcpSender extends LineTcpSender {
+    private final CharSequenceIntHashMap names = new CharSequenceIntHashMap();
+    private final CharSequenceIntHashMap symbols = new CharSequenceIntHashMap();
+    private final long rowLo;
+    private final long utf8Lo;
+    private long rowPtr;
+    private boolean hasMetric = false;
+
+    public BinaryLineTcpSender(int sendToIPv4Address, int sendToPort, int bufferCapacity) {
+        super(sendToIPv4Address, sendToPort, bufferCapacity);
+        rowLo = Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT);
+        utf8Lo = Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT);
+        Unsafe.getUnsafe().putInt(utf8Lo, LineTcpBinaryParser.MAGIC);
+        putBytes(utf8Lo, LineTcpBinaryParser.MAGIC_LEN);
+        completeLine();
+    }
+
+    @Override
+    public void $(long timestamp) {
+        if (!hasMetric) {
+            throw CairoException.instance(0).put("metric expected");
+        }
+        putRowVarint(0);
+        ensureRowCapacity(Long.BYTES);
+        Unsafe.getUnsafe().putLong(rowPtr, timestamp);
+        rowPtr += Long.BYTES;
+        putBytes(rowLo, (int) (rowPtr - rowLo));
+        completeLine();
+        hasMetric = false;
+    }
+
+    @Override
+    public void $() {
+        $(LineTcpParser.NULL_TIMESTAMP);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Unsafe.free(rowLo, capacity, MemoryTag.NATIVE_DEFAULT);
+        Unsafe.free(utf8Lo, capacity, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Override
+    public BinaryLineTcpSender field(CharSequence name, long value) {
+        putField(name, LineTcpParser.ENTITY_TYPE_INTEGER);
+        ensureRowCapacity(Long.BYTES);
+        Unsafe.getUnsafe().putLong(rowPtr, value);
+        rowPtr += Long.BYTES;
+        return this;
+    }
+
+    @Override
+    public BinaryLineTcpSender field(CharSequence name, CharSequence value) {
+        putField(name, LineTcpParser.ENTITY_TYPE_STRING);
+        final int len = toUtf8(value);
+        putRowVarint(len);
+        ensureRowCapacity(len);
+        Vect.memcpy(rowPtr, utf8Lo, len);
+        rowPtr += len;
+        return this;
+    }
+
+    @Override
+    public BinaryLineTcpSender field(CharSequence name, double value) {
+        putField(name, LineTcpParser.ENTITY_TYPE_FLOAT);
+        ensureRowCapacity(Double.BYTES);
+        Unsafe.getUnsafe().putDouble(rowPtr, value);
+        rowPtr += Double.BYTES;
+        return this;
+    }
+
+    @Override
+    public BinaryLineTcpSender field(CharSequence name, boolean value) {
+        putField(name, LineTcpParser.ENTITY_TYPE_BOOLEAN);
+        ensureRowCapacity(Byte.BYTES);
+        Unsafe.getUnsafe().putByte(rowPtr++, (byte) (value ? 1 : 0));
+        return this;
+    }
+
+    public BinaryLineTcpSender timestampField(CharSequence name, long value) {
+        putField(name, LineTcpParser.ENTITY_TYPE_TIMESTAMP);
+        ensureRowCapacity(Long.BYTES);
+        Unsafe.getUnsafe().putLong(rowPtr, value);
+        rowPtr += Long.BYTES;
+        return this;
+    }
+
+    @Override
+    public BinaryLineTcpSender metric(CharSequence metric) {
+        if (hasMetric) {
+            throw CairoException.instance(0).put("duplicate metric");
+        }
+        final int tableId = define(names, metric, LineTcpBinaryParser.MSG_NAME);
+        rowPtr = rowLo;
+        putRowByte(LineTcpBinaryParser.MSG_ROW);
+        putRowVarint(tableId);
+        hasMetric = true;
+        return this;
+    }
+
+    @Override
+    public BinaryLineTcpSender tag(CharSequence tag, CharSequence value) {
+        putField(tag, LineTcpParser.ENTITY_TYPE_TAG);
+        putRowVarint(define(symbols, value, LineTcpBinaryParser.MSG_SYMBOL));
+        return this;
+    }
+
+    private int define(CharSequenceIntHashMap dictionary, CharSequence value, byte messageType) {
+        final int index = dictionary.keyIndex(value);
+        if (index < 0) {
+            return dictionary.valueAt(index);
+        }
+        final int id = dictionary.size();
+        dictionary.putAt(index, Chars.toString(value), id);
+        final int len = toUtf8(value);
+        put((char) messageType);
+        for (int v = len; ; v >>>= 7) {
+            if ((v & ~0x7f) == 0) {
+                put((char) v);
+                break;
+            }
+            put((char) ((v & 0x7f) | 0x80));
+        }
+        putBytes(utf8Lo, len);
+        return id;
+    }
+
+    private int toUtf8(CharSequence cs) {
+        long p = utf8Lo;
+        final long hi = utf8Lo + capacity - 4;
+        for (int i = 0, n = cs.length(); i < n; i++) {
+            if (p > hi) {
+                throw CairoException.instance(0).put("value too long");
+            }
+            final char c = cs.charAt(i);
+            if (c < 0x80) {
+                Unsafe.getUnsafe().putByte(p++, (byte) c);
+            } else if (c < 0x800) {
+                Unsafe.getUnsafe().putByte(p++, (byte) (0xc0 | (c >> 6)));
+                Unsafe.getUnsafe().putByte(p++, (byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(cs.charAt(i + 1))) {
+                final int cp = Character.toCodePoint(c, cs.charAt(++i));
+                Unsafe.getUnsafe().putByte(p++, (byte) (0xf0 | (cp >> 18)));
+                Unsafe.getUnsafe().putByte(p++, (byte) (0x80 | ((cp >> 12) & 0x3f)));
+                Unsafe.getUnsafe().putByte(p++, (byte) (0x80 | ((cp >> 6) & 0x3f)));
+                Unsafe.getUnsafe().putByte(p++, (byte) (0x80 | (cp & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                Unsafe.getUnsafe().putByte(p++, (byte) '?');
+            } else {
+                Unsafe.getUnsafe().putByte(p++, (byte) (0xe0 | (c >> 12)));
+                Unsafe.getUnsafe().putByte(p++, (byte) (0x80 | ((c >> 6) & 0x3f)));
+                Unsafe.getUnsafe().putByte(p++, (byte) (0x80 | (c & 0x3f)));
+            }
+        }
+        return (int) (p - utf8Lo);
+    }
+
+    private void ensureRowCapacity(int len) {
+        if (rowPtr + len > rowLo + capacity) {
+            throw CairoException.instance(0).put("line too long");
+        }
+    }
+
+    private void putField(CharSequence name, byte entityType) {
+        if (!hasMetric) {
+            throw CairoException.instance(0).put("metric expected");
+        }
+        putRowVarint(define(names, name, LineTcpBinaryParser.MSG_NAME) + 1);
+        putRowByte(entityType);
+    }
+
+    private void putRowByte(byte b) {
+        ensureRowCapacity(Byte.BYTES);
+        Unsafe.getUnsafe().putByte(rowPtr++, b);
+    }
+
+    private void putRowVarint(int value) {
+        for (int v = value; ; v >>>= 7) {
+            if ((v & ~0x7f) == 0) {
+                putRowByte((byte) v);
+                return;
+            }
+            putRowByte((byte) ((v & 0x7f) | 0x80));
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectByteCharSequence;
+
+/**
+ * Parser of the binary variant of line protocol. Binary connection starts with {@link #MAGIC} and
+ * continues with a stream of messages, each message is a type byte followed by the message body:
+ * <ul>
+ *     <li>{@link #MSG_NAME} - varint length and UTF8 bytes of table or column name. Names are given
+ *     sequential ids in the order they are defined, starting from 0.</li>
+ *     <li>{@link #MSG_SYMBOL} - varint length and UTF8 bytes of tag value, ids are sequential as with names.</li>
+ *     <li>{@link #MSG_ROW} - varint table name id, list of fields terminated by 0 and 8-byte timestamp.
+ *     Field is varint (column name id + 1), entity type byte and the value. Tag value is varint symbol id,
+ *     float, integer and timestamp are 8 bytes, boolean is a single byte and string is varint
+ *     length followed by UTF8 bytes. {@link #NULL_TIMESTAMP} timestamp is replaced with server time.</li>
+ * </ul>
+ * All fixed width values are little endian and varints are unsigned LEB128. Dictionaries live for the
+ * duration of the connection. Parser returns single row, including the definitions that precede it, as
+ * one measurement. When measurement is incomplete, definitions it made are rolled back so that
+ * measurement is parsed again from the start once more data arrives.
+ */
+public class LineTcpBinaryParser extends LineTcpParser {
+    public static final int MAGIC = 'B' << 24 | 'L' << 16 | 'I' << 8;
+    public static final int MAGIC_LEN = Integer.BYTES;
+    public static final byte MSG_NAME = 1;
+    public static final byte MSG_SYMBOL = 2;
+    public static final byte MSG_ROW = 3;
+    private static final long MAX_DICTIONARY_SIZE = 64 * 1024 * 1024;
+    private static final long DICTIONARY_PAGE_SIZE = 64 * 1024;
+    private static final long NON_ASCII_FLAG = 1L << 32;
+    private static final long VARINT_UNDERFLOW = -1;
+    private static final long VARINT_INVALID = -2;
+    private final DirectByteCharSequence measurementName = new DirectByteCharSequence();
+    private final ObjList<ProtoEntity> entities = new ObjList<>();
+    // two entries per id: offset in dictionary memory and length with NON_ASCII_FLAG
+    private final LongList names = new LongList();
+    private final LongList symbols = new LongList();
+    private final long maxSerializedSize;
+    private MemoryCARW dictionary;
+    private long bufAt;
+    private long measurementLo;
+    private long pos;
+    private int nEntities;
+    private long timestamp;
+    private long serializedSize;
+    private boolean hasNonAscii;
+    private boolean complete;
+    private ErrorCode errorCode;
+
+    public LineTcpBinaryParser(long maxSerializedSize) {
+        this.maxSerializedSize = maxSerializedSize;
+    }
+
+    public static boolean isMagic(long address) {
+        return Unsafe.getUnsafe().getInt(address) == MAGIC;
+    }
+
+    public void clear() {
+        names.clear();
+        symbols.clear();
+        if (dictionary != null) {
+            dictionary.truncate();
+        }
+    }
+
+    @Override
+    public void close() {
+        dictionary = Misc.free(dictionary);
+    }
+
+    @Override
+    public long getBufferAddress() {
+        return bufAt;
+    }
+
+    @Override
+    public ProtoEntity getEntity(int n) {
+        assert n < nEntities;
+        return entities.getQuick(n);
+    }
+
+    @Override
+    public int getEntityCount() {
+        return nEntities;
+    }
+
+    @Override
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    @Override
+    public DirectByteCharSequence getMeasurementName() {
+        return measurementName;
+    }
+
+    @Override
+    public long getSerializedSizeBound() {
+        return serializedSize;
+    }
+
+    @Override
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public boolean hasNonAsciiChars() {
+        return hasNonAscii;
+    }
+
+    @Override
+    public boolean hasTimestamp() {
+        return timestamp != NULL_TIMESTAMP;
+    }
+
+    @Override
+    public LineTcpBinaryParser of(long bufLo) {
+        bufAt = bufLo;
+        startNextMeasurement();
+        return this;
+    }
+
+    @Override
+    public ParseResult parseMeasurement(long bufHi) {
+        if (complete) {
+            // measurement is parsed again when queue was full
+            return ParseResult.MEASUREMENT_COMPLETE;
+        }
+        final int nameMark = names.size();
+        final int symbolMark = symbols.size();
+        final long dictionaryMark = dictionary != null ? dictionary.getAppendOffset() : 0;
+        pos = bufAt;
+        while (pos < bufHi) {
+            final byte type = Unsafe.getUnsafe().getByte(pos++);
+            switch (type) {
+                case MSG_NAME:
+                case MSG_SYMBOL: {
+                    final long len = readVarint(bufHi);
+                    if (len == VARINT_UNDERFLOW || pos + len > bufHi) {
+                        break;
+                    }
+                    if (len == VARINT_INVALID) {
+                        return error(ErrorCode.INVALID_MESSAGE);
+                    }
+                    if (!define(type == MSG_NAME ? names : symbols, len)) {
+                        return error(ErrorCode.MEASUREMENT_TOO_LARGE);
+                    }
+                    continue;
+                }
+                case MSG_ROW: {
+                    final ParseResult rc = parseRow(bufHi);
+                    if (rc == ParseResult.BUFFER_UNDERFLOW) {
+                        break;
+                    }
+                    return rc;
+                }
+                default:
+                    return error(ErrorCode.INVALID_MESSAGE);
+            }
+            break;
+        }
+        // measurement is incomplete, forget definitions it made and resume from its start later
+        names.setPos(nameMark);
+        symbols.setPos(symbolMark);
+        if (dictionary != null) {
+            dictionary.jumpTo(dictionaryMark);
+        }
+        return ParseResult.BUFFER_UNDERFLOW;
+    }
+
+    @Override
+    public void shl(long shl) {
+        bufAt -= shl;
+        measurementLo -= shl;
+    }
+
+    @Override
+    public ParseResult skipMeasurement(long bufHi) {
+        // binary stream cannot be re-synchronised after an error
+        return ParseResult.ERROR;
+    }
+
+    @Override
+    public void startNextMeasurement() {
+        measurementLo = bufAt;
+        complete = false;
+        nEntities = 0;
+        timestamp = NULL_TIMESTAMP;
+        serializedSize = 0;
+        hasNonAscii = false;
+        errorCode = ErrorCode.NONE;
+    }
+
+    private boolean define(LongList dictionary, long len) {
+        if (this.dictionary == null) {
+            this.dictionary = Vm.getCARWInstance(DICTIONARY_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        }
+        final long offset = this.dictionary.getAppendOffset();
+        if (offset + len > MAX_DICTIONARY_SIZE) {
+            return false;
+        }
+        long flags = 0;
+        for (long p = pos, hi = pos + len; p < hi; p++) {
+            if (Unsafe.getUnsafe().getByte(p) < 0) {
+                flags = NON_ASCII_FLAG;
+                break;
+            }
+        }
+        this.dictionary.putBlockOfBytes(pos, len);
+        dictionary.add(offset, len | flags);
+        pos += len;
+        return true;
+    }
+
+    private ParseResult error(ErrorCode errorCode) {
+        this.errorCode = errorCode;
+        return ParseResult.ERROR;
+    }
+
+    private ProtoEntity nextEntity() {
+        if (entities.size() <= nEntities) {
+            entities.add(new ProtoEntity());
+        }
+        return entities.getQuick(nEntities++);
+    }
+
+    private ParseResult parseRow(long bufHi) {
+        final long tableId = readVarint(bufHi);
+        if (tableId == VARINT_UNDERFLOW) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        if (tableId < 0 || tableId >= names.size() / 2) {
+            return error(ErrorCode.INVALID_TABLE_NAME);
+        }
+        final long tableNameLo = resolve(names, (int) tableId);
+        measurementName.of(tableNameLo, tableNameLo + (int) names.getQuick(2 * (int) tableId + 1));
+        nEntities = 0;
+        hasNonAscii = false;
+        serializedSize = 0;
+
+        while (true) {
+            final long field = readVarint(bufHi);
+            if (field == VARINT_UNDERFLOW) {
+                return ParseResult.BUFFER_UNDERFLOW;
+            }
+            if (field == 0) {
+                break;
+            }
+            if (field < 0 || field > names.size() / 2) {
+                return error(ErrorCode.INVALID_COLUMN_NAME);
+            }
+            if (pos >= bufHi) {
+                return ParseResult.BUFFER_UNDERFLOW;
+            }
+            final int nameId = (int) field - 1;
+            final long nameLo = resolve(names, nameId);
+            final int nameLen = (int) names.getQuick(2 * nameId + 1);
+            final byte type = Unsafe.getUnsafe().getByte(pos++);
+            final ProtoEntity entity = nextEntity();
+            entity.of(nameLo, nameLo + nameLen, type);
+            // column index or name, type and the value as event serializes them
+            long valueSize = Long.BYTES;
+            switch (type) {
+                case ENTITY_TYPE_TAG: {
+                    final long symbolId = readVarint(bufHi);
+                    if (symbolId == VARINT_UNDERFLOW) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    if (symbolId < 0 || symbolId >= symbols.size() / 2) {
+                        return error(ErrorCode.INVALID_FIELD_VALUE);
+                    }
+                    final long lo = resolve(symbols, (int) symbolId);
+                    final long lenAndFlags = symbols.getQuick(2 * (int) symbolId + 1);
+                    final int len = (int) lenAndFlags;
+                    entity.setValue(lo, lo + len);
+                    hasNonAscii |= (lenAndFlags & NON_ASCII_FLAG) != 0;
+                    valueSize = Math.max(valueSize, Integer.BYTES + 2L * len);
+                    break;
+                }
+                case ENTITY_TYPE_STRING: {
+                    final long len = readVarint(bufHi);
+                    if (len == VARINT_UNDERFLOW || (len >= 0 && pos + len > bufHi)) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    if (len < 0) {
+                        return error(ErrorCode.INVALID_FIELD_VALUE);
+                    }
+                    for (long p = pos, hi = pos + len; p < hi && !hasNonAscii; p++) {
+                        hasNonAscii = Unsafe.getUnsafe().getByte(p) < 0;
+                    }
+                    entity.setValue(pos, pos + len);
+                    pos += len;
+                    valueSize = Math.max(valueSize, Integer.BYTES + 2L * len);
+                    break;
+                }
+                case ENTITY_TYPE_FLOAT:
+                    if (pos + Double.BYTES > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    entity.setFloatValue(Unsafe.getUnsafe().getDouble(pos));
+                    pos += Double.BYTES;
+                    break;
+                case ENTITY_TYPE_INTEGER:
+                case ENTITY_TYPE_TIMESTAMP:
+                    if (pos + Long.BYTES > bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    entity.setLongValue(Unsafe.getUnsafe().getLong(pos));
+                    pos += Long.BYTES;
+                    break;
+                case ENTITY_TYPE_BOOLEAN:
+                    if (pos >= bufHi) {
+                        return ParseResult.BUFFER_UNDERFLOW;
+                    }
+                    entity.setBooleanValue(Unsafe.getUnsafe().getByte(pos++) != 0);
+                    break;
+                default:
+                    return error(ErrorCode.INVALID_FIELD_VALUE);
+            }
+            serializedSize += Integer.BYTES + nameLen + Byte.BYTES + valueSize;
+        }
+
+        if (pos + Long.BYTES > bufHi) {
+            return ParseResult.BUFFER_UNDERFLOW;
+        }
+        timestamp = Unsafe.getUnsafe().getLong(pos);
+        pos += Long.BYTES;
+        if (nEntities == 0) {
+            return error(ErrorCode.NO_FIELDS);
+        }
+        if (LineTcpMeasurementEvent.ROW_HEADER_SIZE + serializedSize > maxSerializedSize) {
+            return error(ErrorCode.MEASUREMENT_TOO_LARGE);
+        }
+        bufAt = pos;
+        complete = true;
+        return ParseResult.MEASUREMENT_COMPLETE;
+    }
+
+    private long readVarint(long bufHi) {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos >= bufHi) {
+                return VARINT_UNDERFLOW;
+            }
+            final byte b = Unsafe.getUnsafe().getByte(pos++);
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value <= Integer.MAX_VALUE ? value : VARINT_INVALID;
+            }
+        }
+        return VARINT_INVALID;
+    }
+
+    private long resolve(LongList dictionary, int id) {
+        return this.dictionary.addressOf(dictionary.getQuick(2 * id));
+    }
+}
@@ -32,6 +32,7 @@ import io.questdb.network.IOContext;
 import io.questdb.network.IODispatcher;
 import io.questdb.network.NetworkFacade;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Unsafe;
 import io.questdb.std.Vect;
@@ -46,7 +47,8 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     private final LineTcpMeasurementScheduler scheduler;
     private final MillisecondClock milliClock;
     private final DirectByteCharSequence byteCharSequence = new DirectByteCharSequence();
-    private final LineTcpParser parser = new LineTcpParser();
+    private final LineTcpParser textParser = new LineTcpParser();
+    private final long maxSerializedSize;
     private final FloatingDirectCharSink floatingDirectCharSink = new FloatingDirectCharSink();
     protected long fd;
     protected IODispatcher<LineTcpConnectionContext> dispatcher;
@@ -57,11 +59,15 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     protected long recvBufStartOfMeasurement;
     private long lastQueueFullLogMillis = 0;
     private boolean goodMeasurement;
+    private LineTcpParser parser = textParser;
+    private LineTcpBinaryParser binaryParser;
+    private boolean protocolNegotiated;
 
     LineTcpConnectionContext(LineTcpReceiverConfiguration configuration, LineTcpMeasurementScheduler scheduler) {
         nf = configuration.getNetworkFacade();
         this.scheduler = scheduler;
         this.milliClock = configuration.getMillisecondClock();
+        this.maxSerializedSize = LineTcpMeasurementScheduler.getEventSlotSize(configuration.getMaxMeasurementSize());
         recvBufStart = Unsafe.malloc(configuration.getNetMsgBufferSize(), MemoryTag.NATIVE_DEFAULT);
         recvBufEnd = recvBufStart + configuration.getNetMsgBufferSize();
         clear();
@@ -71,6 +77,11 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     public void clear() {
         recvBufPos = recvBufStart;
         peerDisconnected = false;
+        protocolNegotiated = false;
+        parser = textParser;
+        if (binaryParser != null) {
+            binaryParser.clear();
+        }
         resetParser();
     }
 
@@ -79,7 +90,8 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         this.fd = -1;
         Unsafe.free(recvBufStart, recvBufEnd - recvBufStart, MemoryTag.NATIVE_DEFAULT);
         recvBufStart = recvBufEnd = recvBufPos = 0;
-        parser.close();
+        textParser.close();
+        binaryParser = Misc.free(binaryParser);
         floatingDirectCharSink.close();
     }
 
@@ -165,6 +177,18 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     }
 
     protected final IOContextResult parseMeasurements(NetworkIOJob netIoJob) {
+        try {
+            return parseMeasurements0(netIoJob);
+        } finally {
+            // batched lines do not outlive the pass over receive buffer
+            scheduler.flushEvents(netIoJob);
+        }
+    }
+
+    private IOContextResult parseMeasurements0(NetworkIOJob netIoJob) {
+        if (!protocolNegotiated && !negotiateProtocol()) {
+            return peerDisconnected ? IOContextResult.NEEDS_DISCONNECT : IOContextResult.NEEDS_READ;
+        }
         while (true) {
             try {
                 ParseResult rc = goodMeasurement ? parser.parseMeasurement(recvBufPos) : parser.skipMeasurement(recvBufPos);
@@ -192,11 +216,19 @@ class LineTcpConnectionContext implements IOContext, Mutable {
                     }
 
                     case ERROR: {
+                        if (parser == binaryParser) {
+                            // binary stream cannot be re-synchronised, drop the connection
+                            LOG.error().$('[').$(fd).$("] could not parse binary measurement, code ").$(parser.getErrorCode())
+                                    .$(" [table=").$(parser.getMeasurementName()).I$();
+                            return IOContextResult.NEEDS_DISCONNECT;
+                        }
                         goodMeasurement = false;
                         continue;
                     }
 
                     case BUFFER_UNDERFLOW: {
+                        // publish lines parsed so far before waiting for more data
+                        scheduler.flushEvents(netIoJob);
                         if (recvBufPos == recvBufEnd && !compactBuffer(recvBufStartOfMeasurement)) {
                             doHandleDisconnectEvent();
                             return IOContextResult.NEEDS_DISCONNECT;
@@ -225,6 +257,35 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         }
     }
 
+    /**
+     * Binary protocol clients open connection with {@link LineTcpBinaryParser#MAGIC}, text protocol
+     * line cannot start with NUL byte.
+     *
+     * @return true when protocol is known, false when more bytes have to be received first
+     */
+    private boolean negotiateProtocol() {
+        final long len = recvBufPos - recvBufStartOfMeasurement;
+        if (len == 0) {
+            return false;
+        }
+        if (Unsafe.getUnsafe().getByte(recvBufStartOfMeasurement) == 0) {
+            if (len < LineTcpBinaryParser.MAGIC_LEN) {
+                return false;
+            }
+            if (LineTcpBinaryParser.isMagic(recvBufStartOfMeasurement)) {
+                if (binaryParser == null) {
+                    binaryParser = new LineTcpBinaryParser(maxSerializedSize);
+                }
+                parser = binaryParser;
+                recvBufStartOfMeasurement += LineTcpBinaryParser.MAGIC_LEN;
+                parser.of(recvBufStartOfMeasurement);
+                LOG.info().$('[').$(fd).$("] binary protocol").$();
+            }
+        }
+        protocolNegotiated = true;
+        return true;
+    }
+
     private void startNewMeasurement() {
         parser.startNextMeasurement();
         recvBufStartOfMeasurement = parser.getBufferAddress();
@@ -41,15 +41,21 @@ import static io.questdb.cutlass.line.tcp.LineTcpParser.ENTITY_TYPE_NULL;
 
 class LineTcpMeasurementEvent implements Closeable {
     private static final Log LOG = LogFactory.getLog(LineTcpMeasurementEvent.class);
+    // row size, timestamp and entity count
+    static final int ROW_HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
     private final MicrosecondClock clock;
     private final LineProtoTimestampAdapter timestampAdapter;
     private final long bufSize;
     private int writerWorkerId;
     private TableUpdateDetails tableUpdateDetails;
     private long bufLo;
+    // Measurements for the same table are batched into one event, each row
+    // is prefixed with its size so that writer can skip rows it fails to append
+    private long bufPos;
+    private int rowCount;
     private int reshuffleSrcWorkerId;
     private int reshuffleTargetWorkerId;
-    private volatile boolean reshuffleComplete;
+    private int handoffSeq;
     private boolean commitOnWriterClose;
 
     LineTcpMeasurementEvent(
@@ -87,23 +93,46 @@ class LineTcpMeasurementEvent implements Closeable {
         return writerWorkerId;
     }
 
-    public boolean isReshuffleComplete() {
-        return reshuffleComplete;
+    public int getRowCount() {
+        return rowCount;
     }
 
-    public void setReshuffleComplete(boolean reshuffleComplete) {
-        this.reshuffleComplete = reshuffleComplete;
+    public int getHandoffSeq() {
+        return handoffSeq;
     }
 
     public void releaseWriter() {
         tableUpdateDetails.releaseWriter(commitOnWriterClose);
     }
 
+    boolean addMeasurement(
+            TableUpdateDetails tableUpdateDetails,
+            LineTcpParser parser,
+            FloatingDirectCharSink floatingCharSink,
+            int workerId
+    ) {
+        assert this.tableUpdateDetails == tableUpdateDetails;
+        // do not start serializing line that might not fit, writer will receive it in the next event
+        if (bufPos + ROW_HEADER_SIZE + parser.getSerializedSizeBound() > bufLo + bufSize) {
+            return false;
+        }
+        bufPos = putMeasurement(bufPos, tableUpdateDetails, parser, floatingCharSink, workerId);
+        rowCount++;
+        return true;
+    }
+
     void append(StringSink charSink, FloatingDirectCharSink floatingCharSink) {
+        final TableWriter writer = tableUpdateDetails.getWriter();
+        long rowPos = bufLo;
+        for (int i = 0; i < rowCount; i++) {
+            appendRow(writer, rowPos + Integer.BYTES, charSink, floatingCharSink);
+            rowPos += Unsafe.getUnsafe().getInt(rowPos);
+        }
+    }
+
+    private void appendRow(TableWriter writer, long bufPos, StringSink charSink, FloatingDirectCharSink floatingCharSink) {
         TableWriter.Row row = null;
         try {
-            TableWriter writer = tableUpdateDetails.getWriter();
-            long bufPos = bufLo;
             long timestamp = Unsafe.getUnsafe().getLong(bufPos);
             bufPos += Long.BYTES;
             if (timestamp == LineTcpParser.NULL_TIMESTAMP) {
@@ -429,18 +458,31 @@ class LineTcpMeasurementEvent implements Closeable {
             int workerId
     ) {
         writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
+        this.tableUpdateDetails = tableUpdateDetails;
+        rowCount = 0;
+        bufPos = putMeasurement(bufLo, tableUpdateDetails, parser, floatingCharSink, workerId);
+        rowCount = 1;
+        writerWorkerId = tableUpdateDetails.getWriterThreadId();
+    }
+
+    private long putMeasurement(
+            long rowPos,
+            TableUpdateDetails tableUpdateDetails,
+            LineTcpParser parser,
+            FloatingDirectCharSink floatingCharSink,
+            int workerId
+    ) {
         final TableUpdateDetails.ThreadLocalDetails localDetails = tableUpdateDetails.getThreadLocalDetails(workerId);
         final BoolList processedCols = localDetails.getProcessedCols();
         final LowerCaseCharSequenceHashSet addedCols = localDetails.getAddedCols();
         processedCols.setAll(localDetails.getColumnCount(), false);
         addedCols.clear();
-        this.tableUpdateDetails = tableUpdateDetails;
         long timestamp = parser.getTimestamp();
         if (timestamp != LineTcpParser.NULL_TIMESTAMP) {
             timestamp = timestampAdapter.getMicros(timestamp);
             processedCols.setQuick(tableUpdateDetails.getTimestampIndex(), true);
         }
-        long bufPos = bufLo;
+        long bufPos = rowPos + Integer.BYTES;
         long bufMax = bufLo + bufSize;
         long timestampBufPos = bufPos;
         //timestamp and entitiesWritten are saved to timestampBufPos after saving all fields
@@ -627,15 +669,20 @@ class LineTcpMeasurementEvent implements Closeable {
         }
         Unsafe.getUnsafe().putLong(timestampBufPos, timestamp);
         Unsafe.getUnsafe().putInt(timestampBufPos + Long.BYTES, entitiesWritten);
-        writerWorkerId = tableUpdateDetails.getWriterThreadId();
+        Unsafe.getUnsafe().putInt(rowPos, (int) (bufPos - rowPos));
+        return bufPos;
+    }
+
+    void createIncompleteEvent() {
+        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
     }
 
-    void createReshuffleEvent(int fromThreadId, int toThreadId, TableUpdateDetails tableUpdateDetails) {
+    void createReshuffleEvent(int fromThreadId, int toThreadId, TableUpdateDetails tableUpdateDetails, int handoffSeq) {
         writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_RESHUFFLE;
         reshuffleSrcWorkerId = fromThreadId;
         reshuffleTargetWorkerId = toThreadId;
         this.tableUpdateDetails = tableUpdateDetails;
-        reshuffleComplete = false;
+        this.handoffSeq = handoffSeq;
     }
 
     void createWriterReleaseEvent(TableUpdateDetails tableUpdateDetails, boolean commitOnWriterClose) {
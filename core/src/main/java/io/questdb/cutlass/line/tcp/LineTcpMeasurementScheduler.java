@@ -50,7 +50,10 @@ class LineTcpMeasurementScheduler implements Closeable {
     private static final Log LOG = LogFactory.getLog(LineTcpMeasurementScheduler.class);
     private final CairoEngine engine;
     private final CairoSecurityContext securityContext;
-    private final RingQueue<LineTcpMeasurementEvent> queue;
+    // each writer thread consumes its own queue, network IO threads route events
+    // to the queue of the writer thread that owns the table
+    private final RingQueue<LineTcpMeasurementEvent>[] queue;
+    private final Sequence[] subSeq;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final CharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
@@ -60,11 +63,12 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final long writerIdleTimeout;
     private final NetworkIOJob[] netIoJobs;
     private final StringSink[] tableNameSinks;
+    private final MeasurementBatch[] batches;
     private final TableStructureAdapter tableStructureAdapter;
     private final Path path = new Path();
     private final MemoryMARW ddlMem = Vm.getMARWInstance();
     private final LineTcpReceiverConfiguration configuration;
-    private Sequence pubSeq;
+    private Sequence[] pubSeq;
     private int loadCheckCycles = 0;
     private int reshuffleCount = 0;
     private LineTcpReceiver.SchedulerListener listener;
@@ -84,8 +88,10 @@ class LineTcpMeasurementScheduler implements Closeable {
         int n = ioWorkerPool.getWorkerCount();
         this.netIoJobs = new NetworkIOJob[n];
         this.tableNameSinks = new StringSink[n];
+        this.batches = new MeasurementBatch[n];
         for (int i = 0; i < n; i++) {
             tableNameSinks[i] = new StringSink();
+            batches[i] = new MeasurementBatch();
             NetworkIOJob netIoJob = createNetworkIOJob(dispatcher, i);
             netIoJobs[i] = netIoJob;
             ioWorkerPool.assign(i, netIoJob);
@@ -99,51 +105,36 @@ class LineTcpMeasurementScheduler implements Closeable {
         loadByWriterThread = new int[writerWorkerPool.getWorkerCount()];
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
         int queueSize = lineConfiguration.getWriterQueueCapacity();
-        queue = new RingQueue<>(
-                (address, addressSize) -> new LineTcpMeasurementEvent(
-                        address,
-                        addressSize,
-                        lineConfiguration.getMicrosecondClock(),
-                        lineConfiguration.getTimestampAdapter()
-                ),
-                getEventSlotSize(maxMeasurementSize),
-                queueSize,
-                MemoryTag.NATIVE_DEFAULT
-        );
-
-        pubSeq = new MPSequence(queueSize);
-
         int nWriterThreads = writerWorkerPool.getWorkerCount();
-        if (nWriterThreads > 1) {
-            FanOut fanOut = new FanOut();
-            for (int i = 0; i < nWriterThreads; i++) {
-                SCSequence subSeq = new SCSequence();
-                fanOut.and(subSeq);
-                final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
-                        i,
-                        queue,
-                        subSeq,
-                        milliClock,
-                        configuration.getMaintenanceInterval(),
-                        this
-                );
-                writerWorkerPool.assign(i, (Job) lineTcpWriterJob);
-                writerWorkerPool.assign(i, (Closeable) lineTcpWriterJob);
-            }
-            pubSeq.then(fanOut).then(pubSeq);
-        } else {
-            SCSequence subSeq = new SCSequence();
-            pubSeq.then(subSeq).then(pubSeq);
+        //noinspection unchecked
+        queue = new RingQueue[nWriterThreads];
+        pubSeq = new Sequence[nWriterThreads];
+        subSeq = new Sequence[nWriterThreads];
+        for (int i = 0; i < nWriterThreads; i++) {
+            queue[i] = new RingQueue<>(
+                    (address, addressSize) -> new LineTcpMeasurementEvent(
+                            address,
+                            addressSize,
+                            lineConfiguration.getMicrosecondClock(),
+                            lineConfiguration.getTimestampAdapter()
+                    ),
+                    getEventSlotSize(maxMeasurementSize),
+                    queueSize,
+                    MemoryTag.NATIVE_DEFAULT
+            );
+            pubSeq[i] = new MPSequence(queueSize);
+            subSeq[i] = new SCSequence();
+            pubSeq[i].then(subSeq[i]).then(pubSeq[i]);
             final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
-                    0,
-                    queue,
-                    subSeq,
+                    i,
+                    queue[i],
+                    subSeq[i],
                     milliClock,
                     configuration.getMaintenanceInterval(),
                     this
             );
-            writerWorkerPool.assign(0, (Job) lineTcpWriterJob);
-            writerWorkerPool.assign(0, (Closeable) lineTcpWriterJob);
+            writerWorkerPool.assign(i, (Job) lineTcpWriterJob);
+            writerWorkerPool.assign(i, (Closeable) lineTcpWriterJob);
         }
 
         this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, configuration.getDefaultPartitionBy());
@@ -176,7 +167,9 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
             Misc.free(path);
             Misc.free(ddlMem);
-            Misc.free(queue);
+            for (int i = 0, n = queue.length; i < n; i++) {
+                Misc.free(queue[i]);
+            }
         }
     }
 
@@ -192,16 +185,17 @@ class LineTcpMeasurementScheduler implements Closeable {
                 tableUpdateDetailsLock.writeLock().lock();
                 try {
                     if (tableUpdateDetails.getNetworkIOOwnerCount() == 1) {
-                        final long seq = getNextPublisherEventSequence();
+                        final int writerThreadId = tableUpdateDetails.getWriterThreadId();
+                        final long seq = getNextPublisherEventSequence(writerThreadId);
                         if (seq > -1) {
-                            LineTcpMeasurementEvent event = queue.get(seq);
+                            LineTcpMeasurementEvent event = queue[writerThreadId].get(seq);
                             event.createWriterReleaseEvent(tableUpdateDetails, true);
                             tableUpdateDetailsUtf8.remove(tableNameUtf8);
                             final CharSequence tableNameUtf16 = tableUpdateDetails.getTableNameUtf16();
                             tableUpdateDetailsUtf16.remove(tableNameUtf16);
                             idleTableUpdateDetailsUtf16.put(tableNameUtf16, tableUpdateDetails);
                             tableUpdateDetails.removeReference(workerId);
-                            pubSeq.done(seq);
+                            pubSeq[writerThreadId].done(seq);
                             if (listener != null) {
                                 // table going idle
                                 listener.onEvent(tableNameUtf16, 1);
@@ -245,7 +239,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         return true;
     }
 
-    private static long getEventSlotSize(int maxMeasurementSize) {
+    static long getEventSlotSize(int maxMeasurementSize) {
         return Numbers.ceilPow2((long) (maxMeasurementSize / 4) * (Integer.BYTES + Double.BYTES + 1));
     }
 
@@ -263,20 +257,39 @@ class LineTcpMeasurementScheduler implements Closeable {
         return loadCheckCycles;
     }
 
-    long getNextPublisherEventSequence() {
+    long getNextPublisherEventSequence(int writerThreadId) {
         assert isOpen();
         long seq;
         //noinspection StatementWithEmptyBody
-        while ((seq = pubSeq.next()) == -2) {
+        while ((seq = pubSeq[writerThreadId].next()) == -2) {
         }
         return seq;
     }
 
+    @TestOnly
+    long getPublishedEventCount() {
+        long count = 0;
+        for (int i = 0, n = pubSeq.length; i < n; i++) {
+            count += pubSeq[i].current() + 1;
+        }
+        return count;
+    }
+
     @TestOnly
     int getReshuffleCount() {
         return reshuffleCount;
     }
 
+    int getWriterQueueCount() {
+        return queue.length;
+    }
+
+    long getWriterQueueDepth(int writerThreadId) {
+        // events published to the queue and not yet consumed by the writer thread
+        final Sequence[] pubSeq = this.pubSeq;
+        return pubSeq != null ? Math.max(0, pubSeq[writerThreadId].current() - subSeq[writerThreadId].current()) : 0;
+    }
+
     private TableUpdateDetails getTableUpdateDetailsFromSharedArea(@NotNull NetworkIOJob netIoJob, @NotNull LineTcpParser parser) {
         final DirectByteCharSequence tableNameUtf8 = parser.getMeasurementName();
         final StringSink tableNameUtf16 = tableNameSinks[netIoJob.getWorkerId()];
@@ -407,22 +420,50 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
 
         if (null != tableToMove) {
-            long seq = getNextPublisherEventSequence();
-            if (seq >= 0) {
+            // The move is announced on both writer queues. The "new" owner gets its marker before the
+            // table is re-routed, so it cannot see events for the table ahead of the marker. The "old" owner
+            // gets its marker after all batches for the table have been published, network IO threads
+            // do not open batches while the move is in progress and the move is not done when
+            // there are open batches.
+            final long toSeq = getNextPublisherEventSequence(toThreadId);
+            if (toSeq < 0) {
+                return;
+            }
+            final LineTcpMeasurementEvent toEvent = queue[toThreadId].get(toSeq);
+            try {
+                tableToMove.beginMove();
                 try {
-                    LineTcpMeasurementEvent event = queue.get(seq);
-                    event.createReshuffleEvent(fromThreadId, toThreadId, tableToMove);
-                    tableToMove.setWriterThreadId(toThreadId);
-                    LOG.info()
-                            .$("reshuffle cycle, requesting table move [cycle=").$(loadCheckCycles)
-                            .$(", reshuffleCount=").$(++reshuffleCount)
-                            .$(", table=").$(tableToMove.getTableNameUtf16())
-                            .$(", fromThreadId=").$(fromThreadId)
-                            .$(", toThreadId=").$(toThreadId)
-                            .I$();
+                    if (tableToMove.hasOpenBatches()) {
+                        // network IO thread is adding lines to the "old" owner queue, try again on the next reshuffle cycle
+                        toEvent.createIncompleteEvent();
+                        return;
+                    }
+                    final long fromSeq = getNextPublisherEventSequence(fromThreadId);
+                    if (fromSeq < 0) {
+                        // the "old" owner queue is full, try again on the next reshuffle cycle
+                        toEvent.createIncompleteEvent();
+                        return;
+                    }
+                    final int handoffSeq = tableToMove.nextHandoffSeq();
+                    try {
+                        toEvent.createReshuffleEvent(fromThreadId, toThreadId, tableToMove, handoffSeq);
+                        tableToMove.setWriterThreadId(toThreadId);
+                        queue[fromThreadId].get(fromSeq).createReshuffleEvent(fromThreadId, toThreadId, tableToMove, handoffSeq);
+                    } finally {
+                        pubSeq[fromThreadId].done(fromSeq);
+                    }
                 } finally {
-                    pubSeq.done(seq);
+                    tableToMove.endMove();
                 }
+                LOG.info()
+                        .$("reshuffle cycle, requesting table move [cycle=").$(loadCheckCycles)
+                        .$(", reshuffleCount=").$(++reshuffleCount)
+                        .$(", table=").$(tableToMove.getTableNameUtf16())
+                        .$(", fromThreadId=").$(fromThreadId)
+                        .$(", toThreadId=").$(toThreadId)
+                        .I$();
+            } finally {
+                pubSeq[toThreadId].done(toSeq);
             }
         }
     }
@@ -453,19 +494,51 @@ class LineTcpMeasurementScheduler implements Closeable {
             return false;
         }
 
-        long seq = getNextPublisherEventSequence();
-        if (seq > -1) {
-            try {
-                queue.get(seq).createMeasurementEvent(
-                        tableUpdateDetails,
-                        parser,
-                        floatingDirectCharSink,
-                        netIoJob.getWorkerId()
-                );
-            } finally {
-                pubSeq.done(seq);
+        final int workerId = netIoJob.getWorkerId();
+        final MeasurementBatch batch = batches[workerId];
+        if (batch.seq > -1) {
+            if (batch.event.getTableUpdateDetails() == tableUpdateDetails
+                    && batch.event.addMeasurement(tableUpdateDetails, parser, floatingDirectCharSink, workerId)) {
+                tableUpdateDetails.incrementEventsProcessedSinceReshuffle();
+                return false;
             }
-            if (tableUpdateDetails.incrementEventsProcessedSinceReshuffle() > processedEventCountBeforeReshuffle) {
+            flushEvents(netIoJob);
+        }
+
+        // table cannot move to another writer thread while there is an open batch for it
+        tableUpdateDetails.openBatch();
+        final int writerThreadId = tableUpdateDetails.getWriterThreadId();
+        final long seq = getNextPublisherEventSequence(writerThreadId);
+        if (seq < 0) {
+            tableUpdateDetails.closeBatch();
+            return true;
+        }
+        final LineTcpMeasurementEvent event = queue[writerThreadId].get(seq);
+        try {
+            event.createMeasurementEvent(
+                    tableUpdateDetails,
+                    parser,
+                    floatingDirectCharSink,
+                    workerId
+            );
+        } catch (Throwable th) {
+            pubSeq[writerThreadId].done(seq);
+            tableUpdateDetails.closeBatch();
+            throw th;
+        }
+        batch.of(event, seq, writerThreadId);
+        tableUpdateDetails.incrementEventsProcessedSinceReshuffle();
+        return false;
+    }
+
+    void flushEvents(NetworkIOJob netIoJob) {
+        final MeasurementBatch batch = batches[netIoJob.getWorkerId()];
+        if (batch.seq > -1) {
+            final TableUpdateDetails tableUpdateDetails = batch.event.getTableUpdateDetails();
+            pubSeq[batch.writerThreadId].done(batch.seq);
+            batch.clear();
+            tableUpdateDetails.closeBatch();
+            if (tableUpdateDetails.getEventsProcessedSinceReshuffle() > processedEventCountBeforeReshuffle) {
                 if (tableUpdateDetailsLock.writeLock().tryLock()) {
                     try {
                         reshuffleTablesAcrossWriterThreads();
@@ -474,9 +547,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                     }
                 }
             }
-            return false;
         }
-        return true;
     }
 
     @NotNull
@@ -520,4 +591,23 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
         }
     }
+
+    private static class MeasurementBatch {
+        // Event network IO thread keeps adding lines for the same table to, the event
+        // is published when lines for another table arrive or the receive buffer is drained
+        private LineTcpMeasurementEvent event;
+        private long seq = -1;
+        private int writerThreadId;
+
+        private void clear() {
+            event = null;
+            seq = -1;
+        }
+
+        private void of(LineTcpMeasurementEvent event, long seq, int writerThreadId) {
+            this.event = event;
+            this.seq = seq;
+            this.writerThreadId = writerThreadId;
+        }
+    }
 }
@@ -106,6 +106,16 @@ public class LineTcpParser implements Closeable {
         return nEntities;
     }
 
+    /**
+     * Upper bound of the number of bytes the last parsed measurement takes once serialized
+     * into writer queue event. Serialized line is never more than 4 times the size of the line text.
+     *
+     * @return serialized size bound, not including row header
+     */
+    public long getSerializedSizeBound() {
+        return 4 * (bufAt - measurementName.getLo());
+    }
+
     public boolean hasNonAsciiChars() {
         return hasNonAscii;
     }
@@ -503,6 +513,8 @@ public class LineTcpParser implements Closeable {
         INVALID_FIELD_VALUE_STR_UNDERFLOW,
         INVALID_TABLE_NAME,
         INVALID_COLUMN_NAME,
+        INVALID_MESSAGE,
+        MEASUREMENT_TOO_LARGE,
         NONE
     }
 
@@ -548,6 +560,27 @@ public class LineTcpParser implements Closeable {
             value.shl(shl);
         }
 
+        void of(long nameLo, long nameHi, byte type) {
+            name.of(nameLo, nameHi);
+            this.type = type;
+        }
+
+        void setBooleanValue(boolean booleanValue) {
+            this.booleanValue = booleanValue;
+        }
+
+        void setFloatValue(double floatValue) {
+            this.floatValue = floatValue;
+        }
+
+        void setLongValue(long longValue) {
+            this.longValue = longValue;
+        }
+
+        void setValue(long lo, long hi) {
+            value.of(lo, hi);
+        }
+
         private void clear() {
             type = ENTITY_TYPE_NONE;
         }
@@ -114,6 +114,14 @@ public class LineTcpReceiver implements Closeable {
         Misc.free(dispatcher);
     }
 
+    public int getWriterQueueCount() {
+        return scheduler.getWriterQueueCount();
+    }
+
+    public long getWriterQueueDepth(int writerThreadId) {
+        return scheduler.getWriterQueueDepth(writerThreadId);
+    }
+
     @TestOnly
     void setSchedulerListener(SchedulerListener listener) {
         scheduler.setListener(listener);
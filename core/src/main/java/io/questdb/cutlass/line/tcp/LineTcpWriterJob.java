@@ -126,7 +126,8 @@ class LineTcpWriterJob implements Job, Closeable {
             boolean eventProcessed;
 
             try {
-                // we check the event's writer thread ID to avoid consuming
+                // the queue only carries events for tables owned by this thread, but
+                // we still check the event's writer thread ID to avoid consuming
                 // incomplete events
 
                 if (event.getWriterWorkerId() == workerId) {
@@ -183,11 +184,11 @@ class LineTcpWriterJob implements Job, Closeable {
     private boolean processReshuffleEvent(LineTcpMeasurementEvent event) {
         if (event.getReshuffleTargetWorkerId() == workerId) {
             // This thread is now a declared owner of the table, but it can only become actual
-            // owner when "old" owner is fully done. This is a volatile variable on the event, used by both threads
-            // to hand over the table. The starting point is "false" and the "old" owner thread will eventually set this
-            // to "true". In the meantime current thread will not be processing the queue until the handover is
-            // complete
-            if (event.isReshuffleComplete()) {
+            // owner when "old" owner is fully done. The "old" owner receives the same move on its own queue
+            // and, once it has drained all events published for the table before the move, publishes
+            // the handoff sequence on the table. In the meantime current thread will not be processing
+            // its queue until the handover is complete
+            if (event.getTableUpdateDetails().getHandoffCompleteSeq() - event.getHandoffSeq() >= 0) {
                 LOG.info()
                         .$("rebalance cycle, new thread ready [threadId=").$(workerId)
                         .$(", table=").$(event.getTableUpdateDetails().getTableNameUtf16())
@@ -211,7 +212,7 @@ class LineTcpWriterJob implements Job, Closeable {
                     .$(", table=").$(tab.getTableNameUtf16())
                     .I$();
             tab.setAssignedToJob(false);
-            event.setReshuffleComplete(true);
+            tab.setHandoffCompleteSeq(event.getHandoffSeq());
         }
 
         return true;
@@ -36,6 +36,7 @@ import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TableUpdateDetails implements Closeable {
     private static final Log LOG = LogFactory.getLog(TableUpdateDetails.class);
@@ -45,7 +46,17 @@ public class TableUpdateDetails implements Closeable {
     private final CairoEngine engine;
     private final MillisecondClock millisecondClock;
     private final long writerTickRowsCountMod;
-    private int writerThreadId;
+    // Number of network IO threads batching lines for the table into a not yet published event,
+    // the scheduler does not move the table while there are any
+    private final AtomicInteger openBatchCount = new AtomicInteger();
+    private volatile int writerThreadId;
+    // Odd while the scheduler is moving the table to another writer thread, network IO threads
+    // do not open batches for the table while the move is in progress
+    private volatile int moveVersion = 0;
+    // Sequence of the last move requested by the scheduler and the last move the "old" owner
+    // thread has let go of, the "new" owner thread does not touch the table until they match
+    private int handoffRequestSeq = 0;
+    private volatile int handoffCompleteSeq = 0;
     // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
     // multiple threads without synchronisation
     private int eventsProcessedSinceReshuffle = 0;
@@ -135,6 +146,14 @@ public class TableUpdateDetails implements Closeable {
         this.eventsProcessedSinceReshuffle = eventsProcessedSinceReshuffle;
     }
 
+    public int getHandoffCompleteSeq() {
+        return handoffCompleteSeq;
+    }
+
+    public void setHandoffCompleteSeq(int handoffCompleteSeq) {
+        this.handoffCompleteSeq = handoffCompleteSeq;
+    }
+
     public long getLastMeasurementMillis() {
         return lastMeasurementMillis;
     }
@@ -177,6 +196,41 @@ public class TableUpdateDetails implements Closeable {
                 .I$();
     }
 
+    void beginMove() {
+        moveVersion++;
+    }
+
+    void endMove() {
+        moveVersion++;
+    }
+
+    boolean hasOpenBatches() {
+        return openBatchCount.get() > 0;
+    }
+
+    void openBatch() {
+        while (true) {
+            openBatchCount.incrementAndGet();
+            if ((moveVersion & 1) == 0) {
+                return;
+            }
+            openBatchCount.decrementAndGet();
+            // table is being moved to another writer thread, the move is
+            // a handful of instructions under the scheduler lock
+            //noinspection StatementWithEmptyBody
+            while ((moveVersion & 1) != 0) {
+            }
+        }
+    }
+
+    void closeBatch() {
+        openBatchCount.decrementAndGet();
+    }
+
+    int nextHandoffSeq() {
+        return ++handoffRequestSeq;
+    }
+
     int getSymbolIndex(ThreadLocalDetails localDetails, int colIndex, CharSequence symValue) {
         if (colIndex >= 0) {
             return localDetails.getSymbolIndex(colIndex, symValue);
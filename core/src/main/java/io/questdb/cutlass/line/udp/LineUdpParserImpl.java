@@ -84,6 +84,8 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
     private FieldNameParser onFieldName;
     private FieldValueParser onFieldValue;
     private FieldValueParser onTagValue;
+    private long lineCount;
+    private long appendedRowCount;
     private final FieldValueParser MY_TAG_VALUE = this::parseTagValue;
     private final FieldValueParser MY_FIELD_VALUE = this::parseFieldValue;
     private final FieldValueParser MY_NEW_FIELD_VALUE = this::parseFieldValueNewTable;
@@ -109,6 +111,31 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
         }
     }
 
+    public long getAppendedRowCount() {
+        return appendedRowCount;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns cached writers to the pool, rows that were not committed are rolled back. Parser can
+     * continue to be used afterwards, writers are re-acquired on demand.
+     */
+    public void releaseWriters() {
+        for (int i = 0, n = writerCache.size(); i < n; i++) {
+            Misc.free(writerCache.valueQuick(i).writer);
+        }
+        writerCache.clear();
+        commitList.clear();
+        cacheEntryIndex = 0;
+        writer = null;
+        lineCount = 0;
+        appendedRowCount = 0;
+        clearState();
+    }
+
     public void commitAll(int commitMode) {
         if (writer != null) {
             writer.commit(commitMode);
@@ -121,6 +148,7 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
 
     @Override
     public void onError(int position, int state, int code) {
+        lineCount++;
         clearState();
     }
 
@@ -165,6 +193,7 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
 
     @Override
     public void onLineEnd(CharSequenceCache cache) {
+        lineCount++;
         try {
             onLineEnd.parse(cache);
         } catch (CairoException e) {
@@ -197,6 +226,7 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
                 );
             }
             row.append();
+            appendedRowCount++;
         } catch (BadCastException ignore) {
             row.cancel();
         }
@@ -221,6 +251,7 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
                 );
             }
             row.append();
+            appendedRowCount++;
         } catch (BadCastException ignore) {
             row.cancel();
         }
@@ -137,6 +137,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private int bufferRemainingSize = 0;
     private RecordCursor currentCursor = null;
     private RecordCursorFactory currentFactory = null;
+    // workload class current cursor is admitted in, -1 when there is no admitted cursor
+    private int admittedWorkloadClass = -1;
     // these references are held by context only for a period of processing single request
     // in PF world this request can span multiple messages, but still, only for one request
     // the rationale is to be able to return "selectAndTypes" instance to thread-local
@@ -991,9 +993,17 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void admitCursor() {
+        final QueryAdmissionController admissionController = engine.getQueryAdmissionController();
+        final int workloadClass = admissionController.getWorkloadClass(username);
+        assert admittedWorkloadClass == -1;
+        admissionController.acquire(workloadClass);
+        admittedWorkloadClass = workloadClass;
+    }
+
     private void clearCursorAndFactory() {
         resumeProcessor = null;
-        currentCursor = Misc.free(currentCursor);
+        freeCurrentCursor();
         // do not free factory, it will be cached
         currentFactory = null;
         // we we resumed the cursor send the typeAndSelect will be null
@@ -1517,13 +1527,21 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                 .I$();
     }
 
+    private void freeCurrentCursor() {
+        currentCursor = Misc.free(currentCursor);
+        if (admittedWorkloadClass != -1) {
+            engine.getQueryAdmissionController().release(admittedWorkloadClass);
+            admittedWorkloadClass = -1;
+        }
+    }
+
     private void prepareForNewQuery() {
         if (completed) {
             LOG.debug().$("prepare for new query").$();
             isEmptyQuery = false;
             characterStore.clear();
             bindVariableService.clear();
-            currentCursor = Misc.free(currentCursor);
+            freeCurrentCursor();
             typesAndInsert = null;
             typesAndSelect = null;
             rowCount = 0;
@@ -2222,24 +2240,31 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
     private void setupFactoryAndCursor(SqlCompiler compiler) throws SqlException, PeerIsSlowToReadException, PeerDisconnectedException {
         if (currentCursor == null) {
-            boolean recompileStale = true;
-            do {
-                currentFactory = typesAndSelect.getFactory();
-                try {
-                    currentCursor = currentFactory.getCursor(sqlExecutionContext);
-                    recompileStale = false;
-                    // cache random if it was replaced
-                    this.rnd = sqlExecutionContext.getRandom();
-                } catch (ReaderOutOfDateException e) {
-                    LOG.info().$(e.getFlyweightMessage()).$();
-                    currentFactory = Misc.free(currentFactory);
-                    compileQuery(compiler);
-                    buildSelectColumnTypes();
-                } catch (Throwable e) {
-                    currentFactory = Misc.free(currentFactory);
-                    throw e;
-                }
-            } while (recompileStale);
+            admitCursor();
+            try {
+                boolean recompileStale = true;
+                do {
+                    currentFactory = typesAndSelect.getFactory();
+                    try {
+                        currentCursor = currentFactory.getCursor(sqlExecutionContext);
+                        recompileStale = false;
+                        // cache random if it was replaced
+                        this.rnd = sqlExecutionContext.getRandom();
+                    } catch (ReaderOutOfDateException e) {
+                        LOG.info().$(e.getFlyweightMessage()).$();
+                        currentFactory = Misc.free(currentFactory);
+                        compileQuery(compiler);
+                        buildSelectColumnTypes();
+                    } catch (Throwable e) {
+                        currentFactory = Misc.free(currentFactory);
+                        throw e;
+                    }
+                } while (recompileStale);
+            } catch (Throwable e) {
+                // recompilation can fail too, admission slot must be returned whichever way cursor is not opened
+                freeCurrentCursor();
+                throw e;
+            }
         }
     }
 
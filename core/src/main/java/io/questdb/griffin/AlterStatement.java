@@ -46,6 +46,7 @@ public class AlterStatement implements Mutable {
     public final static short RENAME_COLUMN = 10;
     public final static short SET_PARAM_MAX_UNCOMMITTED_ROWS = 11;
     public final static short SET_PARAM_COMMIT_LAG = 12;
+    public final static short SET_DEDUP_KEYS = 13;
 
     private final static Log LOG = LogFactory.getLog(AlterStatement.class);
 
@@ -109,6 +110,9 @@ public class AlterStatement implements Mutable {
                 case SET_PARAM_COMMIT_LAG:
                     applyParamCommitLag(tableWriter);
                     break;
+                case SET_DEDUP_KEYS:
+                    applyDedupKeys(tableWriter);
+                    break;
                 default:
                     LOG.error().$("Invalid alter table command [code=").$(command).$(" ,table=").$(tableName).I$();
                     throw SqlException.$(tableNamePosition, "Invalid alter table command [code=").put(command).put(']');
@@ -292,6 +296,19 @@ public class AlterStatement implements Mutable {
         }
     }
 
+    private void applyDedupKeys(TableWriter tableWriter) throws SqlException {
+        final IntList columnIndexes = new IntList(charSequenceList.size());
+        for (int i = 0, n = charSequenceList.size(); i < n; i++) {
+            CharSequence columnName = charSequenceList.getStrA(i);
+            int columnIndex = tableWriter.getMetadata().getColumnIndexQuiet(columnName);
+            if (columnIndex == -1) {
+                throw SqlException.invalidColumn(tableNamePosition, columnName);
+            }
+            columnIndexes.add(columnIndex);
+        }
+        tableWriter.setMetaDedupKeys(columnIndexes);
+    }
+
     private void applyDropColumn(TableWriter writer) throws SqlException {
         for (int i = 0, n = charSequenceList.size(); i < n; i++) {
             CharSequence columnName = charSequenceList.getStrA(i);
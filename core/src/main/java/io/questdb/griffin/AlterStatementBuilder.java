@@ -133,6 +133,20 @@ public class AlterStatementBuilder {
         return this;
     }
 
+    public AlterStatementBuilder ofDedupKeys(int tableNamePosition, String tableName, int tableId) {
+        this.command = SET_DEDUP_KEYS;
+        this.tableNamePosition = tableNamePosition;
+        this.tableName = tableName;
+        this.tableId = tableId;
+        return this;
+    }
+
+    public AlterStatementBuilder ofDedupKey(CharSequence columnName) {
+        assert columnName != null && columnName.length() > 0;
+        this.objCharList.add(columnName);
+        return this;
+    }
+
     public AlterStatementBuilder ofSetParamCommitLag(String tableName, int tableId, long commitLag) {
         this.command = SET_PARAM_COMMIT_LAG;
         this.tableName = tableName;
@@ -45,6 +45,7 @@ public interface CompiledQuery {
     short BACKUP_TABLE = 13;
     short LOCK = 14;
     short UNLOCK = 14;
+    short UPDATE = 15;
 
     RecordCursorFactory getRecordCursorFactory();
 
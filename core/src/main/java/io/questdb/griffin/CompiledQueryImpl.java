@@ -202,6 +202,10 @@ public class CompiledQueryImpl implements CompiledQuery {
         return of(TRUNCATE);
     }
 
+    CompiledQuery ofUpdate() {
+        return of(UPDATE);
+    }
+
     private class AlterTableQueryFuture implements QueryFuture {
         private SCSequence eventSubSeq;
         private int status;
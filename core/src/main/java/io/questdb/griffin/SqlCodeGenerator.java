@@ -45,6 +45,7 @@ import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.LongSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
@@ -344,6 +345,27 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     @NotNull
+    private RecordCursorFactory createAsOfSeekJoin(
+            RecordMetadata metadata,
+            RecordCursorFactory master,
+            DataFrameRecordCursorFactory slave,
+            int columnSplit
+    ) {
+        if (listColumnFilterA.size() > 0) {
+            final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+            return new AsOfJoinSeekRecordCursorFactory(
+                    metadata,
+                    master,
+                    slave,
+                    columnSplit,
+                    listColumnFilterB.getColumnIndexFactored(0),
+                    slaveKeyIndex,
+                    slave.getColumnIndexes().getQuick(slaveKeyIndex)
+            );
+        }
+        return new AsOfJoinSeekRecordCursorFactory(metadata, master, slave, columnSplit, -1, -1, -1);
+    }
+
     private RecordCursorFactory createFullFatJoin(
             RecordCursorFactory master,
             RecordMetadata masterMetadata,
@@ -548,6 +570,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                if (listColumnFilterA.getColumnCount() == 1) {
+                    final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+                    final int masterKeyIndex = listColumnFilterB.getColumnIndexFactored(0);
+                    if (ColumnType.isSymbol(slaveMetadata.getColumnType(slaveKeyIndex))
+                            && ColumnType.isSymbol(masterMetadata.getColumnType(masterKeyIndex))
+                            && slaveMetadata.isSymbolTableStatic(slaveKeyIndex)) {
+                        // join on symbol keys rather than on symbol values
+                        return new HashJoinLightSymbolRecordCursorFactory(
+                                configuration,
+                                metadata,
+                                master,
+                                slave,
+                                masterKeyIndex,
+                                slaveKeyIndex,
+                                masterMetadata.getColumnCount()
+                        );
+                    }
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -829,7 +869,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isAsOfSeekJoinSupported(masterMetadata, slave, slaveMetadata)) {
+                                        master = createAsOfSeekJoin(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                (DataFrameRecordCursorFactory) slave,
+                                                masterMetadata.getColumnCount()
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createAsOfJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -1310,6 +1357,26 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 orderedMetadata = GenericRecordMetadata.copyOfSansTimestamp(metadata);
 
                 if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
+                    if (listColumnFilterA.size() == 1) {
+                        final int filter = listColumnFilterA.getQuick(0);
+                        final int columnIndex = (filter > 0 ? filter : -filter) - 1;
+                        final int columnType = metadata.getColumnType(columnIndex);
+                        switch (ColumnType.tagOf(columnType)) {
+                            case ColumnType.INT:
+                            case ColumnType.LONG:
+                            case ColumnType.TIMESTAMP:
+                                return new LongSortedLightRecordCursorFactory(
+                                        configuration,
+                                        orderedMetadata,
+                                        recordCursorFactory,
+                                        columnIndex,
+                                        columnType,
+                                        filter < 0
+                                );
+                            default:
+                                break;
+                        }
+                    }
                     return new SortedLightRecordCursorFactory(
                             configuration,
                             orderedMetadata,
@@ -2389,7 +2456,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
             }
-            return new VirtualRecordCursorFactory(virtualMetadata, functions, factory);
+            return new VirtualRecordCursorFactory(configuration, virtualMetadata, functions, factory);
         } catch (SqlException | CairoException e) {
             factory.close();
             throw e;
@@ -3001,6 +3068,26 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equals(ast.token, name) && ast.rhs.type == LITERAL;
     }
 
+    // ASOF join can search slave by timestamp when slave is a plain table scan
+    // and key, if any, is a single indexed symbol
+    private boolean isAsOfSeekJoinSupported(RecordMetadata masterMetadata, RecordCursorFactory slave, RecordMetadata slaveMetadata) {
+        if (!(slave instanceof DataFrameRecordCursorFactory) || !((DataFrameRecordCursorFactory) slave).isFullTableScan()) {
+            return false;
+        }
+        if (listColumnFilterA.size() == 0) {
+            return listColumnFilterB.size() == 0;
+        }
+        if (listColumnFilterA.size() == 1 && listColumnFilterB.size() == 1) {
+            final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+            final int masterKeyIndex = listColumnFilterB.getColumnIndexFactored(0);
+            return ColumnType.isSymbol(slaveMetadata.getColumnType(slaveKeyIndex))
+                    && ColumnType.isSymbol(masterMetadata.getColumnType(masterKeyIndex))
+                    && slaveMetadata.isColumnIndexed(slaveKeyIndex)
+                    && slaveMetadata.isSymbolTableStatic(slaveKeyIndex);
+        }
+        return false;
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
@@ -95,6 +95,9 @@ public class SqlCompiler implements Closeable {
     private final TextLoader textLoader;
     private final FilesFacade ff;
     private final TimestampValueRecord partitionFunctionRec = new TimestampValueRecord();
+    private final IntList updateColumnIndexes = new IntList();
+    // triplets of column name position, expression offset in generated select and expression position in query
+    private final IntList dedupColumnIndexes = new IntList();
 
     public SqlCompiler(CairoEngine engine) {
         this(engine, null);
@@ -925,6 +928,15 @@ public class SqlCompiler implements Closeable {
         return functionParser.getFunctionFactoryCache();
     }
 
+    private static boolean isUpdateAssignableFrom(int to, int from) {
+        final int toTag = ColumnType.tagOf(to);
+        final int fromTag = ColumnType.tagOf(from);
+        // conversions that require parsing are not supported by column update
+        return isAssignableFrom(to, from)
+                && !((fromTag == ColumnType.STRING || fromTag == ColumnType.CHAR) && ColumnType.isGeoHash(to))
+                && !((fromTag == ColumnType.STRING || fromTag == ColumnType.SYMBOL) && toTag == ColumnType.TIMESTAMP);
+    }
+
     private static boolean isCompatibleCase(int from, int to) {
         return castGroups.getQuick(ColumnType.tagOf(from)) == castGroups.getQuick(ColumnType.tagOf(to));
     }
@@ -1074,6 +1086,8 @@ public class SqlCompiler implements Closeable {
                         throw SqlException.$(lexer.lastTokenPosition(), "'column' or 'partition' expected");
                     }
 
+                } else if (SqlKeywords.isDedupKeyword(tok)) {
+                    return alterTableDedup(tableNamePosition, tableName, tableMetadata);
                 } else if (SqlKeywords.isSetKeyword(tok)) {
                     tok = expectToken(lexer, "'param'");
                     if (SqlKeywords.isParamKeyword(tok)) {
@@ -1395,6 +1409,63 @@ public class SqlCompiler implements Closeable {
         );
     }
 
+    private CompiledQuery alterTableDedup(int tableNamePosition, String tableName, TableReaderMetadata metadata) throws SqlException {
+        AlterStatementBuilder dedupStatement = alterQueryBuilder.ofDedupKeys(tableNamePosition, tableName, metadata.getId());
+        CharSequence tok = expectToken(lexer, "'enable' or 'disable'");
+        if (SqlKeywords.isDisableKeyword(tok)) {
+            tok = SqlUtil.fetchNext(lexer);
+            if (tok != null && !Chars.equals(tok, ';')) {
+                throw SqlException.$(lexer.lastTokenPosition(), "unexpected token: ").put(tok);
+            }
+            return compiledQuery.ofAlter(alterQueryBuilder.build());
+        }
+
+        if (!SqlKeywords.isEnableKeyword(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'enable' or 'disable' expected");
+        }
+
+        if (!PartitionBy.isPartitioned(metadata.getPartitionBy())) {
+            throw SqlException.$(tableNamePosition, "deduplication is supported on partitioned tables only");
+        }
+
+        expectKeyword(lexer, "upsert");
+        expectKeyword(lexer, "keys");
+        final int keysPosition = lexer.lastTokenPosition();
+        expectKeyword(lexer, "(");
+
+        boolean timestampIncluded = false;
+        dedupColumnIndexes.clear();
+        do {
+            tok = GenericLexer.unquote(expectToken(lexer, "column name"));
+            final int columnIndex = metadata.getColumnIndexQuiet(tok);
+            if (columnIndex == -1) {
+                throw SqlException.invalidColumn(lexer.lastTokenPosition(), tok);
+            }
+            if (ColumnType.isVariableLength(metadata.getColumnType(columnIndex))) {
+                throw SqlException.$(lexer.lastTokenPosition(), "variable length column cannot be an upsert key");
+            }
+            if (dedupColumnIndexes.indexOf(columnIndex, 0, dedupColumnIndexes.size()) > -1) {
+                throw SqlException.$(lexer.lastTokenPosition(), "duplicate column");
+            }
+            dedupColumnIndexes.add(columnIndex);
+            timestampIncluded |= columnIndex == metadata.getTimestampIndex();
+            dedupStatement.ofDedupKey(GenericLexer.immutableOf(tok));
+
+            tok = expectToken(lexer, "',' or ')'");
+            if (Chars.equals(tok, ')')) {
+                break;
+            }
+            if (!Chars.equals(tok, ',')) {
+                throw SqlException.$(lexer.lastTokenPosition(), "',' or ')' expected");
+            }
+        } while (true);
+
+        if (!timestampIncluded) {
+            throw SqlException.$(keysPosition, "upsert keys must include designated timestamp");
+        }
+        return compiledQuery.ofAlter(alterQueryBuilder.build());
+    }
+
     private CompiledQuery alterTableDropColumn(int tableNamePosition, String tableName, TableReaderMetadata metadata) throws SqlException {
         AlterStatementBuilder dropColumnStatement = alterQueryBuilder.ofDropColumn(tableNamePosition, tableName, metadata.getId());
         int semicolonPos = -1;
@@ -1611,6 +1682,12 @@ public class SqlCompiler implements Closeable {
                 } else {
                     return lightlyValidateInsertModel(insertModel);
                 }
+            case ExecutionModel.UPDATE:
+                final UpdateModel updateModel = (UpdateModel) model;
+                final ExpressionNode updateTableName = updateModel.getTableName();
+                tableExistsOrFail(updateTableName.position, updateTableName.token, executionContext);
+                updateModel.setQueryModel(optimiser.optimise(updateModel.getQueryModel(), executionContext));
+                return updateModel;
             default:
                 return model;
         }
@@ -1646,6 +1723,8 @@ public class SqlCompiler implements Closeable {
                 final RenameTableModel rtm = (RenameTableModel) executionModel;
                 engine.rename(executionContext.getCairoSecurityContext(), path, GenericLexer.unquote(rtm.getFrom().token), renamePath, GenericLexer.unquote(rtm.getTo().token));
                 return compiledQuery.ofRenameTable();
+            case ExecutionModel.UPDATE:
+                return updateTable((UpdateModel) executionModel, executionContext);
             default:
                 InsertModel insertModel = (InsertModel) executionModel;
                 if (insertModel.getQueryModel() != null) {
@@ -2463,6 +2542,70 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofTruncate();
     }
 
+    private CompiledQuery updateTable(UpdateModel model, SqlExecutionContext executionContext) throws SqlException {
+        final int tableNamePosition = model.getTableName().position;
+        final CharSequence tableName = model.getTableName().token;
+        updateColumnIndexes.clear();
+        try (TableWriter writer = engine.getWriter(executionContext.getCairoSecurityContext(), tableName, "update")) {
+            final TableWriterMetadata metadata = writer.getMetadata();
+            if (!PartitionBy.isPartitioned(writer.getPartitionBy())) {
+                throw SqlException.$(tableNamePosition, "UPDATE is supported on partitioned tables only");
+            }
+            for (int i = 0, n = model.getColumnCount(); i < n; i++) {
+                final CharSequence columnName = model.getColumnName(i);
+                final int columnPosition = model.getColumnPosition(i);
+                final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+                if (columnIndex < 0) {
+                    throw SqlException.invalidColumn(columnPosition, columnName);
+                }
+                if (updateColumnIndexes.indexOf(columnIndex, 0, updateColumnIndexes.size()) > -1) {
+                    throw SqlException.$(columnPosition, "duplicate column [name=").put(columnName).put(']');
+                }
+                if (columnIndex == metadata.getTimestampIndex()) {
+                    throw SqlException.$(columnPosition, "designated timestamp column cannot be updated");
+                }
+                if (ColumnType.isVariableLength(metadata.getColumnType(columnIndex))) {
+                    throw SqlException.$(columnPosition, "variable length column cannot be updated");
+                }
+                if (metadata.isColumnIndexed(columnIndex)) {
+                    throw SqlException.$(columnPosition, "indexed column cannot be updated");
+                }
+                updateColumnIndexes.add(columnIndex);
+            }
+
+            final RecordCursorFactory factory = generate(model.getQueryModel(), executionContext);
+
+            try {
+                final RecordMetadata valuesMetadata = factory.getMetadata();
+                for (int i = 0, n = updateColumnIndexes.size(); i < n; i++) {
+                    final int fromType = valuesMetadata.getColumnType(i);
+                    final int toType = metadata.getColumnType(updateColumnIndexes.getQuick(i));
+                    if (!isUpdateAssignableFrom(toType, fromType)) {
+                        throw SqlException.inconvertibleTypes(
+                                model.getValuePosition(i),
+                                fromType,
+                                valuesMetadata.getColumnName(i),
+                                toType,
+                                model.getColumnName(i)
+                        );
+                    }
+                }
+                if (!factory.recordCursorSupportsRandomAccess()) {
+                    throw SqlException.$(tableNamePosition, "rows to update cannot be addressed by row id");
+                }
+                try (RecordCursor cursor = factory.getCursor(executionContext)) {
+                    writer.updateColumns(updateColumnIndexes, valuesMetadata, cursor);
+                }
+            } finally {
+                factory.close();
+            }
+        } catch (CairoException e) {
+            LOG.info().$("could not update [table=").$(tableName).$(", e=").$((Sinkable) e).$(']').$();
+            throw SqlException.$(tableNamePosition, "table '").put(tableName).put("' could not be updated: ").put(e.getFlyweightMessage());
+        }
+        return compiledQuery.ofUpdate();
+    }
+
     private Function validateAndConsume(
             InsertModel model,
             int tupleIndex,
@@ -2721,6 +2864,8 @@ public class SqlCompiler implements Closeable {
         private transient int changeDirPrefixLen;
         private transient int currDirPrefixLen;
         private final StringSink fileNameSink = new StringSink();
+        private final IncrementalTableBackup incrementalBackup = new IncrementalTableBackup(configuration, engine.getMessageBus());
+        private transient boolean incremental;
         private final FindVisitor confFilesBackupOnFind = (file, type) -> {
             if (type == Files.DT_FILE) {
                 srcPath.of(configuration.getConfRoot()).concat(file).$();
@@ -2752,6 +2897,7 @@ public class SqlCompiler implements Closeable {
             cachedTmpBackupRoot = null;
             changeDirPrefixLen = 0;
             currDirPrefixLen = 0;
+            incremental = false;
             tableBackupRowCopiedCache.clear();
             tableNames.clear();
         }
@@ -2763,6 +2909,7 @@ public class SqlCompiler implements Closeable {
             tableBackupRowCopiedCache.clear();
             Misc.free(srcPath);
             Misc.free(dstPath);
+            Misc.free(incrementalBackup);
         }
 
         private void backupTabIndexFile() {
@@ -2788,20 +2935,15 @@ public class SqlCompiler implements Closeable {
             try {
                 CairoSecurityContext securityContext = executionContext.getCairoSecurityContext();
                 try (TableReader reader = engine.getReader(securityContext, tableName)) {
-                    cloneMetaData(tableName, cachedTmpBackupRoot, configuration.getBackupMkDirMode(), reader);
-                    try (TableWriter backupWriter = engine.getBackupWriter(securityContext, tableName, cachedTmpBackupRoot)) {
-                        RecordMetadata writerMetadata = backupWriter.getMetadata();
-                        srcPath.of(tableName).slash().put(reader.getVersion()).$();
-                        RecordToRowCopier recordToRowCopier = tableBackupRowCopiedCache.get(srcPath);
-                        if (null == recordToRowCopier) {
-                            entityColumnFilter.of(writerMetadata.getColumnCount());
-                            recordToRowCopier = assembleRecordToRowCopier(asm, reader.getMetadata(), writerMetadata, entityColumnFilter);
-                            tableBackupRowCopiedCache.put(srcPath.toString(), recordToRowCopier);
-                        }
-
-                        RecordCursor cursor = reader.getCursor();
-                        copyTableData(cursor, reader.getMetadata(), backupWriter, writerMetadata, recordToRowCopier);
-                        backupWriter.commit();
+                    if (incremental) {
+                        incrementalBackup.backup(
+                                reader,
+                                cachedTmpBackupRoot,
+                                incrementalBackup.findPreviousBackup(reader, configuration.getBackupRoot()),
+                                configuration.getBackupMkDirMode()
+                        );
+                    } else {
+                        backupTableRows(tableName, reader, securityContext);
                     }
                 }
 
@@ -2828,6 +2970,24 @@ public class SqlCompiler implements Closeable {
             }
         }
 
+        private void backupTableRows(CharSequence tableName, TableReader reader, CairoSecurityContext securityContext) {
+            cloneMetaData(tableName, cachedTmpBackupRoot, configuration.getBackupMkDirMode(), reader);
+            try (TableWriter backupWriter = engine.getBackupWriter(securityContext, tableName, cachedTmpBackupRoot)) {
+                RecordMetadata writerMetadata = backupWriter.getMetadata();
+                srcPath.of(tableName).slash().put(reader.getVersion()).$();
+                RecordToRowCopier recordToRowCopier = tableBackupRowCopiedCache.get(srcPath);
+                if (null == recordToRowCopier) {
+                    entityColumnFilter.of(writerMetadata.getColumnCount());
+                    recordToRowCopier = assembleRecordToRowCopier(asm, reader.getMetadata(), writerMetadata, entityColumnFilter);
+                    tableBackupRowCopiedCache.put(srcPath.toString(), recordToRowCopier);
+                }
+
+                RecordCursor cursor = reader.getCursor();
+                copyTableData(cursor, reader.getMetadata(), backupWriter, writerMetadata, recordToRowCopier);
+                backupWriter.commit();
+            }
+        }
+
         private void cdConfRenamePath() {
             mkdir(PropServerConfiguration.CONFIG_DIRECTORY, "could not create backup [conf dir=");
         }
@@ -2880,6 +3040,20 @@ public class SqlCompiler implements Closeable {
             }
         }
 
+        private void parseIncremental(CharSequence tok) throws SqlException {
+            if (null == tok || Chars.equals(tok, ';')) {
+                return;
+            }
+            if (!isIncrementalKeyword(tok)) {
+                throw SqlException.position(lexer.lastTokenPosition()).put("'incremental' expected");
+            }
+            incremental = true;
+            tok = SqlUtil.fetchNext(lexer);
+            if (null != tok && !Chars.equals(tok, ';')) {
+                throw SqlException.position(lexer.lastTokenPosition()).put("unexpected token [").put(tok).put(']');
+            }
+        }
+
         private void setupBackupRenamePath() {
             DateFormat format = configuration.getBackupDirTimestampFormat();
             long epochMicros = configuration.getMicrosecondClock().getTicks();
@@ -2921,9 +3095,10 @@ public class SqlCompiler implements Closeable {
             throw SqlException.position(lexer.lastTokenPosition()).put("expected 'table' or 'database'");
         }
 
-        private CompiledQuery sqlDatabaseBackup(SqlExecutionContext executionContext) {
+        private CompiledQuery sqlDatabaseBackup(SqlExecutionContext executionContext) throws SqlException {
             currentExecutionContext = executionContext;
             try {
+                parseIncremental(SqlUtil.fetchNext(lexer));
                 setupBackupRenamePath();
                 cdDbRenamePath();
                 ff.iterateDir(srcPath.of(configuration.getRoot()).$(), sqlDatabaseBackupOnFind);
@@ -2933,6 +3108,7 @@ public class SqlCompiler implements Closeable {
                 return compiledQuery.ofBackupTable();
             } finally {
                 currentExecutionContext = null;
+                incremental = false;
             }
         }
 
@@ -2958,6 +3134,10 @@ public class SqlCompiler implements Closeable {
                     if (null == tok || Chars.equals(tok, ';')) {
                         break;
                     }
+                    if (isIncrementalKeyword(tok)) {
+                        parseIncremental(tok);
+                        break;
+                    }
                     if (!Chars.equals(tok, ',')) {
                         throw SqlException.position(lexer.lastTokenPosition()).put("expected ','");
                     }
@@ -2970,6 +3150,7 @@ public class SqlCompiler implements Closeable {
                 return compiledQuery.ofBackupTable();
             } finally {
                 tableNames.clear();
+                incremental = false;
             }
         }
     }
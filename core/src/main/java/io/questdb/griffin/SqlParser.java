@@ -54,6 +54,7 @@ public final class SqlParser {
     private final ObjectPool<WithClauseModel> withClauseModelPool;
     private final ObjectPool<InsertModel> insertModelPool;
     private final ObjectPool<CopyModel> copyModelPool;
+    private final ObjectPool<UpdateModel> updateModelPool;
     private final ExpressionParser expressionParser;
     private final CairoConfiguration configuration;
     private final PostOrderTreeTraversalAlgo traversalAlgo;
@@ -86,6 +87,7 @@ public final class SqlParser {
         this.withClauseModelPool = new ObjectPool<>(WithClauseModel.FACTORY, configuration.getWithClauseModelPoolCapacity());
         this.insertModelPool = new ObjectPool<>(InsertModel.FACTORY, configuration.getInsertPoolCapacity());
         this.copyModelPool = new ObjectPool<>(CopyModel.FACTORY, configuration.getCopyPoolCapacity());
+        this.updateModelPool = new ObjectPool<>(UpdateModel.FACTORY, configuration.getInsertPoolCapacity());
         this.configuration = configuration;
         this.traversalAlgo = traversalAlgo;
         this.characterStore = characterStore;
@@ -162,6 +164,7 @@ public final class SqlParser {
         insertModelPool.clear();
         expressionTreeBuilder.reset();
         copyModelPool.clear();
+        updateModelPool.clear();
     }
 
     private CharSequence createColumnAlias(ExpressionNode node, QueryModel model) {
@@ -392,6 +395,10 @@ public final class SqlParser {
             return parseCopy(lexer);
         }
 
+        if (isUpdateKeyword(tok)) {
+            return parseUpdate(lexer);
+        }
+
         return parseSelect(lexer);
     }
 
@@ -1123,6 +1130,75 @@ public final class SqlParser {
         throw err(lexer, "'select' or 'values' expected");
     }
 
+    /**
+     * Parses UPDATE as selection of new column values over the table, values are selected in the order of
+     * SET clause and aliased as the columns they are assigned to.
+     */
+    private ExecutionModel parseUpdate(GenericLexer lexer) throws SqlException {
+        final int modelPosition = lexer.getPosition();
+        CharSequence tok = tok(lexer, "table name");
+        final ExpressionNode tableName = nextLiteral(
+                GenericLexer.immutableOf(GenericLexer.assertNoDotsAndSlashes(GenericLexer.unquote(tok), lexer.lastTokenPosition())),
+                lexer.lastTokenPosition()
+        );
+
+        tok = tok(lexer, "'set'");
+        if (!isSetKeyword(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'set' expected");
+        }
+
+        final UpdateModel model = updateModelPool.next();
+        model.setTableName(tableName);
+
+        final QueryModel queryModel = queryModelPool.next();
+        queryModel.setModelPosition(modelPosition);
+        queryModel.setSelectModelType(QueryModel.SELECT_MODEL_CHOOSE);
+
+        final QueryModel nestedModel = queryModelPool.next();
+        nestedModel.setModelPosition(modelPosition);
+        nestedModel.setTableName(tableName);
+        queryModel.setNestedModel(nestedModel);
+
+        do {
+            tok = tok(lexer, "column name");
+            final int columnPosition = lexer.lastTokenPosition();
+            final CharSequence columnName = GenericLexer.immutableOf(GenericLexer.unquote(tok));
+            expectTok(lexer, '=');
+
+            tok = optTok(lexer);
+            if (tok == null || Chars.equals(tok, ',') || Chars.equals(tok, ';') || isWhereKeyword(tok)) {
+                throw SqlException.$(tok == null ? lexer.getPosition() : lexer.lastTokenPosition(), "expression expected");
+            }
+            final int valuePosition = lexer.lastTokenPosition();
+            lexer.unparse();
+            final ExpressionNode expr = expr(lexer, queryModel);
+            if (expr == null) {
+                throw SqlException.$(valuePosition, "expression expected");
+            }
+            model.addColumn(columnName, columnPosition, valuePosition);
+            queryModel.addBottomUpColumn(queryColumnPool.next().of(columnName, expr));
+            tok = optTok(lexer);
+        } while (tok != null && Chars.equals(tok, ','));
+
+        if (tok != null && isWhereKeyword(tok)) {
+            final ExpressionNode expr = expr(lexer, nestedModel);
+            if (expr == null) {
+                throw SqlException.$(lexer.lastTokenPosition(), "empty where clause");
+            }
+            nestedModel.setWhereClause(expr);
+            tok = optTok(lexer);
+        } else if (tok != null && !Chars.equals(tok, ';')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'where' expected");
+        }
+
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw errUnexpected(lexer, tok);
+        }
+
+        model.setQueryModel(queryModel);
+        return model;
+    }
+
     private QueryModel parseJoin(GenericLexer lexer, CharSequence tok, int joinType, QueryModel parent) throws SqlException {
         QueryModel joinModel = queryModelPool.next();
 
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions;
+
+/**
+ * Batch of rows a {@link VectorFunction} computes values for. Column addresses point at
+ * the first row of the batch, vectors are scratch memory of 8 bytes per batch row.
+ */
+public interface VectorFrame {
+
+    /**
+     * Acquires scratch vector, which has to be returned via {@link #releaseVector()} in
+     * reverse order of acquisition.
+     *
+     * @return address of scratch vector large enough to hold 8 bytes per row
+     */
+    long acquireVector();
+
+    long getColumnAddress(int columnIndex);
+
+    long getRowCount();
+
+    void releaseVector();
+}
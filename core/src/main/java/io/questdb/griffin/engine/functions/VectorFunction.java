@@ -0,0 +1,69 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+
+/**
+ * Function that is able to compute its values for a batch of rows at once. Computed
+ * values must be exactly the same as values returned by row getters, so that projection
+ * can mix batch and row-by-row evaluation freely.
+ */
+public interface VectorFunction extends Function {
+
+    static boolean isVectorized(Function function) {
+        return function instanceof VectorFunction && ((VectorFunction) function).isVectorized();
+    }
+
+    static void longsToDoubles(long address, long count) {
+        for (long p = address, hi = address + count * Long.BYTES; p < hi; p += Long.BYTES) {
+            Unsafe.getUnsafe().putDouble(p, Numbers.longToDouble(Unsafe.getUnsafe().getLong(p)));
+        }
+    }
+
+    /**
+     * Writes values returned by getDouble() for each row of the frame to dst.
+     */
+    void computeDoubles(VectorFrame frame, long dst);
+
+    /**
+     * Writes values returned by getLong() for each row of the frame to dst. Only
+     * integer functions support this method.
+     */
+    default void computeLongs(VectorFrame frame, long dst) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Functions with arguments can be computed in batch only when all of their
+     * arguments can.
+     */
+    default boolean isVectorized() {
+        return true;
+    }
+}
@@ -30,6 +30,8 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.AbstractUnaryLongFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
@@ -45,15 +47,30 @@ public class CastIntToLongFunctionFactory implements FunctionFactory {
         return new Func(args.getQuick(0));
     }
 
-    private static class Func extends AbstractUnaryLongFunction {
+    private static class Func extends AbstractUnaryLongFunction implements VectorFunction {
         public Func(Function arg) {
             super(arg);
         }
 
+        @Override
+        public void computeDoubles(VectorFrame frame, long dst) {
+            ((VectorFunction) arg).computeDoubles(frame, dst);
+        }
+
+        @Override
+        public void computeLongs(VectorFrame frame, long dst) {
+            ((VectorFunction) arg).computeLongs(frame, dst);
+        }
+
         @Override
         public long getLong(Record rec) {
             final int value = arg.getInt(rec);
             return value != Numbers.INT_NaN ? value : Numbers.LONG_NaN;
         }
+
+        @Override
+        public boolean isVectorized() {
+            return VectorFunction.isVectorized(arg);
+        }
     }
 }
@@ -31,6 +31,8 @@ import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
@@ -46,13 +48,19 @@ public class CastLongToDoubleFunctionFactory implements FunctionFactory {
         return new Func(args.getQuick(0));
     }
 
-    private static class Func extends DoubleFunction implements UnaryFunction {
+    private static class Func extends DoubleFunction implements UnaryFunction, VectorFunction {
         private final Function arg;
 
         public Func(Function arg) {
             this.arg = arg;
         }
 
+        @Override
+        public void computeDoubles(VectorFrame frame, long dst) {
+            ((VectorFunction) arg).computeLongs(frame, dst);
+            VectorFunction.longsToDoubles(dst, frame.getRowCount());
+        }
+
         @Override
         public Function getArg() {
             return arg;
@@ -63,5 +71,10 @@ public class CastLongToDoubleFunctionFactory implements FunctionFactory {
             final long value = arg.getLong(rec);
             return value != Numbers.LONG_NaN ? value : Double.NaN;
         }
+
+        @Override
+        public boolean isVectorized() {
+            return VectorFunction.isVectorized(arg);
+        }
     }
 }
@@ -27,11 +27,14 @@ package io.questdb.griffin.engine.functions.columns;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.ObjList;
+import io.questdb.std.Vect;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class DoubleColumn extends DoubleFunction implements ScalarFunction {
+public class DoubleColumn extends DoubleFunction implements ScalarFunction, VectorFunction {
     private static final ObjList<DoubleColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -46,6 +49,11 @@ public class DoubleColumn extends DoubleFunction implements ScalarFunction {
         return new DoubleColumn(columnIndex);
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        Vect.memcpy(dst, frame.getColumnAddress(columnIndex), frame.getRowCount() * Double.BYTES);
+    }
+
     @Override
     public double getDouble(Record rec) {
         return rec.getDouble(columnIndex);
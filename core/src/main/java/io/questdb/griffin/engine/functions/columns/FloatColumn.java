@@ -27,11 +27,14 @@ package io.questdb.griffin.engine.functions.columns;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.engine.functions.FloatFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class FloatColumn extends FloatFunction implements ScalarFunction {
+public class FloatColumn extends FloatFunction implements ScalarFunction, VectorFunction {
     private static final ObjList<FloatColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -46,6 +49,14 @@ public class FloatColumn extends FloatFunction implements ScalarFunction {
         return new FloatColumn(columnIndex);
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        final long src = frame.getColumnAddress(columnIndex);
+        for (long i = 0, n = frame.getRowCount(); i < n; i++) {
+            Unsafe.getUnsafe().putDouble(dst + i * Double.BYTES, Unsafe.getUnsafe().getFloat(src + i * Float.BYTES));
+        }
+    }
+
     @Override
     public float getFloat(Record rec) {
         return rec.getFloat(columnIndex);
@@ -27,11 +27,15 @@ package io.questdb.griffin.engine.functions.columns;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.engine.functions.IntFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
+import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class IntColumn extends IntFunction implements ScalarFunction {
+public class IntColumn extends IntFunction implements ScalarFunction, VectorFunction {
     private static final ObjList<IntColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -46,6 +50,22 @@ public class IntColumn extends IntFunction implements ScalarFunction {
         return new IntColumn(columnIndex);
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        final long src = frame.getColumnAddress(columnIndex);
+        for (long i = 0, n = frame.getRowCount(); i < n; i++) {
+            Unsafe.getUnsafe().putDouble(dst + i * Double.BYTES, Numbers.intToDouble(Unsafe.getUnsafe().getInt(src + i * Integer.BYTES)));
+        }
+    }
+
+    @Override
+    public void computeLongs(VectorFrame frame, long dst) {
+        final long src = frame.getColumnAddress(columnIndex);
+        for (long i = 0, n = frame.getRowCount(); i < n; i++) {
+            Unsafe.getUnsafe().putLong(dst + i * Long.BYTES, Numbers.intToLong(Unsafe.getUnsafe().getInt(src + i * Integer.BYTES)));
+        }
+    }
+
     @Override
     public int getInt(Record rec) {
         return rec.getInt(columnIndex);
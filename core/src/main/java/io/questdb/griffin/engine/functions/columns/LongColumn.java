@@ -27,11 +27,14 @@ package io.questdb.griffin.engine.functions.columns;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.ObjList;
+import io.questdb.std.Vect;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class LongColumn extends LongFunction implements ScalarFunction {
+public class LongColumn extends LongFunction implements ScalarFunction, VectorFunction {
     private static final ObjList<LongColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -46,6 +49,17 @@ public class LongColumn extends LongFunction implements ScalarFunction {
         return new LongColumn(columnIndex);
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        computeLongs(frame, dst);
+        VectorFunction.longsToDoubles(dst, frame.getRowCount());
+    }
+
+    @Override
+    public void computeLongs(VectorFrame frame, long dst) {
+        Vect.memcpy(dst, frame.getColumnAddress(columnIndex), frame.getRowCount() * Long.BYTES);
+    }
+
     @Override
     public long getLong(Record rec) {
         return rec.getLong(columnIndex);
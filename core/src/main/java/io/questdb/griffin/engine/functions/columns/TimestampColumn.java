@@ -27,11 +27,14 @@ package io.questdb.griffin.engine.functions.columns;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.ObjList;
+import io.questdb.std.Vect;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class TimestampColumn extends TimestampFunction implements ScalarFunction {
+public class TimestampColumn extends TimestampFunction implements ScalarFunction, VectorFunction {
     private static final ObjList<TimestampColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -39,6 +42,17 @@ public class TimestampColumn extends TimestampFunction implements ScalarFunction
         this.columnIndex = columnIndex;
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        computeLongs(frame, dst);
+        VectorFunction.longsToDoubles(dst, frame.getRowCount());
+    }
+
+    @Override
+    public void computeLongs(VectorFrame frame, long dst) {
+        Vect.memcpy(dst, frame.getColumnAddress(columnIndex), frame.getRowCount() * Long.BYTES);
+    }
+
     @Override
     public long getTimestamp(Record rec) {
         return rec.getTimestamp(columnIndex);
@@ -26,8 +26,11 @@ package io.questdb.griffin.engine.functions.constants;
 
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
+import io.questdb.std.Vect;
 
-public class DoubleConstant extends DoubleFunction implements ConstantFunction {
+public class DoubleConstant extends DoubleFunction implements ConstantFunction, VectorFunction {
     public static final DoubleConstant NULL = new DoubleConstant(Double.NaN);
 
     private final double value;
@@ -40,6 +43,11 @@ public class DoubleConstant extends DoubleFunction implements ConstantFunction {
         return  value == value ? new DoubleConstant(value) : DoubleConstant.NULL;
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        Vect.setMemoryDouble(dst, value, frame.getRowCount());
+    }
+
     @Override
     public double getDouble(Record rec) {
         return value;
@@ -26,9 +26,12 @@ package io.questdb.griffin.engine.functions.constants;
 
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.IntFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 
-public class IntConstant extends IntFunction implements ConstantFunction {
+public class IntConstant extends IntFunction implements ConstantFunction, VectorFunction {
 
     public static final IntConstant NULL = new IntConstant(Numbers.INT_NaN);
 
@@ -43,6 +46,16 @@ public class IntConstant extends IntFunction implements ConstantFunction {
         return value != Numbers.INT_NaN ? new IntConstant(value) : NULL;
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        Vect.setMemoryDouble(dst, getDouble(null), frame.getRowCount());
+    }
+
+    @Override
+    public void computeLongs(VectorFrame frame, long dst) {
+        Vect.setMemoryLong(dst, getLong(null), frame.getRowCount());
+    }
+
     @Override
     public int getInt(Record rec) {
         return value;
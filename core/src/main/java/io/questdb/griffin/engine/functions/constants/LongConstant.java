@@ -26,9 +26,12 @@ package io.questdb.griffin.engine.functions.constants;
 
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 
-public class LongConstant extends LongFunction implements ConstantFunction {
+public class LongConstant extends LongFunction implements ConstantFunction, VectorFunction {
     public final static LongConstant NULL = new LongConstant(Numbers.LONG_NaN);
     public final static LongConstant ZERO = new LongConstant(0);
     private final long value;
@@ -49,6 +52,16 @@ public class LongConstant extends LongFunction implements ConstantFunction {
         return LongConstant.NULL;
     }
 
+    @Override
+    public void computeDoubles(VectorFrame frame, long dst) {
+        Vect.setMemoryDouble(dst, getDouble(null), frame.getRowCount());
+    }
+
+    @Override
+    public void computeLongs(VectorFrame frame, long dst) {
+        Vect.setMemoryLong(dst, value, frame.getRowCount());
+    }
+
     @Override
     public long getLong(Record rec) {
         return value;
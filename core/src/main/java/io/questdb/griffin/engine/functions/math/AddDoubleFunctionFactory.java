@@ -31,8 +31,11 @@ import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class AddDoubleFunctionFactory implements FunctionFactory {
     @Override
@@ -45,7 +48,7 @@ public class AddDoubleFunctionFactory implements FunctionFactory {
         return new Func(args.getQuick(0), args.getQuick(1));
     }
 
-    private static class Func extends DoubleFunction implements BinaryFunction {
+    private static class Func extends DoubleFunction implements BinaryFunction, VectorFunction {
         private final Function left;
         private final Function right;
 
@@ -54,6 +57,17 @@ public class AddDoubleFunctionFactory implements FunctionFactory {
             this.right = right;
         }
 
+        @Override
+        public void computeDoubles(VectorFrame frame, long dst) {
+            final long rhs = frame.acquireVector();
+            ((VectorFunction) left).computeDoubles(frame, dst);
+            ((VectorFunction) right).computeDoubles(frame, rhs);
+            for (long p = 0, n = frame.getRowCount() * Double.BYTES; p < n; p += Double.BYTES) {
+                Unsafe.getUnsafe().putDouble(dst + p, Unsafe.getUnsafe().getDouble(dst + p) + Unsafe.getUnsafe().getDouble(rhs + p));
+            }
+            frame.releaseVector();
+        }
+
         @Override
         public double getDouble(Record rec) {
             return left.getDouble(rec) + right.getDouble(rec);
@@ -68,5 +82,10 @@ public class AddDoubleFunctionFactory implements FunctionFactory {
         public Function getRight() {
             return right;
         }
+
+        @Override
+        public boolean isVectorized() {
+            return VectorFunction.isVectorized(left) && VectorFunction.isVectorized(right);
+        }
     }
 }
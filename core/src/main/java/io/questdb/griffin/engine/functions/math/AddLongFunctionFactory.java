@@ -31,9 +31,12 @@ import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class AddLongFunctionFactory implements FunctionFactory {
     @Override
@@ -46,7 +49,7 @@ public class AddLongFunctionFactory implements FunctionFactory {
         return new AddLongFunc(args.getQuick(0), args.getQuick(1));
     }
 
-    private static class AddLongFunc extends LongFunction implements BinaryFunction {
+    private static class AddLongFunc extends LongFunction implements BinaryFunction, VectorFunction {
         final Function left;
         final Function right;
 
@@ -55,6 +58,25 @@ public class AddLongFunctionFactory implements FunctionFactory {
             this.right = right;
         }
 
+        @Override
+        public void computeDoubles(VectorFrame frame, long dst) {
+            computeLongs(frame, dst);
+            VectorFunction.longsToDoubles(dst, frame.getRowCount());
+        }
+
+        @Override
+        public void computeLongs(VectorFrame frame, long dst) {
+            final long rhs = frame.acquireVector();
+            ((VectorFunction) left).computeLongs(frame, dst);
+            ((VectorFunction) right).computeLongs(frame, rhs);
+            for (long p = 0, n = frame.getRowCount() * Long.BYTES; p < n; p += Long.BYTES) {
+                final long l = Unsafe.getUnsafe().getLong(dst + p);
+                final long r = Unsafe.getUnsafe().getLong(rhs + p);
+                Unsafe.getUnsafe().putLong(dst + p, l == Numbers.LONG_NaN || r == Numbers.LONG_NaN ? Numbers.LONG_NaN : l + r);
+            }
+            frame.releaseVector();
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -74,5 +96,10 @@ public class AddLongFunctionFactory implements FunctionFactory {
             }
             return l + r;
         }
+
+        @Override
+        public boolean isVectorized() {
+            return VectorFunction.isVectorized(left) && VectorFunction.isVectorized(right);
+        }
     }
 }
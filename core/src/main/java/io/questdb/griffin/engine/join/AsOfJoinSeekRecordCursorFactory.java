@@ -0,0 +1,343 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.BinarySearch;
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.AbstractDataFrameRecordCursor;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+
+/**
+ * ASOF join against a slave that is a full scan of a table. Rather than walking slave
+ * cursor forward alongside master, this factory looks up prevailing slave row for each master
+ * row by binary search on the designated timestamp. Search starts from the previous match and
+ * gallops forward, so dense masters degrade to a short forward scan while sparse masters
+ * touch only a handful of slave rows.
+ * <p>
+ * Keyed joins are supported on a single indexed SYMBOL column. Once timestamp position is found,
+ * slave row for the key is looked up in the bitmap index backwards from that position. Each key
+ * remembers position of its last lookup, so index is never scanned over the same rows twice.
+ */
+public class AsOfJoinSeekRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final AsOfJoinSeekRecordCursor cursor;
+
+    /**
+     * @param masterKeyIndex      index of master SYMBOL key column or -1 for non-keyed join
+     * @param slaveKeyIndex       index of slave SYMBOL key column in slave metadata
+     * @param slaveKeyReaderIndex index of the same column in table reader, must be indexed
+     */
+    public AsOfJoinSeekRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            int columnSplit,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            int slaveKeyReaderIndex
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.cursor = new AsOfJoinSeekRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveFactory.getMetadata()),
+                masterFactory.getMetadata().getTimestampIndex(),
+                masterKeyIndex,
+                slaveKeyIndex,
+                slaveKeyReaderIndex
+        );
+    }
+
+    @Override
+    public void close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        try {
+            cursor.of(masterCursor, (AbstractDataFrameRecordCursor) slaveFactory.getCursor(executionContext));
+        } catch (Throwable e) {
+            Misc.free(masterCursor);
+            throw e;
+        }
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private static class AsOfJoinSeekRecordCursor implements NoRandomAccessRecordCursor {
+        // value of master key that has not been translated to slave key yet
+        private static final long KEY_UNKNOWN = Long.MIN_VALUE;
+        private final OuterJoinRecord record;
+        private final int columnSplit;
+        private final int masterTimestampIndex;
+        private final int masterKeyIndex;
+        private final int slaveKeyIndex;
+        private final int slaveKeyReaderIndex;
+        // slave index key by master index key, translated lazily
+        private final LongList masterToSlaveKeys = new LongList();
+        // pairs of last searched position and last found row id, by slave index key
+        private final LongList keyPositions = new LongList();
+        private RecordCursor masterCursor;
+        private AbstractDataFrameRecordCursor slaveCursor;
+        private Record masterRecord;
+        private Record slaveRecord;
+        private SymbolTable masterSymbolTable;
+        private StaticSymbolTable slaveSymbolTable;
+        private TableReader reader;
+        private int timestampIndex;
+        // position of the latest slave row matched by timestamp, -1 until found
+        private int seekPartition;
+        private long seekRow;
+        private long seekRowCount;
+
+        public AsOfJoinSeekRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int masterKeyIndex,
+                int slaveKeyIndex,
+                int slaveKeyReaderIndex
+        ) {
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.columnSplit = columnSplit;
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.masterKeyIndex = masterKeyIndex;
+            this.slaveKeyIndex = slaveKeyIndex;
+            this.slaveKeyReaderIndex = slaveKeyReaderIndex;
+        }
+
+        @Override
+        public void close() {
+            masterCursor = Misc.free(masterCursor);
+            slaveCursor = Misc.free(slaveCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (masterCursor.hasNext()) {
+                final long rowId = seek(masterRecord.getTimestamp(masterTimestampIndex)) ? (masterKeyIndex > -1 ? findKey() : Rows.toRowID(seekPartition, seekRow)) : -1;
+                if (rowId > -1) {
+                    slaveCursor.recordAt(slaveRecord, rowId);
+                    record.hasSlave(true);
+                } else {
+                    record.hasSlave(false);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            reset();
+        }
+
+        private long findKey() {
+            final int indexKey = translateMasterKey();
+            if (indexKey < 0) {
+                return -1;
+            }
+
+            // rows up to the previous search position have already been looked at
+            final long seekRowId = Rows.toRowID(seekPartition, seekRow);
+            final int slot = indexKey * 2;
+            seedSlots(keyPositions, slot + 2, -1);
+            long lastSeekRowId = keyPositions.getQuick(slot);
+            long lastFoundRowId = keyPositions.getQuick(slot + 1);
+            if (lastSeekRowId == seekRowId) {
+                return lastFoundRowId;
+            }
+            if (lastSeekRowId > seekRowId) {
+                // master went back in time, cached position is of no use
+                lastSeekRowId = -1;
+                lastFoundRowId = -1;
+            }
+
+            final int lastSeekPartition = lastSeekRowId > -1 ? Rows.toPartitionIndex(lastSeekRowId) : 0;
+            long foundRowId = lastFoundRowId;
+            long hi = seekRow;
+            for (int partitionIndex = seekPartition; partitionIndex >= lastSeekPartition; partitionIndex--) {
+                if (partitionIndex < seekPartition) {
+                    hi = reader.openPartition(partitionIndex) - 1;
+                }
+                final long lo = lastSeekRowId > -1 && partitionIndex == lastSeekPartition ? Rows.toLocalRowID(lastSeekRowId) + 1 : 0;
+                if (lo <= hi) {
+                    final RowCursor rowCursor = reader
+                            .getBitmapIndexReader(partitionIndex, slaveKeyReaderIndex, BitmapIndexReader.DIR_BACKWARD)
+                            .getCursor(true, indexKey, lo, hi);
+                    if (rowCursor.hasNext()) {
+                        foundRowId = Rows.toRowID(partitionIndex, rowCursor.next());
+                        break;
+                    }
+                }
+            }
+
+            keyPositions.setQuick(slot, seekRowId);
+            keyPositions.setQuick(slot + 1, foundRowId);
+            return foundRowId;
+        }
+
+        private static void seedSlots(LongList slots, int size, long value) {
+            final int pos = slots.size();
+            if (pos < size) {
+                slots.seed(pos, size - pos, value);
+                slots.setPos(size);
+            }
+        }
+
+        private MemoryR getTimestampColumn(int partitionIndex) {
+            return reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), timestampIndex));
+        }
+
+        private void reset() {
+            seekPartition = -1;
+            seekRow = -1;
+            seekRowCount = 0;
+            masterToSlaveKeys.clear();
+            keyPositions.clear();
+            record.hasSlave(false);
+        }
+
+        private long search(MemoryR column, long timestamp, long rowCount) {
+            long lo = 0;
+            long hi = rowCount - 1;
+            if (seekRow > -1 && column.getLong(seekRow * Long.BYTES) <= timestamp) {
+                // master is ordered by timestamp, gallop forward from the previous match
+                lo = seekRow;
+                long step = 1;
+                while (lo + step < rowCount && column.getLong((lo + step) * Long.BYTES) <= timestamp) {
+                    lo += step;
+                    step <<= 1;
+                }
+                hi = Math.min(lo + step, rowCount - 1);
+            }
+            return BinarySearch.find(column, timestamp, lo, hi, BinarySearch.SCAN_DOWN);
+        }
+
+        private boolean seek(long timestamp) {
+            int partitionIndex = Math.min(reader.getPartitionIndexByTimestamp(timestamp), reader.getPartitionCount() - 1);
+            if (partitionIndex > -1) {
+                if (partitionIndex != seekPartition) {
+                    seekPartition = partitionIndex;
+                    seekRow = -1;
+                    seekRowCount = reader.openPartition(partitionIndex);
+                }
+
+                if (seekRowCount > 0) {
+                    final long row = search(getTimestampColumn(partitionIndex), timestamp, seekRowCount);
+                    if (row > -1) {
+                        seekRow = row;
+                        return true;
+                    }
+                }
+
+                // all rows of earlier partitions precede the timestamp, take the last non-empty one
+                while (--partitionIndex > -1) {
+                    final long rowCount = reader.openPartition(partitionIndex);
+                    if (rowCount > 0) {
+                        seekPartition = partitionIndex;
+                        seekRow = rowCount - 1;
+                        seekRowCount = rowCount;
+                        return true;
+                    }
+                }
+            }
+            seekPartition = -1;
+            seekRow = -1;
+            seekRowCount = 0;
+            return false;
+        }
+
+        private int translateMasterKey() {
+            final int masterKey = masterRecord.getInt(masterKeyIndex);
+            final int slot = TableUtils.toIndexKey(masterKey);
+            seedSlots(masterToSlaveKeys, slot + 1, KEY_UNKNOWN);
+            final long cachedKey = masterToSlaveKeys.getQuick(slot);
+            if (cachedKey != KEY_UNKNOWN) {
+                return (int) cachedKey;
+            }
+
+            final int slaveKey = slaveSymbolTable.keyOf(masterSymbolTable.valueOf(masterKey));
+            final int indexKey = slaveKey == SymbolTable.VALUE_NOT_FOUND ? -1 : TableUtils.toIndexKey(slaveKey);
+            masterToSlaveKeys.setQuick(slot, indexKey);
+            return indexKey;
+        }
+
+        void of(RecordCursor masterCursor, AbstractDataFrameRecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveRecord = slaveCursor.getRecordB();
+            this.reader = slaveCursor.getDataFrameCursor().getTableReader();
+            this.timestampIndex = reader.getMetadata().getTimestampIndex();
+            if (masterKeyIndex > -1) {
+                this.masterSymbolTable = masterCursor.getSymbolTable(masterKeyIndex);
+                this.slaveSymbolTable = slaveCursor.getSymbolTable(slaveKeyIndex);
+            }
+            record.of(masterRecord, slaveRecord);
+            reset();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+
+/**
+ * Hash join on a single SYMBOL column. Instead of hashing symbol values this factory indexes
+ * slave rows by symbol key, which is dense, and translates master symbol keys to slave keys
+ * once per distinct master key.
+ */
+public class HashJoinLightSymbolRecordCursorFactory extends AbstractRecordCursorFactory {
+    // slot value of a master key that has not been translated yet
+    private static final long SLOT_UNKNOWN = -1;
+    // slot value of a master key that is not present in slave symbol table
+    private static final long SLOT_NOT_FOUND = -2;
+    private final LongChain slaveChain;
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final int masterKeyIndex;
+    private final int slaveKeyIndex;
+    // pairs of chain head and tail offsets, indexed by slave symbol slot
+    private final DirectLongList slaveChains;
+    // slave symbol slot by master symbol slot
+    private final DirectLongList masterToSlaveSlots;
+    private final HashJoinRecordCursor cursor;
+
+    public HashJoinLightSymbolRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            int columnSplit
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.masterKeyIndex = masterKeyIndex;
+        this.slaveKeyIndex = slaveKeyIndex;
+        this.slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+        this.slaveChains = new DirectLongList(256, MemoryTag.NATIVE_LONG_LIST);
+        this.masterToSlaveSlots = new DirectLongList(256, MemoryTag.NATIVE_LONG_LIST);
+        this.cursor = new HashJoinRecordCursor(columnSplit);
+    }
+
+    @Override
+    public void close() {
+        slaveChain.close();
+        slaveChains.close();
+        masterToSlaveSlots.close();
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        RecordCursor masterCursor = null;
+        try {
+            buildSlaveChains(slaveCursor, executionContext.getCircuitBreaker());
+            masterCursor = masterFactory.getCursor(executionContext);
+            final SymbolTable masterSymbolTable = masterCursor.getSymbolTable(masterKeyIndex);
+            resetSlots(
+                    masterToSlaveSlots,
+                    masterSymbolTable instanceof StaticSymbolTable ? ((StaticSymbolTable) masterSymbolTable).getSymbolCount() + 1 : 0
+            );
+            cursor.of(masterCursor, slaveCursor);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(masterCursor);
+            slaveCursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    // slot 0 is reserved for null symbol, which joins to null
+    private static long toSlot(int key) {
+        return key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1L;
+    }
+
+    private static void resetSlots(DirectLongList slots, long size) {
+        slots.clear();
+        ensureSlots(slots, size);
+    }
+
+    private static void ensureSlots(DirectLongList slots, long size) {
+        final long oldSize = slots.size();
+        if (size > oldSize) {
+            if (slots.getCapacity() < size) {
+                slots.extend(Math.max(size, slots.getCapacity() * 2));
+            }
+            for (long i = oldSize; i < size; i++) {
+                slots.set(i, SLOT_UNKNOWN);
+            }
+            slots.setPos(size);
+        }
+    }
+
+    private void buildSlaveChains(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        slaveChain.clear();
+        final StaticSymbolTable symbolTable = (StaticSymbolTable) slaveCursor.getSymbolTable(slaveKeyIndex);
+        // chain head and tail are both -1 for slots without rows
+        resetSlots(slaveChains, 2L * (symbolTable.getSymbolCount() + 1));
+
+        final Record record = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            circuitBreaker.test();
+            final long p = 2 * toSlot(record.getInt(slaveKeyIndex));
+            ensureSlots(slaveChains, p + 2);
+            final long tail = slaveChains.get(p + 1);
+            if (tail == -1) {
+                final long offset = slaveChain.put(record.getRowId(), -1);
+                slaveChains.set(p, offset);
+                slaveChains.set(p + 1, offset);
+            } else {
+                slaveChains.set(p + 1, slaveChain.put(record.getRowId(), tail));
+            }
+        }
+    }
+
+    private class HashJoinRecordCursor implements NoRandomAccessRecordCursor {
+        private final JoinRecord record;
+        private final int columnSplit;
+        private RecordCursor masterCursor;
+        private RecordCursor slaveCursor;
+        private Record masterRecord;
+        private LongChain.TreeCursor slaveChainCursor;
+        private Record slaveRecord;
+        private SymbolTable masterSymbolTable;
+        private StaticSymbolTable slaveSymbolTable;
+
+        public HashJoinRecordCursor(int columnSplit) {
+            this.record = new JoinRecord(columnSplit);
+            this.columnSplit = columnSplit;
+        }
+
+        @Override
+        public void close() {
+            masterCursor = Misc.free(masterCursor);
+            slaveCursor = Misc.free(slaveCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveChainCursor = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+                slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                return true;
+            }
+
+            while (masterCursor.hasNext()) {
+                final long slaveSlot = getSlaveSlot(masterRecord.getInt(masterKeyIndex));
+                if (slaveSlot > -1) {
+                    final long head = slaveChains.get(2 * slaveSlot);
+                    if (head != -1) {
+                        slaveChainCursor = slaveChain.getCursor(head);
+                        // we know cursor has values
+                        // advance to get first value
+                        slaveChainCursor.hasNext();
+                        slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private long getSlaveSlot(int masterKey) {
+            final long masterSlot = toSlot(masterKey);
+            ensureSlots(masterToSlaveSlots, masterSlot + 1);
+            long slaveSlot = masterToSlaveSlots.get(masterSlot);
+            if (slaveSlot == SLOT_UNKNOWN) {
+                slaveSlot = translate(masterKey);
+                masterToSlaveSlots.set(masterSlot, slaveSlot);
+            }
+            return slaveSlot;
+        }
+
+        private long translate(int masterKey) {
+            if (masterKey == SymbolTable.VALUE_IS_NULL) {
+                return 0;
+            }
+            final int slaveKey = slaveSymbolTable.keyOf(masterSymbolTable.valueOf(masterKey));
+            if (slaveKey == SymbolTable.VALUE_NOT_FOUND) {
+                return SLOT_NOT_FOUND;
+            }
+            final long slaveSlot = toSlot(slaveKey);
+            return 2 * slaveSlot < slaveChains.size() ? slaveSlot : SLOT_NOT_FOUND;
+        }
+
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveRecord = slaveCursor.getRecordB();
+            this.masterSymbolTable = masterCursor.getSymbolTable(masterKeyIndex);
+            this.slaveSymbolTable = (StaticSymbolTable) slaveCursor.getSymbolTable(slaveKeyIndex);
+            record.of(masterRecord, slaveRecord);
+            slaveChainCursor = null;
+        }
+    }
+}
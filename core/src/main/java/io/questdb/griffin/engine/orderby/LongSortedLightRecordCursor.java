@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.DelegatingRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.LongIndexSort;
+import io.questdb.std.Unsafe;
+
+class LongSortedLightRecordCursor implements DelegatingRecordCursor {
+    private final MemoryCARW index;
+    private final MemoryCARW indexCpy;
+    private final int columnIndex;
+    private final int columnType;
+    private final boolean descending;
+    private RecordCursor base;
+    private Record baseRecord;
+    private long indexAddr;
+    private long count;
+    private long current;
+
+    public LongSortedLightRecordCursor(MemoryCARW index, MemoryCARW indexCpy, int columnIndex, int columnType, boolean descending) {
+        this.index = index;
+        this.indexCpy = indexCpy;
+        this.columnIndex = columnIndex;
+        this.columnType = columnType;
+        this.descending = descending;
+    }
+
+    @Override
+    public void close() {
+        index.jumpTo(0);
+        indexCpy.jumpTo(0);
+        base.close();
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (current < count) {
+            base.recordAt(baseRecord, getRowId(current++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void toTop() {
+        current = 0;
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+
+        index.jumpTo(0);
+        while (base.hasNext()) {
+            circuitBreaker.test();
+            index.putLong128(toSortKey(getKey(baseRecord)), baseRecord.getRowId());
+        }
+        count = index.getAppendOffset() / LongIndexSort.ENTRY_SIZE;
+        indexAddr = index.addressOf(0);
+        indexCpy.jumpTo(index.getAppendOffset());
+        LongIndexSort.sort(indexAddr, count, indexCpy.addressOf(0));
+        reverseTies();
+        current = 0;
+    }
+
+    private long getKey(Record record) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                return record.getInt(columnIndex);
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(columnIndex);
+            default:
+                return record.getLong(columnIndex);
+        }
+    }
+
+    private long getRowId(long entry) {
+        return Unsafe.getUnsafe().getLong(indexAddr + entry * LongIndexSort.ENTRY_SIZE + Long.BYTES);
+    }
+
+    // tree chain used by the general light sort returns rows of equal keys
+    // most recent first, we keep the order the same
+    private void reverseTies() {
+        long lo = 0;
+        while (lo < count) {
+            final long key = Unsafe.getUnsafe().getLong(indexAddr + lo * LongIndexSort.ENTRY_SIZE);
+            long hi = lo + 1;
+            while (hi < count && Unsafe.getUnsafe().getLong(indexAddr + hi * LongIndexSort.ENTRY_SIZE) == key) {
+                hi++;
+            }
+            for (long l = lo, r = hi - 1; l < r; l++, r--) {
+                final long lAddr = indexAddr + l * LongIndexSort.ENTRY_SIZE + Long.BYTES;
+                final long rAddr = indexAddr + r * LongIndexSort.ENTRY_SIZE + Long.BYTES;
+                final long rowId = Unsafe.getUnsafe().getLong(lAddr);
+                Unsafe.getUnsafe().putLong(lAddr, Unsafe.getUnsafe().getLong(rAddr));
+                Unsafe.getUnsafe().putLong(rAddr, rowId);
+            }
+            lo = hi;
+        }
+    }
+
+    // signed key is mapped onto unsigned order of the sort, descending order is its complement
+    private long toSortKey(long key) {
+        final long sortKey = key ^ Long.MIN_VALUE;
+        return descending ? ~sortKey : sortKey;
+    }
+}
@@ -27,12 +27,14 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageAddressCache;
+import io.questdb.cairo.sql.async.PageFrameReduceEntry;
+import io.questdb.cairo.sql.async.PageFrameSequence;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable;
-import io.questdb.jit.CompiledFilter;
 import io.questdb.std.*;
 import io.questdb.std.str.AbstractCharSequence;
 import io.questdb.std.str.CharSink;
@@ -43,21 +45,14 @@ class CompiledFilterRecordCursor implements RecordCursor {
 
     private final PageFrameRecord recordA = new PageFrameRecord();
     private final PageFrameRecord recordB = new PageFrameRecord();
-    private final PageAddressCache pageAddressCache;
-
-    private PageFrameCursor pageFrameCursor;
-    private RecordMetadata metadata;
 
     // Java based filter; used for page frames with present column tops
     private Function colTopsFilter;
-    // JIT compiled filter; used for dense page frames (no column tops)
-    private CompiledFilter compiledFilter;
-
-    private final long rowsCapacityThreshold;
+    // Dense page frames are filtered with the JIT compiled filter by the frame sequence, possibly in parallel
+    private PageFrameSequence<?> frameSequence;
+    private PageFrameReduceEntry frame;
     private DirectLongList rows;
-    private DirectLongList columns;
     private MemoryCARW bindVarMemory;
-    private int bindVarCount;
 
     // Important invariant: only nextPage and other cursor iteration methods
     // are allowed to modify the below three fields
@@ -75,34 +70,21 @@ class CompiledFilterRecordCursor implements RecordCursor {
     private final BooleanSupplier nextRow = this::nextRow;
     private final BooleanSupplier nextReenterPageFrame = this::nextReenterPageFrame;
 
-    public CompiledFilterRecordCursor(CairoConfiguration configuration) {
-        rowsCapacityThreshold = configuration.getSqlJitRowsThreshold() / Long.BYTES;
-        pageAddressCache = new PageAddressCache(configuration);
-    }
-
     public void of(
-            RecordCursorFactory factory,
+            PageFrameSequence<?> frameSequence,
             Function filter,
-            CompiledFilter compiledFilter,
-            DirectLongList rows,
-            DirectLongList columns,
             ObjList<Function> bindVarFunctions,
             MemoryCARW bindVarMemory,
             SqlExecutionContext executionContext
     ) throws SqlException {
         this.pageFrameIndex = -1;
         this.colTopsFilter = filter;
-        this.compiledFilter = compiledFilter;
-        this.rows = rows;
-        this.columns = columns;
-        this.metadata = factory.getMetadata();
-        pageAddressCache.of(metadata);
-        this.pageFrameCursor = factory.getPageFrameCursor(executionContext);
-        recordA.of(pageFrameCursor, pageAddressCache);
-        recordB.of(pageFrameCursor, pageAddressCache);
+        this.frameSequence = frameSequence;
+        this.frame = null;
+        recordA.of(frameSequence.getPageFrameCursor(), frameSequence.getPageAddressCache());
+        recordB.of(frameSequence.getPageFrameCursor(), frameSequence.getPageAddressCache());
         this.next = nextPage;
         this.bindVarMemory = bindVarMemory;
-        this.bindVarCount = bindVarFunctions.size();
         colTopsFilter.init(this, executionContext);
         prepareBindVarMemory(bindVarFunctions, executionContext);
     }
@@ -117,13 +99,9 @@ class CompiledFilterRecordCursor implements RecordCursor {
 
     @Override
     public void close() {
-        if (rows.getCapacity() > rowsCapacityThreshold) {
-            // This call will shrink down the underlying array
-            rows.extend(rowsCapacityThreshold);
-        }
         bindVarMemory.truncate();
-        pageAddressCache.clear();
-        pageFrameCursor.close();
+        frameSequence.clear();
+        frame = null;
     }
 
     @Override
@@ -149,16 +127,16 @@ class CompiledFilterRecordCursor implements RecordCursor {
     }
 
     private boolean nextReenterPageFrame() {
-        if (pageFrameIndex == -1) {
-            // Cursor iteration -> toTop -> recordAt case
-            pageFrameCursor.toTop();
+        if (frame == null) {
+            // Cursor iteration -> toTop -> recordAt case,
+            // or recordAt once all frames are consumed
             next = nextPage;
             return next.getAsBoolean();
         }
 
         // Cursor iteration -> recordAt case
         recordA.jumpTo(pageFrameIndex);
-        if (pageAddressCache.hasColumnTops(pageFrameIndex)) {
+        if (frame.hasColumnTops()) {
             next = nextColTopsRow;
         } else {
             next = nextRow;
@@ -169,14 +147,15 @@ class CompiledFilterRecordCursor implements RecordCursor {
     @Override
     public void toTop() {
         pageFrameIndex = -1;
+        frame = null;
         colTopsFilter.toTop();
-        pageFrameCursor.toTop();
+        frameSequence.toTop();
         next = nextPage;
     }
 
     @Override
     public SymbolTable getSymbolTable(int columnIndex) {
-        return pageFrameCursor.getSymbolMapReader(columnIndex);
+        return frameSequence.getSymbolMapReader(columnIndex);
     }
 
     @Override
@@ -215,21 +194,16 @@ class CompiledFilterRecordCursor implements RecordCursor {
     }
 
     private boolean nextPage() {
-        final int columnCount = metadata.getColumnCount();
-
-        PageFrame frame;
-        while ((frame = pageFrameCursor.next()) != null) {
-            pageFrameIndex += 1;
+        while ((frame = frameSequence.next()) != null) {
+            pageFrameIndex = frame.getFrameIndex();
             recordA.jumpTo(pageFrameIndex);
-            pageAddressCache.add(pageFrameIndex, frame);
-
-            final long rowCount = frame.getPartitionHi() - frame.getPartitionLo();
 
-            if (pageAddressCache.hasColumnTops(pageFrameIndex)) {
+            if (frame.hasColumnTops()) {
                 // Use Java filter implementation in case of a page frame with column tops.
+                // Such frames are skipped by the reducer and are filtered here, on the owner thread.
 
                 current = -1;
-                hi = rowCount;
+                hi = frame.getFrameRowCount();
                 seekNextColTopsRow();
 
                 if (current < hi) {
@@ -239,28 +213,11 @@ class CompiledFilterRecordCursor implements RecordCursor {
                 continue;
             }
 
-            // Use compiled filter in case of a dense page frame.
-
-            columns.extend(columnCount);
-            columns.clear();
-            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-                columns.add(pageAddressCache.getPageAddress(pageFrameIndex, columnIndex));
-            }
-            // TODO: page frames may be quite large; we may want to break them into smaller sub-frames
-            if (rows.getCapacity() < rowCount) {
-                rows.extend(rowCount);
-            }
+            // Dense page frame has been filtered by the compiled filter already.
 
+            rows = frame.getRows();
             current = 0;
-            hi = compiledFilter.call(
-                    columns.getAddress(),
-                    columns.size(),
-                    bindVarMemory.getAddress(),
-                    bindVarCount,
-                    rows.getAddress(),
-                    rowCount,
-                    0
-            );
+            hi = rows.size();
 
             if (current < hi) {
                 recordA.setIndex(rows.get(current));
@@ -680,92 +637,4 @@ class CompiledFilterRecordCursor implements RecordCursor {
             }
         }
     }
-
-    private static class PageAddressCache implements Mutable {
-
-        private final long cacheSizeThreshold;
-        private int columnCount;
-        private int varLenColumnCount;
-
-        // Index remapping for variable length columns.
-        private final IntList varLenColumnIndexes = new IntList();
-
-        private LongList pageAddresses = new LongList();
-        // Index page addresses and page sizes are stored only for variable length columns.
-        private LongList indexPageAddresses = new LongList();
-        private LongList pageSizes = new LongList();
-
-        public PageAddressCache(CairoConfiguration configuration) {
-            cacheSizeThreshold = configuration.getSqlJitPageAddressCacheThreshold() / Long.BYTES;
-        }
-
-        public void of(RecordMetadata metadata) {
-            this.columnCount = metadata.getColumnCount();
-            this.varLenColumnIndexes.setAll(columnCount, -1);
-            this.varLenColumnCount = 0;
-            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-                final int columnType = metadata.getColumnType(columnIndex);
-                if (ColumnType.isVariableLength(columnType)) {
-                    varLenColumnIndexes.setQuick(columnIndex, varLenColumnCount++);
-                }
-            }
-        }
-
-        @Override
-        public void clear() {
-            varLenColumnIndexes.clear();
-            if (pageAddresses.size() > cacheSizeThreshold) {
-                pageAddresses.clear();
-                indexPageAddresses.clear();
-                pageSizes.clear();
-            } else {
-                pageAddresses = new LongList();
-                indexPageAddresses = new LongList();
-                pageSizes = new LongList();
-            }
-        }
-
-        public void add(int frameIndex, PageFrame frame) {
-            if (pageAddresses.size() >= columnCount * (frameIndex + 1)) {
-                return; // The page frame is already cached
-            }
-            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-                pageAddresses.add(frame.getPageAddress(columnIndex));
-                int varLenColumnIndex = varLenColumnIndexes.getQuick(columnIndex);
-                if (varLenColumnIndex > -1) {
-                    indexPageAddresses.add(frame.getIndexPageAddress(columnIndex));
-                    pageSizes.add(frame.getPageSize(columnIndex));
-                }
-            }
-        }
-
-        public long getPageAddress(int frameIndex, int columnIndex) {
-            assert pageAddresses.size() >= columnCount * (frameIndex + 1);
-            return pageAddresses.getQuick(columnCount * frameIndex + columnIndex);
-        }
-
-        public long getIndexPageAddress(int frameIndex, int columnIndex) {
-            assert indexPageAddresses.size() >= varLenColumnCount * (frameIndex + 1);
-            int varLenColumnIndex = varLenColumnIndexes.getQuick(columnIndex);
-            assert varLenColumnIndex > -1;
-            return indexPageAddresses.getQuick(varLenColumnCount * frameIndex + varLenColumnIndex);
-        }
-
-        public long getPageSize(int frameIndex, int columnIndex) {
-            assert pageSizes.size() >= varLenColumnCount * (frameIndex + 1);
-            int varLenColumnIndex = varLenColumnIndexes.getQuick(columnIndex);
-            assert varLenColumnIndex > -1;
-            return pageSizes.getQuick(varLenColumnCount * frameIndex + varLenColumnIndex);
-        }
-
-        public boolean hasColumnTops(int frameIndex) {
-            assert pageAddresses.size() >= columnCount * (frameIndex + 1);
-            for (int columnIndex = 0, baseIndex = columnCount * frameIndex; columnIndex < columnCount; columnIndex++) {
-                if (pageAddresses.getQuick(baseIndex + columnIndex) == 0) {
-                    return true;
-                }
-            }
-            return false;
-        }
-    }
 }
@@ -29,6 +29,8 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.async.PageFrameReduceEntry;
+import io.questdb.cairo.sql.async.PageFrameSequence;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.SqlException;
@@ -36,6 +38,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import org.jetbrains.annotations.NotNull;
 
@@ -47,8 +50,7 @@ public class CompiledFilterRecordCursorFactory implements RecordCursorFactory {
     private final CompiledFilterRecordCursor cursor;
     private final ObjList<Function> bindVarFunctions;
     private final MemoryCARW bindVarMemory;
-    private final DirectLongList rows;
-    private final DirectLongList columns;
+    private final PageFrameSequence<CompiledFilterRecordCursorFactory> frameSequence;
 
     public CompiledFilterRecordCursorFactory(
             @NotNull CairoConfiguration configuration,
@@ -62,12 +64,11 @@ public class CompiledFilterRecordCursorFactory implements RecordCursorFactory {
         this.factory = factory;
         this.filter = filter;
         this.compiledFilter = compiledFilter;
-        this.cursor = new CompiledFilterRecordCursor(configuration);
+        this.cursor = new CompiledFilterRecordCursor();
         this.bindVarFunctions = bindVarFunctions;
         this.bindVarMemory = Vm.getCARWInstance(configuration.getSqlJitBindVarsMemoryPageSize(),
                 configuration.getSqlJitBindVarsMemoryMaxPages(), MemoryTag.NATIVE_JIT);
-        this.rows = new DirectLongList(1024, MemoryTag.NATIVE_JIT_LONG_LIST);
-        this.columns = new DirectLongList(32, MemoryTag.NATIVE_JIT_LONG_LIST);
+        this.frameSequence = new PageFrameSequence<>(configuration, CompiledFilterRecordCursorFactory::filter);
     }
 
     @Override
@@ -76,13 +77,14 @@ public class CompiledFilterRecordCursorFactory implements RecordCursorFactory {
         filter.close();
         compiledFilter.close();
         bindVarMemory.close();
-        rows.close();
-        columns.close();
+        Misc.free(frameSequence);
     }
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
-        this.cursor.of(factory, filter, compiledFilter, rows, columns, bindVarFunctions, bindVarMemory, executionContext);
+        // frames must come back in order to preserve timestamp order of the base cursor
+        frameSequence.of(factory, executionContext, this, true);
+        this.cursor.of(frameSequence, filter, bindVarFunctions, bindVarMemory, executionContext);
         return this.cursor;
     }
 
@@ -100,4 +102,29 @@ public class CompiledFilterRecordCursorFactory implements RecordCursorFactory {
     public boolean usesCompiledFilter() {
         return true;
     }
+
+    private static void filter(int workerId, PageFrameReduceEntry entry) {
+        if (entry.hasColumnTops()) {
+            // Java filter is not thread-safe, the cursor applies it on the owner thread
+            return;
+        }
+
+        final CompiledFilterRecordCursorFactory factory = entry.<CompiledFilterRecordCursorFactory>getFrameSequence().getAtom();
+        final long rowCount = entry.getFrameRowCount();
+        final DirectLongList rows = entry.getRows();
+        if (rows.getCapacity() < rowCount) {
+            rows.extend(rowCount);
+        }
+
+        final long hi = factory.compiledFilter.call(
+                entry.getColumnAddressesAddress(),
+                entry.getColumnCount(),
+                factory.bindVarMemory.getAddress(),
+                factory.bindVarFunctions.size(),
+                rows.getAddress(),
+                rowCount,
+                0
+        );
+        rows.setPos(hi);
+    }
 }
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.FullFwdDataFrameCursorFactory;
 import io.questdb.cairo.NullColumn;
 import io.questdb.cairo.SymbolMapReader;
 import io.questdb.cairo.TableReader;
@@ -47,6 +48,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
     private final boolean framingSupported;
     private final IntList columnIndexes;
     private final IntList columnSizes;
+    private final boolean fullTableScan;
     private TableReaderPageFrameCursor pageFrameCursor;
 
     public DataFrameRecordCursorFactory(
@@ -68,6 +70,9 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         this.framingSupported = framingSupported;
         this.columnIndexes = columnIndexes;
         this.columnSizes = columnSizes;
+        this.fullTableScan = dataFrameCursorFactory instanceof FullFwdDataFrameCursorFactory
+                && rowCursorFactory instanceof DataFrameRowCursorFactory
+                && filter == null;
     }
 
     @Override
@@ -81,6 +86,10 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         return followsOrderByAdvice;
     }
 
+    public IntList getColumnIndexes() {
+        return columnIndexes;
+    }
+
     @Override
     public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext) throws SqlException {
         DataFrameCursor dataFrameCursor = dataFrameCursorFactory.getCursor(executionContext);
@@ -94,6 +103,14 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         }
     }
 
+    /**
+     * @return true when cursor returns every row of the table in timestamp order and record
+     * row ids can be used to address table reader partitions directly
+     */
+    public boolean isFullTableScan() {
+        return fullTableScan;
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return true;
@@ -180,7 +197,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
 
         @Override
         public long size() {
-            return reader.size();
+            return dataFrameCursor.size();
         }
 
         @Override
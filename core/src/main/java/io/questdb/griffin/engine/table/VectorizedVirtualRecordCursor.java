@@ -0,0 +1,312 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageAddressCache;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.VectorFrame;
+import io.questdb.griffin.engine.functions.VectorFunction;
+import io.questdb.griffin.engine.groupby.GroupByUtils;
+import io.questdb.griffin.engine.table.CompiledFilterRecordCursor.PageFrameRecord;
+import io.questdb.std.*;
+
+/**
+ * Projection cursor that iterates page frames of the base factory. Columns computed by
+ * {@link VectorFunction}s are evaluated for a batch of rows at once into native vectors,
+ * the rest of the columns and page frames with column tops are evaluated row by row.
+ */
+class VectorizedVirtualRecordCursor implements RecordCursor, VectorFrame {
+    private final ObjList<Function> functions;
+    private final PageAddressCache pageAddressCache;
+    private final PageFrameRecord baseRecordA = new PageFrameRecord();
+    private final PageFrameRecord baseRecordB;
+    private final VectorizedRecord recordA;
+    private final VirtualRecord recordB;
+    private final long batchSize;
+    // address of batch vector per projected column, 0 for columns evaluated row by row
+    private final LongList vectors = new LongList();
+    private final IntList vectorTypes = new IntList();
+    private final LongList scratchVectors = new LongList();
+    private final IntList columnSizes = new IntList();
+    private final SymbolTableSource baseSymbolTableSource = this::getBaseSymbolTable;
+    private PageFrameCursor pageFrameCursor;
+    private int scratchVectorIndex;
+    private int frameIndex;
+    private long frameRowCount;
+    private long rowIndex;
+    private long batchLo;
+    private long batchHi;
+    private boolean batchValid;
+    private boolean denseFrame;
+    private boolean reenterFrame;
+
+    public VectorizedVirtualRecordCursor(CairoConfiguration configuration, ObjList<Function> functions, boolean supportsRandomAccess) {
+        this.functions = functions;
+        this.pageAddressCache = new PageAddressCache(configuration);
+        this.batchSize = configuration.getSqlProjectionBatchSize();
+        this.recordA = new VectorizedRecord(functions);
+        if (supportsRandomAccess) {
+            this.baseRecordB = new PageFrameRecord();
+            this.recordB = new VirtualRecord(functions);
+        } else {
+            this.baseRecordB = null;
+            this.recordB = null;
+        }
+        this.recordA.of(baseRecordA);
+        if (recordB != null) {
+            recordB.of(baseRecordB);
+        }
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final Function function = functions.getQuick(i);
+            if (isBatchColumn(function)) {
+                vectors.add(Unsafe.malloc(batchSize * Long.BYTES, MemoryTag.NATIVE_DEFAULT));
+                vectorTypes.add(ColumnType.tagOf(function.getType()));
+            } else {
+                vectors.add(0);
+                vectorTypes.add(ColumnType.UNDEFINED);
+            }
+        }
+    }
+
+    /**
+     * Projection benefits from batches when at least one column is computed by
+     * a vectorized expression rather than just copied from the base record.
+     */
+    static boolean isBatchColumn(Function function) {
+        if (function.isConstant() || !VectorFunction.isVectorized(function)) {
+            return false;
+        }
+        final int type = ColumnType.tagOf(function.getType());
+        return (type == ColumnType.LONG || type == ColumnType.DOUBLE)
+                && (function instanceof UnaryFunction || function instanceof BinaryFunction);
+    }
+
+    @Override
+    public long acquireVector() {
+        if (scratchVectorIndex == scratchVectors.size()) {
+            scratchVectors.add(Unsafe.malloc(batchSize * Long.BYTES, MemoryTag.NATIVE_DEFAULT));
+        }
+        return scratchVectors.getQuick(scratchVectorIndex++);
+    }
+
+    @Override
+    public void close() {
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        pageAddressCache.clear();
+    }
+
+    public void freeVectors() {
+        for (int i = 0, n = vectors.size(); i < n; i++) {
+            final long vector = vectors.getQuick(i);
+            if (vector != 0) {
+                Unsafe.free(vector, batchSize * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            }
+        }
+        vectors.clear();
+        vectorTypes.clear();
+        for (int i = 0, n = scratchVectors.size(); i < n; i++) {
+            Unsafe.free(scratchVectors.getQuick(i), batchSize * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
+        scratchVectors.clear();
+    }
+
+    @Override
+    public long getColumnAddress(int columnIndex) {
+        return pageAddressCache.getPageAddress(frameIndex, columnIndex) + batchLo * columnSizes.getQuick(columnIndex);
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getRowCount() {
+        return batchHi - batchLo;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) functions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (++rowIndex < frameRowCount) {
+            if (reenterFrame) {
+                baseRecordA.jumpTo(frameIndex);
+                reenterFrame = false;
+                batchHi = 0;
+            }
+            baseRecordA.setIndex(rowIndex);
+            if (denseFrame && rowIndex >= batchHi) {
+                computeBatch();
+            }
+            return true;
+        }
+        return nextFrame();
+    }
+
+    public void of(RecordCursorFactory baseFactory, SqlExecutionContext executionContext) throws SqlException {
+        final RecordMetadata metadata = baseFactory.getMetadata();
+        pageAddressCache.of(metadata);
+        columnSizes.clear();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            columnSizes.add(ColumnType.sizeOf(metadata.getColumnType(i)));
+        }
+        pageFrameCursor = baseFactory.getPageFrameCursor(executionContext);
+        baseRecordA.of(pageFrameCursor, pageAddressCache);
+        if (baseRecordB != null) {
+            baseRecordB.of(pageFrameCursor, pageAddressCache);
+        }
+        Function.init(functions, baseSymbolTableSource, executionContext);
+        resetIteration();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        if (recordB == null) {
+            throw new UnsupportedOperationException();
+        }
+        final PageFrameRecord baseRecord = record == recordA ? baseRecordA : baseRecordB;
+        baseRecord.jumpTo(Rows.toPartitionIndex(atRowId));
+        baseRecord.setIndex(Rows.toLocalRowID(atRowId));
+        if (record == recordA) {
+            batchValid = false;
+            reenterFrame = true;
+        }
+    }
+
+    @Override
+    public void releaseVector() {
+        scratchVectorIndex--;
+    }
+
+    @Override
+    public long size() {
+        return pageFrameCursor.size();
+    }
+
+    @Override
+    public void toTop() {
+        pageFrameCursor.toTop();
+        GroupByUtils.toTop(functions);
+        resetIteration();
+    }
+
+    private void computeBatch() {
+        batchLo = rowIndex;
+        batchHi = Math.min(rowIndex + batchSize, frameRowCount);
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final long vector = vectors.getQuick(i);
+            if (vector != 0) {
+                final VectorFunction function = (VectorFunction) functions.getQuick(i);
+                if (vectorTypes.getQuick(i) == ColumnType.LONG) {
+                    function.computeLongs(this, vector);
+                } else {
+                    function.computeDoubles(this, vector);
+                }
+            }
+        }
+        batchValid = true;
+    }
+
+    private SymbolTable getBaseSymbolTable(int columnIndex) {
+        return pageFrameCursor.getSymbolMapReader(columnIndex);
+    }
+
+    private boolean nextFrame() {
+        PageFrame frame;
+        while ((frame = pageFrameCursor.next()) != null) {
+            pageAddressCache.add(++frameIndex, frame);
+            frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            if (frameRowCount > 0) {
+                rowIndex = 0;
+                reenterFrame = false;
+                baseRecordA.jumpTo(frameIndex);
+                baseRecordA.setIndex(0);
+                // null columns of the frame are not mapped
+                denseFrame = !pageAddressCache.hasColumnTops(frameIndex);
+                batchValid = false;
+                if (denseFrame) {
+                    computeBatch();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void resetIteration() {
+        frameIndex = -1;
+        frameRowCount = 0;
+        rowIndex = -1;
+        batchLo = 0;
+        batchHi = 0;
+        batchValid = false;
+        denseFrame = false;
+        reenterFrame = false;
+        scratchVectorIndex = 0;
+    }
+
+    private class VectorizedRecord extends VirtualRecord {
+
+        public VectorizedRecord(ObjList<? extends Function> functions) {
+            super(functions);
+        }
+
+        @Override
+        public double getDouble(int col) {
+            if (batchValid && vectorTypes.getQuick(col) == ColumnType.DOUBLE) {
+                return Unsafe.getUnsafe().getDouble(vectors.getQuick(col) + (rowIndex - batchLo) * Double.BYTES);
+            }
+            return super.getDouble(col);
+        }
+
+        @Override
+        public long getLong(int col) {
+            if (batchValid && vectorTypes.getQuick(col) == ColumnType.LONG) {
+                return Unsafe.getUnsafe().getLong(vectors.getQuick(col) + (rowIndex - batchLo) * Long.BYTES);
+            }
+            return super.getLong(col);
+        }
+    }
+}
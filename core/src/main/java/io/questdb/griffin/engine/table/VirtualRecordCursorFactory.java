@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -36,11 +37,13 @@ import io.questdb.std.ObjList;
 
 public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
     private final VirtualFunctionDirectSymbolRecordCursor cursor;
+    private final VectorizedVirtualRecordCursor vectorizedCursor;
     private final ObjList<Function> functions;
     private final RecordCursorFactory baseFactory;
     private final boolean supportsRandomAccess;
 
     public VirtualRecordCursorFactory(
+            CairoConfiguration configuration,
             RecordMetadata metadata,
             ObjList<Function> functions,
             RecordCursorFactory baseFactory) {
@@ -55,11 +58,19 @@ public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
         }
         this.supportsRandomAccess = supportsRandomAccess;
         this.cursor = new VirtualFunctionDirectSymbolRecordCursor(functions, supportsRandomAccess);
+        if (isVectorized(configuration, functions, baseFactory)) {
+            this.vectorizedCursor = new VectorizedVirtualRecordCursor(configuration, functions, supportsRandomAccess);
+        } else {
+            this.vectorizedCursor = null;
+        }
         this.baseFactory = baseFactory;
     }
 
     @Override
     public void close() {
+        if (vectorizedCursor != null) {
+            vectorizedCursor.freeVectors();
+        }
         Misc.freeObjList(functions);
         Misc.free(baseFactory);
     }
@@ -71,6 +82,10 @@ public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        if (vectorizedCursor != null) {
+            vectorizedCursor.of(baseFactory, executionContext);
+            return vectorizedCursor;
+        }
         RecordCursor cursor = baseFactory.getCursor(executionContext);
         Function.init(functions, cursor, executionContext);
         this.cursor.of(cursor);
@@ -81,4 +96,16 @@ public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
     public boolean recordCursorSupportsRandomAccess() {
         return supportsRandomAccess;
     }
+
+    private static boolean isVectorized(CairoConfiguration configuration, ObjList<Function> functions, RecordCursorFactory baseFactory) {
+        if (configuration.getSqlProjectionBatchSize() < 1 || !baseFactory.supportPageFrameCursor()) {
+            return false;
+        }
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (VectorizedVirtualRecordCursor.isBatchColumn(functions.getQuick(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
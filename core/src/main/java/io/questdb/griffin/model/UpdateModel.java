@@ -0,0 +1,110 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.model;
+
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+
+public class UpdateModel implements ExecutionModel, Mutable, Sinkable {
+    public static final ObjectFactory<UpdateModel> FACTORY = UpdateModel::new;
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final IntList columnPositions = new IntList();
+    private final IntList valuePositions = new IntList();
+    private ExpressionNode tableName;
+    private QueryModel queryModel;
+
+    private UpdateModel() {
+    }
+
+    public void addColumn(CharSequence columnName, int columnPosition, int valuePosition) {
+        columnNames.add(columnName);
+        columnPositions.add(columnPosition);
+        valuePositions.add(valuePosition);
+    }
+
+    @Override
+    public void clear() {
+        this.tableName = null;
+        this.queryModel = null;
+        this.columnNames.clear();
+        this.columnPositions.clear();
+        this.valuePositions.clear();
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    public CharSequence getColumnName(int index) {
+        return columnNames.getQuick(index);
+    }
+
+    public int getColumnPosition(int index) {
+        return columnPositions.getQuick(index);
+    }
+
+    @Override
+    public int getModelType() {
+        return UPDATE;
+    }
+
+    /**
+     * Model selecting new values of updated columns, in order of SET clause, from rows of the table
+     * matching WHERE clause.
+     */
+    public QueryModel getQueryModel() {
+        return queryModel;
+    }
+
+    public void setQueryModel(QueryModel queryModel) {
+        this.queryModel = queryModel;
+    }
+
+    public ExpressionNode getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(ExpressionNode tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getValuePosition(int index) {
+        return valuePositions.getQuick(index);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("update ").put(tableName.token).put(" set (");
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            if (i > 0) {
+                sink.put(", ");
+            }
+            sink.put(columnNames.getQuick(i));
+        }
+        sink.put(") ");
+        queryModel.toSink(sink);
+    }
+}
@@ -33,7 +33,9 @@ import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable
 import io.questdb.griffin.engine.functions.constants.ConstantFunction;
 import io.questdb.griffin.engine.functions.constants.SymbolConstant;
 import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 
 import java.util.Arrays;
 
@@ -51,6 +53,8 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
 
     // Stub value for opcodes and options
     static final int UNDEFINED_CODE = -1;
+    // Max number of values in "in" list serialized as a chain of equality checks
+    static final int MAX_IN_LIST_SIZE = 32;
 
     // Opcodes:
     // Return code. Breaks the loop
@@ -182,13 +186,38 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         predicateContext.onNodeDescended(node);
 
         // Look ahead for negative const
-        if (node.type == ExpressionNode.OPERATION && node.paramCount == 1 && Chars.equals(node.token, "-")) {
-            ExpressionNode nextNode = node.lhs != null ? node.lhs : node.rhs;
-            if (nextNode != null && nextNode.paramCount == 0 && nextNode.type == ExpressionNode.CONSTANT) {
-                // Store negation node for later backfilling
-                serializeConstantStub(node);
-                return false;
-            }
+        if (isNegativeConstant(node)) {
+            // Store negation node for later backfilling
+            serializeConstantStub(node);
+            return false;
+        }
+
+        // "in" list has no IR counterpart, expand it in place
+        if (isInListOperation(node)) {
+            serializeInList(node);
+            onNodeVisited(node);
+            return false;
+        }
+
+        // same for comparison of "abs(column)" with a value
+        if (isAbsComparison(node)) {
+            serializeAbsComparison(node);
+            onNodeVisited(node);
+            return false;
+        }
+
+        // and for "coalesce(column, value)"
+        if (isFunctionComparison(node, "coalesce")) {
+            serializeCoalesceComparison(node);
+            onNodeVisited(node);
+            return false;
+        }
+
+        // and for "timestamp_floor(unit, column)"
+        if (isFunctionComparison(node, "timestamp_floor")) {
+            serializeTimestampFloorComparison(node);
+            onNodeVisited(node);
+            return false;
         }
 
         return true;
@@ -217,7 +246,46 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         } else {
             serializeOperator(node.position, node.token, argCount);
         }
+        onNodeVisited(node);
+    }
+
+    private static boolean isNegativeConstant(ExpressionNode node) {
+        if (node.type == ExpressionNode.OPERATION && node.paramCount == 1 && Chars.equals(node.token, "-")) {
+            ExpressionNode nextNode = node.lhs != null ? node.lhs : node.rhs;
+            return nextNode != null && nextNode.paramCount == 0 && nextNode.type == ExpressionNode.CONSTANT;
+        }
+        return false;
+    }
+
+    private static boolean isInListOperation(ExpressionNode node) {
+        return node.paramCount > 1 && SqlKeywords.isInKeyword(node.token);
+    }
+
+    private static boolean isAbsFunction(ExpressionNode node) {
+        return node != null && node.type == ExpressionNode.FUNCTION && node.paramCount == 1 && Chars.equalsIgnoreCase(node.token, "abs");
+    }
+
+    private static boolean isAbsComparison(ExpressionNode node) {
+        return node.paramCount == 2 && (isAbsFunction(node.lhs) || isAbsFunction(node.rhs)) && isComparisonOperator(node.token);
+    }
+
+    private static boolean isFunction(ExpressionNode node, CharSequence name) {
+        return node != null && node.type == ExpressionNode.FUNCTION && node.paramCount == 2 && Chars.equalsIgnoreCase(node.token, name);
+    }
+
+    private static boolean isFunctionComparison(ExpressionNode node, CharSequence name) {
+        return node.paramCount == 2 && (isFunction(node.lhs, name) || isFunction(node.rhs, name)) && isComparisonOperator(node.token);
+    }
 
+    private static boolean isComparisonOperator(CharSequence token) {
+        return Chars.equals(token, "=")
+                || Chars.equals(token, "<")
+                || Chars.equals(token, "<=")
+                || Chars.equals(token, ">")
+                || Chars.equals(token, ">=");
+    }
+
+    private void onNodeVisited(ExpressionNode node) throws SqlException {
         boolean predicateLeft = predicateContext.onNodeVisited(node);
 
         if (predicateLeft) {
@@ -239,6 +307,336 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         }
     }
 
+    /**
+     * Writes "column in (v1, v2, ...)" as "v1 = column or v2 = column or ...". Values are constants
+     * or bind variables, so the expansion evaluates to the same result as the "in" function. Long lists
+     * are left to the Java filter which looks values up in a hash set.
+     */
+    private void serializeInList(ExpressionNode node) throws SqlException {
+        final int valueCount = node.paramCount - 1;
+        if (valueCount > MAX_IN_LIST_SIZE) {
+            throw SqlException.position(node.position)
+                    .put("too many values in 'in' list: ")
+                    .put(valueCount);
+        }
+
+        // args are stored in reverse order
+        final ExpressionNode columnNode = node.paramCount < 3 ? node.lhs : node.args.getLast();
+        if (columnNode.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(columnNode.position)
+                    .put("unsupported 'in' argument: ")
+                    .put(columnNode.token);
+        }
+
+        for (int i = 0; i < valueCount; i++) {
+            final ExpressionNode valueNode = node.paramCount < 3 ? node.rhs : node.args.getQuick(valueCount - i - 1);
+            if (isNegativeConstant(valueNode)) {
+                serializeConstantStub(valueNode);
+            } else if (valueNode.paramCount == 0 && (valueNode.type == ExpressionNode.CONSTANT || valueNode.type == ExpressionNode.BIND_VARIABLE)) {
+                visit(valueNode);
+            } else {
+                throw SqlException.position(valueNode.position)
+                        .put("unsupported 'in' value: ")
+                        .put(valueNode.token);
+            }
+            visit(columnNode);
+            putOperator(EQ);
+            if (i > 0) {
+                putOperator(OR);
+            }
+        }
+    }
+
+    /**
+     * Writes "abs(column) > value" as "column > value or -column > value" and "abs(column) < value"
+     * as "column < value and -column < value", equality is written as a pair of "greater or equal"
+     * and "less or equal" comparisons. Null column value and its negation fail all comparisons, same
+     * as null returned by the abs function. Null compares equal to null, which is why the value has to
+     * be a non-null constant, and inequality is left to the Java filter.
+     */
+    private void serializeAbsComparison(ExpressionNode node) throws SqlException {
+        final boolean absLeft = isAbsFunction(node.lhs);
+        final ExpressionNode absNode = absLeft ? node.lhs : node.rhs;
+        final ExpressionNode valueNode = absLeft ? node.rhs : node.lhs;
+        final ExpressionNode columnNode = absNode.lhs != null ? absNode.lhs : absNode.rhs;
+        if (columnNode == null || columnNode.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(absNode.position)
+                    .put("unsupported 'abs' argument: ")
+                    .put(columnNode != null ? columnNode.token : absNode.token);
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnNode.position, columnNode.token);
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                break;
+            default:
+                throw SqlException.position(columnNode.position)
+                        .put("unsupported 'abs' argument type: ")
+                        .put(ColumnType.nameOf(columnType));
+        }
+        if (!(valueNode.type == ExpressionNode.CONSTANT || isNegativeConstant(valueNode)) || SqlKeywords.isNullKeyword(valueNode.token)) {
+            throw SqlException.position(valueNode.position)
+                    .put("unsupported 'abs' comparison value: ")
+                    .put(valueNode.token);
+        }
+
+        // comparison is written as if abs was on the left
+        final CharSequence token = node.token;
+        if (Chars.equals(token, "=")) {
+            serializeAbsComparison(node.position, ">=", OR, columnNode, valueNode);
+            serializeAbsComparison(node.position, "<=", AND, columnNode, valueNode);
+            putOperator(AND);
+        } else if ((token.charAt(0) == '>') == absLeft) {
+            serializeAbsComparison(node.position, absLeft ? token : flipComparison(token), OR, columnNode, valueNode);
+        } else {
+            serializeAbsComparison(node.position, absLeft ? token : flipComparison(token), AND, columnNode, valueNode);
+        }
+    }
+
+    private void serializeAbsComparison(
+            int position,
+            CharSequence operator,
+            int combinator,
+            ExpressionNode columnNode,
+            ExpressionNode valueNode
+    ) throws SqlException {
+        for (int i = 0; i < 2; i++) {
+            // rhs goes first, same as in post-order traversal
+            serializeConstantStub(valueNode);
+            visit(columnNode);
+            if (i > 0) {
+                putOperator(NEG);
+            }
+            serializeOperator(position, operator, 2);
+        }
+        putOperator(combinator);
+    }
+
+    /**
+     * Writes "coalesce(column, default) > value" as "column = null or column > value" when "default > value"
+     * holds and as "column <> null and column > value" otherwise, the same goes for other comparisons.
+     * Both the default and the value have to be non-null constants, so the comparison of the two is
+     * evaluated here, the same way the Java filter would evaluate it for a null column value.
+     */
+    private void serializeCoalesceComparison(ExpressionNode node) throws SqlException {
+        final boolean coalesceLeft = isFunction(node.lhs, "coalesce");
+        final ExpressionNode coalesceNode = coalesceLeft ? node.lhs : node.rhs;
+        final ExpressionNode valueNode = coalesceLeft ? node.rhs : node.lhs;
+        final ExpressionNode columnNode = coalesceNode.lhs;
+        final ExpressionNode defaultNode = coalesceNode.rhs;
+        if (columnNode.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(columnNode.position)
+                    .put("unsupported 'coalesce' argument: ")
+                    .put(columnNode.token);
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnNode.position, columnNode.token);
+        }
+        final int columnTypeTag = ColumnType.tagOf(metadata.getColumnType(columnIndex));
+        switch (columnTypeTag) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                break;
+            default:
+                throw SqlException.position(columnNode.position)
+                        .put("unsupported 'coalesce' argument type: ")
+                        .put(ColumnType.nameOf(columnTypeTag));
+        }
+
+        // comparison is evaluated as if coalesce was on the left
+        final CharSequence operator = coalesceLeft ? node.token : flipComparison(node.token);
+        final boolean nullMatches = compareConstants(
+                operator,
+                parseNumericConstant(defaultNode, "coalesce default", columnTypeTag == ColumnType.FLOAT),
+                parseNumericConstant(valueNode, "coalesce comparison value", false)
+        );
+
+        // null check goes first, rhs first as in post-order traversal
+        final long offset = memory.getAppendOffset();
+        putOperand(UNDEFINED_CODE, UNDEFINED_CODE, 0);
+        serializeNull(offset, defaultNode.position, columnTypeCode(columnTypeTag), false);
+        visit(columnNode);
+        putOperator(nullMatches ? EQ : NE);
+
+        serializeConstantStub(valueNode);
+        visit(columnNode);
+        serializeOperator(node.position, operator, 2);
+        putOperator(nullMatches ? OR : AND);
+    }
+
+    /**
+     * Writes "timestamp_floor(unit, column) >= value" as "column >= lo", where "lo" is the first timestamp
+     * that floors to a value not less than the given one, and "timestamp_floor(unit, column) > value" as
+     * "timestamp_floor(unit, column) >= value + 1". Other comparisons are negations of these two, equality
+     * is a range check. Flooring is not monotonic in the same way for negative timestamps, which is why
+     * the value has to be a positive constant.
+     */
+    private void serializeTimestampFloorComparison(ExpressionNode node) throws SqlException {
+        final boolean floorLeft = isFunction(node.lhs, "timestamp_floor");
+        final ExpressionNode floorNode = floorLeft ? node.lhs : node.rhs;
+        final ExpressionNode valueNode = floorLeft ? node.rhs : node.lhs;
+        final ExpressionNode unitNode = floorNode.lhs;
+        final ExpressionNode columnNode = floorNode.rhs;
+        if (unitNode.type != ExpressionNode.CONSTANT || unitNode.token.length() != 3 || !Chars.isQuoted(unitNode.token)) {
+            throw SqlException.position(unitNode.position)
+                    .put("unsupported 'timestamp_floor' unit: ")
+                    .put(unitNode.token);
+        }
+        final char unit = unitNode.token.charAt(1);
+        if (columnNode.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(columnNode.position)
+                    .put("unsupported 'timestamp_floor' argument: ")
+                    .put(columnNode.token);
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnNode.position, columnNode.token);
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (ColumnType.tagOf(columnType) != ColumnType.TIMESTAMP) {
+            throw SqlException.position(columnNode.position)
+                    .put("unsupported 'timestamp_floor' argument type: ")
+                    .put(ColumnType.nameOf(columnType));
+        }
+
+        long value = Numbers.LONG_NaN;
+        if (valueNode.type == ExpressionNode.CONSTANT) {
+            try {
+                if (Chars.isQuoted(valueNode.token)) {
+                    value = IntervalUtils.parseFloorPartialDate(valueNode.token, 1, valueNode.token.length() - 1);
+                } else {
+                    value = Numbers.parseLong(valueNode.token);
+                }
+            } catch (NumericException ignore) {
+            }
+        }
+        final long lo = value > 0 ? timestampFloorBound(unit, value, unitNode.position) : Numbers.LONG_NaN;
+        final long hi = value > 0 ? timestampFloorBound(unit, value + 1, unitNode.position) : Numbers.LONG_NaN;
+        if (lo < value || hi <= value) {
+            // non-positive value or overflow
+            throw SqlException.position(valueNode.position)
+                    .put("unsupported 'timestamp_floor' comparison value: ")
+                    .put(valueNode.token);
+        }
+
+        // comparison is written as if timestamp_floor was on the left
+        final CharSequence operator = floorLeft ? node.token : flipComparison(node.token);
+        if (Chars.equals(operator, "=")) {
+            serializeTimestampBound(columnNode, lo, GE);
+            serializeTimestampBound(columnNode, hi, LT);
+            putOperator(AND);
+        } else if (Chars.equals(operator, ">=")) {
+            serializeTimestampBound(columnNode, lo, GE);
+        } else if (Chars.equals(operator, "<")) {
+            serializeTimestampBound(columnNode, lo, LT);
+        } else if (Chars.equals(operator, ">")) {
+            serializeTimestampBound(columnNode, hi, GE);
+        } else {
+            serializeTimestampBound(columnNode, hi, LT);
+        }
+    }
+
+    private void serializeTimestampBound(ExpressionNode columnNode, long bound, int operator) throws SqlException {
+        putOperand(IMM, I8_TYPE, bound);
+        visit(columnNode);
+        putOperator(operator);
+    }
+
+    /**
+     * Returns the first positive timestamp that floors to a value not less than the given one.
+     */
+    private static long timestampFloorBound(char unit, long value, int position) throws SqlException {
+        final long floor;
+        switch (unit) {
+            case 'd':
+                floor = Timestamps.floorDD(value);
+                return floor == value ? value : floor + Timestamps.DAY_MICROS;
+            case 'M':
+                floor = Timestamps.floorMM(value);
+                return floor == value ? value : Timestamps.addMonths(floor, 1);
+            case 'y':
+                floor = Timestamps.floorYYYY(value);
+                return floor == value ? value : Timestamps.addYear(floor, 1);
+            case 'h':
+                floor = Timestamps.floorHH(value);
+                return floor == value ? value : floor + Timestamps.HOUR_MICROS;
+            case 'm':
+                floor = Timestamps.floorMI(value);
+                return floor == value ? value : floor + Timestamps.MINUTE_MICROS;
+            case 's':
+                floor = Timestamps.floorSS(value);
+                return floor == value ? value : floor + Timestamps.SECOND_MICROS;
+            case 'T':
+                floor = Timestamps.floorMS(value);
+                return floor == value ? value : floor + Timestamps.MILLI_MICROS;
+            default:
+                throw SqlException.position(position)
+                        .put("unsupported 'timestamp_floor' unit: ")
+                        .put(unit);
+        }
+    }
+
+    private static double parseNumericConstant(ExpressionNode node, CharSequence what, boolean floatValue) throws SqlException {
+        final boolean negated = isNegativeConstant(node);
+        final ExpressionNode constantNode = negated ? (node.lhs != null ? node.lhs : node.rhs) : node;
+        if (constantNode.type == ExpressionNode.CONSTANT && !SqlKeywords.isNullKeyword(constantNode.token)) {
+            try {
+                final double value = negated ? -Numbers.parseDouble(constantNode.token) : Numbers.parseDouble(constantNode.token);
+                // float column is compared with the default converted to float,
+                // large longs are compared as longs, neither is exact in double
+                if ((!floatValue || (float) value == value) && Math.abs(value) < (1L << 53)) {
+                    return value;
+                }
+            } catch (NumericException ignore) {
+            }
+        }
+        throw SqlException.position(node.position)
+                .put("unsupported ").put(what).put(": ")
+                .put(node.token);
+    }
+
+    private static boolean compareConstants(CharSequence operator, double left, double right) {
+        if (Chars.equals(operator, "=")) {
+            // same tolerance as in double equality function
+            return Math.abs(left - right) < 0.0000000001;
+        }
+        if (Chars.equals(operator, "<")) {
+            return left < right;
+        }
+        if (Chars.equals(operator, "<=")) {
+            return left <= right;
+        }
+        if (Chars.equals(operator, ">")) {
+            return left > right;
+        }
+        return left >= right;
+    }
+
+    private static CharSequence flipComparison(CharSequence token) {
+        if (Chars.equals(token, "=")) {
+            return token;
+        }
+        if (Chars.equals(token, "<")) {
+            return ">";
+        }
+        if (Chars.equals(token, "<=")) {
+            return ">=";
+        }
+        if (Chars.equals(token, ">")) {
+            return "<";
+        }
+        return "<=";
+    }
+
     private void backfillNode(long key, ExpressionNode value) {
         try {
             switch (value.type) {
@@ -801,6 +1199,9 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         if (SqlKeywords.isNotKeyword(token)) {
             return true;
         }
+        if (isInListOperation(node)) {
+            return true;
+        }
         if (node.paramCount < 2) {
             return false;
         }
@@ -38,6 +38,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     protected static final int DISCONNECT_SRC_QUEUE = 0;
     protected static final int DISCONNECT_SRC_IDLE = 1;
     protected static final int DISCONNECT_SRC_SHUTDOWN = 2;
+    protected static final int DISCONNECT_SRC_ERROR = 3;
     private final static String[] DISCONNECT_SOURCES;
     protected final Log LOG;
     private final IODispatcherConfiguration configuration;
@@ -309,6 +310,6 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     }
 
     static {
-        DISCONNECT_SOURCES = new String[] { "queue", "idle", "shutdown" };
+        DISCONNECT_SOURCES = new String[] { "queue", "idle", "shutdown", "error" };
     }
 }
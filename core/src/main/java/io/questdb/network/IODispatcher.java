@@ -46,6 +46,7 @@ public interface IODispatcher<C extends IOContext> extends Closeable, Job {
     int DISCONNECT_REASON_KICKED_TXT_NOT_ENOUGH_LINES = 14;
     int DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV = 15;
     int DISCONNECT_REASON_TEST = 16;
+    int DISCONNECT_REASON_PEER_DISCONNECT_AT_RAW_RECV = 17;
 
     void disconnect(C context, int reason);
 
@@ -48,6 +48,10 @@ public interface IODispatcherConfiguration {
 
     int getIOQueueCapacity();
 
+    default IOURingFacade getIOURingFacade() {
+        return IOURingFacadeImpl.INSTANCE;
+    }
+
     long getIdleConnectionTimeout();
 
     int getInitialBias();
@@ -69,4 +73,12 @@ public interface IODispatcherConfiguration {
     int getSndBufSize();
 
     long getQueuedConnectionTimeout();
+
+    /**
+     * On Linux, dispatcher uses io_uring instead of epoll when this is true and kernel
+     * supports io_uring. Dispatcher falls back to epoll otherwise.
+     */
+    default boolean isIOURingEnabled() {
+        return false;
+    }
 }
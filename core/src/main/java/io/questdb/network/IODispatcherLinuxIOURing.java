@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.network;
+
+/**
+ * Linux dispatcher that arms one-shot polls through io_uring instead of epoll. Re-arming a
+ * connection does not cost a system call, all polls queued in one dispatcher iteration are
+ * submitted together and completions are read without entering kernel.
+ */
+public class IODispatcherLinuxIOURing<C extends IOContext> extends AbstractIODispatcher<C> {
+    private static final int M_ID = 2;
+    // id of the listener poll
+    private static final long ID_LISTENER = 0;
+    // id of poll removal requests, their completions are of no interest
+    private static final long ID_REMOVE = -1;
+    private final IOURing ring;
+    private long fdid = 1;
+    private boolean listenerArmed = false;
+
+    public IODispatcherLinuxIOURing(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
+    ) {
+        super(configuration, ioContextFactory);
+        this.ring = new IOURing(configuration.getIOURingFacade(), configuration.getEventCapacity());
+        registerListenerFd();
+    }
+
+    @Override
+    public void close() {
+        // polls hold references to sockets, cancel them to have sockets closed
+        // by the time close() returns
+        unregisterListenerFd();
+        for (int i = 0, n = pending.size(); i < n; i++) {
+            ring.pollRemove(pending.get(i, M_ID), ID_REMOVE);
+        }
+        ring.drain();
+        super.close();
+        this.ring.close();
+        LOG.info().$("closed").$();
+    }
+
+    @Override
+    protected void pendingAdded(int index) {
+        pending.set(index, M_ID, fdid++);
+    }
+
+    @Override
+    protected void registerListenerFd() {
+        if (!listenerArmed) {
+            ring.pollAdd(serverFd, ID_LISTENER, IOURingAccessor.POLLIN);
+            ring.submit();
+            listenerArmed = true;
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+
+        final long timestamp = clock.getTicks();
+        processDisconnects(timestamp);
+        final int n = ring.reap();
+        int watermark = pending.size();
+        int offset = 0;
+        if (n > 0) {
+            LOG.debug().$("io_uring [n=").$(n).$(']').$();
+            for (int i = 0; i < n; i++) {
+                ring.setOffset(offset);
+                offset += IOURingAccessor.SIZEOF_CQE;
+                final long id = ring.getData();
+                final int res = ring.getResult();
+                if (id == ID_REMOVE) {
+                    continue;
+                }
+
+                if (id == ID_LISTENER) {
+                    listenerArmed = false;
+                    if (res > 0) {
+                        accept(timestamp);
+                    }
+                    // accept() could have stopped listening when connection limit is reached
+                    if (isListening() && serverFd > -1) {
+                        registerListenerFd();
+                    }
+                    continue;
+                }
+
+                // removed connections are no longer in pending
+                int row = pending.binarySearch(id, M_ID);
+                if (row < 0) {
+                    LOG.debug().$("completion for removed poll [id=").$(id).$(", res=").$(res).$(']').$();
+                    continue;
+                }
+
+                if (res < 0) {
+                    // negative result is -errno of failed poll, event bits are meaningless
+                    LOG.info().$("poll failed [id=").$(id).$(", errno=").$(-res).$(']').$();
+                    doDisconnect(pending.get(row), DISCONNECT_SRC_ERROR);
+                } else {
+                    publishOperation(
+                            (res & IOURingAccessor.POLLIN) > 0 ? IOOperation.READ : IOOperation.WRITE,
+                            pending.get(row)
+                    );
+                }
+                pending.deleteRow(row);
+                watermark--;
+            }
+
+            // process rows over watermark
+            if (watermark < pending.size()) {
+                enqueuePending(watermark);
+            }
+            useful = true;
+        }
+
+        // process timed out connections
+        final long deadline = timestamp - idleConnectionTimeout;
+        if (pending.size() > 0 && pending.get(0, M_TIMESTAMP) < deadline) {
+            processIdleConnections(deadline);
+            useful = true;
+        }
+
+        useful = processRegistrations(timestamp) || useful;
+        ring.submit();
+        return useful;
+    }
+
+    @Override
+    protected void unregisterListenerFd() {
+        if (listenerArmed) {
+            ring.pollRemove(ID_LISTENER, ID_REMOVE);
+            ring.submit();
+            listenerArmed = false;
+        }
+    }
+
+    private void enqueuePending(int watermark) {
+        for (int i = watermark, sz = pending.size(); i < sz; i++) {
+            ring.pollAdd(
+                    pending.get(i, M_FD),
+                    pending.get(i, M_ID),
+                    initialBias == IODispatcherConfiguration.BIAS_READ ? IOURingAccessor.POLLIN : IOURingAccessor.POLLOUT
+            );
+        }
+    }
+
+    private void processIdleConnections(long deadline) {
+        int count = 0;
+        for (int i = 0, n = pending.size(); i < n && pending.get(i, M_TIMESTAMP) < deadline; i++, count++) {
+            // unlike epoll, closing descriptor does not cancel poll, the poll would keep socket open
+            ring.pollRemove(pending.get(i, M_ID), ID_REMOVE);
+            doDisconnect(pending.get(i), DISCONNECT_SRC_IDLE);
+        }
+        pending.zapTop(count);
+    }
+
+    private boolean processRegistrations(long timestamp) {
+        long cursor;
+        boolean useful = false;
+        while ((cursor = interestSubSeq.next()) > -1) {
+            IOEvent<C> evt = interestQueue.get(cursor);
+            C context = evt.context;
+            int operation = evt.operation;
+            interestSubSeq.done(cursor);
+
+            final long fd = context.getFd();
+            final long id = fdid++;
+            LOG.debug().$("registered [fd=").$(fd).$(", op=").$(operation).$(", id=").$(id).$(']').$();
+            ring.pollAdd(fd, id, operation == IOOperation.READ ? IOURingAccessor.POLLIN : IOURingAccessor.POLLOUT);
+
+            int r = pending.addRow();
+            pending.set(r, M_TIMESTAMP, timestamp);
+            pending.set(r, M_FD, fd);
+            pending.set(r, M_ID, id);
+            pending.set(r, context);
+            useful = true;
+        }
+        return useful;
+    }
+}
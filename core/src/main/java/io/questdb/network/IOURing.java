@@ -0,0 +1,130 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.network;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Submission and completion queue pair. Requests are queued without system calls
+ * and go to kernel in one batch on {@link #submit()}, completions are read straight
+ * from the shared completion queue.
+ */
+public final class IOURing implements Closeable {
+    private static final Log LOG = LogFactory.getLog(IOURing.class);
+    private final IOURingFacade rf;
+    private final long ring;
+    private final long cqes;
+    private final int capacity;
+    private boolean closed = false;
+    private long _rPtr;
+    // requests submitted or queued for submission that have not been reaped yet
+    private long inflight;
+
+    public IOURing(IOURingFacade rf, int capacity) {
+        this.rf = rf;
+        this.ring = rf.create(capacity);
+        if (ring == 0) {
+            throw NetworkError.instance(rf.errno(), "io_uring_setup");
+        }
+        this.capacity = capacity;
+        this.cqes = _rPtr = Unsafe.calloc(IOURingAccessor.SIZEOF_CQE * (long) capacity, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        rf.close(ring);
+        Unsafe.free(cqes, IOURingAccessor.SIZEOF_CQE * (long) capacity, MemoryTag.NATIVE_DEFAULT);
+        closed = true;
+    }
+
+    /**
+     * Waits for all outstanding requests to complete and discards their completions. Closed ring
+     * releases descriptors held by outstanding requests asynchronously, draining ring before
+     * closing descriptors makes sure they are closed on return.
+     */
+    public void drain() {
+        while (inflight > 0) {
+            if (rf.submitAndWait(ring, 1) < 0) {
+                LOG.error().$("io_uring_enter failure [errno=").$(rf.errno()).$(']').$();
+                break;
+            }
+            reap();
+        }
+    }
+
+    public long getData() {
+        return Unsafe.getUnsafe().getLong(_rPtr + IOURingAccessor.USER_DATA_OFFSET);
+    }
+
+    public int getResult() {
+        return (int) Unsafe.getUnsafe().getLong(_rPtr + IOURingAccessor.RES_OFFSET);
+    }
+
+    public void pollAdd(long fd, long id, int mask) {
+        if (rf.pollAdd(ring, fd, id, mask) != 0) {
+            // submission queue is full, flush it and retry
+            submit();
+            if (rf.pollAdd(ring, fd, id, mask) != 0) {
+                throw NetworkError.instance(rf.errno(), "io_uring poll add");
+            }
+        }
+        inflight++;
+    }
+
+    public void pollRemove(long id, long removeId) {
+        if (rf.pollRemove(ring, id, removeId) != 0) {
+            submit();
+            if (rf.pollRemove(ring, id, removeId) != 0) {
+                throw NetworkError.instance(rf.errno(), "io_uring poll remove");
+            }
+        }
+        inflight++;
+    }
+
+    public int reap() {
+        final int n = rf.reap(ring, cqes, capacity);
+        inflight -= n;
+        return n;
+    }
+
+    public void setOffset(int offset) {
+        this._rPtr = this.cqes + offset;
+    }
+
+    public void submit() {
+        if (rf.submit(ring) < 0) {
+            LOG.error().$("io_uring_enter failure [errno=").$(rf.errno()).$(']').$();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+public class IOURingAccessor {
+    // poll(2) event bits, these are the same on all Linux architectures
+    public static final int POLLIN = 0x1;
+    public static final int POLLOUT = 0x4;
+    // layout of completion entry as copied out of completion queue by reap()
+    public static final short SIZEOF_CQE = 16;
+    static final short USER_DATA_OFFSET = 0;
+    static final short RES_OFFSET = 8;
+
+    static native void close(long ring);
+
+    static native long create(int capacity);
+
+    static native boolean isAvailable();
+
+    static native int pollAdd(long ring, long fd, long userData, int mask);
+
+    static native int pollRemove(long ring, long targetUserData, long userData);
+
+    static native int reap(long ring, long cqesPtr, int capacity);
+
+    static native int submit(long ring);
+
+    static native int submitAndWait(long ring, int minComplete);
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.std.Os;
+
+public class IOURingFacadeImpl implements IOURingFacade {
+    public static final IOURingFacadeImpl INSTANCE = new IOURingFacadeImpl();
+
+    @Override
+    public void close(long ring) {
+        IOURingAccessor.close(ring);
+    }
+
+    @Override
+    public long create(int capacity) {
+        return IOURingAccessor.create(capacity);
+    }
+
+    @Override
+    public int errno() {
+        return Os.errno();
+    }
+
+    @Override
+    public NetworkFacade getNetworkFacade() {
+        return NetworkFacadeImpl.INSTANCE;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        if (Os.type != Os.LINUX_AMD64 && Os.type != Os.LINUX_ARM64) {
+            return false;
+        }
+        try {
+            // kernel may be too old or io_uring may be disabled by seccomp or sysctl,
+            // native library may also be built without io_uring support
+            return IOURingAccessor.isAvailable();
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int pollAdd(long ring, long fd, long userData, int mask) {
+        return IOURingAccessor.pollAdd(ring, fd, userData, mask);
+    }
+
+    @Override
+    public int pollRemove(long ring, long targetUserData, long userData) {
+        return IOURingAccessor.pollRemove(ring, targetUserData, userData);
+    }
+
+    @Override
+    public int reap(long ring, long cqesPtr, int capacity) {
+        return IOURingAccessor.reap(ring, cqesPtr, capacity);
+    }
+
+    @Override
+    public int submit(long ring) {
+        return IOURingAccessor.submit(ring);
+    }
+
+    @Override
+    public int submitAndWait(long ring, int minComplete) {
+        return IOURingAccessor.submitAndWait(ring, minComplete);
+    }
+}
@@ -172,6 +172,14 @@ public final class Net {
 
     public static native int send(long fd, long ptr, int len);
 
+    /**
+     * Sends len bytes of file starting at offset to the socket without copying them through
+     * user space. Only available on Linux.
+     *
+     * @return number of bytes sent, ERETRY when socket is not ready or EOTHERDISCONNECT on error
+     */
+    public static native long sendFile(long fd, long fileFd, long offset, long len);
+
     public native static int sendTo(long fd, long ptr, int len, long sockaddr);
 
     public native static int setMulticastInterface(long fd, int ipv4address);
@@ -58,6 +58,10 @@ public interface NetworkFacade {
 
     int send(long fd, long buffer, int bufferLen);
 
+    long sendFile(long fd, long fileFd, long offset, long len);
+
+    boolean isSendFileSupported();
+
     int errno();
 
     long sockaddr(int address, int port);
@@ -29,6 +29,7 @@ import io.questdb.std.Os;
 
 public class NetworkFacadeImpl implements NetworkFacade {
     public static final NetworkFacade INSTANCE = new NetworkFacadeImpl();
+    private static final boolean SEND_FILE_SUPPORTED = probeSendFile();
 
     @Override
     public void abortAccept(long fd) {
@@ -112,6 +113,16 @@ public class NetworkFacadeImpl implements NetworkFacade {
         return Net.send(fd, buffer, bufferLen);
     }
 
+    @Override
+    public long sendFile(long fd, long fileFd, long offset, long len) {
+        return Net.sendFile(fd, fileFd, offset, len);
+    }
+
+    @Override
+    public boolean isSendFileSupported() {
+        return SEND_FILE_SUPPORTED;
+    }
+
     @Override
     public int errno() {
         return Os.errno();
@@ -231,4 +242,17 @@ public class NetworkFacadeImpl implements NetworkFacade {
     public int setMulticastTtl(long fd, int ttl) {
         return Net.setMulticastTtl(fd, ttl);
     }
+
+    private static boolean probeSendFile() {
+        if (Os.type != Os.LINUX_AMD64 && Os.type != Os.LINUX_ARM64) {
+            return false;
+        }
+        try {
+            // native library may be built without sendfile support
+            Net.sendFile(-1, -1, 0, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
 }
@@ -41,9 +41,20 @@ public final class Files {
     public static final int DT_DIR = 4;
     public static final int MAP_RO = 1;
     public static final int MAP_RW = 2;
+    // memory access pattern hints, see madvise()
+    public static final int MADV_NORMAL = 0;
+    public static final int MADV_RANDOM = 1;
+    public static final int MADV_SEQUENTIAL = 2;
+    public static final int MADV_WILLNEED = 3;
+    public static final int MADV_DONTNEED = 4;
+    public static final int MADV_HUGEPAGE = 5;
+    public static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024;
     public static final char SEPARATOR;
 
     static final AtomicLong OPEN_FILE_COUNT = new AtomicLong();
+    // native library may be built without hard link support
+    private static final boolean HARD_LINK_SUPPORTED;
+    private static final boolean MADVISE_SUPPORTED;
     private static LongHashSet openFds;
 
     private Files() {
@@ -146,6 +157,18 @@ public final class Files {
 
     public native static long getStdOutFd();
 
+    /**
+     * Creates hard link to existing file.
+     *
+     * @param src      existing file
+     * @param hardLink path of the new link
+     * @return 0 on success, -1 when link could not be created, for example when
+     * file system does not support hard links or paths are on different devices
+     */
+    public static int hardLink(LPSZ src, LPSZ hardLink) {
+        return HARD_LINK_SUPPORTED ? hardLink0(src.address(), hardLink.address()) : -1;
+    }
+
     public static boolean isDir(long pUtf8NameZ, long type, StringSink nameSink) {
         if (type == DT_DIR) {
             nameSink.clear();
@@ -236,6 +259,20 @@ public final class Files {
         return address;
     }
 
+    /**
+     * Hints OS how memory region is going to be accessed. Region must start at page boundary.
+     * Hints that are not supported by the OS are ignored.
+     * Hint is dropped when the native library was built without madvise support.
+     *
+     * @param addr   start of the region
+     * @param len    length of the region
+     * @param advice one of MADV_* constants
+     * @return 0 on success, error code otherwise
+     */
+    public static int madvise(long addr, long len, int advice) {
+        return MADVISE_SUPPORTED ? madvise0(addr, len, advice) : 0;
+    }
+
     public static native int msync(long addr, long len, boolean async);
 
     public static void munmap(long address, long len, int memoryTag) {
@@ -398,10 +435,39 @@ public final class Files {
 
     private static native boolean rename(long lpszOld, long lpszNew);
 
+    private static native int hardLink0(long lpszSrc, long lpszHardLink);
+
+    private static native int madvise0(long addr, long len, int advice);
+
+    private static boolean probeHardLink() {
+        final long emptyPath = Unsafe.getUnsafe().allocateMemory(1);
+        try {
+            Unsafe.getUnsafe().putByte(emptyPath, (byte) 0);
+            // linking empty path fails without side effects
+            hardLink0(emptyPath, emptyPath);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        } finally {
+            Unsafe.getUnsafe().freeMemory(emptyPath);
+        }
+    }
+
+    private static boolean probeMadvise() {
+        try {
+            madvise0(0, 0, MADV_NORMAL);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
     static {
         Os.init();
         UTF_8 = StandardCharsets.UTF_8;
         PAGE_SIZE = getPageSize();
         SEPARATOR = Os.type == Os.WINDOWS ? '\\' : '/';
+        HARD_LINK_SUPPORTED = probeHardLink();
+        MADVISE_SUPPORTED = probeMadvise();
     }
 }
@@ -64,6 +64,8 @@ public interface FilesFacade {
 
     long getPageSize();
 
+    int hardLink(LPSZ src, LPSZ hardLink);
+
     boolean isRestrictedFileSystem();
 
     void iterateDir(LPSZ path, FindVisitor func);
@@ -72,6 +74,8 @@ public interface FilesFacade {
 
     long length(LPSZ name);
 
+    int madvise(long address, long len, int advice);
+
     int lock(long fd);
 
     int mkdir(LPSZ path, int mode);
@@ -102,6 +102,11 @@ public class FilesFacadeImpl implements FilesFacade {
         return Files.getLastModified(path);
     }
 
+    @Override
+    public int madvise(long address, long len, int advice) {
+        return Files.madvise(address, len, advice);
+    }
+
     @Override
     public int msync(long addr, long len, boolean async) {
         return Files.msync(addr, len, async);
@@ -130,6 +135,11 @@ public class FilesFacadeImpl implements FilesFacade {
         return Files.PAGE_SIZE;
     }
 
+    @Override
+    public int hardLink(LPSZ src, LPSZ hardLink) {
+        return Files.hardLink(src, hardLink);
+    }
+
     @Override
     public boolean isRestrictedFileSystem() {
         return Os.type == Os.WINDOWS;
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+/**
+ * Sorts arrays of 128-bit (key, value) entries, such as O3 timestamp index, in ascending
+ * unsigned order of the key. The sort is stable. Input that consists of a few ascending runs,
+ * which is typical for data arriving nearly in order, is merged rather than sorted.
+ */
+public final class LongIndexSort {
+    public static final int ENTRY_SIZE = 16;
+    // input with more runs than this is sorted from scratch
+    private static final int MAX_MERGE_RUN_COUNT = 16;
+
+    private LongIndexSort() {
+    }
+
+    /**
+     * Counts ascending runs in the given range, stopping as soon as count exceeds the limit.
+     *
+     * @param addr  address of the index
+     * @param lo    first entry, inclusive
+     * @param hi    last entry, exclusive
+     * @param limit count at which to stop counting
+     * @return number of runs, 0 for empty range
+     */
+    public static int countRuns(long addr, long lo, long hi, int limit) {
+        if (lo >= hi) {
+            return 0;
+        }
+        int count = 1;
+        long prev = getKey(addr, lo);
+        for (long i = lo + 1; i < hi; i++) {
+            final long key = getKey(addr, i);
+            if (Long.compareUnsigned(key, prev) < 0 && ++count > limit) {
+                return count;
+            }
+            prev = key;
+        }
+        return count;
+    }
+
+    /**
+     * Merges two adjacent sorted ranges [lo, mid) and [mid, hi). Entries of the left range
+     * go first when keys are equal.
+     *
+     * @param addr    address of the index
+     * @param lo      first entry of the left range
+     * @param mid     first entry of the right range
+     * @param hi      end of the right range, exclusive
+     * @param cpyAddr scratch memory of at least (mid - lo) entries
+     */
+    public static void merge(long addr, long lo, long mid, long hi, long cpyAddr) {
+        if (lo >= mid || mid >= hi || Long.compareUnsigned(getKey(addr, mid - 1), getKey(addr, mid)) <= 0) {
+            // nothing to merge or ranges are in order already
+            return;
+        }
+        final long leftCount = mid - lo;
+        Vect.memcpy(cpyAddr, addr + lo * ENTRY_SIZE, leftCount * ENTRY_SIZE);
+
+        long l = 0;
+        long r = mid;
+        long d = lo;
+        while (l < leftCount && r < hi) {
+            final long src;
+            if (Long.compareUnsigned(getKey(addr, r), getKey(cpyAddr, l)) < 0) {
+                src = addr + (r++) * ENTRY_SIZE;
+            } else {
+                src = cpyAddr + (l++) * ENTRY_SIZE;
+            }
+            final long dst = addr + (d++) * ENTRY_SIZE;
+            Unsafe.getUnsafe().putLong(dst, Unsafe.getUnsafe().getLong(src));
+            Unsafe.getUnsafe().putLong(dst + Long.BYTES, Unsafe.getUnsafe().getLong(src + Long.BYTES));
+        }
+        if (l < leftCount) {
+            // whatever is left of the right range is in place already
+            Vect.memcpy(addr + d * ENTRY_SIZE, cpyAddr + l * ENTRY_SIZE, (leftCount - l) * ENTRY_SIZE);
+        }
+    }
+
+    /**
+     * Sorts index in place.
+     *
+     * @param addr    address of the index
+     * @param count   number of entries
+     * @param cpyAddr scratch memory of at least count entries
+     */
+    public static void sort(long addr, long count, long cpyAddr) {
+        final int runCount = countRuns(addr, 0, count, MAX_MERGE_RUN_COUNT);
+        if (runCount < 2) {
+            return;
+        }
+        if (runCount > MAX_MERGE_RUN_COUNT) {
+            Vect.radixSortLongIndexAscInPlace(addr, count, cpyAddr);
+            return;
+        }
+        mergeRuns(addr, count, cpyAddr);
+    }
+
+    private static long getKey(long addr, long index) {
+        return Unsafe.getUnsafe().getLong(addr + index * ENTRY_SIZE);
+    }
+
+    private static long nextRun(long addr, long lo, long count) {
+        long i = lo + 1;
+        while (i < count && Long.compareUnsigned(getKey(addr, i - 1), getKey(addr, i)) <= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    // merges neighbouring pairs of runs until there is one run left
+    private static void mergeRuns(long addr, long count, long cpyAddr) {
+        boolean merged;
+        do {
+            merged = false;
+            long lo = 0;
+            while (lo < count) {
+                final long mid = nextRun(addr, lo, count);
+                if (mid == count) {
+                    break;
+                }
+                final long hi = nextRun(addr, mid, count);
+                merge(addr, lo, mid, hi, cpyAddr);
+                merged = true;
+                lo = hi;
+            }
+        } while (merged);
+    }
+}
@@ -26,6 +26,13 @@ package io.questdb.std;
 
 public final class Vect {
 
+    // size of upsert key descriptor passed to dedupMergeIndex(), in longs
+    public static final int DEDUP_KEY_SIZE = 4;
+    public static final int DEDUP_KEY_FLOAT = 1;
+    public static final int DEDUP_KEY_DOUBLE = 2;
+    // native library may be built without dedup support
+    private static final boolean DEDUP_SUPPORTED;
+
     public static native double avgDouble(long pDouble, long count);
 
     public static native double avgInt(long pInt, long count);
@@ -54,6 +61,42 @@ public final class Vect {
 
     public static native void copyFromTimestampIndex(long pIndex, long indexLo, long indexHi, long pTs);
 
+    /**
+     * Builds merge index of partition rows and a range of sorted O3 rows, leaving out partition rows that have
+     * the same timestamp and upsert key values as one of the O3 rows. Index entries are (timestamp, row) pairs,
+     * partition rows have the top bit of the row set and go first on equal timestamps. O3 rows are referenced by
+     * their position in the O3 index.
+     * <p>
+     * Upsert keys are described by {@link #DEDUP_KEY_SIZE} longs each: value size in bytes, float kind,
+     * address of partition column and address of O3 column. Float kind is {@link #DEDUP_KEY_FLOAT} or
+     * {@link #DEDUP_KEY_DOUBLE} for floating point keys, where 0.0 and -0.0 are the same key and so are all NaNs.
+     *
+     * @param pDataTimestamps partition timestamp column
+     * @param dataCount       partition row count
+     * @param pO3Index        sorted O3 timestamp index
+     * @param o3Lo            first O3 index entry of the partition
+     * @param o3Hi            last O3 index entry of the partition, inclusive
+     * @param pKeys           upsert key descriptors
+     * @param keyCount        number of upsert keys
+     * @param pDest           merge index with room for dataCount + o3Hi - o3Lo + 1 entries
+     * @return number of merge index entries written
+     */
+    public static long dedupMergeIndex(
+            long pDataTimestamps,
+            long dataCount,
+            long pO3Index,
+            long o3Lo,
+            long o3Hi,
+            long pKeys,
+            long keyCount,
+            long pDest
+    ) {
+        if (DEDUP_SUPPORTED) {
+            return dedupMergeIndex0(pDataTimestamps, dataCount, pO3Index, o3Lo, o3Hi, pKeys, keyCount, pDest);
+        }
+        return dedupMergeIndexJava(pDataTimestamps, dataCount, pO3Index, o3Lo, o3Hi, pKeys, keyCount, pDest);
+    }
+
     public static native void flattenIndex(long pIndex, long count);
 
     public static native void freeMergedIndex(long pIndex);
@@ -208,5 +251,198 @@ public final class Vect {
 
     public static native long sumLong(long pLong, long count);
 
+    private static long dedupKeyAddress(long pKeys, long key, long row) {
+        final long pKey = pKeys + key * DEDUP_KEY_SIZE * Long.BYTES;
+        final long size = Unsafe.getUnsafe().getLong(pKey);
+        return row < 0
+                ? Unsafe.getUnsafe().getLong(pKey + 2 * Long.BYTES) + (row & Long.MAX_VALUE) * size
+                : Unsafe.getUnsafe().getLong(pKey + 3 * Long.BYTES) + row * size;
+    }
+
+    private static long dedupKeyHash(long pKeys, long keyCount, long row) {
+        long hash = 0;
+        for (long k = 0; k < keyCount; k++) {
+            hash = hash * 31 + dedupKeyValue(pKeys, k, dedupKeyAddress(pKeys, k, row));
+        }
+        // sort is unsigned, hashes are searched as signed values
+        return hash & Long.MAX_VALUE;
+    }
+
+    private static long dedupKeyValue(long pKeys, long key, long addr) {
+        final long pKey = pKeys + key * DEDUP_KEY_SIZE * Long.BYTES;
+        switch ((int) Unsafe.getUnsafe().getLong(pKey + Long.BYTES)) {
+            case DEDUP_KEY_FLOAT:
+                final float f = Unsafe.getUnsafe().getFloat(addr);
+                return f == 0 ? 0 : Float.floatToIntBits(f);
+            case DEDUP_KEY_DOUBLE:
+                final double d = Unsafe.getUnsafe().getDouble(addr);
+                return d == 0 ? 0 : Double.doubleToLongBits(d);
+            default:
+                break;
+        }
+        switch ((int) Unsafe.getUnsafe().getLong(pKey)) {
+            case Byte.BYTES:
+                return Unsafe.getUnsafe().getByte(addr);
+            case Short.BYTES:
+                return Unsafe.getUnsafe().getShort(addr);
+            case Integer.BYTES:
+                return Unsafe.getUnsafe().getInt(addr);
+            case Long.BYTES:
+                return Unsafe.getUnsafe().getLong(addr);
+            default:
+                return Unsafe.getUnsafe().getLong(addr)
+                        ^ Unsafe.getUnsafe().getLong(addr + Long.BYTES)
+                        ^ Unsafe.getUnsafe().getLong(addr + Long.BYTES * 2)
+                        ^ Unsafe.getUnsafe().getLong(addr + Long.BYTES * 3);
+        }
+    }
+
+    private static boolean dedupKeysEqual(long pKeys, long keyCount, long row1, long row2) {
+        for (long k = 0; k < keyCount; k++) {
+            final long addr1 = dedupKeyAddress(pKeys, k, row1);
+            final long addr2 = dedupKeyAddress(pKeys, k, row2);
+            if (Unsafe.getUnsafe().getLong(pKeys + k * DEDUP_KEY_SIZE * Long.BYTES) > Long.BYTES) {
+                for (long o = 0; o < 4 * Long.BYTES; o += Long.BYTES) {
+                    if (Unsafe.getUnsafe().getLong(addr1 + o) != Unsafe.getUnsafe().getLong(addr2 + o)) {
+                        return false;
+                    }
+                }
+            } else if (dedupKeyValue(pKeys, k, addr1) != dedupKeyValue(pKeys, k, addr2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static native long dedupMergeIndex0(
+            long pDataTimestamps,
+            long dataCount,
+            long pO3Index,
+            long o3Lo,
+            long o3Hi,
+            long pKeys,
+            long keyCount,
+            long pDest
+    );
+
+    // same as dedupMergeIndex0(), used when native library does not have it
+    private static long dedupMergeIndexJava(
+            long pDataTimestamps,
+            long dataCount,
+            long pO3Index,
+            long o3Lo,
+            long o3Hi,
+            long pKeys,
+            long keyCount,
+            long pDest
+    ) {
+        long scratch = 0;
+        long scratchSize = 0;
+        long p = pDest;
+        long dataRow = 0;
+        long o3Row = o3Lo;
+        try {
+            while (o3Row <= o3Hi) {
+                final long timestamp = Unsafe.getUnsafe().getLong(pO3Index + o3Row * 16);
+                while (dataRow < dataCount && Unsafe.getUnsafe().getLong(pDataTimestamps + dataRow * Long.BYTES) < timestamp) {
+                    p = dedupPutIndexEntry(p, Unsafe.getUnsafe().getLong(pDataTimestamps + dataRow * Long.BYTES), dataRow++ | Long.MIN_VALUE);
+                }
+                long o3RunHi = o3Row + 1;
+                while (o3RunHi <= o3Hi && Unsafe.getUnsafe().getLong(pO3Index + o3RunHi * 16) == timestamp) {
+                    o3RunHi++;
+                }
+                long dataRunHi = dataRow;
+                while (dataRunHi < dataCount && Unsafe.getUnsafe().getLong(pDataTimestamps + dataRunHi * Long.BYTES) == timestamp) {
+                    dataRunHi++;
+                }
+
+                if (dataRunHi > dataRow) {
+                    final long o3RunCount = o3RunHi - o3Row;
+                    final boolean hashed = o3RunCount * (dataRunHi - dataRow) > 64;
+                    if (hashed) {
+                        // long runs are matched on sorted key hashes of O3 rows
+                        if (scratchSize < o3RunCount * 16) {
+                            scratch = Unsafe.realloc(scratch, scratchSize, o3RunCount * 16, MemoryTag.NATIVE_O3);
+                            scratchSize = o3RunCount * 16;
+                        }
+                        for (long i = 0; i < o3RunCount; i++) {
+                            Unsafe.getUnsafe().putLong(scratch + i * 16, dedupKeyHash(pKeys, keyCount, o3Row + i));
+                            Unsafe.getUnsafe().putLong(scratch + i * 16 + Long.BYTES, o3Row + i);
+                        }
+                        sortLongIndexAscInPlace(scratch, o3RunCount);
+                    }
+                    for (long r = dataRow; r < dataRunHi; r++) {
+                        final long ref = r | Long.MIN_VALUE;
+                        if (!dedupRunContains(pKeys, keyCount, ref, o3Row, o3RunHi, scratch, hashed)) {
+                            p = dedupPutIndexEntry(p, timestamp, ref);
+                        }
+                    }
+                    dataRow = dataRunHi;
+                }
+
+                for (; o3Row < o3RunHi; o3Row++) {
+                    p = dedupPutIndexEntry(p, timestamp, o3Row);
+                }
+            }
+            for (; dataRow < dataCount; dataRow++) {
+                p = dedupPutIndexEntry(p, Unsafe.getUnsafe().getLong(pDataTimestamps + dataRow * Long.BYTES), dataRow | Long.MIN_VALUE);
+            }
+            return (p - pDest) / 16;
+        } finally {
+            if (scratch != 0) {
+                Unsafe.free(scratch, scratchSize, MemoryTag.NATIVE_O3);
+            }
+        }
+    }
+
+    private static long dedupPutIndexEntry(long p, long timestamp, long row) {
+        Unsafe.getUnsafe().putLong(p, timestamp);
+        Unsafe.getUnsafe().putLong(p + Long.BYTES, row);
+        return p + 16;
+    }
+
+    private static boolean dedupRunContains(long pKeys, long keyCount, long dataRef, long o3Lo, long o3Hi, long scratch, boolean hashed) {
+        if (!hashed) {
+            for (long o3Row = o3Lo; o3Row < o3Hi; o3Row++) {
+                if (dedupKeysEqual(pKeys, keyCount, dataRef, o3Row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        final long hash = dedupKeyHash(pKeys, keyCount, dataRef);
+        long lo = 0;
+        long hi = o3Hi - o3Lo;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (Unsafe.getUnsafe().getLong(scratch + mid * 16) < hash) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (long i = lo, n = o3Hi - o3Lo; i < n && Unsafe.getUnsafe().getLong(scratch + i * 16) == hash; i++) {
+            if (dedupKeysEqual(pKeys, keyCount, dataRef, Unsafe.getUnsafe().getLong(scratch + i * 16 + Long.BYTES))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static native void memcpy0(long src, long dst, long len);
+
+    private static boolean probeDedup() {
+        try {
+            dedupMergeIndex0(0, 0, 0, 0, -1, 0, 0, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    static {
+        Os.init();
+        DEDUP_SUPPORTED = probeDedup();
+    }
 }
@@ -29,9 +29,14 @@ public final class Zip {
     public static final int Z_OK = 0;
     public static final int Z_STREAM_END = 1;
     public static final int Z_BUF_ERROR = -5;
+    // compression levels
+    public static final int Z_DEFAULT_COMPRESSION = -1;
+    public static final int Z_BEST_SPEED = 1;
+    public static final int Z_BEST_COMPRESSION = 9;
     public static final long gzipHeader;
     public static final int gzipHeaderLen = 10;
     private final static int GZIP_MAGIC = 0x8b1f;
+    private final static boolean DEFLATE_LEVEL_SUPPORTED;
 
     static {
         Os.init();
@@ -40,6 +45,7 @@ public final class Zip {
         Unsafe.getUnsafe().putByte(p++, (byte) GZIP_MAGIC);
         Unsafe.getUnsafe().putByte(p++, (byte) (GZIP_MAGIC >> 8));
         Unsafe.getUnsafe().putByte(p, (byte) 8); // compression method
+        DEFLATE_LEVEL_SUPPORTED = probeDeflateLevel();
     }
 
     public static void init() {
@@ -63,6 +69,21 @@ public final class Zip {
 
     public static native long deflateInit();
 
+    /**
+     * Creates deflate stream with given compression level, from 0 (no compression) to 9 (best compression),
+     * or -1 for zlib default. Native libraries built before levels were supported create stream with
+     * the default level.
+     *
+     * @param level compression level
+     * @return z_streamp pointer or negative zlib error code
+     */
+    public static long deflateInit(int level) {
+        if (level == Z_DEFAULT_COMPRESSION || !DEFLATE_LEVEL_SUPPORTED) {
+            return deflateInit();
+        }
+        return deflateInitLevel(level);
+    }
+
     public static native void deflateReset(long z_stream);
 
     // Inflate
@@ -78,4 +99,18 @@ public final class Zip {
     public static native void setInput(long z_streamp, long address, int available);
 
     public static native int totalOut(long z_streamp);
+
+    private static native long deflateInitLevel(int level);
+
+    private static boolean probeDeflateLevel() {
+        try {
+            long strm = deflateInitLevel(Z_DEFAULT_COMPRESSION);
+            if (strm > 0) {
+                deflateEnd(strm);
+            }
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
 }
\ No newline at end of file
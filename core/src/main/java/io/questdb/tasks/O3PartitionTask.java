@@ -48,6 +48,7 @@ public class O3PartitionTask {
     private long srcDataMax;
     private long srcNameTxn;
     private boolean last;
+    private boolean dedup;
     private long txn;
     private long sortedTimestampsAddr;
     private TableWriter tableWriter;
@@ -126,6 +127,10 @@ public class O3PartitionTask {
         return last;
     }
 
+    public boolean isDedup() {
+        return dedup;
+    }
+
     public O3Basket getO3Basket() {
         return o3Basket;
     }
@@ -145,6 +150,7 @@ public class O3PartitionTask {
             long srcDataMax,
             long srcNameTxn,
             boolean last,
+            boolean dedup,
             long txn,
             long sortedTimestampsAddr,
             TableWriter tableWriter,
@@ -163,6 +169,7 @@ public class O3PartitionTask {
         this.srcDataMax = srcDataMax;
         this.srcNameTxn = srcNameTxn;
         this.last = last;
+        this.dedup = dedup;
         this.sortedTimestampsAddr = sortedTimestampsAddr;
         this.partitionBy = partitionBy;
         this.columns = columns;
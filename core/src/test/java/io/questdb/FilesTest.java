@@ -245,6 +245,30 @@ public class FilesTest {
         });
     }
 
+    @Test
+    public void testMadvise() throws Exception {
+        assertMemoryLeak(() -> {
+            File temp = temporaryFolder.newFile();
+            try (Path path = new Path().of(temp.getAbsolutePath()).$()) {
+                long fd = Files.openRW(path);
+                try {
+                    Assert.assertTrue(Files.allocate(fd, Files.PAGE_SIZE));
+                    long addr = Files.mmap(fd, Files.PAGE_SIZE, 0, Files.MAP_RO, MemoryTag.MMAP_DEFAULT);
+                    try {
+                        // hints are dropped when native library does not support them
+                        Assert.assertEquals(0, Files.madvise(addr, Files.PAGE_SIZE, Files.MADV_SEQUENTIAL));
+                        Assert.assertEquals(0, Files.madvise(addr, Files.PAGE_SIZE, Files.MADV_WILLNEED));
+                        Assert.assertEquals(0, Files.madvise(addr, Files.PAGE_SIZE, Files.MADV_RANDOM));
+                    } finally {
+                        Files.munmap(addr, Files.PAGE_SIZE, MemoryTag.MMAP_DEFAULT);
+                    }
+                } finally {
+                    Files.close(fd);
+                }
+            }
+        });
+    }
+
     @Test
     public void testMkdirs() throws Exception {
         assertMemoryLeak(() -> {
@@ -88,6 +88,10 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getHttpServerConfiguration().isEnabled());
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().getDumpNetworkTraffic());
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().allowDeflateBeforeSend());
+        Assert.assertEquals(-1, configuration.getHttpServerConfiguration().getHttpContextConfiguration().getDeflateLevel());
+        Assert.assertEquals(0, configuration.getHttpServerConfiguration().getQueryWorkerPoolConfiguration().getWorkerCount());
+        Assert.assertEquals(1000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getAsyncQueryThreshold());
+        Assert.assertEquals(64, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getAsyncQueryQueueCapacity());
         Assert.assertEquals(16, configuration.getHttpServerConfiguration().getQueryCacheRows());
         Assert.assertEquals(4, configuration.getHttpServerConfiguration().getQueryCacheBlocks());
 
@@ -152,6 +156,18 @@ public class PropServerConfigurationTest {
 
         Assert.assertEquals(100000, configuration.getCairoConfiguration().getParallelIndexThreshold());
         Assert.assertEquals(5, configuration.getCairoConfiguration().getReaderPoolMaxSegments());
+        Assert.assertEquals(1, configuration.getCairoConfiguration().getReaderPoolPrewarmCount());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getReaderPoolPrewarmTables().size());
+        Assert.assertEquals(50, configuration.getCairoConfiguration().getReaderPoolRefreshInterval());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getQueryAdmissionInteractiveLimit());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getQueryAdmissionInteractiveMemory());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getQueryAdmissionReportingLimit());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getQueryAdmissionReportingMemory());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getQueryAdmissionReportingUsers().size());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getQueryAdmissionMemoryLimit());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getQueryAdmissionIngestionMemory());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getQueryAdmissionQueueCapacity());
+        Assert.assertEquals(5000, configuration.getCairoConfiguration().getQueryAdmissionQueueTimeout());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSpinLockTimeoutUs());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
@@ -368,6 +384,13 @@ public class PropServerConfigurationTest {
         new PropServerConfiguration(root, properties, null, LOG, new BuildInformationHolder());
     }
 
+    @Test(expected = ServerConfigurationException.class)
+    public void testInvalidDeflateLevel() throws ServerConfigurationException, JsonException {
+        Properties properties = new Properties();
+        properties.setProperty("http.deflate.level", "10");
+        new PropServerConfiguration(root, properties, null, LOG, new BuildInformationHolder());
+    }
+
     @Test(expected = ServerConfigurationException.class)
     public void testInvalidDouble() throws ServerConfigurationException, JsonException {
         Properties properties = new Properties();
@@ -468,6 +491,12 @@ public class PropServerConfigurationTest {
 
             Assert.assertEquals("Keep-Alive: timeout=10, max=50000" + Misc.EOL, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getKeepAliveHeader());
             Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().allowDeflateBeforeSend());
+            Assert.assertEquals(1, configuration.getHttpServerConfiguration().getHttpContextConfiguration().getDeflateLevel());
+            Assert.assertEquals(2, configuration.getHttpServerConfiguration().getQueryWorkerPoolConfiguration().getWorkerCount());
+            Assert.assertArrayEquals(new int[]{7, 8}, configuration.getHttpServerConfiguration().getQueryWorkerPoolConfiguration().getWorkerAffinity());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().getQueryWorkerPoolConfiguration().haltOnError());
+            Assert.assertEquals(250, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getAsyncQueryThreshold());
+            Assert.assertEquals(32, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getAsyncQueryQueueCapacity());
 
             Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getActiveConnectionLimit());
             Assert.assertEquals(2048, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getEventCapacity());
@@ -516,6 +545,18 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(509, configuration.getCairoConfiguration().getMkDirMode());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getParallelIndexThreshold());
             Assert.assertEquals(10, configuration.getCairoConfiguration().getReaderPoolMaxSegments());
+            Assert.assertEquals(3, configuration.getCairoConfiguration().getReaderPoolPrewarmCount());
+            Assert.assertEquals("[trades,quotes]", configuration.getCairoConfiguration().getReaderPoolPrewarmTables().toString());
+            Assert.assertEquals(20, configuration.getCairoConfiguration().getReaderPoolRefreshInterval());
+            Assert.assertEquals(8, configuration.getCairoConfiguration().getQueryAdmissionInteractiveLimit());
+            Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getQueryAdmissionInteractiveMemory());
+            Assert.assertEquals(2, configuration.getCairoConfiguration().getQueryAdmissionReportingLimit());
+            Assert.assertEquals(64 * 1024 * 1024, configuration.getCairoConfiguration().getQueryAdmissionReportingMemory());
+            Assert.assertEquals("[analyst,bi]", configuration.getCairoConfiguration().getQueryAdmissionReportingUsers().toString());
+            Assert.assertEquals(2L * 1024 * 1024 * 1024, configuration.getCairoConfiguration().getQueryAdmissionMemoryLimit());
+            Assert.assertEquals(512 * 1024 * 1024, configuration.getCairoConfiguration().getQueryAdmissionIngestionMemory());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getQueryAdmissionQueueCapacity());
+            Assert.assertEquals(3000, configuration.getCairoConfiguration().getQueryAdmissionQueueTimeout());
             Assert.assertEquals(5_000_000, configuration.getCairoConfiguration().getSpinLockTimeoutUs());
             Assert.assertEquals(2048, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
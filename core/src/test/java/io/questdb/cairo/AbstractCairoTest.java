@@ -63,11 +63,14 @@ public class AbstractCairoTest {
     protected static FilesFacade ff;
     protected static long configOverrideCommitLag = -1;
     protected static int configOverrideMaxUncommittedRows = -1;
+    protected static boolean configOverrideSymbolCapacityAutoScale = true;
     protected static Metrics metrics = Metrics.enabled();
     protected static int capacity = -1;
     protected static int sampleByIndexSearchPageSize;
     protected static int binaryEncodingMaxLength = -1;
     protected static CharSequence defaultMapType;
+    protected static int projectionBatchSize = -1;
+    protected static long pageFrameMaxRows = -1;
 
     @Rule
     public TestName testName = new TestName();
@@ -122,6 +125,11 @@ public class AbstractCairoTest {
                 return super.getMaxUncommittedRows();
             }
 
+            @Override
+            public boolean isSymbolCapacityAutoScaleEnabled() {
+                return configOverrideSymbolCapacityAutoScale;
+            }
+
             @Override
             public int getSampleByIndexSearchPageSize() {
                 return sampleByIndexSearchPageSize > 0 ? sampleByIndexSearchPageSize : super.getSampleByIndexSearchPageSize();
@@ -150,6 +158,16 @@ public class AbstractCairoTest {
                 return writerAsyncCommandMaxTimeout < 0 ? super.getWriterAsyncCommandMaxTimeout() : writerAsyncCommandMaxTimeout;
             }
 
+            @Override
+            public int getSqlProjectionBatchSize() {
+                return projectionBatchSize < 0 ? super.getSqlProjectionBatchSize() : projectionBatchSize;
+            }
+
+            @Override
+            public long getSqlPageFrameMaxRows() {
+                return pageFrameMaxRows < 0 ? super.getSqlPageFrameMaxRows() : pageFrameMaxRows;
+            }
+
             @Override
             public int getSqlJitMode() {
                 // JIT compiler is a beta feature and thus is disabled by default,
@@ -184,11 +202,14 @@ public class AbstractCairoTest {
         TestUtils.removeTestPath(root);
         configOverrideMaxUncommittedRows = -1;
         configOverrideCommitLag = -1;
+        configOverrideSymbolCapacityAutoScale = true;
         currentMicros = -1;
         sampleByIndexSearchPageSize = -1;
         defaultMapType = null;
         writerAsyncCommandBusyWaitTimeout = -1;
         writerAsyncCommandMaxTimeout = -1;
+        projectionBatchSize = -1;
+        pageFrameMaxRows = -1;
     }
 
     protected static void assertMemoryLeak(TestUtils.LeakProneCode code) throws Exception {
@@ -34,6 +34,7 @@ import io.questdb.std.Chars;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.test.tools.TestUtils;
@@ -199,6 +200,45 @@ public class CairoEngineTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testPrewarmReaders() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createX();
+            createY();
+
+            final ObjList<String> tableNames = new ObjList<>();
+            tableNames.add("x");
+            tableNames.add("missing");
+            tableNames.add("y");
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public int getReaderPoolPrewarmCount() {
+                    return 2;
+                }
+
+                @Override
+                public ObjList<String> getReaderPoolPrewarmTables() {
+                    return tableNames;
+                }
+            };
+
+            try (CairoEngine engine = new CairoEngine(configuration)) {
+                engine.prewarmReaders();
+                Assert.assertEquals(4, engine.getReaderPoolMissCount());
+                Assert.assertEquals(0, engine.getBusyReaderCount());
+
+                try (
+                        TableReader reader1 = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x");
+                        TableReader reader2 = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")
+                ) {
+                    Assert.assertNotSame(reader1, reader2);
+                }
+                Assert.assertEquals(2, engine.getReaderPoolHitCount());
+                Assert.assertEquals(4, engine.getReaderPoolMissCount());
+            }
+        });
+    }
+
     @Test
     public void testRemoveExisting() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
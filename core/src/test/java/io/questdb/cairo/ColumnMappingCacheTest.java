@@ -0,0 +1,77 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ColumnMappingCacheTest extends AbstractCairoTest {
+
+    @Test
+    public void testDontNeedSkippedForSharedMapping() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final AtomicInteger dontNeedCount = new AtomicInteger();
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public int madvise(long address, long len, int advice) {
+                    if (advice == Files.MADV_DONTNEED) {
+                        dontNeedCount.incrementAndGet();
+                    }
+                    return super.madvise(address, len, advice);
+                }
+            };
+
+            try (Path path = new Path().of(root).concat("col.d").$()) {
+                final long fd = TableUtils.openRW(ff, path, LOG);
+                try {
+                    Assert.assertTrue(ff.allocate(fd, Files.PAGE_SIZE));
+                } finally {
+                    ff.close(fd);
+                }
+
+                final ColumnMappingCache cache = new ColumnMappingCache();
+                final ColumnMappingCache.Mapping mapping1 = cache.acquire(ff, path, 0, 0, Files.PAGE_SIZE, MemoryTag.MMAP_TABLE_READER);
+                final ColumnMappingCache.Mapping mapping2 = cache.acquire(ff, path, 0, 0, Files.PAGE_SIZE, MemoryTag.MMAP_TABLE_READER);
+                Assert.assertSame(mapping1, mapping2);
+
+                cache.advise(mapping1, mapping1.getAddress(), Files.PAGE_SIZE, Files.MADV_DONTNEED);
+                Assert.assertEquals(0, dontNeedCount.get());
+
+                cache.release(mapping2);
+                cache.advise(mapping1, mapping1.getAddress(), Files.PAGE_SIZE, Files.MADV_DONTNEED);
+                Assert.assertEquals(1, dontNeedCount.get());
+
+                cache.release(mapping1);
+                Assert.assertEquals(0, cache.getMapCount());
+            }
+        });
+    }
+}
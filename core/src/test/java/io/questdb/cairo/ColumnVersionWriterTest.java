@@ -39,6 +39,33 @@ public class ColumnVersionWriterTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testRemoveColumnAndPartition() {
+        try (
+                Path path = new Path();
+                ColumnVersionWriter w = new ColumnVersionWriter(FilesFacadeImpl.INSTANCE, path.of(root).concat("_cv").$(), 0);
+                ColumnVersionReader r = new ColumnVersionReader(FilesFacadeImpl.INSTANCE, path, 0)
+        ) {
+            w.upsert(10, 1, 100);
+            w.upsert(10, 3, 101);
+            w.upsert(20, 2, 102);
+            w.upsert(30, 1, 103);
+            w.upsert(30, 3, 104);
+
+            // column 2 goes, column 3 becomes 2
+            w.removeColumn(2);
+            w.removePartition(10);
+            w.commit();
+            r.readUnsafe(w.getOffset(), w.getSize());
+
+            Assert.assertEquals(TableUtils.COLUMN_NAME_TXN_NONE, r.getColumnNameTxn(10, 1));
+            Assert.assertEquals(TableUtils.COLUMN_NAME_TXN_NONE, r.getColumnNameTxn(20, 2));
+            Assert.assertEquals(103, r.getColumnNameTxn(30, 1));
+            Assert.assertEquals(104, r.getColumnNameTxn(30, 2));
+            Assert.assertEquals(2 * ColumnVersionWriter.BLOCK_SIZE, r.getCachedList().size());
+        }
+    }
+
     @Test
     public void testFuzz() {
         final Rnd rnd = new Rnd();
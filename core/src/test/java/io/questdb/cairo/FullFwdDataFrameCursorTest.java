@@ -282,6 +282,195 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
         testIndexFailureInConstructor(PartitionBy.NONE, 1000L, false, TableUtils.DEFAULT_PARTITION_NAME + Files.SEPARATOR + "a.v");
     }
 
+    @Test
+    public void testMadviseHints() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final IntList advices = new IntList();
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public int madvise(long address, long len, int advice) {
+                    advices.add(advice);
+                    return 0;
+                }
+            };
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+
+                @Override
+                public boolean isFileMadviseDontNeedEnabled() {
+                    return true;
+                }
+
+                @Override
+                public boolean isFileMadviseEnabled() {
+                    return true;
+                }
+            };
+
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY).
+                    col("a", ColumnType.INT).
+                    col("b", ColumnType.SYMBOL).indexed(true, 4).
+                    timestamp()
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            final Rnd rnd = new Rnd();
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                long timestamp = TimestampFormatUtils.parseTimestamp("1970-01-03T08:00:00.000Z");
+                for (int i = 0; i < 3; i++) {
+                    TableWriter.Row row = writer.newRow(timestamp + i * Timestamps.DAY_MICROS);
+                    row.putInt(0, rnd.nextInt());
+                    row.putSym(1, rnd.nextChars(4));
+                    row.append();
+                }
+                writer.commit();
+            }
+
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                final FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor();
+                cursor.of(reader);
+                int frameCount = 0;
+                DataFrame frame;
+                while ((frame = cursor.next()) != null) {
+                    frameCount++;
+                    if (frameCount == 2) {
+                        Assert.assertEquals(Files.MADV_SEQUENTIAL, advices.getQuick(0));
+                        // partition that follows is not open yet, it is not opened just to be advised
+                        Assert.assertEquals(-1, advices.indexOf(Files.MADV_WILLNEED, 0, advices.size()));
+                        Assert.assertTrue(advices.indexOf(Files.MADV_DONTNEED, 0, advices.size()) > -1);
+                        advices.clear();
+                        frame.getBitmapIndexReader(1, BitmapIndexReader.DIR_FORWARD);
+                        Assert.assertTrue(advices.size() > 0);
+                        for (int i = 0, n = advices.size(); i < n; i++) {
+                            Assert.assertEquals(Files.MADV_RANDOM, advices.getQuick(i));
+                        }
+                    }
+                }
+                Assert.assertEquals(3, frameCount);
+                // last partition is released once cursor is exhausted
+                Assert.assertEquals(Files.MADV_DONTNEED, advices.getLast());
+
+                // all partitions are open on second pass, next partition is read ahead
+                advices.clear();
+                cursor.toTop();
+                Assert.assertNotNull(cursor.next());
+                Assert.assertEquals(Files.MADV_SEQUENTIAL, advices.getQuick(0));
+                Assert.assertTrue(advices.indexOf(Files.MADV_WILLNEED, 0, advices.size()) > -1);
+            }
+        });
+    }
+
+    @Test
+    public void testPartitionPrefetch() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final ObjList<String> files = new ObjList<>();
+            // madvise is not stubbed, prefetch must cope with native library that lacks it
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public long openRO(LPSZ name) {
+                    if (Chars.endsWith(name, ".d") || Chars.endsWith(name, ".i")) {
+                        files.add(name.toString());
+                    }
+                    return super.openRO(name);
+                }
+            };
+            final long[] budget = {Long.MAX_VALUE};
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+
+                @Override
+                public long getPartitionPrefetchBudget() {
+                    return budget[0];
+                }
+
+                @Override
+                public int getPartitionPrefetchCount() {
+                    return 2;
+                }
+            };
+
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY).
+                    col("a", ColumnType.INT).
+                    col("b", ColumnType.STRING).
+                    timestamp()
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            final Rnd rnd = new Rnd();
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                long timestamp = TimestampFormatUtils.parseTimestamp("1970-01-03T08:00:00.000Z");
+                for (int i = 0; i < 5; i++) {
+                    TableWriter.Row row = writer.newRow(timestamp + i * Timestamps.DAY_MICROS);
+                    row.putInt(0, rnd.nextInt());
+                    row.putStr(1, rnd.nextChars(4));
+                    row.append();
+                }
+                writer.commit();
+            }
+
+            try (
+                    MessageBusImpl messageBus = new MessageBusImpl(configuration);
+                    TableReader reader = new TableReader(configuration, "x")
+            ) {
+                final PartitionPrefetchJob job = new PartitionPrefetchJob(messageBus);
+                final FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor(new PartitionPrefetcher(configuration, messageBus));
+                cursor.of(reader);
+
+                Assert.assertNotNull(cursor.next());
+                files.clear();
+                while (job.run(0)) ;
+                // two partitions ahead of the scan, four files each
+                Assert.assertEquals(8, files.size());
+                assertPrefetched(files, "1970-01-04");
+                assertPrefetched(files, "1970-01-05");
+
+                Assert.assertNotNull(cursor.next());
+                files.clear();
+                while (job.run(0)) ;
+                Assert.assertEquals(4, files.size());
+                assertPrefetched(files, "1970-01-06");
+
+                Assert.assertNotNull(cursor.next());
+                Assert.assertNotNull(cursor.next());
+                Assert.assertNotNull(cursor.next());
+                Assert.assertNull(cursor.next());
+                files.clear();
+                while (job.run(0)) ;
+                Assert.assertEquals(4, files.size());
+                assertPrefetched(files, "1970-01-07");
+
+                // partitions that do not fit the budget are not prefetched
+                budget[0] = 1;
+                final FullFwdDataFrameCursor cursor2 = new FullFwdDataFrameCursor(new PartitionPrefetcher(configuration, messageBus));
+                cursor2.of(reader);
+                while (cursor2.next() != null) ;
+                Assert.assertFalse(job.run(0));
+            }
+        });
+    }
+
+    private static void assertPrefetched(ObjList<String> files, String partition) {
+        final String dir = Files.SEPARATOR + partition + Files.SEPARATOR;
+        for (String name : new String[]{"a.d", "b.i", "b.d", "timestamp.d"}) {
+            boolean found = false;
+            for (int i = 0, n = files.size(); i < n; i++) {
+                if (files.getQuick(i).endsWith(dir + name)) {
+                    found = true;
+                    break;
+                }
+            }
+            Assert.assertTrue(partition + "/" + name, found);
+        }
+    }
+
     @Test
     public void testParallelIndexByDay() throws Exception {
         testParallelIndex(PartitionBy.DAY, 1000000, 5, WORK_STEALING_DONT_TEST);
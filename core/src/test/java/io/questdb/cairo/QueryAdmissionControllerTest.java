@@ -0,0 +1,172 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static io.questdb.cairo.QueryAdmissionController.WORKLOAD_INTERACTIVE;
+import static io.questdb.cairo.QueryAdmissionController.WORKLOAD_REPORTING;
+
+public class QueryAdmissionControllerTest extends AbstractCairoTest {
+
+    @Test
+    public void testConcurrencyLimit() {
+        QueryAdmissionController controller = new QueryAdmissionController(new DefaultCairoConfiguration(root) {
+            @Override
+            public int getQueryAdmissionReportingLimit() {
+                return 2;
+            }
+        });
+
+        Assert.assertTrue(controller.tryAcquire(WORKLOAD_REPORTING));
+        Assert.assertTrue(controller.tryAcquire(WORKLOAD_REPORTING));
+        Assert.assertFalse(controller.tryAcquire(WORKLOAD_REPORTING));
+        Assert.assertEquals(2, controller.getActiveCount(WORKLOAD_REPORTING));
+
+        // reporting queries do not take slots of interactive ones
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(controller.tryAcquire(WORKLOAD_INTERACTIVE));
+        }
+        Assert.assertEquals(10, controller.getActiveCount(WORKLOAD_INTERACTIVE));
+
+        controller.release(WORKLOAD_REPORTING);
+        Assert.assertTrue(controller.tryAcquire(WORKLOAD_REPORTING));
+        Assert.assertEquals(13, controller.getAdmittedCount());
+    }
+
+    @Test
+    public void testMemoryLimit() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final long mb = 1024 * 1024;
+            final long used = QueryAdmissionController.getNativeMemUsed();
+            QueryAdmissionController controller = new QueryAdmissionController(new DefaultCairoConfiguration(root) {
+                @Override
+                public long getQueryAdmissionIngestionMemory() {
+                    return mb;
+                }
+
+                @Override
+                public long getQueryAdmissionInteractiveMemory() {
+                    return mb;
+                }
+
+                @Override
+                public long getQueryAdmissionMemoryLimit() {
+                    // ingestion headroom leaves room for two reservations and a half
+                    return used + 3 * mb + mb / 2;
+                }
+            });
+
+            Assert.assertTrue(controller.tryAcquire(WORKLOAD_INTERACTIVE));
+            Assert.assertTrue(controller.tryAcquire(WORKLOAD_INTERACTIVE));
+            Assert.assertFalse(controller.tryAcquire(WORKLOAD_INTERACTIVE));
+            Assert.assertEquals(2 * mb, controller.getReservedMemory());
+
+            controller.release(WORKLOAD_INTERACTIVE);
+            Assert.assertEquals(mb, controller.getReservedMemory());
+
+            // memory allocated elsewhere counts against the limit
+            long ptr = Unsafe.malloc(mb, MemoryTag.NATIVE_DEFAULT);
+            try {
+                Assert.assertFalse(controller.tryAcquire(WORKLOAD_INTERACTIVE));
+            } finally {
+                Unsafe.free(ptr, mb, MemoryTag.NATIVE_DEFAULT);
+            }
+            Assert.assertTrue(controller.tryAcquire(WORKLOAD_INTERACTIVE));
+
+            controller.release(WORKLOAD_INTERACTIVE);
+            controller.release(WORKLOAD_INTERACTIVE);
+            Assert.assertEquals(0, controller.getReservedMemory());
+            Assert.assertEquals(0, controller.getActiveCount(WORKLOAD_INTERACTIVE));
+        });
+    }
+
+    @Test
+    public void testQueueCapacity() {
+        QueryAdmissionController controller = new QueryAdmissionController(new DefaultCairoConfiguration(root) {
+            @Override
+            public int getQueryAdmissionQueueCapacity() {
+                return 2;
+            }
+        });
+
+        Assert.assertTrue(controller.enqueue(WORKLOAD_INTERACTIVE));
+        Assert.assertTrue(controller.enqueue(WORKLOAD_INTERACTIVE));
+        Assert.assertFalse(controller.enqueue(WORKLOAD_INTERACTIVE));
+        Assert.assertTrue(controller.enqueue(WORKLOAD_REPORTING));
+        Assert.assertEquals(2, controller.getQueueCount(WORKLOAD_INTERACTIVE));
+
+        controller.dequeue(WORKLOAD_INTERACTIVE);
+        Assert.assertTrue(controller.enqueue(WORKLOAD_INTERACTIVE));
+        Assert.assertEquals(4, controller.getQueuedCount());
+    }
+
+    @Test
+    public void testReject() {
+        QueryAdmissionController controller = new QueryAdmissionController(new DefaultCairoConfiguration(root) {
+            @Override
+            public int getQueryAdmissionInteractiveLimit() {
+                return 1;
+            }
+        });
+
+        controller.acquire(WORKLOAD_INTERACTIVE);
+        try {
+            controller.acquire(WORKLOAD_INTERACTIVE);
+            Assert.fail();
+        } catch (CairoException e) {
+            Assert.assertTrue(e.isCacheable());
+            TestUtils.assertEquals(
+                    "query rejected by admission control [class=interactive, active=1, limit=1, memReserved=0, memLimit=-1]",
+                    e.getFlyweightMessage()
+            );
+        }
+        Assert.assertEquals(1, controller.getRejectedCount());
+        Assert.assertEquals(1, controller.getActiveCount(WORKLOAD_INTERACTIVE));
+    }
+
+    @Test
+    public void testWorkloadClassByUser() {
+        final ObjList<String> users = new ObjList<>();
+        users.add("analyst");
+        users.add("bi");
+        QueryAdmissionController controller = new QueryAdmissionController(new DefaultCairoConfiguration(root) {
+            @Override
+            public ObjList<String> getQueryAdmissionReportingUsers() {
+                return users;
+            }
+        });
+
+        Assert.assertEquals(WORKLOAD_REPORTING, controller.getWorkloadClass("analyst"));
+        Assert.assertEquals(WORKLOAD_REPORTING, controller.getWorkloadClass("bi"));
+        Assert.assertEquals(WORKLOAD_INTERACTIVE, controller.getWorkloadClass("admin"));
+        Assert.assertEquals(WORKLOAD_INTERACTIVE, controller.getWorkloadClass(null));
+    }
+}
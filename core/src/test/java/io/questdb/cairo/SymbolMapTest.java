@@ -28,9 +28,12 @@ import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCMARW;
 import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.ObjList;
 import io.questdb.std.Rnd;
+import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -124,6 +127,173 @@ public class SymbolMapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCapacityAutoScale() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            int N = 10000;
+            int capacity = 16;
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", capacity, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    for (int i = 0; i < capacity; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+
+                    try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", capacity)) {
+                        Assert.assertEquals(capacity, reader.getSymbolCapacity());
+
+                        for (int i = capacity; i < N; i++) {
+                            CharSequence cs = rnd.nextChars(10);
+                            Assert.assertEquals(i, writer.put(cs));
+                            Assert.assertEquals(i, writer.put(cs));
+                        }
+                        Assert.assertTrue(writer.getSymbolCapacity() >= N);
+
+                        // reader has to pick up new index on reload
+                        reader.updateSymbolCount(N);
+                        Assert.assertEquals(writer.getSymbolCapacity(), reader.getSymbolCapacity());
+                        rnd.reset();
+                        for (int i = 0; i < N; i++) {
+                            CharSequence cs = rnd.nextChars(10);
+                            TestUtils.assertEquals(cs, reader.valueOf(i));
+                            Assert.assertEquals(i, reader.keyOf(cs));
+                        }
+                        Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, reader.keyOf("hola"));
+                    }
+                }
+
+                // keys are stable across writer re-open
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                N,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    Assert.assertEquals(N, writer.getSymbolCount());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCapacityAutoScaleDisabled() throws Exception {
+        configOverrideSymbolCapacityAutoScale = false;
+        TestUtils.assertMemoryLeak(() -> {
+            int N = 1000;
+            int capacity = 16;
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", capacity, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    Assert.assertEquals(capacity, writer.getSymbolCapacity());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCapacityAutoScaleRepairsInterruptedSwap() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            int N = 1000;
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", 16, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                }
+
+                // simulate writer that died half-way through index swap
+                // index files are garbage and header version is odd
+                try (
+                        MemoryCMARW mem = Vm.getSmallCMARWInstance(
+                                configuration.getFilesFacade(),
+                                path.concat("x").put(".o").$(),
+                                MemoryTag.MMAP_DEFAULT)
+                ) {
+                    mem.putInt(SymbolMapWriter.HEADER_INDEX_VERSION, mem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION) | 1);
+                    mem.jumpTo(configuration.getFilesFacade().length(path));
+                } finally {
+                    path.trimTo(configuration.getRoot().length());
+                }
+                BitmapIndexTest.create(configuration, path, "x", 4);
+
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                N,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                }
+
+                try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", N)) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, reader.keyOf(rnd.nextChars(10)));
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCapacityAutoScaleKeyFileSwapFails() throws Exception {
+        testCapacityAutoScaleSwapFails(".k.r");
+    }
+
+    @Test
+    public void testCapacityAutoScaleValueFileSwapFails() throws Exception {
+        testCapacityAutoScaleSwapFails(".v.r");
+    }
+
     @Test
     public void testLookupPerformance() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -503,4 +673,53 @@ public class SymbolMapTest extends AbstractCairoTest {
             }
         });
     }
+
+    private void testCapacityAutoScaleSwapFails(String failingFile) throws Exception {
+        final FilesFacade ff = new FilesFacadeImpl() {
+            @Override
+            public boolean rename(LPSZ from, LPSZ to) {
+                if (Chars.endsWith(from, failingFile)) {
+                    return false;
+                }
+                return super.rename(from, to);
+            }
+        };
+        assertMemoryLeak(ff, () -> {
+            int N = 1000;
+            int capacity = 16;
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", capacity, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    // writer keeps old capacity and index once swap failed
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    Assert.assertEquals(capacity, writer.getSymbolCapacity());
+
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                }
+
+                try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", N)) {
+                    Assert.assertEquals(capacity, reader.getSymbolCapacity());
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, reader.keyOf(rnd.nextChars(10)));
+                    }
+                }
+            }
+        });
+    }
 }
\ No newline at end of file
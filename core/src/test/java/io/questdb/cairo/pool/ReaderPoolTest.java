@@ -27,8 +27,11 @@ package io.questdb.cairo.pool;
 import io.questdb.cairo.*;
 import io.questdb.cairo.pool.ex.EntryLockedException;
 import io.questdb.cairo.pool.ex.PoolClosedException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
@@ -804,6 +807,186 @@ public class ReaderPoolTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testReadersShareColumnMappings() throws Exception {
+        try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY).col("l", ColumnType.LONG).col("s", ColumnType.STRING).timestamp()) {
+            CairoTestUtils.create(model);
+        }
+
+        final AtomicInteger columnOpenCount = new AtomicInteger();
+        final FilesFacade ff = new FilesFacadeImpl() {
+            @Override
+            public long openRO(LPSZ name) {
+                if (Chars.endsWith(name, ".d") || Chars.endsWith(name, ".i")) {
+                    columnOpenCount.incrementAndGet();
+                }
+                return super.openRO(name);
+            }
+        };
+
+        assertWithPool(pool -> {
+            try (TableWriter w = new TableWriter(configuration, "x")) {
+                appendRows(w, 0, 30, "a");
+
+                try (
+                        TableReader reader1 = pool.get("x");
+                        TableReader reader2 = pool.get("x")
+                ) {
+                    Assert.assertNotSame(reader1, reader2);
+                    assertRows(reader1, 0, 30, "a");
+                    final int opened = columnOpenCount.get();
+                    Assert.assertTrue(opened > 0);
+                    assertRows(reader2, 0, 30, "a");
+                    Assert.assertEquals(opened, columnOpenCount.get());
+
+                    // active partition grows, readers extend shared mappings
+                    appendRows(w, 30, 40, "a");
+                    Assert.assertTrue(reader1.reload());
+                    assertRows(reader1, 0, 40, "a");
+                    Assert.assertTrue(reader2.reload());
+                    assertRows(reader2, 0, 40, "a");
+
+                    // files re-created under the same names must not be served from stale mappings
+                    w.truncate();
+                    appendRows(w, 0, 40, "b");
+                    Assert.assertTrue(reader1.reload());
+                    assertRows(reader1, 0, 40, "b");
+                    Assert.assertTrue(reader2.reload());
+                    assertRows(reader2, 0, 40, "b");
+                }
+            }
+        }, new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return ff;
+            }
+        });
+    }
+
+    @Test
+    public void testLockWaitsForReloadInactive() throws Exception {
+        try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY).col("l", ColumnType.LONG).col("s", ColumnType.STRING).timestamp()) {
+            CairoTestUtils.create(model);
+        }
+
+        final SOCountDownLatch reloadStarted = new SOCountDownLatch(1);
+        final SOCountDownLatch reloadReleased = new SOCountDownLatch(1);
+        final AtomicInteger armed = new AtomicInteger();
+        final FilesFacade ff = new FilesFacadeImpl() {
+            @Override
+            public long mmap(long fd, long len, long offset, int flags, int memoryTag) {
+                block();
+                return super.mmap(fd, len, offset, flags, memoryTag);
+            }
+
+            @Override
+            public long mremap(long fd, long addr, long previousSize, long newSize, long offset, int mode, int memoryTag) {
+                block();
+                return super.mremap(fd, addr, previousSize, newSize, offset, mode, memoryTag);
+            }
+
+            @Override
+            public long openRO(LPSZ name) {
+                block();
+                return super.openRO(name);
+            }
+
+            private void block() {
+                if (armed.compareAndSet(1, 0)) {
+                    reloadStarted.countDown();
+                    reloadReleased.await();
+                }
+            }
+        };
+
+        assertWithPool(pool -> {
+            try (TableWriter w = new TableWriter(configuration, "x")) {
+                appendRows(w, 0, 10, "a");
+                try (TableReader r = pool.get("x")) {
+                    assertRows(r, 0, 10, "a");
+                }
+                appendRows(w, 10, 60, "a");
+            }
+
+            armed.set(1);
+            final AtomicInteger errors = new AtomicInteger();
+            final Thread reloader = new Thread(() -> {
+                try {
+                    Assert.assertTrue(pool.reloadInactive());
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                }
+            });
+            reloader.start();
+            reloadStarted.await();
+
+            final Thread releaser = new Thread(() -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                reloadReleased.countDown();
+            });
+            releaser.start();
+
+            // slot held by the reload job must not make lock fail
+            Assert.assertTrue(pool.lock("x"));
+            pool.unlock("x");
+
+            reloader.join();
+            releaser.join();
+            Assert.assertEquals(0, errors.get());
+        }, new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return ff;
+            }
+        });
+    }
+
+    @Test
+    public void testReloadInactive() throws Exception {
+        try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY).col("l", ColumnType.LONG).col("s", ColumnType.STRING).timestamp()) {
+            CairoTestUtils.create(model);
+        }
+
+        assertWithPool(pool -> {
+            try (TableWriter w = new TableWriter(configuration, "x")) {
+                appendRows(w, 0, 10, "a");
+
+                final TableReader reader;
+                try (TableReader r = pool.get("x")) {
+                    reader = r;
+                    assertRows(r, 0, 10, "a");
+                }
+                Assert.assertEquals(0, pool.getHitCount());
+                Assert.assertEquals(1, pool.getMissCount());
+
+                // nothing to do while table is unchanged
+                Assert.assertFalse(pool.reloadInactive());
+
+                appendRows(w, 10, 30, "a");
+                Assert.assertTrue(reader.isOutdated());
+                Assert.assertTrue(pool.reloadInactive());
+                Assert.assertFalse(reader.isOutdated());
+                Assert.assertEquals(1, pool.getReloadCount());
+
+                try (TableReader r = pool.get("x")) {
+                    Assert.assertSame(reader, r);
+                    Assert.assertFalse(r.reload());
+                    assertRows(r, 0, 30, "a");
+
+                    // busy readers are left alone
+                    appendRows(w, 30, 40, "a");
+                    Assert.assertFalse(pool.reloadInactive());
+                    Assert.assertTrue(r.reload());
+                    assertRows(r, 0, 40, "a");
+                }
+                Assert.assertEquals(1, pool.getHitCount());
+                Assert.assertEquals(1, pool.getMissCount());
+                Assert.assertEquals(1, pool.getReloadCount());
+            }
+        });
+    }
+
     @Test
     public void testSerialOpenClose() throws Exception {
         assertWithPool(pool -> {
@@ -869,6 +1052,28 @@ public class ReaderPoolTest extends AbstractCairoTest {
         });
     }
 
+    private static void appendRows(TableWriter w, int lo, int hi, String prefix) {
+        for (int i = lo; i < hi; i++) {
+            TableWriter.Row row = w.newRow(i * Timestamps.HOUR_MICROS);
+            row.putLong(0, i);
+            row.putStr(1, prefix + i);
+            row.append();
+        }
+        w.commit();
+    }
+
+    private static void assertRows(TableReader reader, int lo, int hi, String prefix) {
+        RecordCursor cursor = reader.getCursor();
+        Record record = cursor.getRecord();
+        int i = lo;
+        while (cursor.hasNext()) {
+            Assert.assertEquals(i, record.getLong(0));
+            TestUtils.assertEquals(prefix + i, record.getStr(1));
+            i++;
+        }
+        Assert.assertEquals(hi, i);
+    }
+
     private void assertWithPool(PoolAwareCode code) throws Exception {
         assertWithPool(code, configuration);
     }
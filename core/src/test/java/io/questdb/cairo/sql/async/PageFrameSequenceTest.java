@@ -0,0 +1,283 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.WorkerPoolAwareConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntHashSet;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageFrameSequenceTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(PageFrameSequenceTest.class);
+    private static final int ROW_COUNT = 10_000;
+    private static final long EXPECTED_SUM = (long) ROW_COUNT * (ROW_COUNT + 1) / 2;
+
+    // sums column "x" of the frame, result is the only row of the entry
+    private static final PageFrameReducer SUM_REDUCER = (workerId, entry) -> {
+        final long address = entry.getPageAddress(0);
+        long sum = 0;
+        for (long i = 0, n = entry.getFrameRowCount(); i < n; i++) {
+            sum += Unsafe.getUnsafe().getLong(address + i * Long.BYTES);
+        }
+        entry.getRows().add(sum);
+    };
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        pageFrameMaxRows = 100;
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final int[] calls = {0};
+            final SqlExecutionCircuitBreaker circuitBreaker = new SqlExecutionCircuitBreaker() {
+                @Override
+                public void test() {
+                    if (++calls[0] > 5) {
+                        throw CairoException.instance(0).put("timeout, query aborted").setInterruption(true);
+                    }
+                }
+
+                @Override
+                public void powerUp() {
+                }
+            };
+
+            try (
+                    SqlExecutionContextImpl context = newContext(1, circuitBreaker);
+                    RecordCursorFactory factory = compiler.compile("x", context).getRecordCursorFactory();
+                    PageFrameSequence<Object> sequence = new PageFrameSequence<>(configuration, SUM_REDUCER)
+            ) {
+                sequence.of(factory, context, null, true);
+                try {
+                    //noinspection StatementWithEmptyBody
+                    while (sequence.next() != null) {
+                    }
+                    Assert.fail();
+                } catch (CairoException e) {
+                    Assert.assertTrue(e.isInterruption());
+                    TestUtils.assertContains(e.getFlyweightMessage(), "timeout, query aborted");
+                } finally {
+                    sequence.clear();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testOrderedOwnerOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertReduce(sqlExecutionContext, true);
+        });
+    }
+
+    @Test
+    public void testOrderedWithWorkers() throws Exception {
+        assertWithPool(4, context -> assertReduce(context, true));
+    }
+
+    @Test
+    public void testReducerError() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final PageFrameReducer reducer = (workerId, entry) -> {
+                if (entry.getFrameIndex() == 3) {
+                    throw CairoException.instance(0).put("reducer failed [frameIndex=").put(entry.getFrameIndex()).put(']');
+                }
+                SUM_REDUCER.reduce(workerId, entry);
+            };
+
+            try (
+                    RecordCursorFactory factory = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory();
+                    PageFrameSequence<Object> sequence = new PageFrameSequence<>(configuration, reducer)
+            ) {
+                sequence.of(factory, sqlExecutionContext, null, true);
+                int frameCount = 0;
+                try {
+                    while (sequence.next() != null) {
+                        frameCount++;
+                    }
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "reducer failed [frameIndex=3]");
+                } finally {
+                    sequence.clear();
+                }
+                Assert.assertEquals(3, frameCount);
+            }
+        });
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    RecordCursorFactory factory = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory();
+                    PageFrameSequence<Object> sequence = new PageFrameSequence<>(configuration, SUM_REDUCER)
+            ) {
+                sequence.of(factory, sqlExecutionContext, null, true);
+                try {
+                    for (int i = 0; i < 10; i++) {
+                        Assert.assertNotNull(sequence.next());
+                    }
+                    sequence.toTop();
+                    assertSum(sequence, true);
+                } finally {
+                    sequence.clear();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testUnorderedWithWorkers() throws Exception {
+        assertWithPool(4, context -> assertReduce(context, false));
+    }
+
+    private static void assertReduce(SqlExecutionContext context, boolean ordered) throws Exception {
+        try (
+                RecordCursorFactory factory = compiler.compile("x", context).getRecordCursorFactory();
+                PageFrameSequence<Object> sequence = new PageFrameSequence<>(configuration, SUM_REDUCER)
+        ) {
+            Assert.assertTrue(factory.supportPageFrameCursor());
+            for (int i = 0; i < 3; i++) {
+                sequence.of(factory, context, null, ordered);
+                try {
+                    assertSum(sequence, ordered);
+                } finally {
+                    sequence.clear();
+                }
+            }
+        }
+    }
+
+    private static void assertSum(PageFrameSequence<?> sequence, boolean ordered) {
+        final IntHashSet frames = new IntHashSet();
+        long sum = 0;
+        long rowCount = 0;
+        int expectedFrameIndex = 0;
+        PageFrameReduceEntry entry;
+        while ((entry = sequence.next()) != null) {
+            if (ordered) {
+                Assert.assertEquals(expectedFrameIndex++, entry.getFrameIndex());
+            }
+            Assert.assertNull(entry.getError());
+            Assert.assertTrue(entry.getFrameRowCount() <= 100);
+            Assert.assertTrue(frames.add(entry.getFrameIndex()));
+            final DirectLongList rows = entry.getRows();
+            Assert.assertEquals(1, rows.size());
+            sum += rows.get(0);
+            rowCount += entry.getFrameRowCount();
+        }
+        Assert.assertEquals(ROW_COUNT, rowCount);
+        Assert.assertEquals(EXPECTED_SUM, sum);
+        Assert.assertTrue(frames.size() >= ROW_COUNT / 100);
+    }
+
+    private static SqlExecutionContextImpl newContext(int workerCount, SqlExecutionCircuitBreaker circuitBreaker) {
+        return new SqlExecutionContextImpl(engine, workerCount).with(
+                AllowAllCairoSecurityContext.INSTANCE,
+                bindVariableService,
+                null,
+                -1,
+                circuitBreaker
+        );
+    }
+
+    private void assertWithPool(int workerCount, ContextCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+
+            final int[] affinity = new int[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                affinity[i] = -1;
+            }
+
+            final WorkerPool pool = new WorkerPool(
+                    new WorkerPoolAwareConfiguration() {
+                        @Override
+                        public int[] getWorkerAffinity() {
+                            return affinity;
+                        }
+
+                        @Override
+                        public int getWorkerCount() {
+                            return workerCount;
+                        }
+
+                        @Override
+                        public boolean haltOnError() {
+                            return false;
+                        }
+
+                        @Override
+                        public boolean isEnabled() {
+                            return true;
+                        }
+                    }
+            );
+            pool.assign(new PageFrameReduceJob(engine.getMessageBus()));
+            pool.start(LOG);
+
+            try (SqlExecutionContextImpl context = newContext(workerCount, null)) {
+                code.run(context);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    private void createTable() throws Exception {
+        compiler.compile(
+                "create table x as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by HOUR",
+                sqlExecutionContext
+        );
+    }
+
+    @FunctionalInterface
+    private interface ContextCode {
+        void run(SqlExecutionContext context) throws Exception;
+    }
+}
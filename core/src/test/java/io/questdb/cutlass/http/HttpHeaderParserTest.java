@@ -253,6 +253,26 @@ public class HttpHeaderParserTest {
         }
     }
 
+    @Test
+    public void testGzipAccepted() {
+        Assert.assertTrue(HttpHeaderParser.isGzipAccepted("gzip"));
+        Assert.assertTrue(HttpHeaderParser.isGzipAccepted("gzip, deflate, br"));
+        Assert.assertTrue(HttpHeaderParser.isGzipAccepted("br;q=1.0, GZIP;q=0.5"));
+        Assert.assertTrue(HttpHeaderParser.isGzipAccepted("deflate, x-gzip"));
+        Assert.assertTrue(HttpHeaderParser.isGzipAccepted("br, *"));
+        Assert.assertTrue(HttpHeaderParser.isGzipAccepted("gzip;q=0.01"));
+
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted(null));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted(""));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted("identity"));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted("deflate, br"));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted("gzip;q=0, deflate"));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted("gzip; q=0.000"));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted("*;q=0"));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted("gzip;q=0, *"));
+        Assert.assertFalse(HttpHeaderParser.isGzipAccepted("gzipped"));
+    }
+
     @Test
     public void testHeaderTooLarge() {
         String v = "GET /ok?x=a&y=b+c&z=123 HTTP/1.1\r\n" +
@@ -150,6 +150,30 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new LineHttpProcessor(engine);
+                    }
+
+                    @Override
+                    public String getUrl() {
+                        return "/write";
+                    }
+                });
+
+                final AsyncQueryExecutor asyncQueryExecutor;
+                if (httpConfiguration.getQueryWorkerPoolConfiguration().getWorkerCount() > 0) {
+                    asyncQueryExecutor = new AsyncQueryExecutor(
+                            httpConfiguration.getQueryWorkerPoolConfiguration(),
+                            httpConfiguration.getJsonQueryProcessorConfiguration(),
+                            engine,
+                            workerCount
+                    );
+                } else {
+                    asyncQueryExecutor = null;
+                }
+
                 SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount) {
                     @Override
                     public QueryFutureUpdateListener getQueryFutureUpdateListener() {
@@ -165,7 +189,8 @@ public class HttpQueryTestBuilder {
                                 engine,
                                 new SqlCompiler(engine, null),
                                 Metrics.enabled(),
-                                sqlExecutionContext
+                                sqlExecutionContext,
+                                asyncQueryExecutor
                         );
                     }
 
@@ -191,6 +216,18 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new ColumnExportProcessor(engine, httpConfiguration);
+                    }
+
+                    @Override
+                    public String getUrl() {
+                        return "/exp/column";
+                    }
+                });
+
 
                 httpServer.bind(new HttpRequestProcessorFactory() {
                     @Override
@@ -224,11 +261,15 @@ public class HttpQueryTestBuilder {
                 QueryCache.configure(httpConfiguration);
 
                 workerPool.start(LOG);
+                if (asyncQueryExecutor != null) {
+                    asyncQueryExecutor.start(LOG);
+                }
 
                 try {
                     code.run(engine);
                 } finally {
                     workerPool.halt();
+                    Misc.free(asyncQueryExecutor);
 
                     if (telemetryJob != null) {
                         Misc.free(telemetryJob);
@@ -27,6 +27,7 @@ import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.griffin.DefaultSqlExecutionCircuitBreakerConfiguration;
 import io.questdb.griffin.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.network.NetworkFacade;
@@ -38,6 +39,8 @@ import io.questdb.std.StationaryMillisClock;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 
+import java.util.Arrays;
+
 public class HttpServerConfigurationBuilder {
     private NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
     private String baseDir;
@@ -51,6 +54,8 @@ public class HttpServerConfigurationBuilder {
     private int receiveBufferSize = 1024 * 1024;
     private long multipartIdleSpinCount = -1;
     private Runnable onPeerDisconnect = HttpContextConfiguration.NONE;
+    private int queryWorkerCount = 0;
+    private long asyncQueryThreshold = 1000;
 
     public DefaultHttpServerConfiguration build() {
         final IODispatcherConfiguration ioDispatcherConfiguration = new DefaultIODispatcherConfiguration() {
@@ -96,6 +101,16 @@ public class HttpServerConfigurationBuilder {
             private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new JsonQueryProcessorConfiguration() {
                 private final DefaultSqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration = new DefaultSqlExecutionCircuitBreakerConfiguration();
 
+                @Override
+                public int getAsyncQueryQueueCapacity() {
+                    return 64;
+                }
+
+                @Override
+                public long getAsyncQueryThreshold() {
+                    return asyncQueryThreshold;
+                }
+
                 @Override
                 public MillisecondClock getClock() {
                     return () -> 0;
@@ -203,6 +218,28 @@ public class HttpServerConfigurationBuilder {
                 return jsonQueryProcessorConfiguration;
             }
 
+            @Override
+            public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+                return new WorkerPoolConfiguration() {
+                    @Override
+                    public int[] getWorkerAffinity() {
+                        final int[] affinity = new int[queryWorkerCount];
+                        Arrays.fill(affinity, -1);
+                        return affinity;
+                    }
+
+                    @Override
+                    public int getWorkerCount() {
+                        return queryWorkerCount;
+                    }
+
+                    @Override
+                    public boolean haltOnError() {
+                        return false;
+                    }
+                };
+            }
+
             @Override
             public WaitProcessorConfiguration getWaitProcessorConfiguration() {
                 return new WaitProcessorConfiguration() {
@@ -245,6 +282,11 @@ public class HttpServerConfigurationBuilder {
         return this;
     }
 
+    public HttpServerConfigurationBuilder withAsyncQueryThreshold(long asyncQueryThreshold) {
+        this.asyncQueryThreshold = asyncQueryThreshold;
+        return this;
+    }
+
     public HttpServerConfigurationBuilder withBaseDir(String baseDir) {
         this.baseDir = baseDir;
         return this;
@@ -280,6 +322,11 @@ public class HttpServerConfigurationBuilder {
         return this;
     }
 
+    public HttpServerConfigurationBuilder withQueryWorkerCount(int queryWorkerCount) {
+        this.queryWorkerCount = queryWorkerCount;
+        return this;
+    }
+
     public HttpServerConfigurationBuilder withReceiveBufferSize(int receiveBufferSize) {
         this.receiveBufferSize = receiveBufferSize;
         return this;
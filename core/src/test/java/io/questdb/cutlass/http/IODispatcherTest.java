@@ -49,6 +49,7 @@ import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -148,9 +149,19 @@ public class IODispatcherTest {
 
     @Test
     public void testBiasWrite() throws Exception {
-
         LOG.info().$("started testBiasWrite").$();
+        assertBiasWrite(false);
+    }
+
+    @Test
+    public void testBiasWriteIOURing() throws Exception {
+        // dispatcher falls back to epoll without io_uring, test would then only repeat testBiasWrite
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        LOG.info().$("started testBiasWriteIOURing").$();
+        assertBiasWrite(true);
+    }
 
+    private void assertBiasWrite(boolean ioURingEnabled) throws Exception {
         assertMemoryLeak(() -> {
 
             SOCountDownLatch connectLatch = new SOCountDownLatch(1);
@@ -167,6 +178,11 @@ public class IODispatcherTest {
                         public boolean getPeerNoLinger() {
                             return false;
                         }
+
+                        @Override
+                        public boolean isIOURingEnabled() {
+                            return ioURingEnabled;
+                        }
                     },
                     (fd, dispatcher1) -> {
                         connectLatch.countDown();
@@ -2134,6 +2150,379 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testLineHttpWrite() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withDumpingTraffic(false)
+                                .withAllowDeflateBeforeSend(false)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                                .withServerKeepAlive(true)
+                )
+                .run(engine -> {
+                    final SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table trades (sym symbol, price double, qty long, timestamp timestamp) timestamp(timestamp) partition by DAY", executionContext);
+                    }
+
+                    // same keep-alive connection is used for both requests
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "POST /write HTTP/1.1\r\n" +
+                                    "Host: localhost:9001\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "Content-Length: 292\r\n" +
+                                    "Content-Type: multipart/form-data; boundary=----WebKitFormBoundaryOsOAD9cPKyHuxyBV\r\n" +
+                                    "\r\n" +
+                                    "------WebKitFormBoundaryOsOAD9cPKyHuxyBV\r\n" +
+                                    "Content-Disposition: form-data; name=\"data\"\r\n" +
+                                    "\r\n" +
+                                    "trades,sym=A price=1.5,qty=10i 1000000000\n" +
+                                    "trades,sym=B price=2.5,qty=20i 2000000000\n" +
+                                    "trades,sym=A price=bad 3000000000\n" +
+                                    "trades,sym=C price=3.5,qty=30i 4000000000\r\n" +
+                                    "------WebKitFormBoundaryOsOAD9cPKyHuxyBV--",
+                            "HTTP/1.1 200 OK\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: application/json; charset=utf-8\r\n" +
+                                    "\r\n" +
+                                    "3d\r\n" +
+                                    "{\"status\":\"partial write\",\"rowsCommitted\":3,\"rowsRejected\":1}\r\n" +
+                                    "00\r\n" +
+                                    "\r\n",
+                            2,
+                            0,
+                            false
+                    );
+
+                    // rows are committed and writer is released by the time response is sent
+                    final StringSink sink = new StringSink();
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "trades")) {
+                        TestUtils.assertCursor(
+                                "sym\tprice\tqty\ttimestamp\n" +
+                                        "A\t1.5\t10\t1970-01-01T00:00:01.000000Z\n" +
+                                        "A\t1.5\t10\t1970-01-01T00:00:01.000000Z\n" +
+                                        "B\t2.5\t20\t1970-01-01T00:00:02.000000Z\n" +
+                                        "B\t2.5\t20\t1970-01-01T00:00:02.000000Z\n" +
+                                        "C\t3.5\t30\t1970-01-01T00:00:04.000000Z\n" +
+                                        "C\t3.5\t30\t1970-01-01T00:00:04.000000Z\n",
+                                reader.getCursor(),
+                                reader.getMetadata(),
+                                true,
+                                sink
+                        );
+                    }
+                });
+    }
+
+    @Test
+    public void testColumnExport() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withDumpingTraffic(false)
+                                .withAllowDeflateBeforeSend(false)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                                .withServerKeepAlive(true)
+                )
+                .run(engine -> {
+                    final SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table x (b byte, s string, ts timestamp) timestamp(ts) partition by DAY", executionContext);
+                        compiler.compile("insert into x select cast(x + 64 as byte), 'abc', cast(x * 1000000 as timestamp) from long_sequence(5)", executionContext);
+                        compiler.compile("alter table x add column c byte", executionContext).execute(null).await();
+                        compiler.compile("insert into x select cast(x + 96 as byte), 'abc', cast((x + 5) * 1000000 as timestamp), cast(x + 96 as byte) from long_sequence(3)", executionContext);
+                    }
+
+                    // column data is sent as is, bytes are printable
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "GET /exp/column?table=x&column=b&partition=1970-01-01 HTTP/1.1\r\n" +
+                                    "Host: localhost:9000\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "\r\n",
+                            "HTTP/1.1 200 OK\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Content-Length: 8\r\n" +
+                                    "Content-Type: application/octet-stream\r\n" +
+                                    "X-QuestDB-Column-Type: BYTE\r\n" +
+                                    "X-QuestDB-Row-Count: 8\r\n" +
+                                    "X-QuestDB-Column-Top: 0\r\n" +
+                                    "Keep-Alive: timeout=5, max=10000\r\n" +
+                                    "\r\n" +
+                                    "ABCDEabc",
+                            1,
+                            0,
+                            false
+                    );
+
+                    // rows before column top are not part of the file
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "GET /exp/column?table=x&column=c&partition=1970-01-01 HTTP/1.1\r\n" +
+                                    "Host: localhost:9000\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "\r\n",
+                            "HTTP/1.1 200 OK\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Content-Length: 3\r\n" +
+                                    "Content-Type: application/octet-stream\r\n" +
+                                    "X-QuestDB-Column-Type: BYTE\r\n" +
+                                    "X-QuestDB-Row-Count: 8\r\n" +
+                                    "X-QuestDB-Column-Top: 5\r\n" +
+                                    "Keep-Alive: timeout=5, max=10000\r\n" +
+                                    "\r\n" +
+                                    "abc",
+                            1,
+                            0,
+                            false
+                    );
+
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "GET /exp/column?table=x&column=s&partition=1970-01-01 HTTP/1.1\r\n" +
+                                    "Host: localhost:9000\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "\r\n",
+                            "HTTP/1.1 400 Bad request\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: text/plain; charset=utf-8\r\n" +
+                                    "\r\n" +
+                                    "29\r\n" +
+                                    "only fixed size columns can be exported\r\n" +
+                                    "\r\n" +
+                                    "00\r\n" +
+                                    "\r\n",
+                            1,
+                            0,
+                            false
+                    );
+
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "GET /exp/column?table=x&column=b&partition=1970-01-02 HTTP/1.1\r\n" +
+                                    "Host: localhost:9000\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "\r\n",
+                            "HTTP/1.1 404 Not Found\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: text/plain; charset=utf-8\r\n" +
+                                    "\r\n" +
+                                    "1a\r\n" +
+                                    "partition does not exist\r\n" +
+                                    "\r\n" +
+                                    "00\r\n" +
+                                    "\r\n",
+                            1,
+                            0,
+                            false
+                    );
+                });
+    }
+
+    @Test
+    public void testLineHttpWriteBadPartRollsBack() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withDumpingTraffic(false)
+                                .withAllowDeflateBeforeSend(false)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                                .withServerKeepAlive(true)
+                )
+                .run(engine -> {
+                    final SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table trades (sym symbol, price double, qty long, timestamp timestamp) timestamp(timestamp) partition by DAY", executionContext);
+                    }
+
+                    // unexpected part fails the whole request, connection survives the error
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "POST /write HTTP/1.1\r\n" +
+                                    "Host: localhost:9001\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "Content-Length: 348\r\n" +
+                                    "Content-Type: multipart/form-data; boundary=----WebKitFormBoundaryOsOAD9cPKyHuxyBV\r\n" +
+                                    "\r\n" +
+                                    "------WebKitFormBoundaryOsOAD9cPKyHuxyBV\r\n" +
+                                    "Content-Disposition: form-data; name=\"data\"\r\n" +
+                                    "\r\n" +
+                                    "trades,sym=A price=1.5,qty=10i 1000000000\n" +
+                                    "trades,sym=B price=2.5,qty=20i 2000000000\r\n" +
+                                    "------WebKitFormBoundaryOsOAD9cPKyHuxyBV\r\n" +
+                                    "Content-Disposition: form-data; name=\"more\"\r\n" +
+                                    "\r\n" +
+                                    "trades,sym=C price=3.5,qty=30i 4000000000\r\n" +
+                                    "------WebKitFormBoundaryOsOAD9cPKyHuxyBV--",
+                            "HTTP/1.1 400 Bad request\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: application/json; charset=utf-8\r\n" +
+                                    "\r\n" +
+                                    "6b\r\n" +
+                                    "{\"status\":\"error\",\"rowsCommitted\":0,\"rowsRejected\":2,\"error\":\"expected single multipart part named 'data'\"}\r\n" +
+                                    "00\r\n" +
+                                    "\r\n",
+                            2,
+                            0,
+                            false
+                    );
+
+                    // rows of the first part are rolled back
+                    final StringSink sink = new StringSink();
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "trades")) {
+                        TestUtils.assertCursor(
+                                "sym\tprice\tqty\ttimestamp\n",
+                                reader.getCursor(),
+                                reader.getMetadata(),
+                                true,
+                                sink
+                        );
+                    }
+                });
+    }
+
+    @Test
+    public void testLineHttpWriteChunkedBody() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withDumpingTraffic(false)
+                                .withAllowDeflateBeforeSend(false)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                                .withServerKeepAlive(true)
+                )
+                .run(engine -> {
+                    final SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table trades (sym symbol, price double, qty long, timestamp timestamp) timestamp(timestamp) partition by DAY", executionContext);
+                    }
+
+                    // chunks split lines, last line does not end with new line
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "POST /write HTTP/1.1\r\n" +
+                                    "Host: localhost:9001\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "\r\n" +
+                                    "1a\r\n" +
+                                    "trades,sym=A price=1.5,qty\r\n" +
+                                    "1F;ext=1\r\n" +
+                                    "=10i 1000000000\ntrades,sym=B pr\r\n" +
+                                    "44\r\n" +
+                                    "ice=2.5,qty=20i 2000000000\ntrades,sym=C price=3.5,qty=30i 4000000000\r\n" +
+                                    "0\r\n" +
+                                    "\r\n",
+                            "HTTP/1.1 200 OK\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: application/json; charset=utf-8\r\n" +
+                                    "\r\n" +
+                                    "32\r\n" +
+                                    "{\"status\":\"OK\",\"rowsCommitted\":3,\"rowsRejected\":0}\r\n" +
+                                    "00\r\n" +
+                                    "\r\n",
+                            1,
+                            0,
+                            false
+                    );
+
+                    final StringSink sink = new StringSink();
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "trades")) {
+                        TestUtils.assertCursor(
+                                "sym\tprice\tqty\ttimestamp\n" +
+                                        "A\t1.5\t10\t1970-01-01T00:00:01.000000Z\n" +
+                                        "B\t2.5\t20\t1970-01-01T00:00:02.000000Z\n" +
+                                        "C\t3.5\t30\t1970-01-01T00:00:04.000000Z\n",
+                                reader.getCursor(),
+                                reader.getMetadata(),
+                                true,
+                                sink
+                        );
+                    }
+                });
+    }
+
+    @Test
+    public void testLineHttpWriteRawBody() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withDumpingTraffic(false)
+                                .withAllowDeflateBeforeSend(false)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                                .withServerKeepAlive(true)
+                )
+                .run(engine -> {
+                    final SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table trades (sym symbol, price double, qty long, timestamp timestamp) timestamp(timestamp) partition by DAY", executionContext);
+                    }
+
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "POST /write HTTP/1.1\r\n" +
+                                    "Host: localhost:9001\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "Content-Length: 84\r\n" +
+                                    "\r\n" +
+                                    "trades,sym=A price=1.5,qty=10i 1000000000\n" +
+                                    "trades,sym=B price=2.5,qty=20i 2000000000\n",
+                            "HTTP/1.1 200 OK\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: application/json; charset=utf-8\r\n" +
+                                    "\r\n" +
+                                    "32\r\n" +
+                                    "{\"status\":\"OK\",\"rowsCommitted\":2,\"rowsRejected\":0}\r\n" +
+                                    "00\r\n" +
+                                    "\r\n",
+                            2,
+                            0,
+                            false
+                    );
+
+                    final StringSink sink = new StringSink();
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "trades")) {
+                        TestUtils.assertCursor(
+                                "sym\tprice\tqty\ttimestamp\n" +
+                                        "A\t1.5\t10\t1970-01-01T00:00:01.000000Z\n" +
+                                        "A\t1.5\t10\t1970-01-01T00:00:01.000000Z\n" +
+                                        "B\t2.5\t20\t1970-01-01T00:00:02.000000Z\n" +
+                                        "B\t2.5\t20\t1970-01-01T00:00:02.000000Z\n",
+                                reader.getCursor(),
+                                reader.getMetadata(),
+                                true,
+                                sink
+                        );
+                    }
+                });
+    }
+
     @Test
     public void testJsonQueryAndDisconnectWithoutWaitingForResult() throws Exception {
         assertMemoryLeak(() -> {
@@ -2810,24 +3199,324 @@ public class IODispatcherTest {
     }
 
     @Test
-    public void testJsonQueryInfinity() throws Exception {
-        testJsonQuery(
-                20,
-                "GET /exec?limit=0%2C1000&count=true&src=con&query=select%20cast(1.0%2F0.0%20as%20float)%2C%20cast(1.0%2F0.0%20as%20double) HTTP/1.1\r\n" +
-                        "Host: localhost:9000\r\n" +
-                        "Connection: keep-alive\r\n" +
-                        "Accept: */*\r\n" +
-                        "X-Requested-With: XMLHttpRequest\r\n" +
-                        "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/79.0.3945.130 Safari/537.36\r\n" +
-                        "Sec-Fetch-Site: same-origin\r\n" +
-                        "Sec-Fetch-Mode: cors\r\n" +
-                        "Referer: http://localhost:9000/index.html\r\n" +
-                        "Accept-Encoding: gzip, deflate, br\r\n" +
-                        "Accept-Language: en-GB,en-US;q=0.9,en;q=0.8\r\n" +
-                        "Cookie: _ga=GA1.1.2124932001.1573824669; _gid=GA1.1.2057572436.1581161560\r\n" +
-                        "\r\n",
-                "HTTP/1.1 200 OK\r\n" +
-                        "Server: questDB/1.0\r\n" +
+    public void testJsonQueryAsyncExecution() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withQueryWorkerCount(1)
+                                .withAsyncQueryThreshold(0)
+                                .withServerKeepAlive(true)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                )
+                .run(engine -> sendAndReceive(
+                        NetworkFacadeImpl.INSTANCE,
+                        "GET /query?query=select%201 HTTP/1.1\r\n" +
+                                "Host: localhost:9000\r\n" +
+                                "Connection: keep-alive\r\n" +
+                                "\r\n",
+                        "HTTP/1.1 200 OK\r\n" +
+                                "Server: questDB/1.0\r\n" +
+                                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "Content-Type: application/json; charset=utf-8\r\n" +
+                                "Keep-Alive: timeout=5, max=10000\r\n" +
+                                "\r\n" +
+                                "54\r\n" +
+                                "{\"query\":\"select 1\",\"columns\":[{\"name\":\"1\",\"type\":\"INT\"}],\"dataset\":[[1]],\"count\":1}\r\n" +
+                                "00\r\n" +
+                                "\r\n",
+                        10,
+                        0,
+                        false
+                ));
+    }
+
+    @Test
+    public void testJsonQueryAsyncExecutionAggregate() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withQueryWorkerCount(2)
+                                .withAsyncQueryThreshold(0)
+                                .withServerKeepAlive(true)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                )
+                .run(engine -> {
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile(
+                                "create table x as (select x % 3 k, x v from long_sequence(1000))",
+                                new SqlExecutionContextImpl(engine, 1)
+                        );
+                    }
+                    sendAndReceive(
+                            NetworkFacadeImpl.INSTANCE,
+                            "GET /query?query=select%20k%2C%20count()%2C%20sum(v)%20from%20x%20order%20by%20k HTTP/1.1\r\n" +
+                                    "Host: localhost:9000\r\n" +
+                                    "Connection: keep-alive\r\n" +
+                                    "\r\n",
+                            "HTTP/1.1 200 OK\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: application/json; charset=utf-8\r\n" +
+                                    "Keep-Alive: timeout=5, max=10000\r\n" +
+                                    "\r\n" +
+                                    "dd\r\n" +
+                                    "{\"query\":\"select k, count(), sum(v) from x order by k\",\"columns\":[{\"name\":\"k\",\"type\":\"LONG\"},{\"name\":\"count\",\"type\":\"LONG\"},{\"name\":\"sum\",\"type\":\"LONG\"}],\"dataset\":[[0,333,166833],[1,334,167167],[2,333,166500]],\"count\":3}\r\n" +
+                                    "00\r\n" +
+                                    "\r\n",
+                            4,
+                            0,
+                            false
+                    );
+                });
+    }
+
+    @Test
+    public void testJsonQueryAdmissionQueued() throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(temp.getRoot().getAbsolutePath()) {
+            @Override
+            public int getQueryAdmissionInteractiveLimit() {
+                return 1;
+            }
+        };
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withServerKeepAlive(true)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                )
+                .run(configuration, engine -> {
+                    final QueryAdmissionController controller = engine.getQueryAdmissionController();
+                    // take the only interactive slot, query has to wait in the queue until it is released
+                    Assert.assertTrue(controller.tryAcquire(QueryAdmissionController.WORKLOAD_INTERACTIVE));
+                    final Thread releaser = new Thread(() -> {
+                        Os.sleep(200);
+                        controller.release(QueryAdmissionController.WORKLOAD_INTERACTIVE);
+                    });
+                    releaser.start();
+                    try {
+                        sendAndReceive(
+                                NetworkFacadeImpl.INSTANCE,
+                                "GET /query?query=select%201 HTTP/1.1\r\n" +
+                                        "Host: localhost:9000\r\n" +
+                                        "Connection: keep-alive\r\n" +
+                                        "\r\n",
+                                "HTTP/1.1 200 OK\r\n" +
+                                        "Server: questDB/1.0\r\n" +
+                                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                        "Transfer-Encoding: chunked\r\n" +
+                                        "Content-Type: application/json; charset=utf-8\r\n" +
+                                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                                        "\r\n" +
+                                        "54\r\n" +
+                                        "{\"query\":\"select 1\",\"columns\":[{\"name\":\"1\",\"type\":\"INT\"}],\"dataset\":[[1]],\"count\":1}\r\n" +
+                                        "00\r\n" +
+                                        "\r\n",
+                                5,
+                                0,
+                                false
+                        );
+                    } finally {
+                        releaser.join();
+                    }
+                    Assert.assertEquals(1, controller.getQueuedCount());
+                    Assert.assertEquals(0, controller.getQueueCount(QueryAdmissionController.WORKLOAD_INTERACTIVE));
+                });
+    }
+
+    @Test
+    public void testJsonQueryAdmissionRejected() throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(temp.getRoot().getAbsolutePath()) {
+            @Override
+            public int getQueryAdmissionInteractiveLimit() {
+                return 1;
+            }
+
+            @Override
+            public int getQueryAdmissionQueueCapacity() {
+                return 0;
+            }
+        };
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withServerKeepAlive(true)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                )
+                .run(configuration, engine -> {
+                    final QueryAdmissionController controller = engine.getQueryAdmissionController();
+                    Assert.assertTrue(controller.tryAcquire(QueryAdmissionController.WORKLOAD_INTERACTIVE));
+                    try {
+                        sendAndReceive(
+                                NetworkFacadeImpl.INSTANCE,
+                                "GET /query?query=select%201 HTTP/1.1\r\n" +
+                                        "Host: localhost:9000\r\n" +
+                                        "Connection: keep-alive\r\n" +
+                                        "\r\n",
+                                "HTTP/1.1 200 OK\r\n" +
+                                        "Server: questDB/1.0\r\n" +
+                                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                        "Transfer-Encoding: chunked\r\n" +
+                                        "Content-Type: application/json; charset=utf-8\r\n" +
+                                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                                        "\r\n" +
+                                        "92\r\n" +
+                                        "{\"query\":\"select 1\",\"error\":\"query rejected by admission control [class=interactive, active=1, limit=1, memReserved=0, memLimit=-1]\",\"position\":0}\r\n" +
+                                        "00\r\n" +
+                                        "\r\n",
+                                3,
+                                0,
+                                false
+                        );
+                    } finally {
+                        controller.release(QueryAdmissionController.WORKLOAD_INTERACTIVE);
+                    }
+                    Assert.assertEquals(3, controller.getRejectedCount());
+                });
+    }
+
+    @Test
+    public void testJsonQueryAsyncExecutionConcurrentStreaming() throws Exception {
+        // union and sample by cursors use execution context and circuit breaker while they are
+        // streamed, these must not be shared with other queries the query worker opens meanwhile
+        final int threadCount = 2;
+        final int requestsPerThread = 50;
+        final String[][] requests = {
+                {
+                        "GET /query?query=select%20v%20from%20x%20where%20v%20%3C%3D%203%20union%20select%20v%20from%20x%20where%20v%20%3E%3D%20998 HTTP/1.1\r\n" +
+                                "Host: localhost:9000\r\n" +
+                                "Connection: keep-alive\r\n" +
+                                "\r\n",
+                        "HTTP/1.1 200 OK\r\n" +
+                                "Server: questDB/1.0\r\n" +
+                                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "Content-Type: application/json; charset=utf-8\r\n" +
+                                "Keep-Alive: timeout=5, max=10000\r\n" +
+                                "\r\n" +
+                                "a9\r\n" +
+                                "{\"query\":\"select v from x where v <= 3 union select v from x where v >= 998\",\"columns\":[{\"name\":\"v\",\"type\":\"LONG\"}],\"dataset\":[[1],[2],[3],[998],[999],[1000]],\"count\":6}\r\n" +
+                                "00\r\n" +
+                                "\r\n"
+                },
+                {
+                        "GET /query?query=select%20ts%2C%20sum%28v%29%20from%20y%20sample%20by%201h HTTP/1.1\r\n" +
+                                "Host: localhost:9000\r\n" +
+                                "Connection: keep-alive\r\n" +
+                                "\r\n",
+                        "HTTP/1.1 200 OK\r\n" +
+                                "Server: questDB/1.0\r\n" +
+                                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "Content-Type: application/json; charset=utf-8\r\n" +
+                                "Keep-Alive: timeout=5, max=10000\r\n" +
+                                "\r\n" +
+                                "020b\r\n" +
+                                "{\"query\":\"select ts, sum(v) from y sample by 1h\",\"columns\":[{\"name\":\"ts\",\"type\":\"TIMESTAMP\"},{\"name\":\"sum\",\"type\":\"LONG\"}],\"dataset\":[[\"1970-01-01T00:00:00.000000Z\",1830],[\"1970-01-01T01:00:00.000000Z\",5430],[\"1970-01-01T02:00:00.000000Z\",9030],[\"1970-01-01T03:00:00.000000Z\",12630],[\"1970-01-01T04:00:00.000000Z\",16230],[\"1970-01-01T05:00:00.000000Z\",19830],[\"1970-01-01T06:00:00.000000Z\",23430],[\"1970-01-01T07:00:00.000000Z\",27030],[\"1970-01-01T08:00:00.000000Z\",30630],[\"1970-01-01T09:00:00.000000Z\",34230]],\"count\":10}\r\n" +
+                                "00\r\n" +
+                                "\r\n"
+                }
+        };
+
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(threadCount)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withQueryWorkerCount(1)
+                                .withAsyncQueryThreshold(0)
+                                .withServerKeepAlive(true)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                )
+                .withTelemetry(false)
+                .run(engine -> {
+                    final SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table x as (select x v from long_sequence(1000))", sqlExecutionContext);
+                        compiler.compile("create table y as (select x v, timestamp_sequence(0, 60000000) ts from long_sequence(600)) timestamp(ts)", sqlExecutionContext);
+                    }
+
+                    final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+                    final CountDownLatch latch = new CountDownLatch(threadCount);
+                    final AtomicInteger errorCount = new AtomicInteger(0);
+                    for (int i = 0; i < threadCount; i++) {
+                        new QueryThread(
+                                requests,
+                                requestsPerThread,
+                                barrier,
+                                latch,
+                                errorCount
+                        ).start();
+                    }
+
+                    latch.await();
+                    Assert.assertEquals(0, errorCount.get());
+                });
+    }
+
+    @Test
+    public void testJsonQueryGzipRefusedByClient() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withAllowDeflateBeforeSend(true)
+                                .withServerKeepAlive(true)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                )
+                .run(engine -> sendAndReceive(
+                        NetworkFacadeImpl.INSTANCE,
+                        "GET /exec?query=select%201 HTTP/1.1\r\n" +
+                                "Host: localhost:9000\r\n" +
+                                "Connection: keep-alive\r\n" +
+                                "Accept-Encoding: gzip;q=0, deflate\r\n" +
+                                "\r\n",
+                        "HTTP/1.1 200 OK\r\n" +
+                                "Server: questDB/1.0\r\n" +
+                                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "Content-Type: application/json; charset=utf-8\r\n" +
+                                "Keep-Alive: timeout=5, max=10000\r\n" +
+                                "\r\n" +
+                                "54\r\n" +
+                                "{\"query\":\"select 1\",\"columns\":[{\"name\":\"1\",\"type\":\"INT\"}],\"dataset\":[[1]],\"count\":1}\r\n" +
+                                "00\r\n" +
+                                "\r\n",
+                        1,
+                        0,
+                        false
+                ));
+    }
+
+    @Test
+    public void testJsonQueryInfinity() throws Exception {
+        testJsonQuery(
+                20,
+                "GET /exec?limit=0%2C1000&count=true&src=con&query=select%20cast(1.0%2F0.0%20as%20float)%2C%20cast(1.0%2F0.0%20as%20double) HTTP/1.1\r\n" +
+                        "Host: localhost:9000\r\n" +
+                        "Connection: keep-alive\r\n" +
+                        "Accept: */*\r\n" +
+                        "X-Requested-With: XMLHttpRequest\r\n" +
+                        "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/79.0.3945.130 Safari/537.36\r\n" +
+                        "Sec-Fetch-Site: same-origin\r\n" +
+                        "Sec-Fetch-Mode: cors\r\n" +
+                        "Referer: http://localhost:9000/index.html\r\n" +
+                        "Accept-Encoding: gzip, deflate, br\r\n" +
+                        "Accept-Language: en-GB,en-US;q=0.9,en;q=0.8\r\n" +
+                        "Cookie: _ga=GA1.1.2124932001.1573824669; _gid=GA1.1.2057572436.1581161560\r\n" +
+                        "\r\n",
+                "HTTP/1.1 200 OK\r\n" +
+                        "Server: questDB/1.0\r\n" +
                         "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
                         "Transfer-Encoding: chunked\r\n" +
                         "Content-Type: application/json; charset=utf-8\r\n" +
@@ -5461,6 +6150,122 @@ public class IODispatcherTest {
         });
     }
 
+    @Test
+    public void testSCPFullDownloadSendFile() throws Exception {
+        assertMemoryLeak(() -> {
+            final String baseDir = temp.getRoot().getAbsolutePath();
+            // emulates sendfile() in Java, prebuilt native libraries may not have it
+            final NetworkFacade nf = new NetworkFacadeImpl() {
+                @Override
+                public boolean isSendFileSupported() {
+                    return true;
+                }
+
+                @Override
+                public long sendFile(long fd, long fileFd, long offset, long len) {
+                    final int bufLen = (int) Math.min(len, 64 * 1024);
+                    final long buf = Unsafe.malloc(bufLen, MemoryTag.NATIVE_DEFAULT);
+                    try {
+                        final long n = Files.read(fileFd, buf, bufLen, offset);
+                        if (n <= 0) {
+                            return Net.EOTHERDISCONNECT;
+                        }
+                        return Net.send(fd, buf, (int) n);
+                    } finally {
+                        Unsafe.free(buf, bufLen, MemoryTag.NATIVE_DEFAULT);
+                    }
+                }
+            };
+            final DefaultHttpServerConfiguration httpConfiguration = createHttpServerConfiguration(nf, baseDir, 1024 * 1024, false, false);
+            final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+            try (HttpServer httpServer = new HttpServer(httpConfiguration, workerPool, false)) {
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new StaticContentProcessor(httpConfiguration);
+                    }
+
+                    @Override
+                    public String getUrl() {
+                        return HttpServerConfiguration.DEFAULT_PROCESSOR_URL;
+                    }
+                });
+
+                workerPool.start(LOG);
+
+                try (Path path = new Path().of(baseDir).concat("questdb-temp.txt").$()) {
+                    try {
+                        Rnd rnd = new Rnd();
+                        final int diskBufferLen = 1024 * 1024;
+
+                        writeRandomFile(path, rnd, 122299092L);
+
+                        long fd = Net.socketTcp(true);
+                        try {
+                            long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                            try {
+                                TestUtils.assertConnect(fd, sockAddr);
+
+                                int netBufferLen = 4 * 1024;
+                                long buffer = Unsafe.calloc(netBufferLen, MemoryTag.NATIVE_DEFAULT);
+                                try {
+                                    final String request = "GET /questdb-temp.txt HTTP/1.1\r\n" +
+                                            "Host: localhost:9000\r\n" +
+                                            "Connection: keep-alive\r\n" +
+                                            "Cache-Control: max-age=0\r\n" +
+                                            "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8\r\n" +
+                                            "User-Agent: Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/31.0.1650.48 Safari/537.36\r\n" +
+                                            "Accept-Encoding: gzip,deflate,sdch\r\n" +
+                                            "Accept-Language: en-US,en;q=0.8\r\n" +
+                                            "Cookie: textwrapon=false; textautoformat=false; wysiwyg=textarea\r\n" +
+                                            "\r\n";
+
+                                    String expectedResponseHeader = "HTTP/1.1 200 OK\r\n" +
+                                            "Server: questDB/1.0\r\n" +
+                                            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                            "Content-Length: 20971520\r\n" +
+                                            "Content-Type: text/plain\r\n" +
+                                            "ETag: \"122299092\"\r\n" +
+                                            "\r\n";
+
+                                    for (int j = 0; j < 3; j++) {
+                                        sendRequest(request, fd, buffer);
+                                        assertDownloadResponse(fd, rnd, buffer, netBufferLen, diskBufferLen, expectedResponseHeader, 20971667);
+                                    }
+                                } finally {
+                                    Unsafe.free(buffer, netBufferLen, MemoryTag.NATIVE_DEFAULT);
+                                }
+                            } finally {
+                                Net.freeSockAddr(sockAddr);
+                            }
+                        } finally {
+                            Net.close(fd);
+                            LOG.info().$("closed [fd=").$(fd).$(']').$();
+                        }
+                    } finally {
+                        workerPool.halt();
+                        Files.remove(path);
+                    }
+                }
+            }
+        });
+    }
+
     @Test
     public void testSCPHttp10() throws Exception {
         assertMemoryLeak(() -> {
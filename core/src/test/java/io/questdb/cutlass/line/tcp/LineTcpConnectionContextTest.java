@@ -47,6 +47,7 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
     private int[] rebalanceLoadByThread;
     private int rebalanceNLoadCheckCycles = 0;
     private int rebalanceNRebalances = 0;
+    private long[] writerQueueDepths;
 
     @Test
     public void testAddCastFieldColumnNoTable() throws Exception {
@@ -1249,6 +1250,44 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         Assert.assertEquals(0, rebalanceNRebalances);
     }
 
+    @Test
+    public void testMultipleMeasurementsBatched() throws Exception {
+        final String table = "batched";
+        final String otherTable = "batchedOther";
+        final int nLines = 200;
+        final long initialTimestampNanos = 1465839830100400200L;
+        runInContext(() -> {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < nLines; i++) {
+                sb.append(table).append(",location=us-midwest temperature=").append(i % 90)
+                        .append(' ').append(initialTimestampNanos + i * 1000L).append('\n');
+            }
+            // lines alternating between tables cannot share an event
+            for (int i = 0; i < 4; i++) {
+                sb.append(otherTable).append(",location=us-eastcoast temperature=").append(80 + i)
+                        .append(' ').append(initialTimestampNanos + i * 1000L).append('\n');
+                sb.append(table).append(",location=us-westcost temperature=").append(90 + i)
+                        .append(' ').append(initialTimestampNanos + (nLines + i) * 1000L).append('\n');
+            }
+            recvBuffer = sb.toString();
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+            final long nEvents = scheduler.getPublishedEventCount();
+            closeContext();
+
+            Assert.assertTrue(nEvents < nLines / 2);
+            assertTableCount(table, nLines + 4, initialTimestampNanos + (nLines + 3) * 1000L);
+            String expected = "location\ttemperature\ttimestamp\n" +
+                    "us-eastcoast\t80.0\t2016-06-13T17:43:50.100400Z\n" +
+                    "us-eastcoast\t81.0\t2016-06-13T17:43:50.100401Z\n" +
+                    "us-eastcoast\t82.0\t2016-06-13T17:43:50.100402Z\n" +
+                    "us-eastcoast\t83.0\t2016-06-13T17:43:50.100403Z\n";
+            assertTable(expected, otherTable);
+        });
+    }
+
     @Test
     public void testMultipleMeasurements1() throws Exception {
         String table = "multipleMeasurements1";
@@ -1615,6 +1654,22 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         Assert.assertTrue(loadRatio < 1.05);
     }
 
+    @Test
+    public void testTableMovesAcrossWriterQueues() throws Exception {
+        nWriterThreads = 4;
+        int nTables = 8;
+        int nIterations = 10_000;
+        double[] loadFactors = {5, 10, 10, 20, 20, 30, 40, 80};
+        testThreading(nTables, nIterations, loadFactors);
+
+        // tables changed writer thread and no row was lost or appended twice on the way
+        Assert.assertTrue(rebalanceNRebalances > 0);
+        Assert.assertEquals(nWriterThreads, writerQueueDepths.length);
+        for (long depth : writerQueueDepths) {
+            Assert.assertEquals(0, depth);
+        }
+    }
+
     @Test
     public void testUseReceivedTimestamp1() throws Exception {
         String table = "testAutoTimestamp";
@@ -1760,6 +1815,10 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
             rebalanceNLoadCheckCycles = scheduler.getLoadCheckCycles();
             rebalanceNRebalances = scheduler.getReshuffleCount();
             rebalanceLoadByThread = scheduler.getLoadByWriterThread();
+            writerQueueDepths = new long[scheduler.getWriterQueueCount()];
+            for (int i = 0; i < writerQueueDepths.length; i++) {
+                writerQueueDepths[i] = scheduler.getWriterQueueDepth(i);
+            }
             closeContext();
             LOG.info().$("Completed ")
                     .$(nTotalUpdates)
@@ -36,6 +36,38 @@ import java.nio.charset.StandardCharsets;
 public class LineTcpParserTest extends BaseLineTcpContextTest {
     private final static LineTcpParser lineTcpParser = new LineTcpParser();
 
+    @Test
+    public void testBinaryRowSplitAtEveryByte() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final byte[] bytes = {
+                    LineTcpBinaryParser.MSG_NAME, 1, 't',
+                    LineTcpBinaryParser.MSG_NAME, 1, 'b',
+                    // table 0, field "b" (id 1 + 1) of boolean type, end of fields
+                    LineTcpBinaryParser.MSG_ROW, 0, 2, LineTcpParser.ENTITY_TYPE_BOOLEAN, 1, 0,
+                    // timestamp
+                    42, 0, 0, 0, 0, 0, 0, 0
+            };
+            final long mem = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+            try (LineTcpBinaryParser parser = new LineTcpBinaryParser(1024)) {
+                for (int i = 0; i < bytes.length; i++) {
+                    Unsafe.getUnsafe().putByte(mem + i, bytes[i]);
+                }
+                parser.of(mem);
+                for (int len = 0; len < bytes.length; len++) {
+                    Assert.assertEquals(LineTcpParser.ParseResult.BUFFER_UNDERFLOW, parser.parseMeasurement(mem + len));
+                }
+                Assert.assertEquals(LineTcpParser.ParseResult.MEASUREMENT_COMPLETE, parser.parseMeasurement(mem + bytes.length));
+                Assert.assertEquals("t", parser.getMeasurementName().toString());
+                Assert.assertEquals(1, parser.getEntityCount());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_BOOLEAN, parser.getEntity(0).getType());
+                Assert.assertTrue(parser.getEntity(0).getBooleanValue());
+                Assert.assertEquals(42, parser.getTimestamp());
+            } finally {
+                Unsafe.free(mem, bytes.length, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
     @Test
     public void testGetValueType() throws Exception {
         assertType(LineTcpParser.ENTITY_TYPE_TAG, "null");
@@ -33,6 +33,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.line.AbstractLineSender;
 import io.questdb.cutlass.line.AuthenticatedLineTcpSender;
+import io.questdb.cutlass.line.BinaryLineTcpSender;
 import io.questdb.cutlass.line.LineTcpSender;
 import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
@@ -719,6 +720,65 @@ public class LineTcpReceiverTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testWithBinaryTcpSender() throws Exception {
+        runInContext((receiver) -> {
+            send(receiver, "table", WAIT_ENGINE_TABLE_RELEASE, () -> {
+                try (BinaryLineTcpSender sender = new BinaryLineTcpSender(Net.parseIPv4("127.0.0.1"), bindPort, msgBufferSize)) {
+                    sender.metric("table")
+                            .tag("tag1", "value 1")
+                            .tag("tag=2", "значение 2")
+                            .field("поле=3", "{\"ключ\": \n \"число\"}")
+                            .field("d", 1.5)
+                            .field("l", 42)
+                            .field("b", true)
+                            .$(0);
+                    sender.metric("table")
+                            .tag("tag1", "value 2")
+                            .field("l", Long.MAX_VALUE)
+                            .$(Timestamps.SECOND_MICROS * 1000L);
+                    sender.metric("table")
+                            .tag("tag1", "value 1")
+                            .field("d", -0.25)
+                            .field("b", false)
+                            .$(2 * Timestamps.SECOND_MICROS * 1000L);
+                    sender.flush();
+                }
+            });
+
+            String expected = "tag1\ttag=2\tполе=3\td\tl\tb\ttimestamp\n" +
+                    "value 1\tзначение 2\t{\"ключ\": \n \"число\"}\t1.5\t42\ttrue\t1970-01-01T00:00:00.000000Z\n" +
+                    "value 2\t\t\tNaN\t9223372036854775807\tfalse\t1970-01-01T00:00:01.000000Z\n" +
+                    "value 1\t\t\t-0.25\tNaN\tfalse\t1970-01-01T00:00:02.000000Z\n";
+            assertTable(expected, "table");
+        });
+    }
+
+    @Test
+    public void testWithBinaryTcpSenderManyRows() throws Exception {
+        final int rowCount = 10_000;
+        runInContext((receiver) -> {
+            send(receiver, "table", WAIT_ENGINE_TABLE_RELEASE, () -> {
+                // small sender buffer makes rows straddle network packets
+                try (BinaryLineTcpSender sender = new BinaryLineTcpSender(Net.parseIPv4("127.0.0.1"), bindPort, 256)) {
+                    for (int i = 0; i < rowCount; i++) {
+                        sender.metric("table")
+                                .tag("sym", "s" + (i % 100))
+                                .field("str", "v" + i)
+                                .field("l", i)
+                                .$(i * 1000L);
+                    }
+                    sender.flush();
+                }
+            });
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "table")) {
+                Assert.assertEquals(rowCount, reader.size());
+                Assert.assertEquals(100, reader.getSymbolMapReader(0).getSymbolCount());
+            }
+        });
+    }
+
     @Test
     public void testStringsWithTcpSenderWithNewLineChars() throws Exception {
         runInContext((receiver) -> {
@@ -55,6 +55,7 @@ public class AbstractO3Test {
     public static TemporaryFolder temp = new TemporaryFolder();
     protected static CharSequence root;
     protected static int dataAppendPageSize = -1;
+    protected static long o3MergeMemoryBudget = -1;
 
     @BeforeClass
     public static void setupStatic() {
@@ -78,6 +79,7 @@ public class AbstractO3Test {
     public void tearDown() {
         TestUtils.removeTestPath(root);
         dataAppendPageSize = -1;
+        o3MergeMemoryBudget = -1;
     }
 
     protected static void assertIndexConsistency(
@@ -275,6 +277,11 @@ public class AbstractO3Test {
                     public int getO3ColumnMemorySize() {
                         return dataAppendPageSize > 0 ? dataAppendPageSize : super.getO3ColumnMemorySize();
                     }
+
+                    @Override
+                    public long getO3MergeMemoryBudget() {
+                        return o3MergeMemoryBudget > 0 ? o3MergeMemoryBudget : super.getO3MergeMemoryBudget();
+                    }
                 };
 
                 execute(pool, runnable, configuration);
@@ -330,6 +337,11 @@ public class AbstractO3Test {
                     public int getO3ColumnMemorySize() {
                         return dataAppendPageSize > 0 ? dataAppendPageSize : super.getO3ColumnMemorySize();
                     }
+
+                    @Override
+                    public long getO3MergeMemoryBudget() {
+                        return o3MergeMemoryBudget > 0 ? o3MergeMemoryBudget : super.getO3MergeMemoryBudget();
+                    }
                 };
                 execute(null, runnable, configuration);
             }
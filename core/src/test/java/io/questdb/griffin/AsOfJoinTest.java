@@ -24,6 +24,8 @@
 
 package io.questdb.griffin;
 
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
 import org.junit.Test;
 
 public class AsOfJoinTest extends AbstractGriffinTest {
@@ -71,6 +73,37 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testAsOfJoinSeekMatchesFullFat() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table quotes as (" +
+                            "select" +
+                            " rnd_symbol('A', 'B', 'C', null) sym," +
+                            " x bid," +
+                            " timestamp_sequence(to_timestamp('2018-01-01', 'yyyy-MM-dd'), 97000000) ts" +
+                            " from long_sequence(3000)" +
+                            "), index(sym) timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+            compiler.compile(
+                    "create table trades as (" +
+                            "select" +
+                            " rnd_symbol('A', 'B', 'C', 'D', null) sym," +
+                            " x id," +
+                            " timestamp_sequence(to_timestamp('2017-12-31T23', 'yyyy-MM-ddTHH'), 3600000000) ts" +
+                            " from long_sequence(100)" +
+                            ") timestamp(ts) partition by DAY",
+                    sqlExecutionContext
+            );
+
+            assertAsOfJoinSeek("select t.id, t.sym, q.bid, q.ts from trades t asof join quotes q");
+            assertAsOfJoinSeek("select t.id, t.sym, q.bid, q.ts from trades t asof join quotes q on (sym)");
+            // sparse master
+            assertAsOfJoinSeek("select t.id, t.sym, q.bid, q.ts from (trades where id % 25 = 0) t asof join quotes q on (sym)");
+        });
+    }
+
     @Test
     public void testAsofJoinDynamicTimestamp() throws Exception {
         compiler.compile(
@@ -661,5 +694,15 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         });
     }
 
+    private void assertAsOfJoinSeek(String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        compiler.setFullFatJoins(true);
+        try {
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+        } finally {
+            compiler.setFullFatJoins(false);
+        }
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        TestUtils.assertEquals(expected, sink);
+    }
 }
-
@@ -278,6 +278,71 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         assertGeneratedQueryNullable("select * from x", ddl, gen);
     }
 
+    @Test
+    public void testAbsComparison() throws Exception {
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_int(-10, 10, 10) i32," +
+                " rnd_long(-10, 10, 10) i64," +
+                " rnd_float(10) f32," +
+                " rnd_double(10) * 20 - 10 f64 " +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        FilterGenerator gen = new FilterGenerator()
+                .withAnyOf("abs(i32)", "abs(i64)", "abs(f32)", "abs(f64)")
+                .withAnyOf(" = ", " > ", " >= ", " < ", " <= ")
+                .withAnyOf("-5", "0", "5", "2.5");
+        assertGeneratedQueryNullable("select * from x", ddl, gen);
+
+        gen = new FilterGenerator()
+                .withAnyOf("-5", "5", "-2.5")
+                .withAnyOf(" = ", " > ", " >= ", " < ", " <= ")
+                .withAnyOf("abs(i32)", "abs(i64)", "abs(f32)", "abs(f64)");
+        assertGeneratedQueryNullable("select * from x", null, gen);
+    }
+
+    @Test
+    public void testCoalesceComparison() throws Exception {
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_int(-10, 10, 10) i32," +
+                " rnd_long(-10, 10, 10) i64," +
+                " rnd_float(10) * 20 - 10 f32," +
+                " rnd_double(10) * 20 - 10 f64 " +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        FilterGenerator gen = new FilterGenerator()
+                .withAnyOf("coalesce(i32, ", "coalesce(i64, ", "coalesce(f32, ", "coalesce(f64, ")
+                .withAnyOf("0)", "-5)", "2.5)")
+                .withAnyOf(" = ", " > ", " >= ", " < ", " <= ")
+                .withAnyOf("-5", "0", "2.5");
+        assertGeneratedQueryNullable("select * from x", ddl, gen);
+
+        gen = new FilterGenerator()
+                .withAnyOf("0", "-2.5")
+                .withAnyOf(" = ", " > ", " >= ", " < ", " <= ")
+                .withAnyOf("coalesce(i32, 0)", "coalesce(i64, -5)", "coalesce(f64, 0)");
+        assertGeneratedQueryNullable("select * from x", null, gen);
+    }
+
+    @Test
+    public void testTimestampFloorComparison() throws Exception {
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_timestamp(400000000000, 700000000000, 10) ts" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        FilterGenerator gen = new FilterGenerator()
+                .withAnyOf("timestamp_floor('d', ", "timestamp_floor('h', ", "timestamp_floor('m', ", "timestamp_floor('s', ", "timestamp_floor('M', ")
+                .withAnyOf("k)", "ts)")
+                .withAnyOf(" = ", " > ", " >= ", " < ", " <= ")
+                .withAnyOf("'1970-01-06'", "'1970-01-06T12:30'", "'1970-01-07T01:00:01.5'", "432000000000");
+        assertGeneratedQueryNullable("select * from x", ddl, gen);
+
+        gen = new FilterGenerator()
+                .withAnyOf("'1970-01-06T12:30'", "432000000000")
+                .withAnyOf(" = ", " > ", " >= ", " < ", " <= ")
+                .withAnyOf("timestamp_floor('h', k)", "timestamp_floor('d', ts)");
+        assertGeneratedQueryNullable("select * from x", null, gen);
+    }
+
     @Test
     public void testIntFloatColumnsComparisonFilterOutNulls() throws Exception {
         final String ddl = "create table x as " +
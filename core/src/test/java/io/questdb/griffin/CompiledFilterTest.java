@@ -94,6 +94,70 @@ public class CompiledFilterTest extends AbstractGriffinTest {
         assertSqlRunWithJit(query);
     }
 
+    @Test
+    public void testInList() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table t1 as (select " +
+                    " x," +
+                    " cast(case when x % 3 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(to_timestamp('1970-01-01', 'yyyy-MM-dd'), 100000L) ts " +
+                    "from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+
+            final String query = "select x, s from t1 where x in (2, 3, 7) or (s in ('c', 'b') and x > 8)";
+            final String expected = "x\ts\n" +
+                    "2\tb\n" +
+                    "3\ta\n" +
+                    "7\tb\n" +
+                    "10\tb\n";
+
+            assertSql(query, expected);
+            assertSqlRunWithJit(query);
+        });
+    }
+
+    @Test
+    public void testPageFrameSlices() throws Exception {
+        pageFrameMaxRows = 3;
+        assertMemoryLeak(() -> {
+            compiler.compile("create table t1 as (select " +
+                    " x," +
+                    " timestamp_sequence(0, 1000000000) ts " +
+                    "from long_sequence(10)) timestamp(ts) partition by HOUR", sqlExecutionContext);
+            compile("alter table t1 add column y long", sqlExecutionContext);
+            compiler.compile("insert into t1 select " +
+                    " x + 10," +
+                    " timestamp_sequence(10000000000, 1000000000)," +
+                    " x " +
+                    "from long_sequence(10)", sqlExecutionContext);
+
+            final String query = "select x, y from t1 where x > 4 and x < 16";
+            final String expected = "x\ty\n" +
+                    "5\tNaN\n" +
+                    "6\tNaN\n" +
+                    "7\tNaN\n" +
+                    "8\tNaN\n" +
+                    "9\tNaN\n" +
+                    "10\tNaN\n" +
+                    "11\t1\n" +
+                    "12\t2\n" +
+                    "13\t3\n" +
+                    "14\t4\n" +
+                    "15\t5\n";
+            assertSql(query, expected);
+            assertSqlRunWithJit(query);
+
+            assertSql(
+                    "select x from t1 where x > 7 and x < 13 order by x desc",
+                    "x\n" +
+                            "12\n" +
+                            "11\n" +
+                            "10\n" +
+                            "9\n" +
+                            "8\n"
+            );
+        });
+    }
+
     @Test
     public void testMultiplePartitionsOrderBy() throws Exception {
         assertMemoryLeak(() -> {
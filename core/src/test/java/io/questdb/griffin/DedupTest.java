@@ -0,0 +1,324 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DedupTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDedupAgainstEarlierPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'a', 1, 'x1')");
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'b', 2, 'x2')");
+            executeInsert("insert into dd values ('1970-01-01T02:00:00.000000Z', 'a', 3, 'x3')");
+            executeInsert("insert into dd values ('1970-01-02T01:00:00.000000Z', 'a', 4, 'x4')");
+
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'b', 20, 'replaced')");
+
+            assertSql(
+                    "dd",
+                    "ts\tk\tv\tstr\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\t1\tx1\n" +
+                            "1970-01-01T01:00:00.000000Z\tb\t20\treplaced\n" +
+                            "1970-01-01T02:00:00.000000Z\ta\t3\tx3\n" +
+                            "1970-01-02T01:00:00.000000Z\ta\t4\tx4\n"
+            );
+            assertSql("select count() from dd where k = 'b'", "count\n1\n");
+        });
+    }
+
+    @Test
+    public void testDedupAgainstLastPartitionWithColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table dd (ts timestamp, k int, v long) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 1, 1)");
+            executeInsert("insert into dd values ('1970-01-01T02:00:00.000000Z', 1, 2)");
+            compile("alter table dd add column s string", sqlExecutionContext);
+            compile("alter table dd add column b binary", sqlExecutionContext);
+            compile("alter table dd dedup enable upsert keys(ts, k)", sqlExecutionContext);
+            executeInsert("insert into dd values ('1970-01-01T03:00:00.000000Z', 1, 3, 'c', null)");
+
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 1, 10, 'a', null)");
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 2, 11, 'b', null)");
+
+            assertSql(
+                    "select ts, k, v, s from dd order by ts, k",
+                    "ts\tk\tv\ts\n" +
+                            "1970-01-01T01:00:00.000000Z\t1\t10\ta\n" +
+                            "1970-01-01T01:00:00.000000Z\t2\t11\tb\n" +
+                            "1970-01-01T02:00:00.000000Z\t1\t2\t\n" +
+                            "1970-01-01T03:00:00.000000Z\t1\t3\tc\n"
+            );
+
+            // writer carries on appending to new version of the last partition
+            executeInsert("insert into dd values ('1970-01-01T04:00:00.000000Z', 1, 4, 'd', null)");
+            assertSql("select count() from dd", "count\n5\n");
+        });
+    }
+
+    @Test
+    public void testDedupDisable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("alter table dd dedup disable", sqlExecutionContext);
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'a', 1, 'x1')");
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'a', 2, 'x2')");
+            assertSql("select count() from dd", "count\n2\n");
+
+            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "dd", "test")) {
+                Assert.assertFalse(writer.getMetadata().isDedupEnabled());
+            }
+        });
+    }
+
+    @Test
+    public void testDedupEqualTimestampInOrder() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'a', 1, 'x1')");
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'a', 2, 'x2')");
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'b', 3, 'x3')");
+
+            assertSql(
+                    "dd",
+                    "ts\tk\tv\tstr\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\t2\tx2\n" +
+                            "1970-01-01T01:00:00.000000Z\tb\t3\tx3\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDedupEqualTimestampKeepsAppending() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final long ts = 3_600_000_000L;
+            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "dd", "test")) {
+                appendRow(writer, ts, "a", 1);
+                appendRow(writer, ts, "b", 2);
+                appendRow(writer, ts, "c", 3);
+                // rows with distinct keys are appended in order
+                Assert.assertEquals(0, writer.getO3RowCount());
+                writer.commit();
+
+                appendRow(writer, ts, "d", 4);
+                Assert.assertEquals(0, writer.getO3RowCount());
+                // row repeating keys of committed row switches writer to O3
+                appendRow(writer, ts, "b", 5);
+                appendRow(writer, ts, "e", 6);
+                Assert.assertEquals(1, writer.getO3RowCount());
+                writer.commit();
+            }
+
+            assertSql(
+                    "dd order by k",
+                    "ts\tk\tv\tstr\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\t1\t\n" +
+                            "1970-01-01T01:00:00.000000Z\tb\t5\t\n" +
+                            "1970-01-01T01:00:00.000000Z\tc\t3\t\n" +
+                            "1970-01-01T01:00:00.000000Z\td\t4\t\n" +
+                            "1970-01-01T01:00:00.000000Z\te\t6\t\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDedupFloatingPointKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table dd (ts timestamp, d double, f float, v long) timestamp(ts) partition by DAY", sqlExecutionContext);
+            compile("alter table dd dedup enable upsert keys(ts, d, f)", sqlExecutionContext);
+            final long ts = 3_600_000_000L;
+            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "dd", "test")) {
+                appendRow(writer, ts, 0.0, 0.0f, 1);
+                appendRow(writer, ts, Double.NaN, Float.NaN, 2);
+                writer.commit();
+
+                // -0.0 is the same key as 0.0 and NaN payload does not make a distinct key
+                appendRow(writer, ts, -0.0, -0.0f, 3);
+                appendRow(writer, ts, Double.longBitsToDouble(0x7ff8000000000001L), Float.intBitsToFloat(0x7fc00001), 4);
+                writer.commit();
+
+                appendRow(writer, ts + 1, Double.NaN, Float.NaN, 5);
+                appendRow(writer, ts + 1, Double.longBitsToDouble(0xfff8000000000000L), Float.intBitsToFloat(0xffc00000), 6);
+                appendRow(writer, ts + 1, -0.0, 0.0f, 7);
+                appendRow(writer, ts + 1, 0.0, -0.0f, 8);
+                writer.commit();
+            }
+
+            assertSql(
+                    "select v from dd order by v",
+                    "v\n" +
+                            "3\n" +
+                            "4\n" +
+                            "6\n" +
+                            "8\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDedupErrors() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("create table np (ts timestamp, x int) timestamp(ts)", sqlExecutionContext);
+
+            assertFailure("alter table dd dedup", 20, "'enable' or 'disable' expected");
+            assertFailure("alter table dd dedup on", 21, "'enable' or 'disable' expected");
+            assertFailure("alter table dd dedup disable keys", 29, "unexpected token");
+            assertFailure("alter table dd dedup enable keys(ts)", 28, "'upsert' expected");
+            assertFailure("alter table dd dedup enable upsert keys(ts, str)", 44, "variable length column cannot be an upsert key");
+            assertFailure("alter table dd dedup enable upsert keys(ts, zz)", 44, "Invalid column: zz");
+            assertFailure("alter table dd dedup enable upsert keys(ts, k, k)", 47, "duplicate column");
+            assertFailure("alter table dd dedup enable upsert keys(ts k)", 43, "',' or ')' expected");
+            assertFailure("alter table dd dedup enable upsert keys(k)", 35, "upsert keys must include designated timestamp");
+            assertFailure("alter table np dedup enable upsert keys(ts)", 12, "partitioned tables only");
+        });
+    }
+
+    @Test
+    public void testDedupInBatch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile(
+                    "insert into dd select" +
+                            " cast((x % 3) * 1000000 as timestamp)," +
+                            " cast(case when x > 8 then 'b' else 'a' end as symbol)," +
+                            " x," +
+                            " concat('x', x)" +
+                            " from long_sequence(10)",
+                    sqlExecutionContext
+            );
+
+            assertSql(
+                    "dd order by ts, k",
+                    "ts\tk\tv\tstr\n" +
+                            "1970-01-01T00:00:00.000000Z\ta\t6\tx6\n" +
+                            "1970-01-01T00:00:00.000000Z\tb\t9\tx9\n" +
+                            "1970-01-01T00:00:01.000000Z\ta\t7\tx7\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\t10\tx10\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t8\tx8\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDedupSeveralPartitionsInOneCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'a', 1, 'x1')");
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 'b', 2, 'x2')");
+            executeInsert("insert into dd values ('1970-01-02T01:00:00.000000Z', 'a', 3, 'x3')");
+            executeInsert("insert into dd values ('1970-01-03T01:00:00.000000Z', 'a', 4, 'x4')");
+            executeInsert("insert into dd values ('1970-01-03T01:00:00.000000Z', 'b', 5, 'x5')");
+
+            // older partitions and the last one have rows replaced, the last partition does not stay last
+            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "dd", "test")) {
+                appendRow(writer, 3600000000L, "b", 20);
+                appendRow(writer, 86400000000L + 3600000000L, "b", 30);
+                appendRow(writer, 2 * 86400000000L + 3600000000L, "a", 40);
+                appendRow(writer, 3 * 86400000000L, "a", 50);
+                appendRow(writer, 86400000000L + 3600000000L, "a", 60);
+                writer.commit();
+            }
+
+            assertSql(
+                    "select ts, k, v from dd",
+                    "ts\tk\tv\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\t1\n" +
+                            "1970-01-01T01:00:00.000000Z\tb\t20\n" +
+                            "1970-01-02T01:00:00.000000Z\tb\t30\n" +
+                            "1970-01-02T01:00:00.000000Z\ta\t60\n" +
+                            "1970-01-03T01:00:00.000000Z\tb\t5\n" +
+                            "1970-01-03T01:00:00.000000Z\ta\t40\n" +
+                            "1970-01-04T00:00:00.000000Z\ta\t50\n"
+            );
+            assertSql("select count() from dd", "count\n7\n");
+            assertSql("select v from dd where k = 'a'", "v\n1\n60\n40\n50\n");
+
+            // row counts of partitions hold after writer is reopened
+            engine.releaseAllWriters();
+            executeInsert("insert into dd values ('1970-01-04T01:00:00.000000Z', 'a', 70, 'x70')");
+            assertSql("select count() from dd", "count\n8\n");
+        });
+    }
+
+    @Test
+    public void testDedupTimestampOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table dd (ts timestamp, v long) timestamp(ts) partition by DAY", sqlExecutionContext);
+            compile("alter table dd dedup enable upsert keys(ts)", sqlExecutionContext);
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 1)");
+            executeInsert("insert into dd values ('1970-01-01T02:00:00.000000Z', 2)");
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 3)");
+            executeInsert("insert into dd values ('1970-01-01T02:00:00.000000Z', 4)");
+
+            // keys survive writer reopen
+            engine.releaseAllWriters();
+            executeInsert("insert into dd values ('1970-01-01T01:00:00.000000Z', 5)");
+
+            assertSql(
+                    "dd",
+                    "ts\tv\n" +
+                            "1970-01-01T01:00:00.000000Z\t5\n" +
+                            "1970-01-01T02:00:00.000000Z\t4\n"
+            );
+        });
+    }
+
+    private static void appendRow(TableWriter writer, long timestamp, CharSequence k, long v) {
+        TableWriter.Row row = writer.newRow(timestamp);
+        row.putSym(1, k);
+        row.putLong(2, v);
+        row.append();
+    }
+
+    private static void appendRow(TableWriter writer, long timestamp, double d, float f, long v) {
+        TableWriter.Row row = writer.newRow(timestamp);
+        row.putDouble(1, d);
+        row.putFloat(2, f);
+        row.putLong(3, v);
+        row.append();
+    }
+
+    private void assertFailure(String sql, int position, String message) {
+        try {
+            compiler.compile(sql, sqlExecutionContext);
+            Assert.fail();
+        } catch (SqlException e) {
+            Assert.assertEquals(position, e.getPosition());
+            TestUtils.assertContains(e.getFlyweightMessage(), message);
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compile("create table dd (ts timestamp, k symbol index, v long, str string) timestamp(ts) partition by DAY", sqlExecutionContext);
+        compile("alter table dd dedup enable upsert keys(ts, k)", sqlExecutionContext);
+    }
+}
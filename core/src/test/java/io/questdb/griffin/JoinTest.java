@@ -24,6 +24,7 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.RecordCursor;
@@ -2467,6 +2468,66 @@ public class JoinTest extends AbstractGriffinTest {
         testFullFat(this::testJoinInnerNoSlaveRecords);
     }
 
+    @Test
+    public void testJoinInnerOnSymbolKeysRemapped() throws Exception {
+        assertMemoryLeak(() -> {
+            // same symbol values have different keys in t1 and t2, some values are missing on either side
+            compiler.compile("create table t1 as (select x, cast(case when x % 4 = 0 then null when x % 4 = 1 then 'a' when x % 4 = 2 then 'b' else 'c' end as symbol) s from long_sequence(8))", sqlExecutionContext);
+            compiler.compile("create table t2 as (select x y, cast(case when x % 4 = 0 then 'c' when x % 4 = 1 then 'd' when x % 4 = 2 then 'a' else null end as symbol) s from long_sequence(8))", sqlExecutionContext);
+
+            final String query = "select t1.x, t1.s, t2.y, t2.s from t1 join t2 on s";
+            final String expected = "x\ts\ty\ts1\n" +
+                    "1\ta\t2\ta\n" +
+                    "1\ta\t6\ta\n" +
+                    "3\tc\t4\tc\n" +
+                    "3\tc\t8\tc\n" +
+                    "4\t\t3\t\n" +
+                    "4\t\t7\t\n" +
+                    "5\ta\t2\ta\n" +
+                    "5\ta\t6\ta\n" +
+                    "7\tc\t4\tc\n" +
+                    "7\tc\t8\tc\n" +
+                    "8\t\t3\t\n" +
+                    "8\t\t7\t\n";
+            assertQuery(expected, query, null, false);
+
+            // symbol added to slave table after master keys were translated
+            executeInsert("insert into t2 values (9, 'b')");
+            assertQuery(
+                    "x\ts\ty\ts1\n" +
+                            "2\tb\t9\tb\n" +
+                            "6\tb\t9\tb\n",
+                    "select t1.x, t1.s, t2.y, t2.s from t1 join t2 on s where t1.s = 'b'",
+                    null,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testJoinInnerOnSymbolKeysMasterCursorFailure() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table t1 as (select x, cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s from long_sequence(8))", sqlExecutionContext);
+            compiler.compile("create table t2 as (select x y, cast(case when x % 2 = 0 then 'b' else 'a' end as symbol) s from long_sequence(8))", sqlExecutionContext);
+
+            try (RecordCursorFactory factory = compiler.compile("select t1.x, t2.y from t1 join t2 on s", sqlExecutionContext).getRecordCursorFactory()) {
+                // master table disappears after query is compiled, slave cursor is already open when master fails
+                compiler.compile("drop table t1", sqlExecutionContext);
+                try {
+                    factory.getCursor(sqlExecutionContext);
+                    Assert.fail();
+                } catch (CairoException ignore) {
+                }
+                Assert.assertEquals(0, engine.getBusyReaderCount());
+            }
+        });
+    }
+
+    @Test
+    public void testJoinInnerOnSymbolKeysRemappedFF() throws Exception {
+        testFullFat(this::testJoinInnerOnSymbolKeysRemapped);
+    }
+
     @Test
     public void testJoinInnerOnSymbol() throws Exception {
         assertMemoryLeak(() -> {
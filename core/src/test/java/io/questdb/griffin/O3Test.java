@@ -739,6 +739,38 @@ public class O3Test extends AbstractO3Test {
         executeWithPool(4, O3Test::testPartitionedDataOOData0);
     }
 
+    @Test
+    public void testLargeO3SortParallel() throws Exception {
+        executeWithPool(4, O3Test::testLargeO3Sort0);
+    }
+
+    @Test
+    public void testLargeO3Sort() throws Exception {
+        executeWithPool(0, O3Test::testLargeO3Sort0);
+    }
+
+    @Test
+    public void testPartitionedOODataInOrderReplay() throws Exception {
+        executeVanilla(O3Test::testPartitionedOODataInOrderReplay0);
+    }
+
+    @Test
+    public void testPartitionedOODataInOrderReplayParallel() throws Exception {
+        executeWithPool(4, O3Test::testPartitionedOODataInOrderReplay0);
+    }
+
+    @Test
+    public void testPartitionedOODataMergeBudget() throws Exception {
+        o3MergeMemoryBudget = 1;
+        executeWithPool(0, O3Test::testPartitionedOODataMergeBudget0);
+    }
+
+    @Test
+    public void testPartitionedOODataMergeBudgetParallel() throws Exception {
+        o3MergeMemoryBudget = 1;
+        executeWithPool(4, O3Test::testPartitionedOODataMergeBudget0);
+    }
+
     @Test
     public void testPartitionedDataOODataPbOOData() throws Exception {
         executeVanilla(O3Test::testPartitionedDataOODataPbOOData0);
@@ -2967,6 +2999,125 @@ public class O3Test extends AbstractO3Test {
         );
     }
 
+    private static void testLargeO3Sort0(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        // large enough to be sorted in chunks, timestamps are unique permutation
+        compiler.compile(
+                "create table y as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_str(5,16,2) n," +
+                        " cast(((x * 7919) % 1299709) * 1000000 as timestamp) ts" +
+                        " from long_sequence(1200000)" +
+                        ")",
+                sqlExecutionContext
+        );
+        compiler.compile("create table x (i int, n string, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+        compiler.compile("insert into x select * from y", sqlExecutionContext);
+
+        TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y order by ts", "x", LOG);
+    }
+
+    private static void testPartitionedOODataInOrderReplay0(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        // days 1, 2, 4 and 5 are present, day 3 is missing
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " rnd_double(2) d," +
+                        " rnd_str(5,16,2) n," +
+                        " rnd_bin(10, 20, 2) m," +
+                        " timestamp_sequence(0L,3600000000L) + case when x > 48 then 86400000000L else 0L end ts" +
+                        " from long_sequence(96)" +
+                        "), index(sym) timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+
+        // the replay is in order, it fills in day 3 and appends to the end of day 2
+        compiler.compile(
+                "create table middle as (" +
+                        "select" +
+                        " cast(x + 1000 as int) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " rnd_double(2) d," +
+                        " rnd_str(5,16,2) n," +
+                        " rnd_bin(10, 20, 2) m," +
+                        " timestamp_sequence(170100000000L,1800000000L) ts" +
+                        " from long_sequence(50)" +
+                        ") timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+
+        assertO3DataConsistency(
+                engine,
+                compiler,
+                sqlExecutionContext,
+                "create table y as (x union all middle)",
+                "insert into x select * from middle"
+        );
+
+        assertIndexConsistency(compiler, sqlExecutionContext, engine);
+    }
+
+    private static void testPartitionedOODataMergeBudget0(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " rnd_double(2) d," +
+                        " rnd_str(5,16,2) n," +
+                        " rnd_bin(10, 20, 2) m," +
+                        " timestamp_sequence(0L,3600000000L) ts" +
+                        " from long_sequence(240)" +
+                        "), index(sym) timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+
+        compiler.compile(
+                "create table middle as (" +
+                        "select" +
+                        " cast(x + 1000 as int) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " rnd_double(2) d," +
+                        " rnd_str(5,16,2) n," +
+                        " rnd_bin(10, 20, 2) m," +
+                        " timestamp_sequence(1800000000L,3600000000L) ts" +
+                        " from long_sequence(230)" +
+                        ") timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+
+        // every partition of "x" is merged while the budget admits
+        // only one partition at a time
+        assertO3DataConsistency(
+                engine,
+                compiler,
+                sqlExecutionContext,
+                "create table y as (x union all middle)",
+                "insert into x select * from middle"
+        );
+
+        assertIndexConsistency(compiler, sqlExecutionContext, engine);
+
+        final O3MergeBudget budget = engine.getMessageBus().getO3MergeBudget();
+        Assert.assertEquals(0, budget.getUsed());
+        Assert.assertEquals(budget.getPartitionsPlanned(), budget.getPartitionsMerged());
+        Assert.assertTrue(budget.getPartitionsPlanned() >= 10);
+    }
+
     private static void testPartitionedOOData0(
             CairoEngine engine,
             SqlCompiler compiler,
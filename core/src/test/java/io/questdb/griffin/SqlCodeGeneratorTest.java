@@ -5307,6 +5307,48 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testOrderByLongKey() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select" +
+                            " rnd_int(-50, 50, 0) i," +
+                            " rnd_long(-50, 50, 0) l," +
+                            " cast(rnd_long(0, 50, 0) as timestamp) t," +
+                            " x v" +
+                            " from long_sequence(10000)" +
+                            ")",
+                    sqlExecutionContext
+            );
+
+            // multi-key sort goes through the tree chain, which returns rows
+            // of equal keys most recent first
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "select i, v from x order by i, v desc", "select i, v from x order by i", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "select i, v from x order by i desc, v desc", "select i, v from x order by i desc", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "select l, v from x order by l, v desc", "select l, v from x order by l", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "select l, v from x order by l desc, v desc", "select l, v from x order by l desc", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "select t, v from x order by t, v desc", "select t, v from x order by t", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "select t, v from x order by t desc, v desc", "select t, v from x order by t desc", LOG);
+
+            compiler.compile("create table y (l long, i int)", sqlExecutionContext);
+            executeInsert("insert into y values (3, 3)");
+            executeInsert("insert into y values (null, null)");
+            executeInsert("insert into y values (-1, -1)");
+            executeInsert("insert into y values (" + Long.MAX_VALUE + ", " + Integer.MAX_VALUE + ")");
+            assertSql("y order by l", "l\ti\n" +
+                    "NaN\tNaN\n" +
+                    "-1\t-1\n" +
+                    "3\t3\n" +
+                    "9223372036854775807\t2147483647\n");
+            assertSql("y order by i desc", "l\ti\n" +
+                    "9223372036854775807\t2147483647\n" +
+                    "3\t3\n" +
+                    "-1\t-1\n" +
+                    "NaN\tNaN\n");
+        });
+    }
+
     @Test
     public void testOrderByNonUnique() throws Exception {
         final String expected = "a\tc\tk\tn\n" +
@@ -44,6 +44,7 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 
 public class TableBackupTest {
     private static final StringSink sink1 = new StringSink();
@@ -64,6 +65,9 @@ public class TableBackupTest {
     private int renameErrno;
     private int mkdirsErrno;
     private int mkdirsErrnoCountDown = 0;
+    private int hardLinkCount;
+    private boolean nativeHardLink;
+    private long backupCopyThroughput;
 
     @Before
     public void setup() throws IOException {
@@ -71,9 +75,26 @@ public class TableBackupTest {
         finalBackupPath = new Path();
         mkdirsErrno = -1;
         renameErrno = -1;
+        hardLinkCount = 0;
+        nativeHardLink = false;
+        backupCopyThroughput = 0;
         FilesFacade ff = new FilesFacadeImpl() {
             private int nextErrno = -1;
 
+            @Override
+            public int hardLink(LPSZ src, LPSZ hardLink) {
+                if (nativeHardLink) {
+                    return super.hardLink(src, hardLink);
+                }
+                try {
+                    java.nio.file.Files.createLink(Paths.get(hardLink.toString()), Paths.get(src.toString()));
+                    hardLinkCount++;
+                    return 0;
+                } catch (IOException | UnsupportedOperationException e) {
+                    return -1;
+                }
+            }
+
             @Override
             public int errno() {
                 if (nextErrno != -1) {
@@ -118,6 +139,11 @@ public class TableBackupTest {
                 return backupRoot;
             }
 
+            @Override
+            public long getBackupCopyThroughput() {
+                return backupCopyThroughput;
+            }
+
             @Override
             public DateFormat getBackupDirTimestampFormat() {
                 return new TimestampFormatCompiler().compile("ddMMMyyyy");
@@ -308,6 +334,163 @@ public class TableBackupTest {
         });
     }
 
+    @Test
+    public void testIncrementalBackup() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = "testTable1";
+            // @formatter:off
+            mainCompiler.compile("create table " + tableName + " as (select" +
+                    " rnd_symbol(4,4,4,2) sym," +
+                    " rnd_str(3,3,2) s," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(1000)), index(sym) timestamp(ts) partition by DAY", mainSqlExecutionContext);
+            // @formatter:on
+
+            mainCompiler.compile("backup table " + tableName + " incremental", mainSqlExecutionContext);
+            setFinalBackupPath();
+            assertTables(tableName);
+            Assert.assertEquals(0, hardLinkCount);
+            StringSink sink3 = new StringSink();
+            selectAll(tableName, true, sink3);
+
+            // @formatter:off
+            mainCompiler.compile("insert into " + tableName +
+                    " select * from (" +
+                    " select rnd_symbol(4,4,4,2) sym, rnd_str(3,3,2) s, rnd_double(2) d, timestamp_sequence(2000000000000, 500000000) ts from long_sequence(5)" +
+                    ") timestamp(ts)", mainSqlExecutionContext);
+            // @formatter:on
+
+            mainCompiler.compile("backup table " + tableName + " incremental;", mainSqlExecutionContext);
+            setFinalBackupPath(1);
+            assertTables(tableName);
+            // all partitions but the last were linked from the previous backup
+            Assert.assertTrue(hardLinkCount > 0);
+
+            // previous backup is unaffected
+            setFinalBackupPath();
+            selectAll(tableName, true, sink1);
+            TestUtils.assertEquals(sink3, sink1);
+        });
+    }
+
+    @Test
+    public void testIncrementalBackupNativeHardLink() throws Exception {
+        // native library may not support hard links, files are then copied
+        nativeHardLink = true;
+        assertMemoryLeak(() -> {
+            String tableName = "testTable1";
+            // @formatter:off
+            mainCompiler.compile("create table " + tableName + " as (select" +
+                    " rnd_symbol(4,4,4,2) sym," +
+                    " rnd_str(3,3,2) s," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(1000)), index(sym) timestamp(ts) partition by DAY", mainSqlExecutionContext);
+            // @formatter:on
+
+            mainCompiler.compile("backup table " + tableName + " incremental", mainSqlExecutionContext);
+            setFinalBackupPath();
+            assertTables(tableName);
+
+            // @formatter:off
+            mainCompiler.compile("insert into " + tableName +
+                    " select * from (" +
+                    " select rnd_symbol(4,4,4,2) sym, rnd_str(3,3,2) s, rnd_double(2) d, timestamp_sequence(2000000000000, 500000000) ts from long_sequence(5)" +
+                    ") timestamp(ts)", mainSqlExecutionContext);
+            // @formatter:on
+
+            mainCompiler.compile("backup table " + tableName + " incremental;", mainSqlExecutionContext);
+            setFinalBackupPath(1);
+            assertTables(tableName);
+        });
+    }
+
+    @Test
+    public void testIncrementalBackupAfterStructureChange() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = "testTable1";
+            // @formatter:off
+            mainCompiler.compile("create table " + tableName + " as (select" +
+                    " rnd_symbol(4,4,4,2) sym," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(1000)) timestamp(ts) partition by DAY", mainSqlExecutionContext);
+            // @formatter:on
+
+            mainCompiler.compile("backup table " + tableName + " incremental", mainSqlExecutionContext);
+            mainCompiler.compile("alter table " + tableName + " add column i int", mainSqlExecutionContext).execute(null).await(0);
+            mainCompiler.compile("backup table " + tableName + " incremental", mainSqlExecutionContext);
+            Assert.assertEquals(0, hardLinkCount);
+            setFinalBackupPath(1);
+            assertTables(tableName);
+        });
+    }
+
+    @Test
+    public void testIncrementalBackupDatabase() throws Exception {
+        assertMemoryLeak(() -> {
+            // @formatter:off
+            mainCompiler.compile("create table tb1 as (select" +
+                    " rnd_symbol(4,4,4,2) sym," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(10000)) timestamp(ts)", mainSqlExecutionContext);
+            mainCompiler.compile("create table tb2 as (select" +
+                    " rnd_long256() ll," +
+                    " rnd_bin(10, 20, 2) b," +
+                    " timestamp_sequence(10000000000, 500000000) ts" +
+                    " from long_sequence(100000)) timestamp(ts) partition by MONTH", mainSqlExecutionContext);
+            // @formatter:on
+
+            mainCompiler.compile("backup database incremental", mainSqlExecutionContext);
+
+            setFinalBackupPath();
+            assertTables("tb1");
+            assertTables("tb2");
+            assertTabIndex();
+            assertConf();
+        });
+    }
+
+    @Test
+    public void testIncrementalBackupThrottled() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = "testTable1";
+            backupCopyThroughput = 1024 * 1024 * 1024;
+            // @formatter:off
+            mainCompiler.compile("create table " + tableName + " as (select" +
+                    " rnd_symbol(4,4,4,2) sym," +
+                    " rnd_str(3,3,2) s," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(1000)) timestamp(ts) partition by DAY", mainSqlExecutionContext);
+            // @formatter:on
+
+            mainCompiler.compile("backup table " + tableName + " incremental", mainSqlExecutionContext);
+            setFinalBackupPath();
+            assertTables(tableName);
+        });
+    }
+
+    @Test
+    public void testIncrementalInvalidSql() throws Exception {
+        assertMemoryLeak(() -> {
+            mainCompiler.compile("create table tb1 (d double)", mainSqlExecutionContext);
+            try {
+                mainCompiler.compile("backup database tb1", mainSqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "'incremental' expected");
+            }
+            try {
+                mainCompiler.compile("backup table tb1 incremental tb1", mainSqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "unexpected token [tb1]");
+            }
+        });
+    }
+
     @Test
     public void testInvalidSql1() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.WorkerPoolAwareConfiguration;
+import io.questdb.cairo.ColumnUpdateJob;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.questdb.griffin.CompiledQuery.UPDATE;
+
+public class UpdateTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(UpdateTest.class);
+
+    @Test
+    public void testUpdateAcrossPartitionsAndAppend() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+
+            Assert.assertEquals(UPDATE, compiler.compile("update up set x = x * 10, d = 0.5 where s = 'a'", sqlExecutionContext).getType());
+
+            assertSql(
+                    "up",
+                    "ts\tx\td\ts\tstr\n" +
+                            "1970-01-01T00:00:00.000000Z\t10\t0.5\ta\tx1\n" +
+                            "1970-01-01T12:00:00.000000Z\t2\t2.0\tb\tx2\n" +
+                            "1970-01-02T00:00:00.000000Z\t30\t0.5\ta\tx3\n" +
+                            "1970-01-02T12:00:00.000000Z\t4\t4.0\tb\tx4\n" +
+                            "1970-01-03T00:00:00.000000Z\t50\t0.5\ta\tx5\n"
+            );
+
+            // writer must carry on appending to the new version of the last partition
+            executeInsert("insert into up values ('1970-01-03T12:00:00.000000Z', 6, 6.0, 'a', 'x6')");
+            compiler.compile("update up set x = -x where ts > '1970-01-03'", sqlExecutionContext);
+
+            assertSql(
+                    "up where ts >= '1970-01-03'",
+                    "ts\tx\td\ts\tstr\n" +
+                            "1970-01-03T00:00:00.000000Z\t50\t0.5\ta\tx5\n" +
+                            "1970-01-03T12:00:00.000000Z\t-6\t6.0\ta\tx6\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdateColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("alter table up add column l long", sqlExecutionContext);
+            executeInsert("insert into up values ('1970-01-03T12:00:00.000000Z', 6, 6.0, 'a', 'x6', 60)");
+
+            compiler.compile("update up set l = x where ts in '1970-01-03'", sqlExecutionContext);
+
+            assertSql(
+                    "select ts, x, l from up",
+                    "ts\tx\tl\n" +
+                            "1970-01-01T00:00:00.000000Z\t1\tNaN\n" +
+                            "1970-01-01T12:00:00.000000Z\t2\tNaN\n" +
+                            "1970-01-02T00:00:00.000000Z\t3\tNaN\n" +
+                            "1970-01-02T12:00:00.000000Z\t4\tNaN\n" +
+                            "1970-01-03T00:00:00.000000Z\t5\t5\n" +
+                            "1970-01-03T12:00:00.000000Z\t6\t6\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdateWritesColumnVersion() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "up")) {
+                compiler.compile("update up set d = -d where ts in '1970-01-01'", sqlExecutionContext);
+                // only updated column of updated partition gets new version, previous version is kept for the reader
+                Assert.assertEquals("[d.d, d.d.2]", listColumnFiles("1970-01-01", "d.d"));
+                Assert.assertEquals("[x.d]", listColumnFiles("1970-01-01", "x.d"));
+                Assert.assertEquals("[d.d]", listColumnFiles("1970-01-02", "d.d"));
+
+                // out of order row is merged into new version of the column
+                executeInsert("insert into up values ('1970-01-01T18:00:00.000000Z', 7, 7.0, 'a', 'x7')");
+
+                final RecordCursor cursor = reader.getCursor();
+                final int d = reader.getMetadata().getColumnIndex("d");
+                double sum = 0;
+                while (cursor.hasNext()) {
+                    sum += cursor.getRecord().getDouble(d);
+                }
+                Assert.assertEquals(15.0, sum, 0.000001);
+            }
+
+            assertSql(
+                    "up where ts in '1970-01-01'",
+                    "ts\tx\td\ts\tstr\n" +
+                            "1970-01-01T00:00:00.000000Z\t1\t-1.0\ta\tx1\n" +
+                            "1970-01-01T12:00:00.000000Z\t2\t-2.0\tb\tx2\n" +
+                            "1970-01-01T18:00:00.000000Z\t7\t7.0\ta\tx7\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdatePartitionsInParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(new WorkerPoolAwareConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+
+                @Override
+                public boolean isEnabled() {
+                    return true;
+                }
+            });
+            pool.assign(new ColumnUpdateJob(engine.getMessageBus()));
+            pool.start(LOG);
+            try {
+                compile(
+                        "create table up as (" +
+                                "select timestamp_sequence(0, 3600000000L) ts," +
+                                " cast(x as int) x," +
+                                " cast(x as double) d" +
+                                " from long_sequence(240)" +
+                                ") timestamp(ts) partition by DAY",
+                        sqlExecutionContext
+                );
+                compiler.compile("update up set x = x * 2, d = d / 2 where x % 3 = 0", sqlExecutionContext);
+                assertSql(
+                        "select count(), sum(x), sum(d) from up",
+                        "count\tsum\tsum1\n" +
+                                "240\t38640\t24060.0\n"
+                );
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    @Test
+    public void testUpdatePurgesPreviousColumnVersion() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader ignore = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "up")) {
+                compiler.compile("update up set x = x + 1 where ts in '1970-01-02'", sqlExecutionContext);
+                compiler.compile("update up set x = x + 1 where ts in '1970-01-02'", sqlExecutionContext);
+                Assert.assertEquals("[x.d, x.d.2, x.d.3]", listColumnFiles("1970-01-02", "x.d"));
+            }
+            engine.releaseAllReaders();
+
+            // versions are purged by the writer once no reader can use them
+            executeInsert("insert into up values ('1970-01-03T12:00:00.000000Z', 6, 6.0, 'a', 'x6')");
+            Assert.assertEquals("[x.d.3]", listColumnFiles("1970-01-02", "x.d"));
+
+            compile("alter table up rename column x to y", sqlExecutionContext);
+            Assert.assertEquals("[y.d.3]", listColumnFiles("1970-01-02", "y.d"));
+            assertSql("select sum(y) from up", "sum\n25\n");
+
+            compile("alter table up drop column y", sqlExecutionContext);
+            Assert.assertEquals("[]", listColumnFiles("1970-01-02", "y.d"));
+            compile("alter table up add column y int", sqlExecutionContext);
+            assertSql("select sum(y) from up", "sum\nNaN\n");
+        });
+    }
+
+    @Test
+    public void testUpdateAfterUpdateAndAppend() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compiler.compile("update up set x = x * 10 where s = 'b'", sqlExecutionContext);
+            executeInsert("insert into up values ('1970-01-03T12:00:00.000000Z', 6, 6.0, 'b', 'x6')");
+            compiler.compile("update up set x = x + 1 where ts > '1970-01-02'", sqlExecutionContext);
+
+            assertSql(
+                    "up",
+                    "ts\tx\td\ts\tstr\n" +
+                            "1970-01-01T00:00:00.000000Z\t1\t1.0\ta\tx1\n" +
+                            "1970-01-01T12:00:00.000000Z\t20\t2.0\tb\tx2\n" +
+                            "1970-01-02T00:00:00.000000Z\t3\t3.0\ta\tx3\n" +
+                            "1970-01-02T12:00:00.000000Z\t41\t4.0\tb\tx4\n" +
+                            "1970-01-03T00:00:00.000000Z\t6\t5.0\ta\tx5\n" +
+                            "1970-01-03T12:00:00.000000Z\t7\t6.0\tb\tx6\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdateErrors() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("create table np (x int, ts timestamp) timestamp(ts)", sqlExecutionContext);
+            compile("alter table up add column k symbol index", sqlExecutionContext);
+
+            assertFailure("update up set str = 'a'", 14, "variable length column cannot be updated");
+            assertFailure("update up set k = 'a'", 14, "indexed column cannot be updated");
+            assertFailure("update up set ts = now()", 14, "designated timestamp column cannot be updated");
+            assertFailure("update up set y = 1", 14, "Invalid column: y");
+            assertFailure("update up set x = 1, x = 2", 21, "duplicate column");
+            assertFailure("update up set x = 'abc'", 18, "inconvertible types");
+            assertFailure("update up set x = 1 where zz > 0", 26, "Invalid column: zz");
+            assertFailure("update up set x = ", 18, "expression expected");
+            assertFailure("update up x = 1", 10, "'set' expected");
+            assertFailure("update np set x = 1", 7, "partitioned tables only");
+
+            assertSql("select sum(x) from up", "sum\n15\n");
+        });
+    }
+
+    @Test
+    public void testUpdateKeepsReaderSnapshot() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "up")) {
+                compiler.compile("update up set d = d + 100", sqlExecutionContext);
+
+                // reader that has not been reloaded still sees previous partition versions
+                final RecordCursor cursor = reader.getCursor();
+                final int d = reader.getMetadata().getColumnIndex("d");
+                double sum = 0;
+                while (cursor.hasNext()) {
+                    sum += cursor.getRecord().getDouble(d);
+                }
+                Assert.assertEquals(15.0, sum, 0.000001);
+            }
+            assertSql("select sum(d) from up", "sum\n515.0\n");
+
+            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "up", "test")) {
+                Assert.assertEquals(5, writer.size());
+            }
+        });
+    }
+
+    private void assertFailure(String sql, int position, String message) {
+        try {
+            compiler.compile(sql, sqlExecutionContext);
+            Assert.fail();
+        } catch (SqlException e) {
+            Assert.assertEquals(position, e.getPosition());
+            TestUtils.assertContains(e.getFlyweightMessage(), message);
+        }
+    }
+
+    private static String listColumnFiles(String partition, String prefix) throws IOException {
+        try (Stream<java.nio.file.Path> files = java.nio.file.Files.list(Paths.get(configuration.getRoot().toString(), "up", partition))) {
+            return files.map(f -> f.getFileName().toString()).filter(f -> f.startsWith(prefix)).sorted().collect(Collectors.toList()).toString();
+        }
+    }
+
+    private void createTable() throws SqlException {
+        compile(
+                "create table up as (" +
+                        "select timestamp_sequence(0, 12 * 3600000000L) ts," +
+                        " cast(x as int) x," +
+                        " cast(x as double) d," +
+                        " cast(case when x % 2 = 0 then 'b' else 'a' end as symbol) s," +
+                        " concat('x', x) str" +
+                        " from long_sequence(5)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+}
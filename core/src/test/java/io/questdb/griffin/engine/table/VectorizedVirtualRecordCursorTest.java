@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VectorizedVirtualRecordCursorTest extends AbstractGriffinTest {
+
+    @Test
+    public void testColumnTopsAndNulls() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (a long, b int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into x values (1, 2, '1970-01-01T00:00:00.000000Z')");
+            executeInsert("insert into x values (null, 3, '1970-01-01T01:00:00.000000Z')");
+            compile("alter table x add column l long", sqlExecutionContext);
+            executeInsert("insert into x values (4, 0, '1970-01-02T00:00:00.000000Z', 10)");
+            executeInsert("insert into x values (5, null, '1970-01-02T01:00:00.000000Z', null)");
+
+            final String query = "select a, b, a + b sum, a / b div, a * cast(b as double) product, cast(a as double) / b ratio, l * 2 l2 from x";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    Assert.assertTrue(cursor instanceof VectorizedVirtualRecordCursor);
+                }
+            }
+            assertSql(
+                    query,
+                    "a\tb\tsum\tdiv\tproduct\tratio\tl2\n" +
+                            "1\t2\t3\t0\t2.0\t0.5\tNaN\n" +
+                            "NaN\t3\tNaN\tNaN\tNaN\tNaN\tNaN\n" +
+                            "4\t0\t4\tNaN\t0.0\tInfinity\t20\n" +
+                            "5\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\n"
+            );
+        });
+    }
+
+    @Test
+    public void testMatchesRowByRow() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertMatchesRowByRow(
+                    "select a + b, a - b, a * b, a / b, a + i, i * 2, cast(i as double) + d, cast(i as long) - 1," +
+                            " d + f, d - a, d * 2.5, d / b, 10 - a, ts - a, l * 3, a from x"
+            );
+        });
+    }
+
+    @Test
+    public void testMatchesRowByRowWithRandomAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertMatchesRowByRow("select a * 10 + l v, d / 3 w, ts from x order by v, w, ts");
+        });
+    }
+
+    private void assertMatchesRowByRow(String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        projectionBatchSize = 0;
+        TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+        projectionBatchSize = 7;
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private void createTable() throws SqlException {
+        compile(
+                "create table x as (" +
+                        "select rnd_long(-5, 5, 2) a," +
+                        " rnd_long(-3, 3, 2) b," +
+                        " rnd_int(-5, 5, 2) i," +
+                        " rnd_double(2) d," +
+                        " rnd_float(2) f," +
+                        " timestamp_sequence(0, 3600000000) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+        compile("alter table x add column l long", sqlExecutionContext);
+        compile(
+                "insert into x select rnd_long(-5, 5, 2), rnd_long(-3, 3, 2), rnd_int(-5, 5, 2), rnd_double(2), rnd_float(2)," +
+                        " timestamp_sequence(360000000000, 3600000000), rnd_long(-5, 5, 2) from long_sequence(50)",
+                sqlExecutionContext
+        );
+    }
+}
@@ -293,6 +293,100 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         Assert.assertEquals(UNKNOWN_SYMBOL, bindVarFunctions.get(0).getStr(null));
     }
 
+    @Test
+    public void testAbsComparison() throws Exception {
+        serialize("abs(anint) > 1 and 2 > abs(along)");
+        assertIR("(i64 2L)(i64 along)(<)(i64 2L)(i64 along)(neg)(<)(&&)(i32 1L)(i32 anint)(>)(i32 1L)(i32 anint)(neg)(>)(||)(&&)(ret)");
+    }
+
+    @Test
+    public void testAbsEquality() throws Exception {
+        serialize("abs(adouble) = -1.5");
+        assertIR("(f64 -1.5D)(f64 adouble)(>=)(f64 -1.5D)(f64 adouble)(neg)(>=)(||)" +
+                "(f64 -1.5D)(f64 adouble)(<=)(f64 -1.5D)(f64 adouble)(neg)(<=)(&&)(&&)(ret)");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedAbsInequality() throws Exception {
+        serialize("abs(anint) != 1");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedAbsExpression() throws Exception {
+        serialize("abs(anint + 1) > 1");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedAbsNull() throws Exception {
+        serialize("abs(anint) = null");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedAbsColumnValue() throws Exception {
+        serialize("abs(anint) = anint");
+    }
+
+    @Test
+    public void testCoalesceComparison() throws Exception {
+        serialize("coalesce(anint, 0) > 5 and 5 <= coalesce(along, 10)");
+        assertIR("(i64 " + Numbers.LONG_NaN + "L)(i64 along)(=)(i64 5L)(i64 along)(>=)(||)" +
+                "(i32 " + Numbers.INT_NaN + "L)(i32 anint)(<>)(i32 5L)(i32 anint)(>)(&&)(&&)(ret)");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedCoalesceNullDefault() throws Exception {
+        serialize("coalesce(anint, null) > 5");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedCoalesceInexactFloatDefault() throws Exception {
+        serialize("coalesce(afloat, 0.1) > 5");
+    }
+
+    @Test
+    public void testTimestampFloorComparison() throws Exception {
+        serialize("timestamp_floor('h', atimestamp) = 7200000000 or '1970-01-01T01:30' < timestamp_floor('h', atimestamp)");
+        assertIR("(i64 7200000000L)(i64 atimestamp)(>=)(i64 7200000000L)(i64 atimestamp)(>=)(i64 10800000000L)(i64 atimestamp)(<)(&&)(||)(ret)");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedTimestampFloorNonPositive() throws Exception {
+        serialize("timestamp_floor('d', atimestamp) > 0");
+    }
+
+    @Test
+    public void testInList() throws Exception {
+        serialize("anint in (1, -2, null)");
+        assertIR("(i32 1L)(i32 anint)(=)(i32 -2L)(i32 anint)(=)(||)(i32 " + Numbers.INT_NaN + "L)(i32 anint)(=)(||)(ret)");
+    }
+
+    @Test
+    public void testInListSingleValue() throws Exception {
+        serialize("along in (42) and not adouble in (1.5, 2.5)");
+        assertIR("(f64 1.5D)(f64 adouble)(=)(f64 2.5D)(f64 adouble)(=)(||)(!)(i64 42L)(i64 along)(=)(&&)(ret)");
+    }
+
+    @Test
+    public void testInListSymbols() throws Exception {
+        serialize("asymbol in ('" + KNOWN_SYMBOL_1 + "', '" + UNKNOWN_SYMBOL + "')");
+        assertIR("(i32 0L)(i32 asymbol)(=)(i32 :0)(i32 asymbol)(=)(||)(ret)");
+        Assert.assertEquals(1, bindVarFunctions.size());
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListExpression() throws Exception {
+        serialize("anint in (1, anint + 1)");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListTooLong() throws Exception {
+        StringBuilder sb = new StringBuilder("anint in (0");
+        for (int i = 1; i <= CompiledFilterIRSerializer.MAX_IN_LIST_SIZE; i++) {
+            sb.append(", ").append(i);
+        }
+        serialize(sb.append(')'));
+    }
+
     @Test
     public void testNegatedColumn() throws Exception {
         serialize("-ashort > 0");
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LongIndexSortTest {
+
+    private static final Rnd rnd = new Rnd();
+
+    @Before
+    public void setUp() {
+        rnd.reset();
+    }
+
+    @Test
+    public void testCountRuns() {
+        final int count = 100;
+        final long index = Unsafe.malloc(count * LongIndexSort.ENTRY_SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < count; i++) {
+                putEntry(index, i, i % 25, i);
+            }
+            Assert.assertEquals(0, LongIndexSort.countRuns(index, 0, 0, 10));
+            Assert.assertEquals(1, LongIndexSort.countRuns(index, 0, 25, 10));
+            Assert.assertEquals(4, LongIndexSort.countRuns(index, 0, count, 10));
+            Assert.assertEquals(3, LongIndexSort.countRuns(index, 0, count, 2));
+        } finally {
+            Unsafe.free(index, count * LongIndexSort.ENTRY_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        final int count = 1000;
+        final long size = count * LongIndexSort.ENTRY_SIZE;
+        final long index = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        final long cpy = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < 400; i++) {
+                putEntry(index, i, i * 2, i);
+            }
+            for (int i = 400; i < count; i++) {
+                putEntry(index, i, (i - 400) * 3, i);
+            }
+            LongIndexSort.merge(index, 0, 400, count, cpy);
+            assertSortedStable(index, count);
+        } finally {
+            Unsafe.free(index, size, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(cpy, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testSortFewRuns() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            // interleaved days of data, each day in order
+            final int count = 1_000_000;
+            final int runs = 7;
+            final long size = count * LongIndexSort.ENTRY_SIZE;
+            final long index = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            final long cpy = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            try {
+                final int runSize = count / runs + 1;
+                for (int i = 0; i < count; i++) {
+                    final int run = i / runSize;
+                    putEntry(index, i, ((runs - run) * runSize + i % runSize) / 3, i);
+                }
+                LongIndexSort.sort(index, count, cpy);
+                assertSortedStable(index, count);
+            } finally {
+                Unsafe.free(index, size, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(cpy, size, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testSortInOrder() {
+        final int count = 1000;
+        final long size = count * LongIndexSort.ENTRY_SIZE;
+        final long index = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < count; i++) {
+                putEntry(index, i, i / 10, i);
+            }
+            // scratch memory is not touched
+            LongIndexSort.sort(index, count, 0);
+            assertSortedStable(index, count);
+        } finally {
+            Unsafe.free(index, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testSortRandom() {
+        final int count = 100_000;
+        final long size = count * LongIndexSort.ENTRY_SIZE;
+        final long index = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        final long cpy = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < count; i++) {
+                putEntry(index, i, rnd.nextPositiveInt() % 5000, i);
+            }
+            LongIndexSort.sort(index, count, cpy);
+            assertSortedStable(index, count);
+        } finally {
+            Unsafe.free(index, size, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(cpy, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static void assertSortedStable(long index, long count) {
+        long prevKey = Unsafe.getUnsafe().getLong(index);
+        long prevValue = Unsafe.getUnsafe().getLong(index + Long.BYTES);
+        for (long i = 1; i < count; i++) {
+            final long key = Unsafe.getUnsafe().getLong(index + i * LongIndexSort.ENTRY_SIZE);
+            final long value = Unsafe.getUnsafe().getLong(index + i * LongIndexSort.ENTRY_SIZE + Long.BYTES);
+            Assert.assertTrue(key >= prevKey);
+            if (key == prevKey) {
+                Assert.assertTrue(value > prevValue);
+            }
+            prevKey = key;
+            prevValue = value;
+        }
+    }
+
+    private static void putEntry(long index, long i, long key, long value) {
+        Unsafe.getUnsafe().putLong(index + i * LongIndexSort.ENTRY_SIZE, key);
+        Unsafe.getUnsafe().putLong(index + i * LongIndexSort.ENTRY_SIZE + Long.BYTES, value);
+    }
+}
@@ -38,6 +38,95 @@ public class VectTest {
         rnd.reset();
     }
 
+    @Test
+    public void testDedupMergeIndex() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            // partition rows: (1, 10), (2, 20), (2, 30), (3, 40)
+            // O3 rows: (2, 30), (2, 50), (4, 60)
+            final long data = Unsafe.malloc(4 * 12, MemoryTag.NATIVE_DEFAULT);
+            final long o3 = Unsafe.malloc(3 * 4, MemoryTag.NATIVE_DEFAULT);
+            final long o3Index = Unsafe.malloc(3 * 16, MemoryTag.NATIVE_DEFAULT);
+            final long keys = Unsafe.malloc(Vect.DEDUP_KEY_SIZE * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            final long dst = Unsafe.malloc(7 * 16, MemoryTag.NATIVE_DEFAULT);
+            try {
+                final long dataKeys = data + 4 * Long.BYTES;
+                final long[] dataTimestamps = {1, 2, 2, 3};
+                final int[] dataValues = {10, 20, 30, 40};
+                for (int i = 0; i < 4; i++) {
+                    Unsafe.getUnsafe().putLong(data + i * Long.BYTES, dataTimestamps[i]);
+                    Unsafe.getUnsafe().putInt(dataKeys + i * Integer.BYTES, dataValues[i]);
+                }
+                final long[] o3Timestamps = {2, 2, 4};
+                final int[] o3Values = {30, 50, 60};
+                for (int i = 0; i < 3; i++) {
+                    Unsafe.getUnsafe().putLong(o3Index + i * 16, o3Timestamps[i]);
+                    Unsafe.getUnsafe().putLong(o3Index + i * 16 + Long.BYTES, i);
+                    Unsafe.getUnsafe().putInt(o3 + i * Integer.BYTES, o3Values[i]);
+                }
+                putDedupKey(keys, Integer.BYTES, 0, dataKeys, o3);
+
+                Assert.assertEquals(6, Vect.dedupMergeIndex(data, 4, o3Index, 0, 2, keys, 1, dst));
+                final long[] expected = {
+                        1, Long.MIN_VALUE,
+                        2, 1 | Long.MIN_VALUE,
+                        2, 0,
+                        2, 1,
+                        3, 3 | Long.MIN_VALUE,
+                        4, 2
+                };
+                for (int i = 0; i < expected.length; i++) {
+                    Assert.assertEquals(expected[i], Unsafe.getUnsafe().getLong(dst + (long) i * Long.BYTES));
+                }
+            } finally {
+                Unsafe.free(data, 4 * 12, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(o3, 3 * 4, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(o3Index, 3 * 16, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(keys, Vect.DEDUP_KEY_SIZE * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(dst, 7 * 16, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testDedupMergeIndexDoubleKeys() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            // long run of equal timestamps, every other partition row is replaced,
+            // -0.0 replaces 0.0 and NaN replaces NaN
+            final int dataCount = 100;
+            final int o3Count = 50;
+            final long data = Unsafe.malloc(dataCount * 16L, MemoryTag.NATIVE_DEFAULT);
+            final long o3 = Unsafe.malloc(o3Count * 8L, MemoryTag.NATIVE_DEFAULT);
+            final long o3Index = Unsafe.malloc(o3Count * 16L, MemoryTag.NATIVE_DEFAULT);
+            final long keys = Unsafe.malloc(Vect.DEDUP_KEY_SIZE * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            final long dst = Unsafe.malloc((dataCount + o3Count) * 16L, MemoryTag.NATIVE_DEFAULT);
+            try {
+                final long dataKeys = data + dataCount * 8L;
+                for (int i = 0; i < dataCount; i++) {
+                    Unsafe.getUnsafe().putLong(data + i * 8L, 100);
+                    Unsafe.getUnsafe().putDouble(dataKeys + i * 8L, i == 0 ? 0.0 : i == 2 ? Double.NaN : i);
+                }
+                for (int i = 0; i < o3Count; i++) {
+                    Unsafe.getUnsafe().putLong(o3Index + i * 16L, 100);
+                    Unsafe.getUnsafe().putLong(o3Index + i * 16L + Long.BYTES, i);
+                    Unsafe.getUnsafe().putDouble(o3 + i * 8L, i == 0 ? -0.0 : i == 1 ? Double.NaN : 2 * i);
+                }
+                putDedupKey(keys, Double.BYTES, Vect.DEDUP_KEY_DOUBLE, dataKeys, o3);
+
+                Assert.assertEquals(100, Vect.dedupMergeIndex(data, dataCount, o3Index, 0, o3Count - 1, keys, 1, dst));
+                for (int i = 0; i < o3Count; i++) {
+                    Assert.assertEquals((2L * i + 1) | Long.MIN_VALUE, Unsafe.getUnsafe().getLong(dst + i * 16L + Long.BYTES));
+                    Assert.assertEquals(i, Unsafe.getUnsafe().getLong(dst + (o3Count + i) * 16L + Long.BYTES));
+                }
+            } finally {
+                Unsafe.free(data, dataCount * 16L, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(o3, o3Count * 8L, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(o3Index, o3Count * 16L, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(keys, Vect.DEDUP_KEY_SIZE * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(dst, (dataCount + o3Count) * 16L, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
     @Test
     public void testMergeFourSameSize() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -415,6 +504,13 @@ public class VectTest {
         }
     }
 
+    private static void putDedupKey(long keys, long size, long floatKind, long dataAddr, long o3Addr) {
+        Unsafe.getUnsafe().putLong(keys, size);
+        Unsafe.getUnsafe().putLong(keys + Long.BYTES, floatKind);
+        Unsafe.getUnsafe().putLong(keys + 2 * Long.BYTES, dataAddr);
+        Unsafe.getUnsafe().putLong(keys + 3 * Long.BYTES, o3Addr);
+    }
+
     private void assertIndexAsc(int count, long indexAddr) {
         long v = Unsafe.getUnsafe().getLong(indexAddr);
         for (int i = 1; i < count; i++) {
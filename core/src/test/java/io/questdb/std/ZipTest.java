@@ -27,6 +27,7 @@ package io.questdb.std;
 import io.questdb.std.ex.FatalError;
 import io.questdb.std.str.Path;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -43,15 +44,29 @@ public class ZipTest {
 
     @Test
     public void testGzip() throws Exception {
+        assertGzip(Zip.deflateInit(), "/zip-test/large.csv");
+    }
+
+    @Test
+    public void testGzipBestCompression() throws Exception {
+        assertGzip(Zip.deflateInit(Zip.Z_BEST_COMPRESSION), "/csv/test-export-expected.csv");
+    }
+
+    @Test
+    public void testGzipBestSpeed() throws Exception {
+        assertGzip(Zip.deflateInit(Zip.Z_BEST_SPEED), "/csv/test-export-expected.csv");
+    }
+
+    private void assertGzip(long strm, String resource) throws Exception {
+        Assert.assertTrue(strm > 0);
         try (Path path = new Path()) {
             File outFile = temp.newFile("x");
-            File expected = new File(ZipTest.class.getResource("/zip-test/large.csv").getFile());
+            File expected = new File(ZipTest.class.getResource(resource).getFile());
 
             final int available = 64 * 1024;
             long in = Unsafe.malloc(available, MemoryTag.NATIVE_DEFAULT);
             long out = Unsafe.malloc(available / 2, MemoryTag.NATIVE_DEFAULT);
             try {
-                long strm = Zip.deflateInit();
                 try {
 
                     long pIn = 0;